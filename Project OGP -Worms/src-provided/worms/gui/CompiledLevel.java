@@ -0,0 +1,136 @@
+package worms.gui;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import worms.model.World.PackedTerrain;
+
+/**
+ * A level compiled to a binary file: a fixed header followed by the passable
+ * mask of the level, bit-packed exactly as a PackedTerrain stores it.
+ *
+ * The header holds, as little-endian values: the magic number, the format
+ * version, the amount of columns and rows, the scale in worm-meter per pixel,
+ * the modification stamp of the sources it was compiled from and a word of
+ * flags for optional sections (none are defined yet). The mask starts right
+ * after the header, on a long boundary, and is read straight from a memory
+ * mapping of the file.
+ */
+public class CompiledLevel {
+
+	public static final String COMPILED_FILE_EXTENSION = ".lvlc";
+
+	private static final int MAGIC = 0x43564c57; // "WLVC"
+	private static final int VERSION = 1;
+	private static final int HEADER_SIZE = 40;
+
+	private final int columns;
+	private final int rows;
+	private final double scale;
+	private final LongBuffer mask;
+
+	private CompiledLevel(int columns, int rows, double scale, LongBuffer mask) {
+		this.columns = columns;
+		this.rows = rows;
+		this.scale = scale;
+		this.mask = mask;
+	}
+
+	/**
+	 * Map the given compiled file, if it exists and was compiled from sources
+	 * with the given modification stamp.
+	 *
+	 * @return The compiled level, or null if the file is missing, stale or not
+	 *         a compiled level of this version.
+	 */
+	public static CompiledLevel open(File file, long sourceStamp)
+			throws IOException {
+		if (!file.isFile() || file.length() < HEADER_SIZE) {
+			return null;
+		}
+		RandomAccessFile input = new RandomAccessFile(file, "r");
+		try {
+			FileChannel channel = input.getChannel();
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY,
+					0, channel.size());
+			buffer.order(ByteOrder.LITTLE_ENDIAN);
+			if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION
+					|| buffer.getLong(24) != sourceStamp) {
+				return null;
+			}
+			int columns = buffer.getInt(8);
+			int rows = buffer.getInt(12);
+			long words = (long) rows * PackedTerrain.getWordsPerRow(columns);
+			if (columns <= 0 || rows <= 0
+					|| channel.size() != HEADER_SIZE + 8 * words) {
+				return null;
+			}
+			buffer.position(HEADER_SIZE);
+			// The mapping stays valid after the channel has been closed.
+			return new CompiledLevel(columns, rows, buffer.getDouble(16),
+					buffer.slice().order(ByteOrder.LITTLE_ENDIAN)
+							.asLongBuffer());
+		} finally {
+			input.close();
+		}
+	}
+
+	/**
+	 * Write the given terrain and scale to the given file, stamped with the
+	 * given modification stamp of their sources.
+	 */
+	public static void write(File file, PackedTerrain terrain, double scale,
+			long sourceStamp) throws IOException {
+		int words = terrain.getAmountOfRows() * terrain.getWordsPerRow();
+		ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + 8 * words)
+				.order(ByteOrder.LITTLE_ENDIAN);
+		buffer.putInt(MAGIC).putInt(VERSION);
+		buffer.putInt(terrain.getAmountOfColumns()).putInt(
+				terrain.getAmountOfRows());
+		buffer.putDouble(scale).putLong(sourceStamp);
+		buffer.putInt(0).putInt(0);
+		for (int row = 0; row < terrain.getAmountOfRows(); row++) {
+			for (int index = 0; index < terrain.getWordsPerRow(); index++) {
+				buffer.putLong(terrain.getWord(row, index));
+			}
+		}
+		DataOutputStream output = new DataOutputStream(new FileOutputStream(
+				file));
+		try {
+			output.write(buffer.array());
+		} finally {
+			output.close();
+		}
+	}
+
+	public int getColumns() {
+		return columns;
+	}
+
+	public int getRows() {
+		return rows;
+	}
+
+	public double getScale() {
+		return scale;
+	}
+
+	/**
+	 * A new terrain holding a copy of the mask of this level, so that editing
+	 * the terrain leaves the mapped file untouched.
+	 */
+	public PackedTerrain getTerrain() {
+		long[] words = new long[mask.capacity()];
+		mask.duplicate().get(words);
+		return new PackedTerrain(columns, rows, words);
+	}
+
+}
@@ -53,6 +53,30 @@ public final class GUIConstants {
 	 */
 	public static final double JUMP_TIME_STEP = 1e-4;
 
+	/**
+	 * Amount of rows of a map image extracted as a single parallel task
+	 */
+	public static final int EXTRACTION_BAND_ROWS = 64;
+
+	/**
+	 * Amount of pixels above which a map image is decoded in strips, unless
+	 * the system property worms.streaminglevels says otherwise
+	 */
+	public static final long STREAMING_PIXEL_LIMIT = 1L << 25;
+
+	/**
+	 * Largest size of the thumbnails of levels in the level chooser, in
+	 * pixels
+	 */
+	public static final int THUMBNAIL_WIDTH = 240;
+	public static final int THUMBNAIL_HEIGHT = 160;
+
+	/**
+	 * Time the levels directory has to be quiet before changed levels are
+	 * reloaded, in (real) milliseconds
+	 */
+	public static final long LEVEL_RELOAD_DELAY = 250;
+
 	/* disable instantiations */
 	private GUIConstants() {
 	}
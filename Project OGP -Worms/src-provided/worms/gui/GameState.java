@@ -7,6 +7,9 @@ import java.util.Random;
 import worms.gui.game.commands.Command;
 import worms.gui.game.commands.CommandProcessor;
 import worms.model.IFacade;
+import worms.model.ModelException;
+import worms.model.World.TerrainDetailPyramid;
+import worms.model.World.TerrainSnapshot;
 import worms.model.World.World;
 import worms.model.worm.Worm;
 
@@ -17,8 +20,14 @@ public class GameState {
 	private final CommandProcessor commandProcessor = new CommandProcessor();
 
 	private World world;
+	private TerrainDetailPyramid detailPyramid;
 
-	private final Level level;
+	private Level level;
+	private LevelCache.Entry entry;
+	private volatile LevelCache.Entry reloadedEntry;
+
+	private static final LevelCache levelCache = new LevelCache(
+			LevelCache.getConfiguredBudget());
 
 	public GameState(IFacade facade, long randomSeed, Level level) {
 		this.random = new Random(randomSeed);
@@ -26,10 +35,76 @@ public class GameState {
 		this.level = level;
 	}
 
+	/**
+	 * Create the world of this game from the level cache, which only loads
+	 * the level if no earlier game of this instance has used it.
+	 */
 	public void createWorld() {
-		level.load();
+		createWorld(levelCache.get(level));
+	}
+
+	/**
+	 * Create the world of this game from the given loaded level, as handed
+	 * over by a level preloader.
+	 */
+	public void createWorld(LevelCache.Entry entry) {
+		this.entry = entry;
+		level = entry.getLevel();
+		TerrainSnapshot snapshot = entry.copySnapshot();
 		world = facade.createWorld(level.getWorldWidth(),
-				level.getWorldHeight(), level.getPassableMap(), random);
+				level.getWorldHeight(), snapshot, random);
+		detailPyramid = snapshot.getDetailPyramid();
+	}
+
+	/**
+	 * Remember the given rebuilt level, if it is the level of this game, so
+	 * that its terrain can be swapped in at the next turn boundary.
+	 */
+	public void levelReloaded(LevelCache.Entry reloaded) {
+		if (entry != null
+				&& reloaded.getLevel().getFile().equals(level.getFile())) {
+			reloadedEntry = reloaded;
+		}
+	}
+
+	/**
+	 * Swap in the terrain of the level rebuilt since the last turn, if any:
+	 * every pixel that differs between the old and the new map takes its
+	 * new passability, while the craters elsewhere are kept. A map whose
+	 * size or scale has changed only takes effect in the next game.
+	 * 
+	 * @return whether the level of this game has changed
+	 */
+	public boolean applyReloadedLevel() {
+		LevelCache.Entry reloaded = reloadedEntry;
+		reloadedEntry = null;
+		if (reloaded == null || reloaded == entry) {
+			return false;
+		}
+		Level newLevel = reloaded.getLevel();
+		if (newLevel.getWorldWidth() != level.getWorldWidth()
+				|| newLevel.getWorldHeight() != level.getWorldHeight()
+				|| newLevel.getMapWidth() != level.getMapWidth()
+				|| newLevel.getMapHeight() != level.getMapHeight()) {
+			return false;
+		}
+		try {
+			facade.applyTerrainChanges(world, entry.getSnapshot(),
+					reloaded.getSnapshot());
+		} catch (ModelException e) {
+			e.printStackTrace();
+			return false;
+		}
+		entry = reloaded;
+		level = newLevel;
+		return true;
+	}
+
+	/**
+	 * The cache of loaded levels shared by every game of this instance.
+	 */
+	public static LevelCache getLevelCache() {
+		return levelCache;
 	}
 
 	public IFacade getFacade() {
@@ -40,7 +115,12 @@ public class GameState {
 		return getFacade().getWorms(world);
 	}
 
+	/**
+	 * Advance the simulation of the world by the given real time, and then
+	 * the commands, which show the state of the simulation.
+	 */
 	public void evolve(double timeDelta) {
+		facade.step(world, timeDelta);
 		commandProcessor.advanceCommandQueue(timeDelta);
 	}
 
@@ -56,6 +136,15 @@ public class GameState {
 		return world;
 	}
 
+	/**
+	 * The level-of-detail pyramid of the terrain of the world of this game,
+	 * which the world keeps up to date with its craters, or null if the world
+	 * has not been created yet.
+	 */
+	public TerrainDetailPyramid getDetailPyramid() {
+		return detailPyramid;
+	}
+
 	public List<Command> getEnqueuedCommands() {
 		return commandProcessor.getCommandStack();
 	}
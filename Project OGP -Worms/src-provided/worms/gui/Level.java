@@ -1,7 +1,8 @@
 package worms.gui;
 
+import java.awt.Dimension;
 import java.awt.image.BufferedImage;
-import java.awt.image.DataBufferByte;
+import java.awt.image.DataBuffer;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
@@ -11,6 +12,12 @@ import java.util.Arrays;
 
 import javax.imageio.ImageIO;
 
+import worms.model.World.MaskPacker;
+import worms.model.World.PackedTerrain;
+import worms.model.World.PixelMapping;
+import worms.model.World.Terrain;
+import worms.model.World.TerrainDetailPyramid;
+
 public class Level {
 
 	private static final String LEVEL_FILE_EXTENSION = ".lvl";
@@ -35,8 +42,15 @@ public class Level {
 		return levels;
 	}
 
+	public static File getLevelsDirectory() {
+		return new File(LEVELS_DIRECTORY);
+	}
+
 	private static File[] getLevelFiles() {
-		File levelsDir = new File(LEVELS_DIRECTORY);
+		return getLevelFiles(getLevelsDirectory());
+	}
+
+	static File[] getLevelFiles(File levelsDir) {
 		if (!levelsDir.exists() || !levelsDir.isDirectory()) {
 			throw new RuntimeException("levels directory not found");
 		}
@@ -52,14 +66,24 @@ public class Level {
 	}
 
 	private final File file;
+	private File mapFile;
 	private BufferedImage mapImage;
+	private CompiledLevel compiled;
+	private PackedTerrain streamedTerrain;
+	private BufferedImage displayImage;
 
+	private int mapWidth;
+	private int mapHeight;
 	private double scale;
 
 	public Level(File file) {
 		this.file = file;
 	}
 
+	public File getFile() {
+		return file;
+	}
+
 	public String getName() {
 		return file.getName().substring(0, file.getName().length() - 4);
 	}
@@ -75,16 +99,119 @@ public class Level {
 		}
 	}
 
+	/**
+	 * Read only the header of the level file, which names its map image,
+	 * without decoding that image.
+	 */
+	public void loadHeader() {
+		try {
+			BufferedReader reader = new BufferedReader(new FileReader(file));
+			try {
+				this.mapFile = new File(file.getParentFile(), readAsKeyVal(
+						reader, "map"));
+			} finally {
+				reader.close();
+			}
+		} catch (Exception e) {
+			throw new LoadException("Could not load header of level "
+					+ file.getAbsolutePath(), e);
+		}
+	}
+
+	public File getMapFile() {
+		return mapFile;
+	}
+
 	protected void readFile(BufferedReader reader) throws IOException {
-		this.mapImage = ImageIO.read(new File(file.getParentFile(),
-				readAsKeyVal(reader, "map")));
+		this.mapFile = new File(file.getParentFile(), readAsKeyVal(reader,
+				"map"));
+		this.mapImage = null;
+		this.streamedTerrain = null;
+		this.displayImage = null;
+		this.compiled = isCompiledLoadingEnabled() ? CompiledLevel.open(
+				getCompiledFile(), getSourceStamp()) : null;
+		if (compiled != null) {
+			// The image is only decoded when it is painted.
+			this.mapWidth = compiled.getColumns();
+			this.mapHeight = compiled.getRows();
+			this.scale = compiled.getScale();
+			return;
+		}
+		StripDecoder decoder = new StripDecoder(mapFile);
+		Dimension size = decoder.getSize();
+		this.mapWidth = size.width;
+		this.mapHeight = size.height;
+		if (isStreamingEnabled(size)) {
+			// The full image is never decoded; only the display image is.
+			this.streamedTerrain = decoder.decodeTerrain(MaskPacker
+					.getDefault());
+		} else {
+			this.mapImage = ImageIO.read(mapFile);
+		}
 		try {
 			double height = Double.parseDouble(readAsKeyVal(reader, "height"));
-			this.scale = height / mapImage.getHeight();
+			this.scale = height / mapHeight;
 		} catch (IllegalArgumentException e) {
 			double width = Double.parseDouble(readAsKeyVal(reader, "width"));
-			this.scale = width / mapImage.getWidth();
+			this.scale = width / mapWidth;
+		}
+	}
+
+	/**
+	 * Map images are decoded in strips if the system property
+	 * worms.streaminglevels is true, or if it is not set and the image has
+	 * more than GUIConstants.STREAMING_PIXEL_LIMIT pixels.
+	 */
+	private static boolean isStreamingEnabled(Dimension size) {
+		String streaming = System.getProperty("worms.streaminglevels");
+		if (streaming != null) {
+			return "true".equalsIgnoreCase(streaming);
 		}
+		return (long) size.width * size.height > GUIConstants.STREAMING_PIXEL_LIMIT;
+	}
+
+	/**
+	 * Compiled levels are used unless the system property
+	 * worms.compiledlevels is set to false.
+	 */
+	private static boolean isCompiledLoadingEnabled() {
+		return !"false".equalsIgnoreCase(System
+				.getProperty("worms.compiledlevels"));
+	}
+
+	public File getCompiledFile() {
+		return new File(file.getParentFile(), getName()
+				+ CompiledLevel.COMPILED_FILE_EXTENSION);
+	}
+
+	/**
+	 * The latest modification time of the level file and its map image; a
+	 * compiled level is only used if it was compiled with the same stamp.
+	 */
+	public long getSourceStamp() {
+		return Math.max(file.lastModified(), mapFile.lastModified());
+	}
+
+	public boolean isCompiled() {
+		return compiled != null;
+	}
+
+	/**
+	 * Whether the passable map of this level was decoded in strips, without
+	 * decoding its map image as a whole.
+	 */
+	public boolean isStreamed() {
+		return streamedTerrain != null;
+	}
+
+	/**
+	 * Write the compiled form of this loaded level next to its level file,
+	 * packed from the map image.
+	 */
+	public void compile() throws IOException {
+		CompiledLevel.write(getCompiledFile(),
+				getPassableTerrain(MaskPacker.getDefault()), scale,
+				getSourceStamp());
 	}
 
 	protected String readAsKeyVal(BufferedReader reader, String expectedKey)
@@ -107,15 +234,61 @@ public class Level {
 	}
 
 	public BufferedImage getMapImage() {
+		if (mapImage == null) {
+			try {
+				mapImage = ImageIO.read(mapFile);
+			} catch (IOException e) {
+				throw new LoadException("Could not load map image "
+						+ mapFile.getAbsolutePath(), e);
+			}
+		}
 		return mapImage;
 	}
 
+	/**
+	 * The map image to scale to a screen of the given size: the map image
+	 * itself if it has been decoded, or else the map image subsampled to
+	 * about that size.
+	 */
+	public BufferedImage getDisplayImage(int width, int height) {
+		if (mapImage != null) {
+			return mapImage;
+		}
+		if (displayImage == null || displayImage.getWidth() < width
+				&& displayImage.getHeight() < height) {
+			try {
+				displayImage = new StripDecoder(mapFile).decodeDisplayImage(
+						width, height);
+			} catch (IOException e) {
+				throw new LoadException("Could not load map image "
+						+ mapFile.getAbsolutePath(), e);
+			}
+		}
+		return displayImage;
+	}
+
+	/**
+	 * The amount of bytes taken by the decoded images of this level.
+	 */
+	public long getImageMemoryFootprint() {
+		long result = 0;
+		for (BufferedImage image : new BufferedImage[] { mapImage,
+				displayImage }) {
+			if (image != null) {
+				DataBuffer buffer = image.getRaster().getDataBuffer();
+				result += (long) buffer.getSize() * buffer.getNumBanks()
+						* DataBuffer.getDataTypeSize(buffer.getDataType()) / 8;
+			}
+		}
+		return result;
+	}
+
 	public int getMapHeight() {
-		return mapImage.getHeight();
+		return mapHeight;
 	}
 
 	public int getMapWidth() {
-		return mapImage.getWidth();
+		return mapWidth;
 	}
 
 	/**
@@ -128,33 +301,69 @@ public class Level {
 	}
 
 	public double getWorldWidth() {
-		return scale * mapImage.getWidth();
+		return scale * getMapWidth();
 	}
 
 	public double getWorldHeight() {
-		return scale * mapImage.getHeight();
+		return scale * getMapHeight();
 	}
 
 	public boolean[][] getPassableMap() {
 		final boolean[][] result = new boolean[getMapHeight()][getMapWidth()];
-		final byte[] bytes = ((DataBufferByte) mapImage.getRaster().getDataBuffer())
-				.getData();
-		final int w = getMapWidth();
-		final int h = getMapHeight();
-		for (int row = 0; row < h; row++) {
-			final int offset = w * row;
-			for (int col = 0; col < w; col++) {
-				final byte alpha = bytes[4 * (offset + col)];
-				// alpha < 128 ((alpha & 0xf) == 0) => passable
-				// alpha >= 128 ((alpha & 0xf) != 0) => impassable
-				if (((int) alpha & 0xf0) == 0) {
-					result[row][col] = true;
-				}
+		final PackedTerrain terrain = getPassableTerrain();
+		for (int row = 0; row < result.length; row++) {
+			for (int col = 0; col < result[row].length; col++) {
+				result[row][col] = terrain.isPassable(col, row);
 			}
 		}
 		return result;
 	}
 
+	/**
+	 * The passable map packed into a terrain: copied from the compiled level
+	 * or the map decoded in strips if there is one, or else extracted
+	 * directly from the alpha values of the map image, without building the
+	 * boolean matrix of getPassableMap().
+	 */
+	public PackedTerrain getPassableTerrain() {
+		if (compiled != null) {
+			return compiled.getTerrain();
+		}
+		if (streamedTerrain != null) {
+			return new PackedTerrain(streamedTerrain);
+		}
+		return getPassableTerrain(MaskPacker.getDefault());
+	}
+
+	/**
+	 * The passable map extracted from the map image, whatever the layout of
+	 * its raster, with the given packer for rows of interleaved bytes. The
+	 * image is decoded again in strips if this level is streamed.
+	 */
+	public PackedTerrain getPassableTerrain(MaskPacker packer) {
+		if (streamedTerrain != null) {
+			try {
+				return new StripDecoder(mapFile).decodeTerrain(packer);
+			} catch (IOException e) {
+				throw new LoadException("Could not load map image "
+						+ mapFile.getAbsolutePath(), e);
+			}
+		}
+		return TerrainExtractor.extract(getMapImage(), packer);
+	}
+
+	/**
+	 * The downsampled levels of detail of the given passable terrain of this
+	 * loaded level, which replace a hand-made low resolution map: every
+	 * level halves the resolution of the one below it, keeping a block solid
+	 * if any of its pixels is solid and free if any of its pixels is free.
+	 */
+	public TerrainDetailPyramid createDetailPyramid(Terrain terrain) {
+		return new TerrainDetailPyramid(terrain, new PixelMapping(
+				getWorldWidth(), getWorldHeight(), terrain.getAmountOfColumns(),
+				terrain.getAmountOfRows()));
+	}
+
 	/**
 	 * map width / map height
 	 */
@@ -0,0 +1,265 @@
+package worms.gui;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+
+import worms.model.World.DistanceField;
+import worms.model.World.EditableTerrain;
+import worms.model.World.PixelMapping;
+import worms.model.World.PlacementIndex;
+import worms.model.World.TerrainBackend;
+import worms.model.World.TerrainDetailPyramid;
+import worms.model.World.TerrainSnapshot;
+import worms.model.worm.WormConstants;
+
+/**
+ * A cache of loaded levels, shared by every game of a running instance.
+ *
+ * A level is kept together with its decoded map image (unless it is decoded
+ * in strips), its passable mask and the distance field of that mask, so that
+ * starting another game on it only copies the mask and the field. Entries are
+ * keyed by the canonical path of the level file and remember the modification
+ * stamp of the level and its image, so editing either on disk makes the entry
+ * stale, and the stale entry is replaced by the next load of the level. The
+ * least recently used entries are evicted once the entries take more bytes
+ * than the budget of the cache; the entry used last is always kept.
+ */
+public class LevelCache {
+
+	public static final long DEFAULT_BUDGET = 256L << 20;
+
+	private final long budget;
+
+	private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<String, Entry>(
+			16, 0.75f, true);
+
+	private long usedBytes;
+	private long hits;
+	private long misses;
+	private long evictions;
+
+	public LevelCache(long budget) {
+		if (budget < 0) {
+			throw new IllegalArgumentException("negative budget");
+		}
+		this.budget = budget;
+	}
+
+	/**
+	 * The budget is read from the system property worms.levelcache.megabytes,
+	 * and is DEFAULT_BUDGET if that property is not set.
+	 */
+	public static long getConfiguredBudget() {
+		String megabytes = System.getProperty("worms.levelcache.megabytes");
+		if (megabytes != null) {
+			try {
+				return Long.parseLong(megabytes.trim()) << 20;
+			} catch (NumberFormatException e) {
+				// fall back to the default
+			}
+		}
+		return DEFAULT_BUDGET;
+	}
+
+	/**
+	 * Return the cached entry for the given level, loading the level and
+	 * computing its distance field if there is no up-to-date entry.
+	 */
+	public Entry get(Level level) {
+		String key = getPath(level.getFile());
+		synchronized (this) {
+			Entry entry = entries.get(key);
+			if (entry != null && entry.getLevel().getSourceStamp() == entry.stamp) {
+				hits++;
+				return entry;
+			}
+			if (entry != null) {
+				remove(key);
+			}
+			misses++;
+		}
+		// Loading takes long, so it does not hold the lock of the cache.
+		Entry entry = new Entry(level);
+		synchronized (this) {
+			Entry previous = entries.put(key, entry);
+			if (previous != null) {
+				usedBytes -= previous.getMemoryFootprint();
+			}
+			usedBytes += entry.getMemoryFootprint();
+			evict();
+		}
+		return entry;
+	}
+
+	/**
+	 * Load the given level again if an earlier version of it is cached, after
+	 * its level file or map image has changed, and return the new entry.
+	 * Return null if the level is not cached, since there is nothing to
+	 * rebuild then; it is loaded as usual when it is played.
+	 */
+	public Entry reload(Level level) {
+		if (invalidate(level.getFile()) == 0) {
+			return null;
+		}
+		return get(level);
+	}
+
+	/**
+	 * Drop the entry loaded from the given level file, whatever its version,
+	 * and return the amount of entries dropped.
+	 */
+	public synchronized int invalidate(File file) {
+		Entry entry = entries.remove(getPath(file));
+		if (entry == null) {
+			return 0;
+		}
+		usedBytes -= entry.getMemoryFootprint();
+		return 1;
+	}
+
+	private static String getPath(File file) {
+		try {
+			return file.getCanonicalPath();
+		} catch (IOException e) {
+			return file.getAbsolutePath();
+		}
+	}
+
+	private void remove(String key) {
+		Entry entry = entries.remove(key);
+		if (entry != null) {
+			usedBytes -= entry.getMemoryFootprint();
+		}
+	}
+
+	private void evict() {
+		Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet()
+				.iterator();
+		while (usedBytes > budget && entries.size() > 1 && iterator.hasNext()) {
+			usedBytes -= iterator.next().getValue().getMemoryFootprint();
+			iterator.remove();
+			evictions++;
+		}
+	}
+
+	public synchronized void clear() {
+		entries.clear();
+		usedBytes = 0;
+	}
+
+	public long getBudget() {
+		return budget;
+	}
+
+	public synchronized long getUsedBytes() {
+		return usedBytes;
+	}
+
+	public synchronized int getAmountOfEntries() {
+		return entries.size();
+	}
+
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	public synchronized long getEvictions() {
+		return evictions;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return String.format("level cache: %d entries, %.1f of %.1f MB, %d hits, %d misses, %d evictions",
+				entries.size(), usedBytes / 1048576., budget / 1048576., hits,
+				misses, evictions);
+	}
+
+	/**
+	 * A loaded level with a snapshot of its passable mask, stored in the
+	 * terrain backend selected for its density, together with its distance
+	 * field, its level-of-detail pyramid and the spots where new worms stand
+	 * on it. Games never use the snapshot of an entry directly, since their
+	 * terrain can be edited, but copies of it.
+	 */
+	public static class Entry {
+
+		private final Level level;
+		private final long stamp;
+		private final TerrainSnapshot snapshot;
+		private final long footprint;
+
+		private Entry(Level level) {
+			level.load();
+			if (!level.isStreamed()) {
+				checkCancelled();
+				level.getMapImage();
+			}
+			this.level = level;
+			this.stamp = level.getSourceStamp();
+			checkCancelled();
+			EditableTerrain terrain = TerrainBackend.store(level
+					.getPassableTerrain());
+			checkCancelled();
+			DistanceField distanceField = new DistanceField(terrain,
+					new PixelMapping(level.getWorldWidth(),
+							level.getWorldHeight(), terrain.getAmountOfColumns(),
+							terrain.getAmountOfRows()));
+			checkCancelled();
+			TerrainDetailPyramid detailPyramid = level
+					.createDetailPyramid(terrain);
+			checkCancelled();
+			PlacementIndex placementIndex = new PlacementIndex(distanceField);
+			placementIndex.prepare(WormConstants.NEW_WORM_RADIUS);
+			this.snapshot = new TerrainSnapshot(terrain, distanceField,
+					detailPyramid, placementIndex);
+			this.footprint = level.getImageMemoryFootprint()
+					+ snapshot.getMemoryFootprint();
+		}
+
+		/**
+		 * Loading stops between its stages once the loading thread has been
+		 * interrupted, as a preload of a level that is no longer wanted is.
+		 */
+		private static void checkCancelled() {
+			if (Thread.interrupted()) {
+				throw new CancellationException("loading cancelled");
+			}
+		}
+
+		public Level getLevel() {
+			return level;
+		}
+
+		/**
+		 * A copy of the snapshot of this entry, which a game may edit.
+		 */
+		public TerrainSnapshot copySnapshot() {
+			return snapshot.copy();
+		}
+
+		/**
+		 * The snapshot of this entry, which must not be edited.
+		 */
+		public TerrainSnapshot getSnapshot() {
+			return snapshot;
+		}
+
+		/**
+		 * The bytes taken by this entry when it was loaded; a display image
+		 * decoded later on is not accounted for.
+		 */
+		public long getMemoryFootprint() {
+			return footprint;
+		}
+
+	}
+
+}
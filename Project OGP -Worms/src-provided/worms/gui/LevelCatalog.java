@@ -0,0 +1,335 @@
+package worms.gui;
+
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import javax.imageio.ImageIO;
+
+/**
+ * The levels of the levels directory, of which only the headers are read
+ * eagerly.
+ *
+ * The size of the map of every level and a thumbnail of it are produced on a
+ * background thread, decoding the map image subsampled to about the size of
+ * the thumbnail, and are then stored next to the level in a thumbnail file.
+ * That file is keyed by a hash of the contents of the level and its map
+ * image, so it is only used as long as neither changes. Listeners are told
+ * about every entry that becomes ready.
+ */
+public class LevelCatalog {
+
+	public static final String THUMBNAIL_FILE_EXTENSION = ".lvlt";
+
+	private static final int MAGIC = 0x54564c57; // "WLVT"
+	private static final int VERSION = 1;
+
+	private static LevelCatalog defaultCatalog;
+
+	private final File directory;
+	private final Map<File, Entry> entries = new HashMap<File, Entry>();
+	private final List<Listener> listeners = new CopyOnWriteArrayList<Listener>();
+	private final ExecutorService executor;
+
+	public LevelCatalog(File directory) {
+		this.directory = directory;
+		this.executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "level catalog");
+				thread.setDaemon(true);
+				thread.setPriority(Thread.MIN_PRIORITY);
+				return thread;
+			}
+		});
+	}
+
+	/**
+	 * The catalog of the levels directory, shared by every menu.
+	 */
+	public static synchronized LevelCatalog getDefault() {
+		if (defaultCatalog == null) {
+			defaultCatalog = new LevelCatalog(Level.getLevelsDirectory());
+		}
+		return defaultCatalog;
+	}
+
+	public interface Listener {
+
+		/**
+		 * Called on the thread of the catalog once the size and thumbnail
+		 * of the given entry are known.
+		 */
+		void entryReady(Entry entry);
+
+	}
+
+	public void addListener(Listener listener) {
+		listeners.add(listener);
+	}
+
+	public void removeListener(Listener listener) {
+		listeners.remove(listener);
+	}
+
+	/**
+	 * The levels in the directory of this catalog, in the order of their
+	 * file names. The headers of new or changed level files are read; their
+	 * thumbnails are produced in the background.
+	 */
+	public synchronized Level[] getLevels() {
+		File[] files = Level.getLevelFiles(directory);
+		Level[] levels = new Level[files.length];
+		for (int i = 0; i < files.length; i++) {
+			Entry entry = entries.get(files[i]);
+			if (entry == null || entry.modified != files[i].lastModified()) {
+				entry = new Entry(new Level(files[i]));
+				entries.put(files[i], entry);
+				final Entry submitted = entry;
+				executor.execute(new Runnable() {
+
+					@Override
+					public void run() {
+						try {
+							submitted.prepare();
+						} finally {
+							for (Listener listener : listeners) {
+								listener.entryReady(submitted);
+							}
+						}
+					}
+				});
+			}
+			levels[i] = entry.getLevel();
+		}
+		return levels;
+	}
+
+	/**
+	 * Forget the entry of the given level file, so that its header is read
+	 * and its thumbnail is checked again the next time the levels of this
+	 * catalog are listed, even if only its map image has changed.
+	 */
+	public synchronized void invalidate(File file) {
+		entries.remove(file);
+	}
+
+	/**
+	 * The entry of the given level, or null if it is not in this catalog.
+	 */
+	public synchronized Entry getEntry(Level level) {
+		return entries.get(level.getFile());
+	}
+
+	/**
+	 * The entries of the levels of this catalog, in the order of getLevels().
+	 */
+	public synchronized List<Entry> getEntries() {
+		List<Entry> result = new ArrayList<Entry>();
+		for (Level level : getLevels()) {
+			result.add(entries.get(level.getFile()));
+		}
+		return result;
+	}
+
+	/**
+	 * A level of the catalog, with the size and thumbnail of its map once
+	 * they are ready.
+	 */
+	public static class Entry {
+
+		private final Level level;
+		private final long modified;
+
+		private volatile boolean ready;
+		private volatile int mapWidth;
+		private volatile int mapHeight;
+		private volatile BufferedImage thumbnail;
+
+		private Entry(Level level) {
+			this.level = level;
+			this.modified = level.getFile().lastModified();
+			try {
+				level.loadHeader();
+			} catch (RuntimeException e) {
+				// Listed without a thumbnail; loading it reports the error.
+			}
+		}
+
+		public Level getLevel() {
+			return level;
+		}
+
+		public boolean isReady() {
+			return ready;
+		}
+
+		public int getMapWidth() {
+			return mapWidth;
+		}
+
+		public int getMapHeight() {
+			return mapHeight;
+		}
+
+		/**
+		 * The thumbnail of the map, or null if it is not ready or the map
+		 * could not be read.
+		 */
+		public BufferedImage getThumbnail() {
+			return thumbnail;
+		}
+
+		public File getThumbnailFile() {
+			return new File(level.getFile().getParentFile(), level.getName()
+					+ THUMBNAIL_FILE_EXTENSION);
+		}
+
+		/**
+		 * Read or make the thumbnail of the map. The entry is ready
+		 * afterwards, also when the map could not be read or decoded.
+		 */
+		private void prepare() {
+			try {
+				if (level.getMapFile() != null) {
+					String hash = getContentHash();
+					if (!readThumbnail(hash)) {
+						makeThumbnail();
+						writeThumbnail(hash);
+					}
+				}
+			} catch (IOException e) {
+				// The level is listed without a thumbnail.
+			} catch (RuntimeException e) {
+				// A map the decoder chokes on is listed like an unreadable one.
+			} finally {
+				ready = true;
+			}
+		}
+
+		/**
+		 * A hash of the contents of the level file and its map image.
+		 */
+		private String getContentHash() throws IOException {
+			MessageDigest digest;
+			try {
+				digest = MessageDigest.getInstance("SHA-1");
+			} catch (NoSuchAlgorithmException e) {
+				throw new IOException(e);
+			}
+			byte[] buffer = new byte[1 << 16];
+			for (File file : new File[] { level.getFile(), level.getMapFile() }) {
+				InputStream input = new FileInputStream(file);
+				try {
+					int read;
+					while ((read = input.read(buffer)) > 0) {
+						digest.update(buffer, 0, read);
+					}
+				} finally {
+					input.close();
+				}
+			}
+			StringBuilder result = new StringBuilder();
+			for (byte b : digest.digest()) {
+				result.append(String.format("%02x", b));
+			}
+			return result.toString();
+		}
+
+		private boolean readThumbnail(String hash) throws IOException {
+			File file = getThumbnailFile();
+			if (!file.isFile()) {
+				return false;
+			}
+			DataInputStream input = new DataInputStream(
+					new BufferedInputStream(new FileInputStream(file)));
+			try {
+				if (input.readInt() != MAGIC || input.readInt() != VERSION
+						|| !hash.equals(input.readUTF())) {
+					return false;
+				}
+				int width = input.readInt();
+				int height = input.readInt();
+				BufferedImage image = ImageIO.read(input);
+				if (image == null) {
+					return false;
+				}
+				this.mapWidth = width;
+				this.mapHeight = height;
+				this.thumbnail = image;
+				return true;
+			} catch (IOException e) {
+				return false;
+			} finally {
+				input.close();
+			}
+		}
+
+		private void makeThumbnail() throws IOException {
+			StripDecoder decoder = new StripDecoder(level.getMapFile());
+			Dimension size = decoder.getSize();
+			mapWidth = size.width;
+			mapHeight = size.height;
+			BufferedImage decoded = decoder.decodeDisplayImage(
+					GUIConstants.THUMBNAIL_WIDTH,
+					GUIConstants.THUMBNAIL_HEIGHT);
+			double ratio = Math.min((double) GUIConstants.THUMBNAIL_WIDTH
+					/ decoded.getWidth(), (double) GUIConstants.THUMBNAIL_HEIGHT
+					/ decoded.getHeight());
+			BufferedImage image = new BufferedImage(Math.max(1,
+					(int) (ratio * decoded.getWidth())), Math.max(1,
+					(int) (ratio * decoded.getHeight())),
+					BufferedImage.TYPE_INT_ARGB);
+			Graphics2D g = image.createGraphics();
+			g.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+					RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+			g.drawImage(decoded, 0, 0, image.getWidth(), image.getHeight(),
+					null);
+			g.dispose();
+			thumbnail = image;
+		}
+
+		private void writeThumbnail(String hash) {
+			try {
+				DataOutputStream output = new DataOutputStream(
+						new BufferedOutputStream(new FileOutputStream(
+								getThumbnailFile())));
+				try {
+					output.writeInt(MAGIC);
+					output.writeInt(VERSION);
+					output.writeUTF(hash);
+					output.writeInt(mapWidth);
+					output.writeInt(mapHeight);
+					ImageIO.write(thumbnail, "png", output);
+				} finally {
+					output.close();
+				}
+			} catch (IOException e) {
+				// The thumbnail is made again the next time.
+			}
+		}
+
+	}
+
+}
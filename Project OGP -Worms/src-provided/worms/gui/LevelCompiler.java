@@ -0,0 +1,26 @@
+package worms.gui;
+
+import java.io.IOException;
+
+/**
+ * Compiles every level of the levels directory to its binary form, so that
+ * starting a game maps the passable mask instead of decoding the map image.
+ * Run it from the project directory whenever a level or its image changes; a
+ * compiled level whose sources have changed since is ignored when loading.
+ */
+public class LevelCompiler {
+
+	public static void main(String[] args) throws IOException {
+		System.setProperty("worms.compiledlevels", "false");
+		for (Level level : Level.getAvailableLevels()) {
+			long start = System.nanoTime();
+			level.load();
+			level.compile();
+			System.out.println(level.getName() + " -> "
+					+ level.getCompiledFile().getPath() + " ("
+					+ level.getCompiledFile().length() + " bytes, "
+					+ (System.nanoTime() - start) / 1000000 + " ms)");
+		}
+	}
+
+}
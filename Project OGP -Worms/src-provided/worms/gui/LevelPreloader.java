@@ -0,0 +1,140 @@
+package worms.gui;
+
+import java.io.File;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Loads the level that is highlighted in a menu on a background thread, into
+ * the level cache, so that most of the work is done by the time the player
+ * confirms it.
+ *
+ * Only the most recently highlighted level is loaded: highlighting another
+ * level cancels the load of the previous one, which stops at the next stage
+ * of its loading. Taking the confirmed level waits for its load if it is
+ * still running, or loads it on the calling thread if it was never
+ * preloaded; menus take their selection outside of the event dispatch
+ * thread, so this never blocks painting.
+ */
+public class LevelPreloader {
+
+	private final LevelCache cache;
+	private final ExecutorService executor;
+
+	private File file;
+	private Future<LevelCache.Entry> future;
+	private long started;
+	private volatile long finished;
+
+	private long lastSaved;
+
+	public LevelPreloader(LevelCache cache) {
+		if (cache == null) {
+			throw new IllegalArgumentException();
+		}
+		this.cache = cache;
+		this.executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "level preloader");
+				thread.setDaemon(true);
+				thread.setPriority(Thread.MIN_PRIORITY);
+				return thread;
+			}
+		});
+	}
+
+	/**
+	 * Start loading the given level in the background, together with its
+	 * map image subsampled to the given display size, unless it is being
+	 * preloaded already.
+	 */
+	public synchronized void preload(final Level level,
+			final int displayWidth, final int displayHeight) {
+		if (future != null && level.getFile().equals(file)) {
+			return;
+		}
+		cancel();
+		this.file = level.getFile();
+		this.started = System.nanoTime();
+		this.finished = 0;
+		this.future = executor.submit(new Callable<LevelCache.Entry>() {
+
+			@Override
+			public LevelCache.Entry call() {
+				LevelCache.Entry entry = cache.get(level);
+				entry.getLevel().getDisplayImage(displayWidth, displayHeight);
+				finished = System.nanoTime();
+				return entry;
+			}
+		});
+	}
+
+	/**
+	 * Cancel the running preload, if any.
+	 */
+	public synchronized void cancel() {
+		if (future != null) {
+			future.cancel(true);
+		}
+		future = null;
+		file = null;
+	}
+
+	/**
+	 * The cache entry of the given level: the result of its preload, waiting
+	 * for it if needed, or else loaded on the calling thread.
+	 */
+	public LevelCache.Entry take(Level level) {
+		Future<LevelCache.Entry> pending;
+		long start;
+		synchronized (this) {
+			pending = level.getFile().equals(file) ? future : null;
+			start = started;
+			if (pending == null) {
+				// A preload of another level is no longer wanted.
+				cancel();
+			} else {
+				future = null;
+				file = null;
+			}
+		}
+		long taken = System.nanoTime();
+		if (pending != null) {
+			try {
+				LevelCache.Entry entry = pending.get();
+				// Only the work done before the level was confirmed was saved.
+				long end = (finished == 0) ? taken : Math.min(finished, taken);
+				setLastSaved(end - start);
+				return entry;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} catch (ExecutionException e) {
+				// load it again below, reporting the error from there
+			} catch (CancellationException e) {
+				// load it again below
+			}
+		}
+		setLastSaved(0);
+		return cache.get(level);
+	}
+
+	private synchronized void setLastSaved(long nanos) {
+		this.lastSaved = nanos;
+	}
+
+	/**
+	 * The loading time, in milliseconds, that was spent in the background
+	 * before the level of the last take was confirmed.
+	 */
+	public synchronized long getLastSavedMillis() {
+		return lastSaved / 1000000;
+	}
+
+}
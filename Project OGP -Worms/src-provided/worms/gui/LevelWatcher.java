@@ -0,0 +1,210 @@
+package worms.gui;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches a levels directory for level files and map images that are
+ * created, changed or deleted while the game runs.
+ *
+ * Changes are collected until the directory has been quiet for
+ * GUIConstants.LEVEL_RELOAD_DELAY milliseconds, since an image editor may
+ * write a map in several steps. The levels whose level file or map image
+ * has changed are then reloaded on the thread of the watcher: the catalog
+ * reads their headers and makes their thumbnails again, and the level cache
+ * rebuilds the masks, distance fields and level-of-detail pyramids of the
+ * ones it holds. Other levels keep their cached data. Listeners are handed
+ * every entry that has been rebuilt.
+ */
+public class LevelWatcher {
+
+	private static LevelWatcher defaultWatcher;
+
+	private final File directory;
+	private final LevelCatalog catalog;
+	private final LevelCache cache;
+	private final List<Listener> listeners = new CopyOnWriteArrayList<Listener>();
+
+	private WatchService service;
+	private Thread thread;
+	private volatile int reloads;
+
+	public LevelWatcher(File directory, LevelCatalog catalog, LevelCache cache) {
+		this.directory = directory;
+		this.catalog = catalog;
+		this.cache = cache;
+	}
+
+	/**
+	 * The watcher of the levels directory, shared by every game, which keeps
+	 * the default catalog and the cache of the games up to date. It is
+	 * started on first use; if the directory cannot be watched, levels are
+	 * simply not reloaded.
+	 */
+	public static synchronized LevelWatcher getDefault() {
+		if (defaultWatcher == null) {
+			defaultWatcher = new LevelWatcher(Level.getLevelsDirectory(),
+					LevelCatalog.getDefault(), GameState.getLevelCache());
+			try {
+				defaultWatcher.start();
+			} catch (IOException e) {
+				// Changed levels are picked up after a restart.
+			}
+		}
+		return defaultWatcher;
+	}
+
+	public interface Listener {
+
+		/**
+		 * Called on the thread of the watcher once the given cached level has
+		 * been rebuilt after its level file or map image changed.
+		 */
+		void levelReloaded(LevelCache.Entry entry);
+
+	}
+
+	public void addListener(Listener listener) {
+		listeners.add(listener);
+	}
+
+	public void removeListener(Listener listener) {
+		listeners.remove(listener);
+	}
+
+	public synchronized void start() throws IOException {
+		if (thread != null) {
+			return;
+		}
+		service = FileSystems.getDefault().newWatchService();
+		directory.toPath().register(service,
+				StandardWatchEventKinds.ENTRY_CREATE,
+				StandardWatchEventKinds.ENTRY_MODIFY,
+				StandardWatchEventKinds.ENTRY_DELETE);
+		thread = new Thread(new Runnable() {
+
+			@Override
+			public void run() {
+				watch();
+			}
+		}, "level watcher");
+		thread.setDaemon(true);
+		thread.setPriority(Thread.MIN_PRIORITY);
+		thread.start();
+	}
+
+	public synchronized void stop() {
+		if (thread == null) {
+			return;
+		}
+		try {
+			service.close();
+		} catch (IOException e) {
+			// The thread stops anyway once it is interrupted.
+		}
+		thread.interrupt();
+		thread = null;
+	}
+
+	/**
+	 * The amount of times levels have been reloaded since this watcher was
+	 * started.
+	 */
+	public int getAmountOfReloads() {
+		return reloads;
+	}
+
+	private void watch() {
+		try {
+			while (true) {
+				Set<String> changed = new HashSet<String>();
+				WatchKey key = service.take();
+				while (key != null) {
+					for (WatchEvent<?> event : key.pollEvents()) {
+						if (event.context() instanceof Path) {
+							changed.add(event.context().toString());
+						}
+					}
+					key.reset();
+					key = service.poll(GUIConstants.LEVEL_RELOAD_DELAY,
+							TimeUnit.MILLISECONDS);
+				}
+				reload(changed);
+			}
+		} catch (InterruptedException e) {
+			// stopped
+		} catch (ClosedWatchServiceException e) {
+			// stopped
+		}
+	}
+
+	/**
+	 * Reload the levels whose level file or map image has one of the given
+	 * names, and return the entries the level cache has rebuilt for them.
+	 */
+	List<LevelCache.Entry> reload(Set<String> changed) {
+		List<LevelCache.Entry> result = new ArrayList<LevelCache.Entry>();
+		if (!isRelevant(changed)) {
+			return result;
+		}
+		// Deleted level files are not listed any more; drop what is cached.
+		for (String name : changed) {
+			File file = new File(directory, name);
+			if (!file.exists()) {
+				cache.invalidate(file);
+			}
+		}
+		for (File file : Level.getLevelFiles(directory)) {
+			Level level = new Level(file);
+			try {
+				level.loadHeader();
+			} catch (RuntimeException e) {
+				// A level file being written; it is reloaded when it is done.
+				continue;
+			}
+			if (!changed.contains(file.getName())
+					&& !changed.contains(level.getMapFile().getName())) {
+				continue;
+			}
+			catalog.invalidate(file);
+			try {
+				LevelCache.Entry entry = cache.reload(level);
+				if (entry != null) {
+					result.add(entry);
+					for (Listener listener : listeners) {
+						listener.levelReloaded(entry);
+					}
+				}
+			} catch (RuntimeException e) {
+				// An invalid map; the error is shown when the level is played.
+			}
+		}
+		// The headers and thumbnails of the changed levels are read again.
+		catalog.getLevels();
+		reloads++;
+		return result;
+	}
+
+	private static boolean isRelevant(Set<String> changed) {
+		for (String name : changed) {
+			if (name.endsWith(".lvl") || name.endsWith(".png")) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+}
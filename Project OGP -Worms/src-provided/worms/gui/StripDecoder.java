@@ -0,0 +1,170 @@
+package worms.gui;
+
+import java.awt.Dimension;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import worms.model.World.MaskPacker;
+import worms.model.World.PackedTerrain;
+
+/**
+ * Decodes a map image in horizontal strips, straight into the passable mask of
+ * a packed terrain, so that the image is never held in memory as a whole.
+ *
+ * Every strip is read through a source region of the image reader and handed
+ * to a terrain extractor that writes the rows of the strip into the words of
+ * the mask; the strip is garbage once it has been packed. The height of a
+ * strip is chosen so that its decoded pixels take no more than the given
+ * amount of bytes. Readers of formats without random access to rows, such as
+ * PNG, decompress the image from its start for every strip, so fewer and
+ * larger strips load faster at the cost of a higher peak heap.
+ *
+ * The image to display is decoded separately, subsampled down to about the
+ * size of the screen.
+ */
+public class StripDecoder {
+
+	/**
+	 * Bytes a decoded strip may take, unless the system property
+	 * worms.strip.megabytes says otherwise
+	 */
+	public static final long DEFAULT_STRIP_BYTES = 16L << 20;
+
+	private final File file;
+	private final long stripBytes;
+
+	public StripDecoder(File file, long stripBytes) {
+		if (file == null || stripBytes <= 0) {
+			throw new IllegalArgumentException();
+		}
+		this.file = file;
+		this.stripBytes = stripBytes;
+	}
+
+	public StripDecoder(File file) {
+		this(file, getConfiguredStripBytes());
+	}
+
+	public static long getConfiguredStripBytes() {
+		String megabytes = System.getProperty("worms.strip.megabytes");
+		if (megabytes != null) {
+			try {
+				return Math.max(1, Long.parseLong(megabytes.trim())) << 20;
+			} catch (NumberFormatException e) {
+				// fall back to the default
+			}
+		}
+		return DEFAULT_STRIP_BYTES;
+	}
+
+	/**
+	 * The size of the image, read from its header only.
+	 */
+	public Dimension getSize() throws IOException {
+		ImageInputStream input = openInput();
+		try {
+			ImageReader reader = getReader(input);
+			try {
+				return new Dimension(reader.getWidth(0), reader.getHeight(0));
+			} finally {
+				reader.dispose();
+			}
+		} finally {
+			input.close();
+		}
+	}
+
+	/**
+	 * Decode the passable mask of the image strip by strip, with the given
+	 * packer for rows of interleaved bytes.
+	 */
+	public PackedTerrain decodeTerrain(MaskPacker packer) throws IOException {
+		ImageInputStream input = openInput();
+		try {
+			ImageReader reader = getReader(input);
+			try {
+				int columns = reader.getWidth(0);
+				int rows = reader.getHeight(0);
+				int stripRows = getStripRows(columns, rows);
+				long[] words = new long[rows
+						* PackedTerrain.getWordsPerRow(columns)];
+				ImageReadParam param = reader.getDefaultReadParam();
+				for (int row = 0; row < rows; row += stripRows) {
+					param.setSourceRegion(new Rectangle(0, row, columns,
+							Math.min(stripRows, rows - row)));
+					BufferedImage strip = reader.read(0, param);
+					new TerrainExtractor(strip, packer, words, row)
+							.extract(true);
+				}
+				return new PackedTerrain(columns, rows, words);
+			} finally {
+				reader.dispose();
+			}
+		} finally {
+			input.close();
+		}
+	}
+
+	/**
+	 * Decode the image subsampled by the largest whole factor that keeps it
+	 * at least as large as the given size in both directions.
+	 */
+	public BufferedImage decodeDisplayImage(int width, int height)
+			throws IOException {
+		ImageInputStream input = openInput();
+		try {
+			ImageReader reader = getReader(input);
+			try {
+				int factor = Math.max(1, Math.min(reader.getWidth(0)
+						/ Math.max(1, width), reader.getHeight(0)
+						/ Math.max(1, height)));
+				ImageReadParam param = reader.getDefaultReadParam();
+				param.setSourceSubsampling(factor, factor, 0, 0);
+				return reader.read(0, param);
+			} finally {
+				reader.dispose();
+			}
+		} finally {
+			input.close();
+		}
+	}
+
+	/**
+	 * Rows of a strip, assuming four bytes per decoded pixel.
+	 */
+	private int getStripRows(int columns, int rows) {
+		long stripRows = stripBytes / (4L * columns);
+		return (int) Math.max(1, Math.min(rows, stripRows));
+	}
+
+	/**
+	 * Open the file as an image input stream, which the caller must close.
+	 */
+	private ImageInputStream openInput() throws IOException {
+		ImageInputStream input = ImageIO.createImageInputStream(file);
+		if (input == null) {
+			throw new IOException("cannot read " + file.getAbsolutePath());
+		}
+		return input;
+	}
+
+	private ImageReader getReader(ImageInputStream input) throws IOException {
+		Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+		if (!readers.hasNext()) {
+			throw new IOException("no image reader for "
+					+ file.getAbsolutePath());
+		}
+		ImageReader reader = readers.next();
+		reader.setInput(input, false, true);
+		return reader;
+	}
+
+}
@@ -0,0 +1,237 @@
+package worms.gui;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.IndexColorModel;
+import java.awt.image.PixelInterleavedSampleModel;
+import java.awt.image.Raster;
+import java.awt.image.SampleModel;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import worms.model.World.MaskPacker;
+import worms.model.World.PackedTerrain;
+
+/**
+ * Extracts the passable mask of a map image straight into the words of a
+ * packed terrain. A pixel is impassable if the high nibble of its 8-bit alpha
+ * value is set.
+ *
+ * The rows are split into bands of GUIConstants.EXTRACTION_BAND_ROWS rows,
+ * which are packed in parallel on the common fork-join pool; every band
+ * writes its own words. Each band is packed by a fast path chosen from the
+ * layout of the raster:
+ * <ul>
+ * <li>interleaved bytes with an alpha band (4BYTE_ABGR, and the gray+alpha
+ * and RGBA images ImageIO decodes PNG files to): the alpha bytes are handed
+ * to the mask packer as they are;</li>
+ * <li>packed ints with alpha (INT_ARGB): the alpha nibble of every int is
+ * tested directly;</li>
+ * <li>indexed images: the alpha of every palette entry is looked up
+ * once;</li>
+ * <li>any other image: the alpha samples are read a row at a time and scaled
+ * to 8 bits. Images without alpha are impassable everywhere.</li>
+ * </ul>
+ */
+public class TerrainExtractor {
+
+	private final BufferedImage image;
+	private final MaskPacker packer;
+	private final int columns;
+	private final int rows;
+	private final int wordsPerRow;
+	private final long[] words;
+	private final int wordOffset;
+
+	public TerrainExtractor(BufferedImage image, MaskPacker packer) {
+		this(image, packer, null, 0);
+	}
+
+	/**
+	 * An extractor that writes the rows of the image into the given words,
+	 * starting at the given row of a terrain as wide as the image. The image
+	 * is then a strip of a larger map.
+	 */
+	public TerrainExtractor(BufferedImage image, MaskPacker packer,
+			long[] words, int firstRow) {
+		if (image == null || packer == null) {
+			throw new IllegalArgumentException();
+		}
+		this.image = image;
+		this.packer = packer;
+		this.columns = image.getWidth();
+		this.rows = image.getHeight();
+		this.wordsPerRow = PackedTerrain.getWordsPerRow(columns);
+		if (words == null) {
+			words = new long[rows * wordsPerRow];
+		}
+		if (firstRow < 0
+				|| (long) (firstRow + rows) * wordsPerRow > words.length) {
+			throw new IllegalArgumentException("strip out of range");
+		}
+		this.words = words;
+		this.wordOffset = firstRow * wordsPerRow;
+	}
+
+	public static PackedTerrain extract(BufferedImage image, MaskPacker packer) {
+		return new TerrainExtractor(image, packer).extract(true);
+	}
+
+	/**
+	 * Extract the terrain of the image of this extractor, with the bands on
+	 * the common fork-join pool or one after the other. For an extractor of a
+	 * strip, the returned terrain holds all of the words it writes to.
+	 */
+	public PackedTerrain extract(boolean parallel) {
+		if (parallel) {
+			ForkJoinPool.commonPool().invoke(new BandTask(0, rows));
+		} else {
+			extractRows(0, rows);
+		}
+		return new PackedTerrain(columns, words.length / wordsPerRow, words);
+	}
+
+	private void extractRows(int fromRow, int toRow) {
+		Raster raster = image.getRaster();
+		SampleModel model = raster.getSampleModel();
+		DataBuffer buffer = raster.getDataBuffer();
+		ColorModel colors = image.getColorModel();
+		if (colors instanceof IndexColorModel) {
+			extractIndexedRows((IndexColorModel) colors, raster, fromRow, toRow);
+		} else if (!colors.hasAlpha()) {
+			for (int index = wordOffset + fromRow * wordsPerRow; index < wordOffset
+					+ toRow * wordsPerRow; index++) {
+				words[index] = -1L;
+			}
+		} else if (buffer instanceof DataBufferByte
+				&& model instanceof PixelInterleavedSampleModel
+				&& model.getSampleSize(alphaBand(raster)) == 8) {
+			extractInterleavedRows(raster, fromRow, toRow);
+		} else if (buffer instanceof DataBufferInt
+				&& model instanceof SinglePixelPackedSampleModel
+				&& ((SinglePixelPackedSampleModel) model).getBitMasks()[alphaBand(raster)] == 0xff000000) {
+			extractPackedIntRows(raster, fromRow, toRow);
+		} else {
+			extractAlphaRows(fromRow, toRow);
+		}
+	}
+
+	private static int alphaBand(Raster raster) {
+		return raster.getNumBands() - 1;
+	}
+
+	private void extractInterleavedRows(Raster raster, int fromRow, int toRow) {
+		PixelInterleavedSampleModel model = (PixelInterleavedSampleModel) raster
+				.getSampleModel();
+		byte[] data = ((DataBufferByte) raster.getDataBuffer()).getData();
+		int offset = raster.getDataBuffer().getOffset()
+				+ model.getBandOffsets()[alphaBand(raster)]
+				- raster.getSampleModelTranslateY() * model.getScanlineStride()
+				- raster.getSampleModelTranslateX() * model.getPixelStride();
+		for (int row = fromRow; row < toRow; row++) {
+			packer.packRow(data, offset + row * model.getScanlineStride(),
+					model.getPixelStride(), columns, words, wordOffset + row
+							* wordsPerRow);
+		}
+	}
+
+	private void extractPackedIntRows(Raster raster, int fromRow, int toRow) {
+		SinglePixelPackedSampleModel model = (SinglePixelPackedSampleModel) raster
+				.getSampleModel();
+		int[] data = ((DataBufferInt) raster.getDataBuffer()).getData();
+		int offset = raster.getDataBuffer().getOffset()
+				- raster.getSampleModelTranslateY() * model.getScanlineStride()
+				- raster.getSampleModelTranslateX();
+		for (int row = fromRow; row < toRow; row++) {
+			int position = offset + row * model.getScanlineStride();
+			for (int index = 0; index < wordsPerRow; index++) {
+				int from = index << 6;
+				int to = Math.min(columns, from + 64);
+				long word = 0;
+				for (int column = from; column < to; column++) {
+					word |= (long) ((data[position + column] >>> 28) + 0xF >>> 4) << column;
+				}
+				words[wordOffset + row * wordsPerRow + index] = word;
+			}
+		}
+	}
+
+	private void extractIndexedRows(IndexColorModel colors, Raster raster,
+			int fromRow, int toRow) {
+		boolean[] impassable = new boolean[colors.getMapSize()];
+		for (int index = 0; index < impassable.length; index++) {
+			impassable[index] = (colors.getAlpha(index) & 0xF0) != 0;
+		}
+		int[] samples = new int[columns];
+		for (int row = fromRow; row < toRow; row++) {
+			raster.getSamples(0, row, columns, 1, 0, samples);
+			packLookup(samples, impassable, row);
+		}
+	}
+
+	private void packLookup(int[] samples, boolean[] impassable, int row) {
+		for (int index = 0; index < wordsPerRow; index++) {
+			int from = index << 6;
+			int to = Math.min(columns, from + 64);
+			long word = 0;
+			for (int column = from; column < to; column++) {
+				int sample = samples[column];
+				if (sample < impassable.length && impassable[sample]) {
+					word |= 1L << column;
+				}
+			}
+			words[wordOffset + row * wordsPerRow + index] = word;
+		}
+	}
+
+	private void extractAlphaRows(int fromRow, int toRow) {
+		Raster alpha = image.getAlphaRaster();
+		int bits = alpha.getSampleModel().getSampleSize(0);
+		long maximum = (1L << bits) - 1;
+		int[] samples = new int[columns];
+		for (int row = fromRow; row < toRow; row++) {
+			alpha.getSamples(0, row, columns, 1, 0, samples);
+			for (int index = 0; index < wordsPerRow; index++) {
+				int from = index << 6;
+				int to = Math.min(columns, from + 64);
+				long word = 0;
+				for (int column = from; column < to; column++) {
+					// Scale the sample to 8 bits, rounding as ColorModel does.
+					long alpha8 = ((samples[column] & maximum) * 255 + maximum / 2) / maximum;
+					if (alpha8 >= 0x10) {
+						word |= 1L << column;
+					}
+				}
+				words[wordOffset + row * wordsPerRow + index] = word;
+			}
+		}
+	}
+
+	private class BandTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int fromRow, toRow;
+
+		private BandTask(int fromRow, int toRow) {
+			this.fromRow = fromRow;
+			this.toRow = toRow;
+		}
+
+		@Override
+		protected void compute() {
+			if (toRow - fromRow <= GUIConstants.EXTRACTION_BAND_ROWS) {
+				extractRows(fromRow, toRow);
+				return;
+			}
+			int middle = (fromRow + toRow) >>> 1;
+			invokeAll(new BandTask(fromRow, middle), new BandTask(middle, toRow));
+		}
+
+	}
+
+}
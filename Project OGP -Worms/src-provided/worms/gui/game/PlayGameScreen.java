@@ -16,6 +16,8 @@ import worms.gui.GUIUtils;
 import worms.gui.GameState;
 import worms.gui.InputMode;
 import worms.gui.Level;
+import worms.gui.LevelCache;
+import worms.gui.LevelWatcher;
 import worms.gui.Screen;
 import worms.gui.WormsGUI;
 import worms.gui.game.commands.Jump;
@@ -56,11 +58,26 @@ public class PlayGameScreen extends Screen {
 		return new SetupInputMode(this, null);
 	}
 
+	private final LevelWatcher.Listener reloadListener = new LevelWatcher.Listener() {
+
+		@Override
+		public void levelReloaded(LevelCache.Entry entry) {
+			gameState.levelReloaded(entry);
+		}
+	};
+
 	@Override
 	public void screenStarted() {
+		LevelWatcher.getDefault().addListener(reloadListener);
 		runGameLoop();
 	}
 
+	@Override
+	public void screenStopped() {
+		LevelWatcher.getDefault().removeListener(reloadListener);
+		super.screenStopped();
+	}
+
 	final AtomicLong lastUpdateTimestamp = new AtomicLong();
 
 	final Timer timer = new Timer(1000 / GUIConstants.FRAMERATE,
@@ -420,7 +437,12 @@ public class PlayGameScreen extends Screen {
 	}
 
 	public void addWorm() {
-		getFacade().addNewWorm(getWorld());
+		try {
+			getFacade().addNewWorm(getWorld());
+		} catch (ModelException e) {
+			addMessage("Could not add worm: " + e.getMessage(),
+					MessageType.ERROR);
+		}
 		updateSprites();
 	}
 
@@ -467,7 +489,15 @@ public class PlayGameScreen extends Screen {
 		getGameState().enqueueCommand(new SelectNextWorm(getFacade(), this));
 	}
 
+	/**
+	 * A level that has been edited during the game is swapped in between
+	 * turns, so that no worm moves through terrain that changes under it.
+	 */
 	public void startNextTurn() {
+		if (gameState.applyReloadedLevel()) {
+			painter.levelChanged();
+			addMessage("The level has been reloaded", MessageType.INFO);
+		}
 		getFacade().startNextTurn(getWorld());
 	}
 
@@ -16,7 +16,11 @@ import worms.gui.game.commands.Command;
 import worms.gui.game.sprites.FoodSprite;
 import worms.gui.game.sprites.WormSprite;
 import worms.model.ModelException;
+import worms.model.World.TerrainClass;
+import worms.model.World.TerrainDetailPyramid;
 import worms.model.World.World;
+import worms.model.worm.Trajectory;
+import worms.model.worm.Worm;
 
 public class PlayGameScreenDebugPainter extends PlayGameScreenPainter {
 
@@ -32,11 +36,19 @@ public class PlayGameScreenDebugPainter extends PlayGameScreenPainter {
 		super(screen);
 	}
 
+	@Override
+	public void levelChanged() {
+		super.levelChanged();
+		passableImage = null;
+	}
+
 	@Override
 	public void paint(Graphics2D g) {
 		super.paint(g);
 
 		paintCommandStack(g);
+		paintDetailLevels(g);
+		paintTrajectoryCache(g);
 	}
 
 	protected void paintCommandStack(Graphics2D g) {
@@ -48,6 +60,58 @@ public class PlayGameScreenDebugPainter extends PlayGameScreenPainter {
 		}
 	}
 
+	/**
+	 * Show the level of detail at which the terrain is rendered and at which
+	 * the last terrain query was answered, with their error bounds, and the
+	 * amount of queries answered at every level of detail.
+	 */
+	protected void paintDetailLevels(Graphics2D g) {
+		TerrainDetailPyramid pyramid = getState().getDetailPyramid();
+		if (pyramid == null) {
+			return;
+		}
+		int y = getScreen().getScreenHeight() - 15;
+		g.setColor(Color.WHITE);
+		for (int level = pyramid.getAmountOfLevels() - 1; level >= 0; level--) {
+			if (pyramid.getAmountOfQueries(level) > 0) {
+				g.drawString(String.format(
+						"LOD %d (error %.3f): %d queries, %d mixed", level,
+						pyramid.getErrorBound(level),
+						pyramid.getAmountOfQueries(level),
+						pyramid.getAmountOfMixedQueries(level)), 15, y);
+				y -= 15;
+			}
+		}
+		int last = pyramid.getLastSelectedLevel();
+		if (last >= 0) {
+			g.drawString(String.format("Last query: LOD %d (error %.3f)",
+					last, pyramid.getErrorBound(last)), 15, y);
+			y -= 15;
+		}
+		g.drawString(String.format("Rendering: LOD %d (error %.3f)",
+				getDetailLevel(), pyramid.getErrorBound(getDetailLevel())), 15,
+				y);
+	}
+
+	/**
+	 * Show how often the jump trajectories of the worms were drawn without
+	 * finding their landing time again.
+	 */
+	protected void paintTrajectoryCache(Graphics2D g) {
+		long hits = 0;
+		long misses = 0;
+		for (Worm worm : getState().getWorms()) {
+			hits += worm.getAmountOfTrajectoryHits();
+			misses += worm.getAmountOfTrajectoryMisses();
+		}
+		long total = hits + misses;
+		g.setColor(Color.WHITE);
+		g.drawString(String.format("Trajectories: %d hits, %d misses (%.1f%%)",
+				hits, misses, (total == 0) ? 0. : 100. * hits / total),
+				getScreen().getScreenWidth() - 300,
+				getScreen().getScreenHeight() - 15);
+	}
+
 	@Override
 	protected void paintLevel() {
 		super.paintLevel();
@@ -73,33 +137,37 @@ public class PlayGameScreenDebugPainter extends PlayGameScreenPainter {
 																		// pixels
 			double stepSize = getScreen().screenToWorldDistance(3); // 3 screen
 																	// pixels
-			for (double x = testRadius; x <= level.getWorldWidth() - testRadius; x += stepSize) {
-				for (double y = testRadius; y <= level.getWorldHeight()
-						- testRadius; y += stepSize) {
-					double randomizedX = x + (-0.5 + Math.random()) * stepSize
-							* 2;
-					double randomizedY = y + (-0.5 + Math.random()) * stepSize
-							* 2;
-					Graphics2D targetGraphics = imGfx;
-					boolean isPassable = false;
-					if (getFacade().isImpassable(world, randomizedX,
-							randomizedY, testRadius)) {
-						targetGraphics.setColor(new Color(255, 0, 0, 4));
-					} else if (getFacade().isAdjacent(world, randomizedX,
-							randomizedY, testRadius)) {
-						targetGraphics = imAdjacencyGfx;
-						targetGraphics.setColor(new Color(0, 255, 0, 64));
-					} else {
-						isPassable = true;
-						targetGraphics.setColor(new Color(0, 0, 255, 4));
-					}
-					if (!isPassable || PAINT_PASSABLE) {
-						Double circle = GUIUtils.circleAt(
-								getScreenX(randomizedX),
-								getScreenY(randomizedY), getScreen()
-										.worldToScreenDistance(testRadius));
-						targetGraphics.fill(circle);
-					}
+			int columns = Math.max(0, (int) Math.floor((level.getWorldWidth() - 2 * testRadius) / stepSize) + 1);
+			int rows = Math.max(0, (int) Math.floor((level.getWorldHeight() - 2 * testRadius) / stepSize) + 1);
+			double[] xs = new double[columns * rows];
+			double[] ys = new double[columns * rows];
+			for (int i = 0; i < columns; i++) {
+				for (int j = 0; j < rows; j++) {
+					xs[i * rows + j] = testRadius + i * stepSize
+							+ (-0.5 + Math.random()) * stepSize * 2;
+					ys[i * rows + j] = testRadius + j * stepSize
+							+ (-0.5 + Math.random()) * stepSize * 2;
+				}
+			}
+			TerrainClass[] classes = new TerrainClass[xs.length];
+			getFacade().classify(world, xs, ys, testRadius, classes);
+			for (int k = 0; k < xs.length; k++) {
+				Graphics2D targetGraphics = imGfx;
+				boolean isPassable = false;
+				if (classes[k] == TerrainClass.IMPASSABLE) {
+					targetGraphics.setColor(new Color(255, 0, 0, 4));
+				} else if (classes[k] == TerrainClass.ADJACENT) {
+					targetGraphics = imAdjacencyGfx;
+					targetGraphics.setColor(new Color(0, 255, 0, 64));
+				} else {
+					isPassable = true;
+					targetGraphics.setColor(new Color(0, 0, 255, 4));
+				}
+				if (!isPassable || PAINT_PASSABLE) {
+					Double circle = GUIUtils.circleAt(getScreenX(xs[k]),
+							getScreenY(ys[k]), getScreen()
+									.worldToScreenDistance(testRadius));
+					targetGraphics.fill(circle);
 				}
 			}
 			imGfx.drawImage(adjacencyImage, 0, 0, null);
@@ -139,28 +207,21 @@ public class PlayGameScreenDebugPainter extends PlayGameScreenPainter {
 	@Override
 	protected void drawJumpMarkers(WormSprite sprite) {
 		try {
-			double currentWormX = getFacade().getX(sprite.getWorm());
-			double currentWormY = getFacade().getY(sprite.getWorm());
-
-			double[] prevXY = new double[] { currentWormX, currentWormY };
-
-			double time = getFacade().getJumpTime(sprite.getWorm(),
-					GUIConstants.JUMP_TIME_STEP);
-			int n = 1 + (int) (time / JUMP_MARKER_TIME_DISTANCE);
-			for (int i = 1; i <= n; i++) {
-				double dt = i * time / n;
-				double[] xy = getFacade().getJumpStep(sprite.getWorm(), dt);
-				if (xy != null && prevXY != null) {
-					double jumpX = getScreenX(xy[0]);
-					double jumpY = getScreenY(xy[1]);
-					currentGraphics.setColor(JUMP_MARKER_COLOR);
-					currentGraphics.drawLine((int) getScreenX(prevXY[0]),
-							(int) getScreenY(prevXY[1]), (int) jumpX,
-							(int) jumpY);
-					prevXY = xy;
-					drawCrossMarker(jumpX, jumpY, JUMP_MARKER_SIZE,
-							JUMP_MARKER_COLOR);
-				}
+			double prevX = getScreenX(getFacade().getX(sprite.getWorm()));
+			double prevY = getScreenY(getFacade().getY(sprite.getWorm()));
+
+			Trajectory trajectory = getFacade().getJumpTrajectory(
+					sprite.getWorm(), GUIConstants.JUMP_TIME_STEP);
+			for (int i = 0; i < trajectory.getAmountOfSamples(); i++) {
+				double jumpX = getScreenX(trajectory.getSampleX(i));
+				double jumpY = getScreenY(trajectory.getSampleY(i));
+				currentGraphics.setColor(JUMP_MARKER_COLOR);
+				currentGraphics.drawLine((int) prevX, (int) prevY,
+						(int) jumpX, (int) jumpY);
+				prevX = jumpX;
+				prevY = jumpY;
+				drawCrossMarker(jumpX, jumpY, JUMP_MARKER_SIZE,
+						JUMP_MARKER_COLOR);
 			}
 		} catch (ModelException e) {
 			// cannot jump; draw nothing
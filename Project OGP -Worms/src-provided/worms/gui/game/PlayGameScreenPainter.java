@@ -1,13 +1,17 @@
 package worms.gui.game;
 
+import java.awt.AlphaComposite;
 import java.awt.Color;
 import java.awt.Font;
 import java.awt.Graphics2D;
 import java.awt.Image;
+import java.awt.RenderingHints;
 import java.awt.Shape;
+import java.awt.geom.AffineTransform;
 import java.awt.geom.Ellipse2D;
 import java.awt.geom.Rectangle2D;
 import java.awt.geom.RoundRectangle2D;
+import java.awt.image.BufferedImage;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.StringTokenizer;
@@ -22,7 +26,11 @@ import worms.gui.game.sprites.ProjectileSprite;
 import worms.gui.game.sprites.WormSprite;
 import worms.model.IFacade;
 import worms.model.ModelException;
+import worms.model.World.Terrain;
+import worms.model.World.TerrainDetailPyramid;
+import worms.model.World.TerrainRegion;
 import worms.model.World.World;
+import worms.model.worm.Trajectory;
 import worms.model.worm.Worm;
 
 public class PlayGameScreenPainter extends AbstractPainter<PlayGameScreen> {
@@ -63,11 +71,16 @@ public class PlayGameScreenPainter extends AbstractPainter<PlayGameScreen> {
 	protected static final Color JUMP_MARKER_COLOR = Color.GRAY;
 
 	protected static final int JUMP_MARKER_SIZE = 1;
-	protected static final double JUMP_MARKER_TIME_DISTANCE = 0.1; // worm-seconds
 	protected static final double DIRECTION_INDICATOR_SIZE = 10;
+	protected static final int FILLED_TERRAIN_COLOR = 0xff6b4a2b;
 
 	protected Graphics2D currentGraphics;
-	private Image scaledImage;
+	private BufferedImage mapImage;
+	private BufferedImage scaledImage;
+	private double scaleRatio;
+	private double pixelRatio;
+	private int detailLevel;
+	private boolean levelChanged;
 
 	public PlayGameScreenPainter(PlayGameScreen screen) {
 		super(screen);
@@ -75,9 +88,139 @@ public class PlayGameScreenPainter extends AbstractPainter<PlayGameScreen> {
 
 	private void createBackgroundImage() {
 		if (scaledImage == null) {
-			scaledImage = GUIUtils.scaleTo(getState().getLevel().getMapImage(),
+			BufferedImage original = getState().getLevel().getDisplayImage(
+					getScreen().getScreenWidth(),
+					getScreen().getScreenHeight());
+			mapImage = new BufferedImage(original.getWidth(),
+					original.getHeight(), BufferedImage.TYPE_INT_ARGB);
+			mapImage.createGraphics().drawImage(original, 0, 0, null);
+			pixelRatio = (double) original.getWidth()
+					/ getLevel().getMapWidth();
+			detailLevel = selectDetailLevel();
+			Image scaled = GUIUtils.scaleTo(original,
 					getScreen().getScreenWidth(),
 					getScreen().getScreenHeight(), Image.SCALE_SMOOTH);
+			scaleRatio = Math.min((double) getScreen().getScreenHeight()
+					/ original.getHeight(), (double) getScreen()
+					.getScreenWidth() / original.getWidth());
+			scaledImage = new BufferedImage(
+					(int) (scaleRatio * original.getWidth()),
+					(int) (scaleRatio * original.getHeight()),
+					BufferedImage.TYPE_INT_ARGB);
+			Graphics2D g = scaledImage.createGraphics();
+			g.drawImage(scaled, 0, 0, null);
+			g.dispose();
+		}
+	}
+
+	/**
+	 * Make the background again from the map image of the level, which has
+	 * been reloaded, and then from the terrain of the world, which keeps the
+	 * craters of the game.
+	 */
+	public void levelChanged() {
+		scaledImage = null;
+		levelChanged = true;
+	}
+
+	/**
+	 * The coarsest level of detail of the terrain whose blocks are no larger
+	 * than the map pixels covered by a single pixel of the map image.
+	 */
+	private int selectDetailLevel() {
+		TerrainDetailPyramid pyramid = getState().getDetailPyramid();
+		if (pyramid == null) {
+			return 0;
+		}
+		int levels = pyramid.getAmountOfLevels();
+		int level = 0;
+		while (level + 1 < levels && (1 << (level + 1)) * pixelRatio <= 1) {
+			level++;
+		}
+		return level;
+	}
+
+	/**
+	 * The level of detail of the terrain at which the background is patched.
+	 */
+	protected int getDetailLevel() {
+		return detailLevel;
+	}
+
+	/**
+	 * Redraw the parts of the background whose terrain has been carved or
+	 * filled since the last frame, instead of scaling the whole map again.
+	 * The map image may be subsampled, so every pixel of it is looked up at
+	 * the level of detail matching its size: it is carved if its block is
+	 * free of terrain, filled if its block is solid, and otherwise takes the
+	 * terrain of the map pixel at its centre.
+	 */
+	private void patchBackgroundImage() {
+		List<TerrainRegion> regions;
+		TerrainDetailPyramid pyramid = getState().getDetailPyramid();
+		try {
+			regions = getFacade().takeDirtyRegions(getWorld());
+		} catch (ModelException e) {
+			return;
+		}
+		if (pyramid == null) {
+			return;
+		}
+		if (levelChanged) {
+			regions = new ArrayList<TerrainRegion>(regions);
+			regions.add(new TerrainRegion(0, 0, getLevel().getMapWidth(),
+					getLevel().getMapHeight()));
+			levelChanged = false;
+		}
+		Terrain solid = pyramid.getSolidReduction(detailLevel);
+		Terrain free = pyramid.getFreeReduction(detailLevel);
+		for (TerrainRegion region : regions) {
+			int fromX = (int) Math.floor(region.getFromColumn() * pixelRatio);
+			int fromY = (int) Math.floor(region.getFromRow() * pixelRatio);
+			int toX = Math.min(mapImage.getWidth(),
+					(int) Math.ceil(region.getToColumn() * pixelRatio));
+			int toY = Math.min(mapImage.getHeight(),
+					(int) Math.ceil(region.getToRow() * pixelRatio));
+			for (int y = fromY; y < toY; y++) {
+				int row = Math.min(getLevel().getMapHeight() - 1,
+						(int) ((y + 0.5) / pixelRatio));
+				for (int x = fromX; x < toX; x++) {
+					int column = Math.min(getLevel().getMapWidth() - 1,
+							(int) ((x + 0.5) / pixelRatio));
+					int argb = mapImage.getRGB(x, y);
+					boolean opaque = (argb & 0xf0000000) != 0;
+					boolean passable;
+					if (solid.isPassable(column >> detailLevel,
+							row >> detailLevel)) {
+						passable = true;
+					} else if (!free.isPassable(column >> detailLevel,
+							row >> detailLevel)) {
+						passable = false;
+					} else {
+						passable = getFacade().isPassablePixel(getWorld(),
+								column, row);
+					}
+					if (passable) {
+						mapImage.setRGB(x, y, argb & 0x00ffffff);
+					} else if (!opaque) {
+						mapImage.setRGB(x, y, FILLED_TERRAIN_COLOR);
+					}
+				}
+			}
+			Graphics2D g = scaledImage.createGraphics();
+			g.setComposite(AlphaComposite.Src);
+			g.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+					RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+			int clipFromX = (int) Math.floor(fromX * scaleRatio) - 1;
+			int clipFromY = (int) Math.floor(fromY * scaleRatio) - 1;
+			int clipToX = (int) Math.ceil(toX * scaleRatio) + 1;
+			int clipToY = (int) Math.ceil(toY * scaleRatio) + 1;
+			g.setClip(clipFromX, clipFromY, clipToX - clipFromX, clipToY
+					- clipFromY);
+			g.drawImage(mapImage,
+					AffineTransform.getScaleInstance(scaleRatio, scaleRatio),
+					null);
+			g.dispose();
 		}
 	}
 
@@ -131,6 +274,7 @@ public class PlayGameScreenPainter extends AbstractPainter<PlayGameScreen> {
 
 	protected void paintLevel() {
 		createBackgroundImage();
+		patchBackgroundImage();
 
 		int x = (int) getScreenX(0);
 		int y = (int) getScreenY(getLevel().getWorldHeight());
@@ -307,18 +451,13 @@ public class PlayGameScreenPainter extends AbstractPainter<PlayGameScreen> {
 
 	protected void drawJumpMarkers(WormSprite sprite) {
 		try {
-			double time = getFacade().getJumpTime(sprite.getWorm(),
-					GUIConstants.JUMP_TIME_STEP);
-			int n = 1 + (int) (time / JUMP_MARKER_TIME_DISTANCE);
-			for (int i = 1; i <= n; i++) {
-				double dt = i * time / n;
-				double[] xy = getFacade().getJumpStep(sprite.getWorm(), dt);
-				if (xy != null) {
-					double jumpX = getScreenX(xy[0]);
-					double jumpY = getScreenY(xy[1]);
-					drawCrossMarker(jumpX, jumpY, JUMP_MARKER_SIZE,
-							JUMP_MARKER_COLOR);
-				}
+			Trajectory trajectory = getFacade().getJumpTrajectory(
+					sprite.getWorm(), GUIConstants.JUMP_TIME_STEP);
+			for (int i = 0; i < trajectory.getAmountOfSamples(); i++) {
+				double jumpX = getScreenX(trajectory.getSampleX(i));
+				double jumpY = getScreenY(trajectory.getSampleY(i));
+				drawCrossMarker(jumpX, jumpY, JUMP_MARKER_SIZE,
+						JUMP_MARKER_COLOR);
 			}
 		} catch (ModelException e) {
 			// cannot jump; draw nothing
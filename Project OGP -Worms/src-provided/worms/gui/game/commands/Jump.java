@@ -11,9 +11,7 @@ import worms.model.worm.Worm;
 
 public class Jump extends Command {
 	private boolean finished = false;
-	private boolean hasJumped;
 	private final Worm worm;
-	private double jumpDuration;
 
 	public Jump(IFacade facade, Worm worm, PlayGameScreen screen) {
 		super(facade, screen);
@@ -36,8 +34,8 @@ public class Jump extends Command {
 	@Override
 	protected void doStartExecution() {
 		try {
-			this.jumpDuration = getFacade().getJumpTime(worm,
-					GUIConstants.JUMP_TIME_STEP);
+			// The jump drawn for the worm; the world lands it on a tick.
+			getFacade().startJump(worm, GUIConstants.JUMP_TIME_STEP);
 		} catch (ModelException e) {
 			cancelExecution();
 		}
@@ -53,27 +51,24 @@ public class Jump extends Command {
 	protected void doUpdate(double dt) {
 		WormSprite sprite = getScreen().getWormSprite(getWorm());
 		try {
-			if (getElapsedTime() >= jumpDuration) {
-				if (!hasJumped) {
-					hasJumped = true;
-					getFacade().jump(getWorm(), GUIConstants.JUMP_TIME_STEP);
-					if (getFacade().isAlive(getWorm())) {
-						double x = getFacade().getX(getWorm());
-						double y = getFacade().getY(getWorm());
-						sprite.setCenterLocation(getScreen().getScreenX(x),
-								getScreen().getScreenY(y));
-					}
-					finished = true;
+			if (!getFacade().isJumping(getWorm())) {
+				if (getFacade().isAlive(getWorm())) {
+					double x = getFacade().getX(getWorm());
+					double y = getFacade().getY(getWorm());
+					sprite.setCenterLocation(getScreen().getScreenX(x),
+							getScreen().getScreenY(y));
 				}
+				finished = true;
 			} else {
-				double[] xy = getFacade().getJumpStep(getWorm(),
-						getElapsedTime());
+				// Between ticks, the worm is shown where real time has brought
+				// it.
+				double[] xy = getFacade().getInterpolatedPosition(getWorm());
 				sprite.setCenterLocation(getScreen().getScreenX(xy[0]),
 						getScreen().getScreenY(xy[1]));
 			}
 		} catch (ModelException e) {
 			e.printStackTrace();
-			afterExecutionCancelled();
+			cancelExecution();
 		}
 	}
 
@@ -82,4 +77,4 @@ public class Jump extends Command {
 		return finished;
 	}
 
-}
\ No newline at end of file
+}
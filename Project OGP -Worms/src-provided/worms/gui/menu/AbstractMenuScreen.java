@@ -35,14 +35,23 @@ public abstract class AbstractMenuScreen<Choice> extends Screen {
 
 	public void selectNext() {
 		selectedIndex = (selectedIndex + 1) % choices.length;
+		choiceHighlighted(choices[selectedIndex]);
 		repaint();
 	}
 
 	public void selectPrevious() {
 		selectedIndex = (selectedIndex + choices.length - 1) % choices.length;
+		choiceHighlighted(choices[selectedIndex]);
 		repaint();
 	}
 
+	/**
+	 * Called on the event dispatch thread when the player moves the
+	 * highlight to the given choice.
+	 */
+	protected void choiceHighlighted(Choice choice) {
+	}
+
 	public void selectCurrent() {
 		if (selection.isEmpty())
 			selection.add(choices[selectedIndex]);
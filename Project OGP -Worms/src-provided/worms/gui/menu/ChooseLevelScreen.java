@@ -1,22 +1,50 @@
 package worms.gui.menu;
 
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
 import worms.gui.Level;
+import worms.gui.LevelCatalog;
+import worms.gui.LevelPreloader;
 import worms.gui.WormsGUI;
 
 class ChooseLevelScreen extends AbstractMenuScreen<Level> {
 
-	public ChooseLevelScreen(WormsGUI gui) {
+	private static final int THUMBNAIL_MARGIN = 20;
+
+	private final LevelPreloader preloader;
+
+	private final LevelCatalog.Listener repainter = new LevelCatalog.Listener() {
+
+		@Override
+		public void entryReady(LevelCatalog.Entry entry) {
+			repaint();
+		}
+	};
+
+	public ChooseLevelScreen(WormsGUI gui, LevelPreloader preloader) {
 		super(gui);
+		this.preloader = preloader;
 	}
 
 	@Override
 	protected Level[] getChoices() {
-		return Level.getAvailableLevels();
+		return LevelCatalog.getDefault().getLevels();
 	}
 
+	/**
+	 * The name of the level, with the size of its map once the catalog has
+	 * read it.
+	 */
 	@Override
 	protected String getDisplayName(Level level) {
-		return level.getName();
+		LevelCatalog.Entry entry = LevelCatalog.getDefault().getEntry(level);
+		if (entry == null || entry.getMapWidth() == 0) {
+			return level.getName();
+		}
+		return level.getName() + " (" + entry.getMapWidth() + "x"
+				+ entry.getMapHeight() + ")";
 	}
 
 	@Override
@@ -24,7 +52,46 @@ class ChooseLevelScreen extends AbstractMenuScreen<Level> {
 		return "Choose the level you want to play";
 	}
 
+	@Override
+	protected void paintScreen(Graphics2D g) {
+		super.paintScreen(g);
+		if (choices.length == 0) {
+			return;
+		}
+		LevelCatalog.Entry entry = LevelCatalog.getDefault().getEntry(
+				choices[selectedIndex]);
+		BufferedImage thumbnail = (entry == null) ? null : entry
+				.getThumbnail();
+		if (thumbnail != null) {
+			int x = getScreenWidth() - thumbnail.getWidth() - THUMBNAIL_MARGIN;
+			int y = getScreenHeight() - thumbnail.getHeight()
+					- THUMBNAIL_MARGIN;
+			g.drawImage(thumbnail, x, y, null);
+			g.setColor(Color.WHITE);
+			g.drawRect(x - 1, y - 1, thumbnail.getWidth() + 1,
+					thumbnail.getHeight() + 1);
+		}
+	}
+
+	/**
+	 * Start loading the highlighted level while the player is choosing.
+	 */
+	@Override
+	protected void choiceHighlighted(Level level) {
+		preloader.preload(level, getScreenWidth(), getScreenHeight());
+	}
+
 	@Override
 	public void screenStarted() {
+		LevelCatalog.getDefault().addListener(repainter);
+		if (choices.length > 0) {
+			choiceHighlighted(choices[selectedIndex]);
+		}
+	}
+
+	@Override
+	public void screenStopped() {
+		LevelCatalog.getDefault().removeListener(repainter);
+		super.screenStopped();
 	}
 }
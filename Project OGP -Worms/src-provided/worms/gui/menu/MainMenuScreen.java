@@ -2,6 +2,9 @@ package worms.gui.menu;
 
 import worms.gui.GameState;
 import worms.gui.Level;
+import worms.gui.LevelCache;
+import worms.gui.LevelCatalog;
+import worms.gui.LevelPreloader;
 import worms.gui.WormsGUI;
 import worms.gui.game.PlayGameScreen;
 import worms.gui.messages.MessageType;
@@ -22,6 +25,9 @@ enum MainMenuOption {
 
 public class MainMenuScreen extends AbstractMenuScreen<MainMenuOption> {
 
+	private final LevelPreloader preloader = new LevelPreloader(
+			GameState.getLevelCache());
+
 	public MainMenuScreen(WormsGUI gui) {
 		super(gui);
 	}
@@ -43,6 +49,11 @@ public class MainMenuScreen extends AbstractMenuScreen<MainMenuOption> {
 
 	@Override
 	public void screenStarted() {
+		// The level chooser highlights the first level when it is shown.
+		Level[] levels = LevelCatalog.getDefault().getLevels();
+		if (levels.length > 0) {
+			preloader.preload(levels[0], getScreenWidth(), getScreenHeight());
+		}
 		MainMenuOption option = select();
 		switch (option) {
 		case Play:
@@ -59,9 +70,10 @@ public class MainMenuScreen extends AbstractMenuScreen<MainMenuOption> {
 	private void startGame(boolean debugMode) {
 		WormsGUI gui = getGUI();
 
-		ChooseLevelScreen chooseLevel = new ChooseLevelScreen(gui);
+		ChooseLevelScreen chooseLevel = new ChooseLevelScreen(gui, preloader);
 		getGUI().switchToScreen(chooseLevel);
 		Level level = chooseLevel.select();
+		long selected = System.nanoTime();
 		if (debugMode) {
 			chooseLevel
 					.addMessage(
@@ -78,9 +90,17 @@ public class MainMenuScreen extends AbstractMenuScreen<MainMenuOption> {
 		PlayGameScreen playGameScreen = PlayGameScreen.create(gui, gameState,
 				debugMode);
 
-		gameState.createWorld();
+		LevelCache.Entry entry = preloader.take(level);
+		gameState.createWorld(entry);
 
 		getGUI().switchToScreen(playGameScreen);
+
+		if (debugMode) {
+			playGameScreen.addMessage(String.format(
+					"Level ready %d ms after selection (%d ms preloaded)",
+					(System.nanoTime() - selected) / 1000000,
+					preloader.getLastSavedMillis()), MessageType.INFO);
+		}
 	}
 
 }
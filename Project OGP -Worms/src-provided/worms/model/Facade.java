@@ -2,11 +2,18 @@ package worms.model;
 
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Random;
 
+import worms.model.World.Terrain;
+import worms.model.World.TerrainClass;
+import worms.model.World.TerrainRegion;
+import worms.model.World.TerrainSnapshot;
 import worms.model.World.World;
 import worms.model.weapon.Projectile;
+import worms.model.worm.Trajectory;
 import worms.model.worm.Worm;
+import worms.model.worm.WormConstants;
 import be.kuleuven.cs.som.annotate.*;
 import be.kuleuven.cs.som.taglet.*;
 
@@ -46,12 +53,16 @@ public class Facade implements IFacade{
 	 * 			| !Name.isPossibleName(name)
 	 * @effect	A new worm is initialized by using the given parameters. <br>
 	 * 			| new Worm(x, y, direction, radius, name)
+	 * @effect	The new worm is added to the given world where it stands, if the given world is effective. <br>
+	 * 			| if (world != null) then world.addWormAtPosition(result)
 	 */
 	@Override
 	public Worm createWorm(World world, double x, double y, double direction, double radius,
 			String name) {
 		try {
 			Worm worm = new Worm(world,x,y,direction,radius,name);
+			if (world != null)
+				world.addWormAtPosition(worm);
 			return worm;
 		}
 		catch (IllegalArgumentException exc){
@@ -181,6 +192,94 @@ public class Facade implements IFacade{
 		}
 	}
 	
+	/**
+	 * Start a jump of the given worm in the simulation of its world.
+	 * 
+	 * @effect	| worm.getWorld().startJump(worm, timeStep)
+	 * @throws	ModelException
+	 * 			The given worm is not effective or not in a world. <br>
+	 * 			| worm == null || worm.getWorld() == null
+	 * @throws	ModelException
+	 * 			The world of the given worm does not have it. <br>
+	 * 			| !worm.getWorld().hasAsWorm(worm)
+	 * @throws	ModelException
+	 * 			The given worm can not jump, or is already jumping. <br>
+	 * 			| !worm.canJump() || worm.getWorld().isJumping(worm)
+	 */
+	@Override
+	public void startJump(Worm worm, double timeStep) {
+		try {
+			worm.getWorld().startJump(worm, timeStep);
+		}
+		catch (NullPointerException exc) {
+			throw new ModelException("The given worm must be an effective worm in a world.");
+		}
+		catch (IllegalArgumentException exc) {
+			throw new ModelException("The given worm is not in the world it refers to.");
+		}
+		catch(IllegalStateException exc) {
+			throw new ModelException("The given worm can not jump.");
+		}
+	}
+	
+	/**
+	 * Check whether the given worm is jumping in the simulation of its world.
+	 * 
+	 * @return	| worm.getWorld().isJumping(worm)
+	 * @throws	ModelException
+	 * 			The given worm is not effective or not in a world. <br>
+	 * 			| worm == null || worm.getWorld() == null
+	 */
+	@Override
+	public boolean isJumping(Worm worm) {
+		try {
+			return worm.getWorld().isJumping(worm);
+		}
+		catch (NullPointerException exc) {
+			throw new ModelException("The given worm must be an effective worm in a world.");
+		}
+	}
+	
+	/**
+	 * Return the position at which the given worm is shown at the current real time.
+	 * 
+	 * @return	| { worm.getWorld().getInterpolatedPosition(worm).getX(), worm.getWorld().getInterpolatedPosition(worm).getY() }
+	 * @throws	ModelException
+	 * 			The given worm is not effective or not in a world. <br>
+	 * 			| worm == null || worm.getWorld() == null
+	 */
+	@Override
+	public double[] getInterpolatedPosition(Worm worm) {
+		try {
+			Position position = worm.getWorld().getInterpolatedPosition(worm);
+			return new double[] { position.getX(), position.getY() };
+		}
+		catch (NullPointerException exc) {
+			throw new ModelException("The given worm must be an effective worm in a world.");
+		}
+	}
+	
+	/**
+	 * Advance the simulation of the given world by the given amount of real time.
+	 * 
+	 * @effect	| world.step(timeDelta)
+	 * @throws	ModelException
+	 * 			The given world is not effective, or the given time is not a valid, non-negative number. <br>
+	 * 			| world == null || !(timeDelta >= 0) || Double.isInfinite(timeDelta)
+	 */
+	@Override
+	public void step(World world, double timeDelta) {
+		try {
+			world.step(timeDelta);
+		}
+		catch (NullPointerException exc) {
+			throw new ModelException("The given world must be an effective world.");
+		}
+		catch (IllegalArgumentException exc) {
+			throw new ModelException("The given time is not a valid amount of time.");
+		}
+	}
+	
 	/**
 	 * Get the time the given worm jumps for.
 	 * 
@@ -205,6 +304,24 @@ public class Facade implements IFacade{
 		
 	}
 
+	/**
+	 * Get the trajectory of a jump of the given worm.
+	 * 
+	 * @return	| worm.getTrajectory(timeStep)
+	 * @throws	ModelException
+	 * 			The given worm can not jump. <br>
+	 * 			| !worm.canJump()
+	 */
+	@Override
+	public Trajectory getJumpTrajectory(Worm worm, double timeStep) {
+		try{
+			return worm.getTrajectory(timeStep);
+		}
+		catch(IllegalStateException exc) {
+			throw new ModelException("The given worm can not jump.");
+		}
+	}
+
 	/**
 	 * Get the jump step of the given worm after the given time.
 	 * 
@@ -482,16 +599,61 @@ public class Facade implements IFacade{
 		
 	}
 
+	/**
+	 * Add a new worm to the given world, on a random spot where it stands on impassable terrain.
+	 * 
+	 * @effect	| world.addWorm(new Worm(world, 0, 0, 0, 0.5, "New"))
+	 * @throws	ModelException
+	 * 			There is no spot left in the given world for a new worm.
+	 */
 	@Override
 	public void addNewWorm(World world) {
-		Worm newWorm = createWorm(world,0,0,0,0.5, "New");
-		world.addWorm(newWorm);
+		try {
+			world.addWorm(new Worm(world,0,0,0,WormConstants.NEW_WORM_RADIUS, "New"));
+		}
+		catch (IllegalStateException exc) {
+			throw new ModelException(exc.getMessage());
+		}
+		catch (NullPointerException exc) {
+			throw new ModelException("The given world is not effective.");
+		}
 	}
 
+	/**
+	 * Check whether the given worm can fall down.
+	 * 
+	 * @return	| worm != null && worm.canFall()
+	 */
 	@Override
 	public boolean canFall(Worm worm) {
-		// TODO Auto-generated method stub
-		return false;
+		try {
+			return worm.canFall();
+		}
+		catch (NullPointerException exc) {
+			return false;
+		}
+	}
+
+	/**
+	 * Classify the circular regions of the given world around each of the given centres.
+	 * 
+	 * @effect	| world.classify(xs, ys, radius, classes, true)
+	 * @throws	ModelException
+	 * 			The given world or one of the given arrays is not effective, or the arrays do not have the same length. <br>
+	 * 			| world == null || xs == null || ys == null || classes == null || <br>
+	 * 			| ys.length != xs.length || classes.length != xs.length
+	 */
+	@Override
+	public void classify(World world, double[] xs, double[] ys, double radius, TerrainClass[] classes) {
+		try {
+			world.classify(xs, ys, radius, classes, true);
+		}
+		catch (NullPointerException exc) {
+			throw new ModelException("The given world must be an effective world.");
+		}
+		catch (IllegalArgumentException exc) {
+			throw new ModelException("The given arrays must be effective and of the same length.");
+		}
 	}
 
 	@Override
@@ -507,16 +669,82 @@ public class Facade implements IFacade{
 		return world;
 	}
 
+	/**
+	 * Create a new world with the given dimensions, terrain and random.
+	 * 
+	 * @return	| new World(width, height, terrain, random)
+	 * @throws	ModelException
+	 * 			The given terrain is not effective or the given dimensions are not legal. <br>
+	 * 			| terrain == null
+	 */
+	@Override
+	public World createWorld(double width, double height, Terrain terrain,
+			Random random) {
+		try {
+			return new World(width, height, terrain, random);
+		}
+		catch (IllegalArgumentException exc) {
+			throw new ModelException("The given terrain and dimensions must be valid.");
+		}
+	}
+
+	/**
+	 * Create a new world with the given dimensions, snapshot of its terrain and random.
+	 * 
+	 * @return	| new World(width, height, snapshot, random)
+	 * @throws	ModelException
+	 * 			The given snapshot is not effective or was not computed for the given dimensions. <br>
+	 * 			| snapshot == null || snapshot.getDistanceField().getPixelMapping().getWidth() != width || <br>
+	 * 			| snapshot.getDistanceField().getPixelMapping().getHeight() != height
+	 */
+	@Override
+	public World createWorld(double width, double height, TerrainSnapshot snapshot,
+			Random random) {
+		try {
+			return new World(width, height, snapshot, random);
+		}
+		catch (IllegalArgumentException exc) {
+			throw new ModelException("The given snapshot and dimensions must be valid.");
+		}
+	}
+
+	/**
+	 * Make the given worm fall down until it rests on impassable terrain again.
+	 * 
+	 * @effect	| worm.fall()
+	 * @throws	ModelException
+	 * 			The given worm is not effective or can not fall. <br>
+	 * 			| worm == null || !worm.canFall()
+	 */
 	@Override
 	public void fall(Worm worm) {
-		// TODO Auto-generated method stub
-		
+		try {
+			worm.fall();
+		}
+		catch (NullPointerException exc) {
+			throw new ModelException("The given worm must be an effective worm.");
+		}
+		catch (IllegalStateException exc) {
+			throw new ModelException("The given worm can not fall.");
+		}
 	}
 
+	/**
+	 * Return the projectile flying in the given world.
+	 * 
+	 * @return	| world.getActiveProjectile()
+	 * @throws	ModelException
+	 * 			The given world is not effective. <br>
+	 * 			| world == null
+	 */
 	@Override
 	public Projectile getActiveProjectile(World world) {
-		// TODO Auto-generated method stub
-		return null;
+		try {
+			return world.getActiveProjectile();
+		}
+		catch (NullPointerException exc) {
+			throw new ModelException("The given world must be an effective world.");
+		}
 	}
 
 	@Override
@@ -537,16 +765,25 @@ public class Facade implements IFacade{
 		return 0;
 	}
 
+	/**
+	 * Get the position of the given projectile after the given time of its flight.
+	 * 
+	 * @return	| { projectile.jumpStep(t).getX(), projectile.jumpStep(t).getY() }
+	 */
 	@Override
 	public double[] getJumpStep(Projectile projectile, double t) {
-		// TODO Auto-generated method stub
-		return null;
+		Position jumpStep = projectile.jumpStep(t);
+		return new double[] { jumpStep.getX(), jumpStep.getY() };
 	}
 
+	/**
+	 * Get the time the given projectile flies before it hits terrain, a worm or the edge of its world.
+	 * 
+	 * @return	| projectile.jumpTime(timeStep)
+	 */
 	@Override
 	public double getJumpTime(Projectile projectile, double timeStep) {
-		// TODO Auto-generated method stub
-		return 0;
+		return projectile.jumpTime(timeStep);
 	}
 
 	@Override
@@ -562,16 +799,40 @@ public class Facade implements IFacade{
 		return 0;
 	}
 
+	/**
+	 * Return the radius of the given projectile.
+	 * 
+	 * @return	| projectile.getRadius()
+	 * @throws	ModelException
+	 * 			The given projectile is not effective. <br>
+	 * 			| projectile == null
+	 */
 	@Override
 	public double getRadius(Projectile projectile) {
-		// TODO Auto-generated method stub
-		return 0;
+		try {
+			return projectile.getRadius();
+		}
+		catch (NullPointerException exc) {
+			throw new ModelException("The given projectile must be an effective projectile.");
+		}
 	}
 
+	/**
+	 * Return the name of the weapon the given worm has selected.
+	 * 
+	 * @return	| worm.getCurrentWeaponName()
+	 * @throws	ModelException
+	 * 			The given worm is not effective. <br>
+	 * 			| worm == null
+	 */
 	@Override
 	public String getSelectedWeapon(Worm worm) {
-		// TODO Auto-generated method stub
-		return null;
+		try {
+			return worm.getCurrentWeaponName();
+		}
+		catch (NullPointerException exc) {
+			throw new ModelException("The given worm must be an effective worm.");
+		}
 	}
 
 	@Override
@@ -597,10 +858,22 @@ public class Facade implements IFacade{
 		return 0;
 	}
 
+	/**
+	 * Return the x-coordinate of the given projectile.
+	 * 
+	 * @return	| projectile.getPosition().getX()
+	 * @throws	ModelException
+	 * 			The given projectile is not effective. <br>
+	 * 			| projectile == null
+	 */
 	@Override
 	public double getX(Projectile projectile) {
-		// TODO Auto-generated method stub
-		return 0;
+		try {
+			return projectile.getPosition().getX();
+		}
+		catch (NullPointerException exc) {
+			throw new ModelException("The given projectile must be an effective projectile.");
+		}
 	}
 
 	@Override
@@ -609,10 +882,22 @@ public class Facade implements IFacade{
 		return 0;
 	}
 
+	/**
+	 * Return the y-coordinate of the given projectile.
+	 * 
+	 * @return	| projectile.getPosition().getY()
+	 * @throws	ModelException
+	 * 			The given projectile is not effective. <br>
+	 * 			| projectile == null
+	 */
 	@Override
 	public double getY(Projectile projectile) {
-		// TODO Auto-generated method stub
-		return 0;
+		try {
+			return projectile.getPosition().getY();
+		}
+		catch (NullPointerException exc) {
+			throw new ModelException("The given projectile must be an effective projectile.");
+		}
 	}
 
 	@Override
@@ -621,16 +906,32 @@ public class Facade implements IFacade{
 		return false;
 	}
 
+	/**
+	 * Check whether the given projectile is still flying.
+	 * 
+	 * @return	| projectile != null && !projectile.isTerminated()
+	 */
 	@Override
 	public boolean isActive(Projectile projectile) {
-		// TODO Auto-generated method stub
-		return false;
+		return projectile != null && !projectile.isTerminated();
 	}
 
+	/**
+	 * Check whether the given circular region of the given world is passable and adjacent to impassable terrain.
+	 * 
+	 * @return	| world.isAdjacentToImpassableTerrain(new Position(x, y), radius)
+	 * @throws	ModelException
+	 * 			The given world is not effective. <br>
+	 * 			| world == null
+	 */
 	@Override
 	public boolean isAdjacent(World world, double x, double y, double radius) {
-		// TODO Auto-generated method stub
-		return false;
+		try {
+			return world.isAdjacentToImpassableTerrain(new Position(x, y), radius);
+		}
+		catch (NullPointerException exc) {
+			throw new ModelException("The given world must be an effective world.");
+		}
 	}
 
 	@Override
@@ -645,28 +946,100 @@ public class Facade implements IFacade{
 		return false;
 	}
 
+	/**
+	 * Check whether the given circular region of the given world is impassable.
+	 * 
+	 * @return	| world.isImpassable(new Position(x, y), radius)
+	 * @throws	ModelException
+	 * 			The given world is not effective. <br>
+	 * 			| world == null
+	 */
 	@Override
 	public boolean isImpassable(World world, double x, double y, double radius) {
-		// TODO Auto-generated method stub
-		return false;
+		try {
+			return world.isImpassable(new Position(x, y), radius);
+		}
+		catch (NullPointerException exc) {
+			throw new ModelException("The given world must be an effective world.");
+		}
 	}
 
+	/**
+	 * Make the given projectile fly to where it hits something, and end its flight there.
+	 * 
+	 * @effect	| projectile.jump(timeStep)
+	 * @throws	ModelException
+	 * 			The given projectile is not effective or no longer flying. <br>
+	 * 			| !isActive(projectile)
+	 */
 	@Override
 	public void jump(Projectile projectile, double timeStep) {
-		// TODO Auto-generated method stub
-		
+		try {
+			projectile.jump(timeStep);
+		}
+		catch (NullPointerException exc) {
+			throw new ModelException("The given projectile must be an effective projectile.");
+		}
+		catch (IllegalStateException exc) {
+			throw new ModelException("The given projectile is no longer flying.");
+		}
 	}
 
+	/**
+	 * Select the next weapon of the given worm.
+	 * 
+	 * @effect	| worm.selectNextWeapon()
+	 * @throws	ModelException
+	 * 			The given worm is not effective. <br>
+	 * 			| worm == null
+	 */
 	@Override
 	public void selectNextWeapon(Worm worm) {
-		// TODO Auto-generated method stub
-		
+		try {
+			worm.selectNextWeapon();
+		}
+		catch (NullPointerException exc) {
+			throw new ModelException("The given worm must be an effective worm.");
+		}
 	}
 
+	/**
+	 * Make the given worm shoot its selected weapon with the given propulsion yield.
+	 * 
+	 * @effect	| worm.shoot(yield)
+	 * @throws	ModelException
+	 * 			The given worm is not effective or can not shoot with the given yield. <br>
+	 * 			| worm == null || !worm.canShoot(yield)
+	 */
 	@Override
 	public void shoot(Worm worm, int yield) {
-		// TODO Auto-generated method stub
-		
+		try {
+			worm.shoot(yield);
+		}
+		catch (NullPointerException exc) {
+			throw new ModelException("The given worm must be an effective worm.");
+		}
+		catch (IllegalStateException exc) {
+			throw new ModelException("The given worm can not shoot.");
+		}
+	}
+
+	/**
+	 * Check whether the pixel on the given column and row of the given world is passable.
+	 * 
+	 * @return	| world.isPassablePixel(column, row)
+	 * @throws	ModelException
+	 * 			The given world is not effective. <br>
+	 * 			| world == null
+	 */
+	@Override
+	public boolean isPassablePixel(World world, int column, int row) {
+		try {
+			return world.isPassablePixel(column, row);
+		}
+		catch (NullPointerException exc) {
+			throw new ModelException("The given world must be an effective world.");
+		}
 	}
 
 	@Override
@@ -681,4 +1054,48 @@ public class Facade implements IFacade{
 		
 	}
 
+	/**
+	 * Return the regions of the given world whose passability has changed since they were last taken.
+	 * 
+	 * @param	world
+	 * 			The world whose dirty regions are taken.
+	 * @return	| world.takeDirtyRegions()
+	 * @throws	ModelException
+	 * 			The given world is not effective. <br>
+	 * 			| world == null
+	 */
+	@Override
+	public List<TerrainRegion> takeDirtyRegions(World world) {
+		if (world == null)
+			throw new ModelException("The given world must be an effective world.");
+		return world.takeDirtyRegions();
+	}
+
+	/**
+	 * Change the pixels of the given world that differ between the terrains of the given snapshots
+	 * to their passability in the second one.
+	 * 
+	 * @effect	| world.applyTerrainChanges(before.getTerrain(), after.getTerrain())
+	 * @throws	ModelException
+	 * 			The given world or one of the given snapshots is not effective, or the terrain of the world cannot be edited. <br>
+	 * 			| world == null || before == null || after == null || !(world.getTerrain() instanceof EditableTerrain)
+	 * @throws	ModelException
+	 * 			The terrain of one of the given snapshots does not have as many pixels as the given world.
+	 */
+	@Override
+	public void applyTerrainChanges(World world, TerrainSnapshot before, TerrainSnapshot after) {
+		try {
+			world.applyTerrainChanges(before.getTerrain(), after.getTerrain());
+		}
+		catch (NullPointerException exc) {
+			throw new ModelException("The given world and snapshots must be effective.");
+		}
+		catch (IllegalArgumentException exc) {
+			throw new ModelException("The given snapshots must have as many pixels as the given world.");
+		}
+		catch (IllegalStateException exc) {
+			throw new ModelException("The terrain of the given world can not be edited.");
+		}
+	}
+
 }
@@ -1,10 +1,16 @@
 package worms.model;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Random;
 
+import worms.model.World.Terrain;
+import worms.model.World.TerrainClass;
+import worms.model.World.TerrainRegion;
+import worms.model.World.TerrainSnapshot;
 import worms.model.World.World;
 import worms.model.weapon.Projectile;
+import worms.model.worm.Trajectory;
 import worms.model.worm.Worm;
 
 /**
@@ -100,6 +106,22 @@ public interface IFacade {
 	 */
 	boolean canTurn(Worm worm, double angle);
 
+	/**
+	 * Classifies the circular regions of the given world around each of the given centres,
+	 * all with the given radius, as passable, adjacent to impassable terrain, or impassable.
+	 * 
+	 * @param world The world in which to classify the regions
+	 * @param xs The x-coordinates of the centres of the circles to classify
+	 * @param ys The y-coordinates of the centres of the circles to classify
+	 * @param radius The radius of the circles to classify
+	 * @param classes The array in which the class of each circle is stored, at the index of its centre;
+	 * it must have the same length as the coordinate arrays
+	 * 
+	 * The class of a circle is IMPASSABLE whenever isImpassable would return true for it,
+	 * otherwise ADJACENT whenever isAdjacent would return true for it, and PASSABLE in all other cases.
+	 */
+	void classify(World world, double[] xs, double[] ys, double radius, TerrainClass[] classes);
+
 	/**
 	 * Create a new food ration that is positioned at the given location in the given world.
 	 * 
@@ -137,6 +159,41 @@ public interface IFacade {
 	public World createWorld(double width, double height,
 			boolean[][] passableMap, Random random);
 
+	/**
+	 * Creates a new world from a terrain that has already been extracted from the image file of the terrain.
+	 * 
+	 * @param width The width of the world (in meter)
+	 * 
+	 * @param height The height of the world (in meter)
+	 * 
+	 * @param terrain The passable and impassable pixels of the world, laid out as the passableMap of
+	 *  createWorld(double, double, boolean[][], Random).
+	 * 
+	 * @param random A random number generator, as for createWorld(double, double, boolean[][], Random).
+	 * 
+	 * @return The world.
+	 */
+	public World createWorld(double width, double height, Terrain terrain,
+			Random random);
+
+	/**
+	 * Creates a new world from a snapshot of a terrain whose indexes have already been computed,
+	 * for instance a copy of the snapshot of an earlier game on the same level.
+	 * 
+	 * @param width The width of the world (in meter)
+	 * 
+	 * @param height The height of the world (in meter)
+	 * 
+	 * @param snapshot The terrain of the world with its indexes; the world edits them in place,
+	 *  and they must have been computed for the given dimensions.
+	 * 
+	 * @param random A random number generator, as for createWorld(double, double, boolean[][], Random).
+	 * 
+	 * @return The world.
+	 */
+	public World createWorld(double width, double height, TerrainSnapshot snapshot,
+			Random random);
+
 	/**
 	 * Create a new worm that is positioned at the given location in the given world,
 	 * looks in the given direction, has the given radius and the given name.
@@ -233,6 +290,20 @@ public interface IFacade {
 	 */
 	double getJumpTime(Worm worm, double timeStep);
 
+	/**
+	 * Returns the trajectory of a jump of the given worm: its jump time, as
+	 * getJumpTime(Worm, double), and positions along the jump at evenly spaced times.
+	 * The trajectory is kept by the worm until the worm or the terrain changes, so that
+	 * it can be asked for on every repaint.
+	 * 
+	 * @param worm The worm for which to calculate the trajectory.
+	 * 
+	 * @param timeStep An elementary time interval, as for getJumpTime(Worm, double).
+	 * 
+	 * @return The trajectory of the worm's jump.
+	 */
+	Trajectory getJumpTrajectory(Worm worm, double timeStep);
+
 	/**
 	 * Returns the mass of the given worm.
 	 */
@@ -392,6 +463,19 @@ public interface IFacade {
 	 */
 	boolean isImpassable(World world, double x, double y, double radius);
 
+	/**
+	 * Checks whether the pixel on the given column and row of the passable map
+	 * of the given world is passable. Row 0 is the top row of the map.
+	 * Pixels outside the map are not passable.
+	 * 
+	 * @param world The world in which to check the pixel
+	 * @param column The column of the pixel
+	 * @param row The row of the pixel
+	 * 
+	 * @return True if the given pixel is passable, false otherwise.
+	 */
+	boolean isPassablePixel(World world, int column, int row);
+
 	/**
 	 * Make the given projectile jump to its new location.
 	 * The new location should be determined using the given elementary time interval. 
@@ -414,6 +498,34 @@ public interface IFacade {
 	 */
 	void jump(Worm worm, double timeStep);
 
+	/**
+	 * Start a jump of the given worm in the simulation of its world, which moves it
+	 * to its new location once the simulation has advanced by the jump time.
+	 * The new location is the one jump(Worm, double) would give.
+	 * 
+	 * @param worm The worm that needs to jump
+	 * 
+	 * @param timeStep An elementary time interval, as for jump(Worm, double).
+	 */
+	void startJump(Worm worm, double timeStep);
+
+	/**
+	 * Returns whether the given worm is jumping in the simulation of its world.
+	 */
+	boolean isJumping(Worm worm);
+
+	/**
+	 * Returns the location at which the given worm is shown at the current real time,
+	 * as an array with two elements: the x-coordinate and the y-coordinate.
+	 * A jumping worm is shown on its way between the ticks of the simulation of its world.
+	 */
+	double[] getInterpolatedPosition(Worm worm);
+
+	/**
+	 * Advances the simulation of the given world by the given amount of real time.
+	 */
+	void step(World world, double timeDelta);
+
 	/**
 	 * Moves the given worm according to the rules in the assignment.
 	 */
@@ -449,6 +561,20 @@ public interface IFacade {
 	 */
 	void startNextTurn(World world);
 
+	/**
+	 * Returns the rectangles of pixels of the given world whose passability has changed
+	 * since this method was last called for it, and forgets them.
+	 * The GUI uses these to patch its image of the terrain instead of redrawing all of it.
+	 */
+	List<TerrainRegion> takeDirtyRegions(World world);
+
+	/**
+	 * Changes the pixels of the given world that differ between the terrains of the given
+	 * snapshots to their passability in the second snapshot. The first snapshot is the one
+	 * the world was created from a copy of; pixels that are the same in both are left alone.
+	 */
+	void applyTerrainChanges(World world, TerrainSnapshot before, TerrainSnapshot after);
+
 	/**
 	 * Turns the given worm by the given angle.
 	 */
@@ -0,0 +1,240 @@
+package worms.model.World;
+
+import java.util.Arrays;
+
+import be.kuleuven.cs.som.annotate.*;
+
+/**
+ * A class of column surface indexes, which register for every column of a terrain the runs of impassable pixels
+ * in it, sorted from the top row down. <br>
+ * Rows are counted from the top of the terrain down, so below a given row means at a larger row, and the first
+ * impassable pixel below a given row of a column is found by a binary search over the runs of that column.
+ * Coordinates of a world are turned into rows by its pixel mapping. A circle dropped straight down therefore
+ * finds where it lands with one search for every column it covers, however far it falls. <br>
+ * When the terrain is edited, only the runs of the edited columns that cross the edited rows are looked at again.
+ * Only pixels inside the terrain are considered; the border of a world is left to the world itself.
+ *
+ * @author Ruben
+ */
+public class ColumnSurfaceIndex {
+
+	/**
+	 * Initialize this new column surface index for the given terrain, with pixels of the size given by the given mapping.
+	 *
+	 * @param	terrain
+	 * 			The terrain for this new index.
+	 * @param	mapping
+	 * 			The mapping between positions and pixels of the given terrain.
+	 * @post	The terrain and mapping of this new index are the given ones. <br>
+	 * 			| new.getTerrain() == terrain && new.getPixelMapping() == mapping
+	 * @throws	IllegalArgumentException
+	 * 			The given terrain or mapping is not effective, or they do not have the same amount of pixels. <br>
+	 * 			| terrain == null || mapping == null || <br>
+	 * 			| terrain.getAmountOfColumns() != mapping.getAmountOfColumns() || terrain.getAmountOfRows() != mapping.getAmountOfRows()
+	 */
+	public ColumnSurfaceIndex(Terrain terrain, PixelMapping mapping) throws IllegalArgumentException {
+		if (terrain == null || mapping == null || terrain.getAmountOfColumns() != mapping.getAmountOfColumns()
+				|| terrain.getAmountOfRows() != mapping.getAmountOfRows())
+			throw new IllegalArgumentException();
+		this.terrain = terrain;
+		this.mapping = mapping;
+		this.runs = new int[terrain.getAmountOfColumns()][];
+		Arrays.fill(runs, NO_RUNS);
+		update(0, 0, terrain.getAmountOfColumns(), terrain.getAmountOfRows());
+	}
+
+	/**
+	 * Return the terrain of this index.
+	 */
+	@Basic @Immutable
+	public Terrain getTerrain() {
+		return terrain;
+	}
+
+	/**
+	 * Return the mapping between positions and pixels of the terrain of this index.
+	 */
+	@Basic @Immutable
+	public PixelMapping getPixelMapping() {
+		return mapping;
+	}
+
+	/**
+	 * Return the amount of runs of impassable pixels in the given column.
+	 *
+	 * @param	column
+	 * 			The column to count the runs of.
+	 * @return	The amount of maximal spans of consecutive impassable pixels in the given column.
+	 */
+	public int getAmountOfRuns(int column) {
+		return runs[column].length / 2;
+	}
+
+	/**
+	 * Return the highest impassable row of the given column at or below the given row.
+	 *
+	 * @param	column
+	 * 			The column to search in.
+	 * @param	row
+	 * 			The row to search down from.
+	 * @return	-1 if no pixel of the given column at or below the given row is impassable,
+	 * 			the smallest such row otherwise. <br>
+	 * 			| if (for each r in row..getTerrain().getAmountOfRows()-1 : getTerrain().isPassable(column, r)) <br>
+	 * 			|	then result == -1 <br>
+	 * 			|	else result == min { r in row..getTerrain().getAmountOfRows()-1 | !getTerrain().isPassable(column, r) }
+	 */
+	public int getImpassableAtOrBelow(int column, int row) {
+		int[] bounds = runs[column];
+		// Find the first run that ends below the given row.
+		int low = 0, high = bounds.length / 2;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (bounds[2 * middle + 1] <= row)
+				low = middle + 1;
+			else
+				high = middle;
+		}
+		if (low == bounds.length / 2)
+			return -1;
+		return Math.max(bounds[2 * low], row);
+	}
+
+	/**
+	 * Return the height at which a circle with the given radius, dropped straight down from the given centre,
+	 * first touches an impassable pixel.
+	 *
+	 * @param	x
+	 * 			The x-coordinate of the centre of the circle.
+	 * @param	y
+	 * 			The y-coordinate of the centre of the circle.
+	 * @param	radius
+	 * 			The radius of the circle.
+	 * @pre		The circle does not overlap any impassable pixel.
+	 * @return	The largest y-coordinate not above the given one at which the circle around the given x-coordinate
+	 * 			touches an impassable pixel below it, or Double.NEGATIVE_INFINITY if there is no impassable pixel
+	 * 			below the circle. <br>
+	 * 			For every column the circle covers, that is the top of the highest impassable pixel below the circle
+	 * 			in that column, raised by the height of the circle above its bottom at the horizontal gap to the column.
+	 */
+	public double getLandingHeight(double x, double y, double radius) {
+		double result = Double.NEGATIVE_INFINITY;
+		int toColumn = mapping.getColumn(x + radius);
+		for (int column = mapping.getColumn(x - radius); column <= toColumn; column++) {
+			double gap = mapping.getHorizontalGap(x, column);
+			if (gap > radius)
+				continue;
+			double lift = Math.sqrt(radius * radius - gap * gap);
+			double bottom = y - lift;
+			if (bottom <= 0)
+				continue;
+			int row = getImpassableAtOrBelow(column, mapping.getRow(bottom));
+			if (row >= 0)
+				result = Math.max(result, Math.min(y, mapping.getTopY(row) + lift));
+		}
+		return result;
+	}
+
+	/**
+	 * Bring this index up to date after the pixels of the given rectangle of its terrain have changed.
+	 *
+	 * @param	fromColumn
+	 * 			The first column of the rectangle, inclusive.
+	 * @param	fromRow
+	 * 			The first row of the rectangle, inclusive.
+	 * @param	toColumn
+	 * 			The last column of the rectangle, exclusive.
+	 * @param	toRow
+	 * 			The last row of the rectangle, exclusive.
+	 * @pre		No pixel of the terrain outside the given rectangle has changed since this index was last brought up to date.
+	 * @post	The runs of every column are those of a new index for the terrain as it is now. <br>
+	 * 			| for each column, row : <br>
+	 * 			|	new.getImpassableAtOrBelow(column, row) == new ColumnSurfaceIndex(getTerrain(), getPixelMapping()).getImpassableAtOrBelow(column, row)
+	 */
+	public void update(int fromColumn, int fromRow, int toColumn, int toRow) {
+		fromColumn = Math.max(0, fromColumn);
+		fromRow = Math.max(0, fromRow);
+		toColumn = Math.min(terrain.getAmountOfColumns(), toColumn);
+		toRow = Math.min(terrain.getAmountOfRows(), toRow);
+		if (fromColumn >= toColumn || fromRow >= toRow)
+			return;
+		int[] workspace = new int[toRow - fromRow + 1];
+		for (int column = fromColumn; column < toColumn; column++)
+			runs[column] = splice(runs[column], column, fromRow, toRow, workspace);
+	}
+
+	/**
+	 * Return the runs of the given column, with the part between the given rows scanned again from the terrain. <br>
+	 * 		The runs above and below the scanned part are kept, cut off at its edges, and runs that touch
+	 * 		across an edge are joined again.
+	 */
+	private int[] splice(int[] bounds, int column, int fromRow, int toRow, int[] workspace) {
+		int scanned = 0;
+		boolean inside = false;
+		for (int row = fromRow; row < toRow; row++)
+			if (terrain.isPassable(column, row) == inside) {
+				workspace[scanned++] = row;
+				inside = !inside;
+			}
+		if (inside)
+			workspace[scanned++] = toRow;
+		int[] result = new int[bounds.length + scanned + 2];
+		int size = 0;
+		for (int run = 0; run < bounds.length && bounds[run] < fromRow; run += 2) {
+			result[size++] = bounds[run];
+			result[size++] = Math.min(bounds[run + 1], fromRow);
+		}
+		for (int i = 0; i < scanned; i += 2)
+			size = append(result, size, workspace[i], workspace[i + 1]);
+		// A run may reach from above the scanned part to below it.
+		for (int run = 0; run < bounds.length; run += 2)
+			if (bounds[run + 1] > toRow)
+				size = append(result, size, Math.max(bounds[run], toRow), bounds[run + 1]);
+		return (size == result.length) ? result : Arrays.copyOf(result, size);
+	}
+
+	/**
+	 * Append the run between the given rows to the given bounds of the given size, joining it with the last run if they touch,
+	 * and return the new size.
+	 */
+	private static int append(int[] bounds, int size, int from, int to) {
+		if (size > 0 && bounds[size - 1] == from) {
+			bounds[size - 1] = to;
+			return size;
+		}
+		bounds[size++] = from;
+		bounds[size++] = to;
+		return size;
+	}
+
+	/**
+	 * Return the amount of bytes this index occupies next to its terrain.
+	 */
+	public long getMemoryFootprint() {
+		long result = 16L * runs.length;
+		for (int[] bounds : runs)
+			result += 4L * bounds.length;
+		return result;
+	}
+
+	/*
+	 * A variable registering the terrain of this index.
+	 */
+	private final Terrain terrain;
+
+	/*
+	 * A variable registering the mapping between positions and pixels of the terrain of this index.
+	 */
+	private final PixelMapping mapping;
+
+	/*
+	 * An array registering for every column the first row and the row just after every run of impassable pixels,
+	 * from the highest run down.
+	 */
+	private final int[][] runs;
+
+	/*
+	 * The runs of a column without impassable pixels.
+	 */
+	private static final int[] NO_RUNS = new int[0];
+
+}
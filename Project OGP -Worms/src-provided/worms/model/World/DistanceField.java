@@ -0,0 +1,630 @@
+package worms.model.World;
+
+import be.kuleuven.cs.som.annotate.*;
+
+/**
+ * A class of distance fields, which register for every pixel of a terrain the exact euclidean distance
+ * between its centre and the centre of the nearest pixel of the opposite passability, up to a bound. <br>
+ * The field is signed: a passable pixel holds the positive distance to the nearest impassable pixel,
+ * an impassable pixel holds the negated distance to the nearest passable pixel. A pixel with no such pixel
+ * within the bound holds the bound instead.
+ * It is computed in linear time with the separable transform of Felzenszwalb and Huttenlocher, a band of rows
+ * at a time, so that only the field itself, at 4 bytes per pixel, is kept. <br>
+ * Because of the bound, an edit of the terrain only changes the pixels within the bound of the edited
+ * rectangle, and those are transformed again from the pixels within twice the bound. <br>
+ * A position inside a pixel is at most a half pixel diagonal away from its centre, so a single lookup
+ * bounds the distance from any position to the nearest (im)passable pixel. Only when a comparison falls
+ * inside those bounds, or beyond the bound of the field, the pixels around the position are scanned
+ * to get the exact distance.
+ *
+ * @author Ruben
+ */
+public class DistanceField {
+
+	/**
+	 * Initialize this new distance field for the given terrain, laid out in a world by the given pixel mapping.
+	 *
+	 * @param	terrain
+	 * 			The terrain for this new distance field.
+	 * @param	mapping
+	 * 			The pixel mapping of the world of the given terrain.
+	 * @effect	| this(terrain, mapping, WorldConstants.DISTANCE_FIELD_BOUND)
+	 */
+	public DistanceField(Terrain terrain, PixelMapping mapping) throws IllegalArgumentException {
+		this(terrain, mapping, WorldConstants.DISTANCE_FIELD_BOUND);
+	}
+
+	/**
+	 * Initialize this new distance field for the given terrain, laid out in a world by the given pixel mapping,
+	 * with a bound of the given amount of pixels.
+	 *
+	 * @param	terrain
+	 * 			The terrain for this new distance field.
+	 * @param	mapping
+	 * 			The pixel mapping of the world of the given terrain.
+	 * @param	boundInPixels
+	 * 			The bound of this new distance field, in sides of the smaller side of a pixel.
+	 * @post	The bound of this new distance field is the given amount of pixels. <br>
+	 * 			| new.getBound() == boundInPixels * min(mapping.getPixelWidth(), mapping.getPixelHeight())
+	 * @post	For every passable pixel, the distance field registers the distance from its centre
+	 * 			to the centre of the nearest impassable pixel, and vice versa, but never more than its bound. <br>
+	 * 			| for each column, row : <br>
+	 * 			|	new.getDistanceToImpassable(column, row) == <br>
+	 * 			|		min(new.getBound(), min { distance between centres | !terrain.isPassable(c, r) }) <br>
+	 * 			|	new.getDistanceToPassable(column, row) == <br>
+	 * 			|		min(new.getBound(), min { distance between centres | terrain.isPassable(c, r) })
+	 * @throws	IllegalArgumentException
+	 * 			The given terrain or mapping is not effective or they do not have the same dimensions,
+	 * 			or the given bound is not positive. <br>
+	 * 			| terrain == null || mapping == null || <br>
+	 * 			| terrain.getAmountOfColumns() != mapping.getAmountOfColumns() || terrain.getAmountOfRows() != mapping.getAmountOfRows() || <br>
+	 * 			| boundInPixels <= 0
+	 */
+	public DistanceField(Terrain terrain, PixelMapping mapping, int boundInPixels) throws IllegalArgumentException {
+		if (terrain == null || mapping == null || boundInPixels <= 0)
+			throw new IllegalArgumentException();
+		if (terrain.getAmountOfColumns() != mapping.getAmountOfColumns() || terrain.getAmountOfRows() != mapping.getAmountOfRows())
+			throw new IllegalArgumentException();
+		this.terrain = terrain;
+		this.mapping = mapping;
+		this.columns = terrain.getAmountOfColumns();
+		this.rows = terrain.getAmountOfRows();
+		this.bound = (float) (boundInPixels * Math.min(mapping.getPixelWidth(), mapping.getPixelHeight()));
+		this.columnReach = (int) Math.ceil(bound / mapping.getPixelWidth());
+		this.rowReach = (int) Math.ceil(bound / mapping.getPixelHeight());
+		this.distances = new float[columns * rows];
+		int band = 4 * rowReach;
+		for (int row = 0; row < rows; row += band)
+			compute(0, row, columns, Math.min(rows, row + band));
+	}
+
+	/**
+	 * Initialize this new distance field as a copy of the given distance field, for the given copy of its terrain.
+	 *
+	 * @param	other
+	 * 			The distance field to be copied.
+	 * @param	terrain
+	 * 			The terrain for this new distance field.
+	 * @pre		Every pixel of the given terrain has the passability of the same pixel of the terrain of the given field.
+	 * @post	The terrain of this new distance field is the given terrain, its mapping that of the given field. <br>
+	 * 			| new.getTerrain() == terrain && new.getPixelMapping() == other.getPixelMapping()
+	 * @post	This new distance field registers the distances of the given field, and later updates
+	 * 			of either field do not affect the other.
+	 * @throws	IllegalArgumentException
+	 * 			The given field or terrain is not effective or they do not have the same dimensions. <br>
+	 * 			| other == null || terrain == null || <br>
+	 * 			| terrain.getAmountOfColumns() != other.getTerrain().getAmountOfColumns() || <br>
+	 * 			| terrain.getAmountOfRows() != other.getTerrain().getAmountOfRows()
+	 */
+	public DistanceField(DistanceField other, Terrain terrain) throws IllegalArgumentException {
+		if (other == null || terrain == null)
+			throw new IllegalArgumentException();
+		if (terrain.getAmountOfColumns() != other.columns || terrain.getAmountOfRows() != other.rows)
+			throw new IllegalArgumentException();
+		this.terrain = terrain;
+		this.mapping = other.mapping;
+		this.columns = other.columns;
+		this.rows = other.rows;
+		this.bound = other.bound;
+		this.columnReach = other.columnReach;
+		this.rowReach = other.rowReach;
+		this.distances = other.distances.clone();
+	}
+
+	/**
+	 * Return the terrain of this distance field.
+	 */
+	@Basic @Immutable
+	public Terrain getTerrain() {
+		return terrain;
+	}
+
+	/**
+	 * Return the pixel mapping of this distance field.
+	 */
+	@Basic @Immutable
+	public PixelMapping getPixelMapping() {
+		return mapping;
+	}
+
+	/**
+	 * Return the bound of this distance field, the largest distance it registers.
+	 */
+	@Basic @Immutable
+	public double getBound() {
+		return bound;
+	}
+
+	/**
+	 * Return the distance between the centre of the given pixel and the centre of the nearest impassable pixel.
+	 *
+	 * @param	column
+	 * 			The column of the pixel.
+	 * @param	row
+	 * 			The row of the pixel.
+	 * @return	0 if the given pixel is impassable, the bound of this field if there is no impassable pixel
+	 * 			within the bound, the distance between the centres otherwise.
+	 */
+	public double getDistanceToImpassable(int column, int row) {
+		float distance = distances[row * columns + column];
+		return (distance > 0) ? distance : 0;
+	}
+
+	/**
+	 * Return the distance between the centre of the given pixel and the centre of the nearest passable pixel.
+	 *
+	 * @param	column
+	 * 			The column of the pixel.
+	 * @param	row
+	 * 			The row of the pixel.
+	 * @return	0 if the given pixel is passable, the bound of this field if there is no passable pixel
+	 * 			within the bound, the distance between the centres otherwise.
+	 */
+	public double getDistanceToPassable(int column, int row) {
+		float distance = distances[row * columns + column];
+		return (distance < 0) ? -distance : 0;
+	}
+
+	/**
+	 * Return the distance between the given position and the nearest impassable terrain. <br>
+	 * Everything outside the world counts as impassable terrain.
+	 *
+	 * @param	x
+	 * 			The x-coordinate of the position.
+	 * @param	y
+	 * 			The y-coordinate of the position.
+	 * @return	The smallest distance between the given position and an impassable pixel or the edge of the world,
+	 * 			or a negative number if the given position lies outside the world.
+	 */
+	public double getDistanceToImpassable(double x, double y) {
+		double border = getDistanceToBorder(x, y);
+		if (border <= 0 || getLowerBound(x, y, false) >= border)
+			return border;
+		return Math.min(border, getExactDistance(x, y, Math.min(border, getUpperBound(x, y, false)), false));
+	}
+
+	/**
+	 * Return the distance between the given position and the nearest passable terrain.
+	 *
+	 * @param	x
+	 * 			The x-coordinate of the position.
+	 * @param	y
+	 * 			The y-coordinate of the position.
+	 * @return	The smallest distance between the given position and a passable pixel,
+	 * 			or positive infinity if the terrain has no passable pixels.
+	 */
+	public double getDistanceToPassable(double x, double y) {
+		return getExactDistance(x, y, getUpperBound(x, y, true), true);
+	}
+
+	/**
+	 * Compare the distance between the given position and the nearest impassable terrain with the given distance. <br>
+	 * Everything outside the world counts as impassable terrain.
+	 *
+	 * @param	x
+	 * 			The x-coordinate of the position.
+	 * @param	y
+	 * 			The y-coordinate of the position.
+	 * @param	distance
+	 * 			The distance to compare with.
+	 * @return	A negative number, zero or a positive number if the distance to the nearest impassable terrain
+	 * 			is smaller than, equal to or larger than the given distance. <br>
+	 * 			| Math.signum(getDistanceToImpassable(x, y) - distance)
+	 */
+	public int compareDistanceToImpassable(double x, double y, double distance) {
+		double border = getDistanceToBorder(x, y);
+		if (border < distance)
+			return -1;
+		int result = compareDistance(x, y, distance, false);
+		if (border == distance)
+			return Math.min(result, 0);
+		return result;
+	}
+
+	/**
+	 * Compare the distance between the given position and the nearest passable terrain with the given distance.
+	 *
+	 * @param	x
+	 * 			The x-coordinate of the position.
+	 * @param	y
+	 * 			The y-coordinate of the position.
+	 * @param	distance
+	 * 			The distance to compare with.
+	 * @return	A negative number, zero or a positive number if the distance to the nearest passable terrain
+	 * 			is smaller than, equal to or larger than the given distance. <br>
+	 * 			| Math.signum(getDistanceToPassable(x, y) - distance)
+	 */
+	public int compareDistanceToPassable(double x, double y, double distance) {
+		return compareDistance(x, y, distance, true);
+	}
+
+	/**
+	 * Return a lower bound on the distance between the given position and the nearest impassable terrain,
+	 * read from the field at the pixel of the position without looking at the terrain. <br>
+	 * Everything outside the world counts as impassable terrain.
+	 *
+	 * @param	x
+	 * 			The x-coordinate of the position.
+	 * @param	y
+	 * 			The y-coordinate of the position.
+	 * @return	| result <= getDistanceToImpassable(x, y)
+	 */
+	public double getLowerBoundToImpassable(double x, double y) {
+		double border = getDistanceToBorder(x, y);
+		if (border <= 0)
+			return border;
+		return Math.min(border, getLowerBound(x, y, false));
+	}
+
+	/**
+	 * Return an upper bound on the distance between the given position and the nearest impassable terrain,
+	 * read from the field at the pixel of the position without looking at the terrain. <br>
+	 * Everything outside the world counts as impassable terrain.
+	 *
+	 * @param	x
+	 * 			The x-coordinate of the position.
+	 * @param	y
+	 * 			The y-coordinate of the position.
+	 * @return	| result >= getDistanceToImpassable(x, y)
+	 */
+	public double getUpperBoundToImpassable(double x, double y) {
+		double border = getDistanceToBorder(x, y);
+		if (border <= 0)
+			return border;
+		return Math.min(border, getUpperBound(x, y, false));
+	}
+
+	/**
+	 * Compare the distance between the given position and the nearest pixel of the given passability
+	 * with the given distance, looking only at the pixels of the terrain.
+	 */
+	private int compareDistance(double x, double y, double distance, boolean toPassable) {
+		if (getLowerBound(x, y, toPassable) > distance)
+			return 1;
+		double upperBound = getUpperBound(x, y, toPassable);
+		if (upperBound < distance)
+			return -1;
+		// Only whether some pixel lies closer than just beyond the given distance matters.
+		double exact = getExactDistance(x, y, Math.min(upperBound, Math.nextUp(distance)), toPassable);
+		return (int) Math.signum(exact - distance);
+	}
+
+	/**
+	 * Return the distance between the given position and the edge of the world,
+	 * negative if the position lies outside the world.
+	 */
+	private double getDistanceToBorder(double x, double y) {
+		return Math.min(Math.min(x, mapping.getWidth() - x), Math.min(y, mapping.getHeight() - y));
+	}
+
+	/**
+	 * Return a lower bound on the distance between the given position and the nearest pixel of the given passability,
+	 * derived from the field at the pixel of the position.
+	 */
+	private double getLowerBound(double x, double y, boolean toPassable) {
+		int column = mapping.getColumn(x);
+		int row = mapping.getRow(y);
+		double field = toPassable ? getDistanceToPassable(column, row) : getDistanceToImpassable(column, row);
+		return field - getLowerBoundSlack(x, y) - getMargin(field);
+	}
+
+	/**
+	 * Return an upper bound on the distance between the given position and the nearest pixel of the given passability,
+	 * derived from the field at the pixel of the position, or positive infinity if the field holds its bound there.
+	 */
+	private double getUpperBound(double x, double y, boolean toPassable) {
+		int column = mapping.getColumn(x);
+		int row = mapping.getRow(y);
+		double field = toPassable ? getDistanceToPassable(column, row) : getDistanceToImpassable(column, row);
+		if (field >= bound)
+			return Double.POSITIVE_INFINITY;
+		return field + getOffsetFromCentre(x, y, column, row) + getMargin(field);
+	}
+
+	/**
+	 * Return how much the distance from the given position can be smaller than the field at its pixel:
+	 * the offset from the centre of the pixel plus a half pixel diagonal, because the field measures
+	 * between centres and the nearest pixel may be reached at its corner.
+	 */
+	private double getLowerBoundSlack(double x, double y) {
+		return getOffsetFromCentre(x, y, mapping.getColumn(x), mapping.getRow(y)) + mapping.getHalfDiagonal();
+	}
+
+	/**
+	 * Return the distance between the given position and the centre of the given pixel.
+	 */
+	private double getOffsetFromCentre(double x, double y, int column, int row) {
+		double dx = x - mapping.getCentreX(column);
+		double dy = y - mapping.getCentreY(row);
+		return Math.sqrt(dx * dx + dy * dy);
+	}
+
+	/**
+	 * Return the margin to allow on a bound because the field is stored in single precision.
+	 */
+	private double getMargin(double field) {
+		return 1e-6 * (field + mapping.getHalfDiagonal());
+	}
+
+	/**
+	 * Return the exact distance between the given position and the nearest pixel of the given passability,
+	 * or the given limit if there is no such pixel closer than the limit.
+	 */
+	private double getExactDistance(double x, double y, double limit, boolean toPassable) {
+		return getExactDistance(terrain, mapping, x, y, limit, toPassable);
+	}
+
+	/**
+	 * Return the exact distance between the given position and the nearest pixel of the given passability
+	 * of the given terrain, laid out by the given mapping, or the given limit if there is no such pixel closer
+	 * than the limit. <br>
+	 * Rows are visited outwards from the row of the position, and in every row only the nearest pixel
+	 * on either side of the position is looked up, a word of the terrain at a time, so the cost grows with
+	 * the distance found rather than with the size of the terrain.
+	 */
+	static double getExactDistance(Terrain terrain, PixelMapping mapping, double x, double y, double limit, boolean toPassable) {
+		double best = limit;
+		double pixelWidth = mapping.getPixelWidth();
+		int columns = mapping.getAmountOfColumns();
+		int rows = mapping.getAmountOfRows();
+		int centreRow = mapping.getRow(y);
+		int centreColumn = mapping.getColumn(x);
+		for (int offset = 0; ; offset++) {
+			for (int side = 0; side < ((offset == 0) ? 1 : 2); side++) {
+				int row = (side == 0) ? centreRow - offset : centreRow + offset;
+				if (row < 0 || row >= rows)
+					continue;
+				double gapY = mapping.getVerticalGap(y, row);
+				if (gapY > best)
+					continue;
+				double reach = Math.sqrt(best * best - gapY * gapY);
+				int from = (int) Math.max(0, Math.floor((x - reach) / pixelWidth));
+				int to = (int) Math.min(columns - 1, Math.floor((x + reach) / pixelWidth));
+				if (from > to)
+					continue;
+				int split = Math.max(from, Math.min(centreColumn, to));
+				int right = terrain.getFirstInRow(row, split, to + 1, toPassable);
+				if (right >= 0)
+					best = Math.min(best, Math.hypot(mapping.getHorizontalGap(x, right), gapY));
+				int left = terrain.getLastInRow(row, from, split, toPassable);
+				if (left >= 0)
+					best = Math.min(best, Math.hypot(mapping.getHorizontalGap(x, left), gapY));
+			}
+			if ((centreRow - offset < 0 || mapping.getVerticalGap(y, centreRow - offset) > best)
+					&& (centreRow + offset >= rows || mapping.getVerticalGap(y, centreRow + offset) > best))
+				return best;
+		}
+	}
+
+	/**
+	 * Return the amount of bytes this distance field occupies next to its terrain.
+	 */
+	public long getMemoryFootprint() {
+		return 4L * distances.length;
+	}
+
+	/**
+	 * Bring this distance field up to date after the pixels of the given rectangle of its terrain have changed. <br>
+	 * Only the pixels within the bound of the rectangle can change, so only those are transformed again.
+	 *
+	 * @param	fromColumn
+	 * 			The first column of the rectangle, inclusive.
+	 * @param	fromRow
+	 * 			The first row of the rectangle, inclusive.
+	 * @param	toColumn
+	 * 			The last column of the rectangle, exclusive.
+	 * @param	toRow
+	 * 			The last row of the rectangle, exclusive.
+	 * @pre		No pixel of the terrain outside the given rectangle has changed since this field was last computed.
+	 * @post	This distance field registers the same distances as a new distance field for its terrain. <br>
+	 * 			| for each column, row : <br>
+	 * 			|	new.getDistanceToImpassable(column, row) == new DistanceField(getTerrain(), getPixelMapping()).getDistanceToImpassable(column, row) <br>
+	 * 			|	new.getDistanceToPassable(column, row) == new DistanceField(getTerrain(), getPixelMapping()).getDistanceToPassable(column, row)
+	 */
+	public void update(int fromColumn, int fromRow, int toColumn, int toRow) {
+		fromColumn = Math.max(0, fromColumn);
+		fromRow = Math.max(0, fromRow);
+		toColumn = Math.min(columns, toColumn);
+		toRow = Math.min(rows, toRow);
+		if (fromColumn >= toColumn || fromRow >= toRow)
+			return;
+		compute(Math.max(0, fromColumn - columnReach), Math.max(0, fromRow - rowReach),
+				Math.min(columns, toColumn + columnReach), Math.min(rows, toRow + rowReach));
+	}
+
+	/**
+	 * Compute the distances of the pixels of the given rectangle. <br>
+	 * A pixel whose nearest pixel of the opposite passability lies within the bound finds it at most the bound
+	 * away in either direction, so only the pixels within the bound of the rectangle are transformed: first
+	 * along their columns, into a buffer for the rows of the rectangle, then along the rows of the rectangle.
+	 */
+	private void compute(int fromColumn, int fromRow, int toColumn, int toRow) {
+		int fromSource = Math.max(0, fromColumn - columnReach);
+		int toSource = Math.min(columns, toColumn + columnReach);
+		int width = toSource - fromSource;
+		float[] vertical = new float[(toRow - fromRow) * width];
+		for (int column = fromSource; column < toSource; column++)
+			computeColumn(column, fromRow, toRow, vertical, column - fromSource, width);
+		RowWorkspace workspace = new RowWorkspace(width);
+		for (int row = fromRow; row < toRow; row++)
+			computeRow(row, fromColumn, toColumn, fromSource, toSource, vertical, (row - fromRow) * width, workspace);
+	}
+
+	/**
+	 * Compute, for the given column, the squared vertical distance from every pixel of the given rows
+	 * to the nearest pixel of the opposite passability in that column and within the bound of those rows.
+	 * The distance of the given first row is stored in the given buffer at the given offset, and every next
+	 * row at the given stride further.
+	 */
+	private void computeColumn(int column, int fromRow, int toRow, float[] result, int offset, int stride) {
+		double pixelHeight = mapping.getPixelHeight();
+		int firstRow = Math.max(0, fromRow - rowReach);
+		int lastRow = Math.min(rows, toRow + rowReach);
+		int lastPassable = -1;
+		int lastImpassable = -1;
+		for (int row = firstRow; row < toRow; row++) {
+			boolean passable = terrain.isPassable(column, row);
+			if (row >= fromRow) {
+				int last = passable ? lastImpassable : lastPassable;
+				result[offset + (row - fromRow) * stride] = (last < 0) ? Float.POSITIVE_INFINITY
+						: (float) square((row - last) * pixelHeight);
+			}
+			if (passable)
+				lastPassable = row;
+			else
+				lastImpassable = row;
+		}
+		lastPassable = -1;
+		lastImpassable = -1;
+		for (int row = lastRow - 1; row >= fromRow; row--) {
+			boolean passable = terrain.isPassable(column, row);
+			int last = passable ? lastImpassable : lastPassable;
+			if (row < toRow && last >= 0) {
+				int index = offset + (row - fromRow) * stride;
+				float below = (float) square((last - row) * pixelHeight);
+				if (below < result[index])
+					result[index] = below;
+			}
+			if (passable)
+				lastPassable = row;
+			else
+				lastImpassable = row;
+		}
+	}
+
+	/**
+	 * Combine the squared vertical distances of the given span of source columns of the given row, stored in
+	 * the given buffer from the given base on, into the signed euclidean distances of the given span of target
+	 * columns, which lies inside the sources, and cut them off at the bound.
+	 */
+	private void computeRow(int row, int fromColumn, int toColumn, int fromSource, int toSource, float[] vertical, int base,
+			RowWorkspace workspace) {
+		int length = toSource - fromSource;
+		double widthSquared = square(mapping.getPixelWidth());
+		// Rows in the open sky or deep underground only need the transform towards the opposite passability.
+		boolean toImpassable = terrain.hasPassableInRow(row, fromColumn, toColumn);
+		boolean toPassable = terrain.hasImpassableInRow(row, fromColumn, toColumn);
+		for (int index = 0; index < length; index++) {
+			boolean passable = terrain.isPassable(fromSource + index, row);
+			workspace.toImpassable[index] = passable ? vertical[base + index] : 0;
+			workspace.toPassable[index] = passable ? 0 : vertical[base + index];
+		}
+		if (toImpassable)
+			transform(workspace.toImpassable, length, widthSquared, workspace.impassableResult, workspace.vertices, workspace.boundaries);
+		if (toPassable)
+			transform(workspace.toPassable, length, widthSquared, workspace.passableResult, workspace.vertices, workspace.boundaries);
+		for (int column = fromColumn; column < toColumn; column++) {
+			int index = column - fromSource;
+			if (terrain.isPassable(column, row))
+				distances[row * columns + column] = (float) Math.min(bound, Math.sqrt(workspace.impassableResult[index]));
+			else
+				distances[row * columns + column] = (float) -Math.min(bound, Math.sqrt(workspace.passableResult[index]));
+		}
+	}
+
+	/**
+	 * A class of workspaces, holding the buffers needed to transform a row of a distance field.
+	 */
+	private static class RowWorkspace {
+
+		private RowWorkspace(int length) {
+			this.toImpassable = new double[length];
+			this.toPassable = new double[length];
+			this.impassableResult = new double[length];
+			this.passableResult = new double[length];
+			this.vertices = new int[length];
+			this.boundaries = new double[length + 1];
+		}
+
+		private final double[] toImpassable, toPassable, impassableResult, passableResult;
+
+		private final int[] vertices;
+
+		private final double[] boundaries;
+
+	}
+
+	/**
+	 * Compute the one dimensional squared distance transform of the given sampled function,
+	 * as the lower envelope of the parabolas rooted at every finite sample.
+	 *
+	 * @param	function
+	 * 			The sampled function, infinite where there is no sample.
+	 * @param	length
+	 * 			The amount of samples.
+	 * @param	spacingSquared
+	 * 			The squared distance between two consecutive samples.
+	 * @param	result
+	 * 			The array in which the transform is stored.
+	 */
+	private static void transform(double[] function, int length, double spacingSquared, double[] result, int[] vertices,
+			double[] boundaries) {
+		int amount = -1;
+		for (int q = 0; q < length; q++) {
+			if (function[q] == Double.POSITIVE_INFINITY)
+				continue;
+			double value = function[q] + spacingSquared * q * (double) q;
+			double intersection = Double.NEGATIVE_INFINITY;
+			while (amount >= 0) {
+				int p = vertices[amount];
+				intersection = (value - (function[p] + spacingSquared * p * (double) p)) / (2 * spacingSquared * (q - p));
+				if (intersection > boundaries[amount])
+					break;
+				amount--;
+			}
+			amount++;
+			vertices[amount] = q;
+			boundaries[amount] = (amount == 0) ? Double.NEGATIVE_INFINITY : intersection;
+		}
+		if (amount < 0) {
+			for (int q = 0; q < length; q++)
+				result[q] = Double.POSITIVE_INFINITY;
+			return;
+		}
+		int current = 0;
+		for (int q = 0; q < length; q++) {
+			while (current < amount && boundaries[current + 1] < q)
+				current++;
+			int p = vertices[current];
+			result[q] = spacingSquared * (q - p) * (double) (q - p) + function[p];
+		}
+	}
+
+	private static double square(double value) {
+		return value * value;
+	}
+
+	/*
+	 * A variable registering the terrain of this distance field.
+	 */
+	private final Terrain terrain;
+
+	/*
+	 * A variable registering the pixel mapping of the world of this distance field.
+	 */
+	private final PixelMapping mapping;
+
+	/*
+	 * Variables registering the amount of columns and rows of this distance field.
+	 */
+	private final int columns;
+	private final int rows;
+
+	/*
+	 * A variable registering the bound of this distance field.
+	 */
+	private final float bound;
+
+	/*
+	 * Variables registering the amount of columns and rows the bound of this distance field spans.
+	 */
+	private final int columnReach;
+	private final int rowReach;
+
+	/*
+	 * An array registering the signed distance of every pixel, row after row.
+	 */
+	private final float[] distances;
+
+
+}
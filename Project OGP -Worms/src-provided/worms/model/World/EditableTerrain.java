@@ -0,0 +1,32 @@
+package worms.model.World;
+
+/**
+ * An interface for terrains whose pixels can be changed after they have been created. <br>
+ * Pixels are changed a span of a row at a time, so that a crater or a mound only touches
+ * the words of the rows it covers.
+ *
+ * @author Ruben
+ */
+public interface EditableTerrain extends Terrain {
+
+	/**
+	 * Make every pixel of the given span of the given row passable or impassable.
+	 *
+	 * @param	row
+	 * 			The row of the span.
+	 * @param	fromColumn
+	 * 			The first column of the span, inclusive.
+	 * @param	toColumn
+	 * 			The last column of the span, exclusive.
+	 * @param	passable
+	 * 			Whether the pixels of the span become passable.
+	 * @pre		The given row is inside this terrain and the span lies inside its columns. <br>
+	 * 			| 0 <= row < getAmountOfRows() && 0 <= fromColumn <= toColumn <= getAmountOfColumns()
+	 * @post	Every pixel of the span has the given passability. <br>
+	 * 			| for each column in fromColumn..toColumn-1 : new.isPassable(column, row) == passable
+	 * @post	No other pixel of this terrain has changed. <br>
+	 * 			| for each other pixel : new.isPassable(c, r) == isPassable(c, r)
+	 */
+	public void setPassableInRow(int row, int fromColumn, int toColumn, boolean passable);
+
+}
@@ -0,0 +1,271 @@
+package worms.model.World;
+
+import java.util.Arrays;
+
+import be.kuleuven.cs.som.annotate.*;
+
+/**
+ * A class of terrains that register the impassable pixels of every row as a sorted list of intervals. <br>
+ * Every row is stored as a strictly increasing array of boundaries: the impassable intervals of the row are
+ * [b0, b1), [b2, b3), and so on. Adjacent intervals are always merged, so a pixel is impassable if and only if
+ * an odd amount of boundaries of its row lie at or before its column, and every query on a span of a row
+ * starts with a binary search. <br>
+ * For maps of open sky with a thin landmass, the few intervals of a row take far less memory than the words of a
+ * packed terrain. Edits replace the array of the rows they touch, splitting and merging intervals, so copies of
+ * an interval terrain share the arrays of the rows neither of them changes.
+ *
+ * @author Ruben
+ */
+public class IntervalTerrain implements EditableTerrain {
+
+	/**
+	 * Initialize this new interval terrain with the pixels of the given terrain.
+	 *
+	 * @param	terrain
+	 * 			The terrain to be copied.
+	 * @post	Every pixel of this new terrain has the passability of the same pixel of the given terrain. <br>
+	 * 			| for each row, column : new.isPassable(column, row) == terrain.isPassable(column, row)
+	 * @throws	IllegalArgumentException
+	 * 			The given terrain is not effective. <br>
+	 * 			| terrain == null
+	 */
+	public IntervalTerrain(Terrain terrain) throws IllegalArgumentException {
+		if (terrain == null)
+			throw new IllegalArgumentException();
+		this.columns = terrain.getAmountOfColumns();
+		this.bounds = new int[terrain.getAmountOfRows()][];
+		int[] buffer = new int[16];
+		for (int row = 0; row < bounds.length; row++) {
+			int length = 0;
+			int from = terrain.getFirstInRow(row, 0, columns, false);
+			while (from >= 0) {
+				int to = terrain.getFirstInRow(row, from, columns, true);
+				if (to < 0)
+					to = columns;
+				if (length + 2 > buffer.length)
+					buffer = Arrays.copyOf(buffer, 2 * buffer.length);
+				buffer[length++] = from;
+				buffer[length++] = to;
+				from = (to < columns) ? terrain.getFirstInRow(row, to, columns, false) : -1;
+			}
+			bounds[row] = (length == 0) ? NO_BOUNDS : Arrays.copyOf(buffer, length);
+		}
+	}
+
+	/**
+	 * Initialize this new interval terrain as a copy of the given interval terrain.
+	 *
+	 * @param	other
+	 * 			The terrain to be copied.
+	 * @post	Every pixel of this new terrain has the passability of the same pixel of the given terrain,
+	 * 			and later edits of either terrain do not affect the other. <br>
+	 * 			| for each row, column : new.isPassable(column, row) == other.isPassable(column, row)
+	 * @throws	IllegalArgumentException
+	 * 			The given terrain is not effective. <br>
+	 * 			| other == null
+	 */
+	public IntervalTerrain(IntervalTerrain other) throws IllegalArgumentException {
+		if (other == null)
+			throw new IllegalArgumentException();
+		this.columns = other.columns;
+		// The arrays of the rows are never changed, only replaced, so they can be shared.
+		this.bounds = other.bounds.clone();
+	}
+
+	/**
+	 * Return the amount of bytes the interval terrain of the given terrain would occupy.
+	 *
+	 * @param	terrain
+	 * 			The terrain to be measured.
+	 * @return	The memory footprint of an interval terrain with the pixels of the given terrain. <br>
+	 * 			| result == new IntervalTerrain(terrain).getMemoryFootprint()
+	 */
+	public static long getMemoryFootprint(Terrain terrain) {
+		long result = getArrayFootprint(4L, terrain.getAmountOfRows());
+		for (int row = 0; row < terrain.getAmountOfRows(); row++) {
+			int length = 0;
+			int from = terrain.getFirstInRow(row, 0, terrain.getAmountOfColumns(), false);
+			while (from >= 0) {
+				int to = terrain.getFirstInRow(row, from, terrain.getAmountOfColumns(), true);
+				length += 2;
+				from = (to < 0) ? -1 : terrain.getFirstInRow(row, to, terrain.getAmountOfColumns(), false);
+			}
+			if (length > 0)
+				result += getArrayFootprint(4L, length);
+		}
+		return result;
+	}
+
+	/**
+	 * Return the amount of bytes an array of the given amount of elements of the given size occupies,
+	 * with a header of 16 bytes and rounded up to 8 bytes.
+	 */
+	private static long getArrayFootprint(long elementSize, int length) {
+		return (16 + elementSize * length + 7) & ~7L;
+	}
+
+	@Override @Basic @Immutable
+	public int getAmountOfColumns() {
+		return columns;
+	}
+
+	@Override @Basic @Immutable
+	public int getAmountOfRows() {
+		return bounds.length;
+	}
+
+	/**
+	 * Return the amount of impassable intervals of the given row.
+	 *
+	 * @param	row
+	 * 			The row of the intervals.
+	 */
+	public int getAmountOfIntervals(int row) {
+		return bounds[row].length / 2;
+	}
+
+	/**
+	 * Return the amount of bytes the intervals of this terrain occupy.
+	 */
+	public long getMemoryFootprint() {
+		long result = getArrayFootprint(4L, bounds.length);
+		for (int[] row : bounds) {
+			if (row != NO_BOUNDS)
+				result += getArrayFootprint(4L, row.length);
+		}
+		return result;
+	}
+
+	/**
+	 * Return the amount of boundaries of the given row that lie at or before the given column.
+	 *
+	 * @param	row
+	 * 			The boundaries of the row.
+	 * @param	column
+	 * 			The column to compare with.
+	 * @return	| count index in 0..row.length-1 : row[index] <= column
+	 */
+	private static int countBoundsUpTo(int[] row, int column) {
+		int low = 0;
+		int high = row.length;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (row[middle] <= column)
+				low = middle + 1;
+			else
+				high = middle;
+		}
+		return low;
+	}
+
+	@Override
+	public boolean isPassable(int column, int row) {
+		return (countBoundsUpTo(bounds[row], column) & 1) == 0;
+	}
+
+	@Override
+	public boolean hasImpassableInRow(int row, int fromColumn, int toColumn) {
+		if (fromColumn >= toColumn)
+			return false;
+		int[] boundsOfRow = bounds[row];
+		int index = countBoundsUpTo(boundsOfRow, fromColumn);
+		return (index & 1) == 1 || (index < boundsOfRow.length && boundsOfRow[index] < toColumn);
+	}
+
+	@Override
+	public boolean hasPassableInRow(int row, int fromColumn, int toColumn) {
+		if (fromColumn >= toColumn)
+			return false;
+		int[] boundsOfRow = bounds[row];
+		int index = countBoundsUpTo(boundsOfRow, fromColumn);
+		return (index & 1) == 0 || boundsOfRow[index] < toColumn;
+	}
+
+	@Override
+	public int countImpassableInRow(int row, int fromColumn, int toColumn) {
+		if (fromColumn >= toColumn)
+			return 0;
+		int[] boundsOfRow = bounds[row];
+		int index = countBoundsUpTo(boundsOfRow, fromColumn) & ~1;
+		int count = 0;
+		for (; index < boundsOfRow.length && boundsOfRow[index] < toColumn; index += 2)
+			count += Math.min(boundsOfRow[index + 1], toColumn) - Math.max(boundsOfRow[index], fromColumn);
+		return count;
+	}
+
+	@Override
+	public int getFirstInRow(int row, int fromColumn, int toColumn, boolean passable) {
+		if (fromColumn >= toColumn)
+			return -1;
+		int[] boundsOfRow = bounds[row];
+		int index = countBoundsUpTo(boundsOfRow, fromColumn);
+		if (((index & 1) == 0) == passable)
+			return fromColumn;
+		// The pixel at the next boundary, if any, has the other passability.
+		if (index < boundsOfRow.length && boundsOfRow[index] < toColumn)
+			return boundsOfRow[index];
+		return -1;
+	}
+
+	@Override
+	public int getLastInRow(int row, int fromColumn, int toColumn, boolean passable) {
+		if (fromColumn >= toColumn)
+			return -1;
+		int[] boundsOfRow = bounds[row];
+		int index = countBoundsUpTo(boundsOfRow, toColumn - 1);
+		if (((index & 1) == 0) == passable)
+			return toColumn - 1;
+		// The pixel before the previous boundary, if any, has the other passability.
+		if (index > 0 && boundsOfRow[index - 1] - 1 >= fromColumn)
+			return boundsOfRow[index - 1] - 1;
+		return -1;
+	}
+
+	/**
+	 * Make every pixel of the given span of the given row passable or impassable. <br>
+	 * The boundaries inside the span are dropped, and a boundary is put at either end of the span where
+	 * the passability changes, which splits the interval the span lies in or merges the intervals it touches.
+	 */
+	@Override
+	public void setPassableInRow(int row, int fromColumn, int toColumn, boolean passable) {
+		if (fromColumn >= toColumn)
+			return;
+		int[] boundsOfRow = bounds[row];
+		int before = countBoundsUpTo(boundsOfRow, fromColumn - 1);
+		int after = countBoundsUpTo(boundsOfRow, toColumn);
+		boolean impassableBefore = (before & 1) == 1;
+		boolean impassableAfter = (after & 1) == 1;
+		boolean boundAtFrom = impassableBefore == passable;
+		boolean boundAtTo = impassableAfter == passable;
+		int length = before + (boundAtFrom ? 1 : 0) + (boundAtTo ? 1 : 0) + boundsOfRow.length - after;
+		if (length == 0) {
+			bounds[row] = NO_BOUNDS;
+			return;
+		}
+		int[] result = new int[length];
+		System.arraycopy(boundsOfRow, 0, result, 0, before);
+		int index = before;
+		if (boundAtFrom)
+			result[index++] = fromColumn;
+		if (boundAtTo)
+			result[index++] = toColumn;
+		System.arraycopy(boundsOfRow, after, result, index, boundsOfRow.length - after);
+		bounds[row] = result;
+	}
+
+	/*
+	 * A constant registering the boundaries of a row without impassable pixels.
+	 */
+	private static final int[] NO_BOUNDS = new int[0];
+
+	/*
+	 * A variable registering the amount of columns of this terrain.
+	 */
+	private final int columns;
+
+	/*
+	 * An array registering the boundaries of the impassable intervals of every row of this terrain.
+	 */
+	private final int[][] bounds;
+
+}
@@ -0,0 +1,107 @@
+package worms.model.World;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * An enumeration of the ways in which rows of image pixels are packed into the words of a packed terrain. <br>
+ * A pixel is impassable if the high nibble of its alpha value is not zero, as in the shipped level images.
+ * Rows must be given as interleaved bytes, with the alpha value of every pixel at the given offset.
+ *
+ * @author Ruben
+ */
+public enum MaskPacker {
+
+	/**
+	 * Pack one pixel at a time, without branches.
+	 */
+	SCALAR {
+
+		@Override
+		public void packRow(byte[] data, int offset, int pixelStride, int columns, long[] words, int wordOffset) {
+			for (int index = 0; index < (columns + 63) >>> 6; index++) {
+				int from = index << 6;
+				int to = Math.min(columns, from + 64);
+				long word = 0;
+				int position = offset + from * pixelStride;
+				for (int column = from; column < to; column++, position += pixelStride)
+					word |= (long) (((data[position] & 0xF0) + 0xF0) >>> 8) << column;
+				words[wordOffset + index] = word;
+			}
+		}
+
+	},
+
+	/**
+	 * Pack two four-byte pixels per long read, testing both alpha values with a single addition
+	 * whose carry lands in a bit of its own. Rows of other pixel sizes or whose alpha values are not
+	 * the first byte of their pixel, and the last partial word of every row, are packed one pixel at a time.
+	 */
+	SWAR {
+
+		@Override
+		public void packRow(byte[] data, int offset, int pixelStride, int columns, long[] words, int wordOffset) {
+			if (pixelStride != 4 || offset % 4 != 0) {
+				SCALAR.packRow(data, offset, pixelStride, columns, words, wordOffset);
+				return;
+			}
+			ByteBuffer buffer = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+			int fullWords = columns >>> 6;
+			for (int index = 0; index < fullWords; index++) {
+				int position = offset + (index << 8);
+				long word = 0;
+				for (int pair = 0; pair < 32; pair++, position += 8) {
+					// The alpha values sit in bytes 0 and 4; adding 0xF0 carries into bits 8 and 40 exactly when a high nibble is set.
+					long carries = ((buffer.getLong(position) & ALPHA_NIBBLES) + ALPHA_NIBBLES) & CARRIES;
+					word |= Long.rotateLeft((carries | (carries >>> 31)) & 0x300L, 2 * pair);
+				}
+				words[wordOffset + index] = Long.rotateRight(word, 8);
+			}
+			if ((columns & 63) != 0)
+				SCALAR.packRow(data, offset + (fullWords << 8), 4, columns & 63, words, wordOffset + fullWords);
+		}
+
+	};
+
+	/**
+	 * Store the packed words of the given row of pixels in the given array of words.
+	 *
+	 * @param	data
+	 * 			The bytes of the pixels.
+	 * @param	offset
+	 * 			The index of the alpha value of the first pixel of the row.
+	 * @param	pixelStride
+	 * 			The amount of bytes of every pixel.
+	 * @param	columns
+	 * 			The amount of pixels in the row.
+	 * @param	words
+	 * 			The array in which to store the packed words of the row.
+	 * @param	wordOffset
+	 * 			The index at which to store the first packed word of the row.
+	 * @post	The bit of every pixel in the stored words is set if and only if the high nibble of its alpha value is set,
+	 * 			and the padding bits of the last word are cleared. <br>
+	 * 			| for each column in 0..columns-1 : <br>
+	 * 			|	((words[wordOffset + column / 64] >>> column) & 1) == ((data[offset + column * pixelStride] & 0xF0) != 0 ? 1 : 0)
+	 */
+	public abstract void packRow(byte[] data, int offset, int pixelStride, int columns, long[] words, int wordOffset);
+
+	/**
+	 * Return the packer to be used when none is asked for explicitly. <br>
+	 * 		This is SWAR, unless the system property worms.maskpacker names another packer.
+	 */
+	public static MaskPacker getDefault() {
+		String name = System.getProperty("worms.maskpacker");
+		if (name != null)
+			for (MaskPacker packer : values())
+				if (packer.name().equalsIgnoreCase(name))
+					return packer;
+		return SWAR;
+	}
+
+	/*
+	 * Constants registering the high nibbles of the two alpha values in a long read, and the bits their carries land in.
+	 */
+	private static final long ALPHA_NIBBLES = 0x000000F0000000F0L;
+	private static final long CARRIES = 0x0000010000000100L;
+
+}
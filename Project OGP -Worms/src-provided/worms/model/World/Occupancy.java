@@ -0,0 +1,10 @@
+package worms.model.World;
+
+/**
+ * An enumeration of the ways in which a region of a world can be occupied by its terrain.
+ * 
+ * @author Ruben
+ */
+public enum Occupancy {
+	PASSABLE, IMPASSABLE, MIXED
+}
@@ -0,0 +1,55 @@
+package worms.model.World;
+
+/**
+ * An interface for indexes which count the impassable pixels of a terrain in axis-aligned rectangles of pixels.
+ *
+ * @author Ruben
+ */
+public interface OccupancyIndex {
+
+	/**
+	 * Return the amount of impassable pixels in the given rectangle of pixels.
+	 *
+	 * @param	fromColumn
+	 * 			The first column of the rectangle, inclusive.
+	 * @param	fromRow
+	 * 			The first row of the rectangle, inclusive.
+	 * @param	toColumn
+	 * 			The last column of the rectangle, exclusive.
+	 * @param	toRow
+	 * 			The last row of the rectangle, exclusive.
+	 * @pre		The rectangle lies inside the terrain of this index. <br>
+	 * 			| 0 <= fromColumn <= toColumn <= getTerrain().getAmountOfColumns() && <br>
+	 * 			| 0 <= fromRow <= toRow <= getTerrain().getAmountOfRows()
+	 * @return	| count column in fromColumn..toColumn-1, row in fromRow..toRow-1 : !getTerrain().isPassable(column, row)
+	 */
+	public int countImpassable(int fromColumn, int fromRow, int toColumn, int toRow);
+
+	/**
+	 * Bring this index up to date after the pixels of the given rectangle of its terrain have changed.
+	 *
+	 * @param	fromColumn
+	 * 			The first column of the rectangle, inclusive.
+	 * @param	fromRow
+	 * 			The first row of the rectangle, inclusive.
+	 * @param	toColumn
+	 * 			The last column of the rectangle, exclusive.
+	 * @param	toRow
+	 * 			The last row of the rectangle, exclusive.
+	 * @pre		No pixel of the terrain outside the given rectangle has changed since this index was last brought up to date.
+	 * @post	This index counts the impassable pixels of its terrain as it is now. <br>
+	 * 			| for each rectangle : new.countImpassable(rectangle) == count of impassable pixels of getTerrain() in rectangle
+	 */
+	public void update(int fromColumn, int fromRow, int toColumn, int toRow);
+
+	/**
+	 * Return the terrain of this index.
+	 */
+	public Terrain getTerrain();
+
+	/**
+	 * Return the amount of bytes this index occupies next to its terrain.
+	 */
+	public long getMemoryFootprint();
+
+}
@@ -0,0 +1,197 @@
+package worms.model.World;
+
+import be.kuleuven.cs.som.annotate.*;
+
+/**
+ * A class of bit-packed terrains, which register every pixel as a single bit. <br>
+ * The words of all rows are held in a single array on the heap, row after row.
+ * Spans of a row are changed a word at a time, by masking the first and last word of the span.
+ *
+ * @author Ruben
+ */
+public class PackedTerrain extends WordTerrain {
+
+	/**
+	 * Initialize this new packed terrain with the given passable map.
+	 *
+	 * @param	passableMap
+	 * 			The map of passable pixels for this new terrain, indexed by row and then by column.
+	 * @post	Every pixel of this new terrain is passable if and only if it is passable in the given map. <br>
+	 * 			| for each row, column : new.isPassable(column, row) == passableMap[row][column]
+	 * @throws	IllegalArgumentException
+	 * 			The given map is not a valid passable map. <br>
+	 * 			| !isValidPassableMap(passableMap)
+	 */
+	public PackedTerrain(boolean[][] passableMap) throws IllegalArgumentException {
+		if (!isValidPassableMap(passableMap))
+			throw new IllegalArgumentException();
+		this.columns = passableMap[0].length;
+		this.rows = passableMap.length;
+		this.wordsPerRow = getWordsPerRow(columns);
+		this.words = new long[rows * wordsPerRow];
+		for (int row = 0; row < rows; row++) {
+			int base = row * wordsPerRow;
+			for (int column = 0; column < columns; column++) {
+				if (!passableMap[row][column])
+					words[base + (column >>> 6)] |= 1L << column;
+			}
+		}
+	}
+
+	/**
+	 * Initialize this new packed terrain with the given dimensions and the given packed words.
+	 *
+	 * @param	columns
+	 * 			The amount of columns for this new terrain.
+	 * @param	rows
+	 * 			The amount of rows for this new terrain.
+	 * @param	words
+	 * 			The packed words for this new terrain, row after row, with a set bit for every impassable pixel.
+	 * @post	The words of this new terrain are the given words. <br>
+	 * 			| for each index : new.getWord(index / getWordsPerRow(columns), index % getWordsPerRow(columns)) == words[index]
+	 * @throws	IllegalArgumentException
+	 * 			The given dimensions are not strictly positive or the amount of words does not match them. <br>
+	 * 			| columns <= 0 || rows <= 0 || words.length != rows * getWordsPerRow(columns)
+	 */
+	public PackedTerrain(int columns, int rows, long[] words) throws IllegalArgumentException {
+		if (columns <= 0 || rows <= 0 || words == null || words.length != rows * getWordsPerRow(columns))
+			throw new IllegalArgumentException();
+		this.columns = columns;
+		this.rows = rows;
+		this.wordsPerRow = getWordsPerRow(columns);
+		this.words = words;
+		clearPadding();
+	}
+
+	/**
+	 * Initialize this new packed terrain as a copy of the given packed terrain.
+	 *
+	 * @param	other
+	 * 			The terrain to be copied.
+	 * @post	Every pixel of this new terrain has the passability of the same pixel of the given terrain,
+	 * 			and later edits of either terrain do not affect the other. <br>
+	 * 			| for each row, column : new.isPassable(column, row) == other.isPassable(column, row)
+	 * @throws	IllegalArgumentException
+	 * 			The given terrain is not effective. <br>
+	 * 			| other == null
+	 */
+	public PackedTerrain(PackedTerrain other) throws IllegalArgumentException {
+		if (other == null)
+			throw new IllegalArgumentException();
+		this.columns = other.columns;
+		this.rows = other.rows;
+		this.wordsPerRow = other.wordsPerRow;
+		this.words = other.words.clone();
+	}
+
+	/**
+	 * Check whether the given map is a valid passable map for a terrain.
+	 *
+	 * @param	passableMap
+	 * 			The map to be checked.
+	 * @return	False if the given map is not effective or has no rows or columns. <br>
+	 * 			| passableMap == null || passableMap.length == 0 || passableMap[0].length == 0 <br>
+	 * 			False if some row of the given map is not effective or does not have as many columns as the first row. <br>
+	 * 			| for some row : passableMap[row] == null || passableMap[row].length != passableMap[0].length <br>
+	 * 			True otherwise.
+	 */
+	public static boolean isValidPassableMap(boolean[][] passableMap) {
+		if (passableMap == null || passableMap.length == 0 || passableMap[0] == null || passableMap[0].length == 0)
+			return false;
+		for (boolean[] row : passableMap) {
+			if (row == null || row.length != passableMap[0].length)
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Return the amount of words needed to store a row of the given amount of columns.
+	 *
+	 * @param	columns
+	 * 			The amount of columns of the row.
+	 * @return	| ceil(columns / 64)
+	 */
+	public static int getWordsPerRow(int columns) {
+		return (columns + 63) >>> 6;
+	}
+
+	@Override @Basic @Immutable
+	public int getAmountOfColumns() {
+		return columns;
+	}
+
+	@Override @Basic @Immutable
+	public int getAmountOfRows() {
+		return rows;
+	}
+
+	/**
+	 * Return the amount of words of every row of this terrain.
+	 */
+	@Basic @Immutable
+	public int getWordsPerRow() {
+		return wordsPerRow;
+	}
+
+	@Override
+	public long getWord(int row, int index) {
+		return words[row * wordsPerRow + index];
+	}
+
+	/**
+	 * Return the amount of bytes the words of this terrain occupy.
+	 */
+	public long getMemoryFootprint() {
+		return 8L * words.length;
+	}
+
+	@Override
+	public void setPassableInRow(int row, int fromColumn, int toColumn, boolean passable) {
+		if (fromColumn >= toColumn)
+			return;
+		int base = row * wordsPerRow;
+		int first = fromColumn >>> 6;
+		int last = (toColumn - 1) >>> 6;
+		for (int index = first; index <= last; index++) {
+			long mask = -1L;
+			if (index == first)
+				mask &= -1L << fromColumn;
+			if (index == last)
+				mask &= -1L >>> (63 - ((toColumn - 1) & 63));
+			if (passable)
+				words[base + index] &= ~mask;
+			else
+				words[base + index] |= mask;
+		}
+	}
+
+	/**
+	 * Clear the bits beyond the last column of every row of this terrain.
+	 */
+	private void clearPadding() {
+		int used = columns & 63;
+		if (used == 0)
+			return;
+		long mask = -1L >>> (64 - used);
+		for (int row = 0; row < rows; row++)
+			words[row * wordsPerRow + wordsPerRow - 1] &= mask;
+	}
+
+	/*
+	 * Variables registering the amount of columns and rows of this terrain.
+	 */
+	private final int columns;
+	private final int rows;
+
+	/*
+	 * A variable registering the amount of words of every row of this terrain.
+	 */
+	private final int wordsPerRow;
+
+	/*
+	 * An array registering the pixels of this terrain, row after row, with a set bit for every impassable pixel.
+	 */
+	private final long[] words;
+
+}
@@ -0,0 +1,268 @@
+package worms.model.World;
+
+import be.kuleuven.cs.som.annotate.*;
+
+/**
+ * A class of pixel mappings which translate the coordinates of a world into the column and row
+ * of the pixel of its passable map in which they are located. <br>
+ * The size of a pixel is computed once when the mapping is created, so that every lookup
+ * is a multiplication and a clamp, regardless of the width or height of the world. <br>
+ * The y-axis of a world points upwards, whereas row 0 is the top row of a passable map,
+ * so the last row of the map lies along the bottom of the world.
+ *
+ * @invar	The amount of columns and rows of every pixel mapping is strictly positive. <br>
+ * 			| getAmountOfColumns() > 0 && getAmountOfRows() > 0
+ *
+ * @author Ruben
+ */
+@Value
+public class PixelMapping {
+
+	/**
+	 * Initialize this new pixel mapping for a world with the given dimensions and the given amount of columns and rows.
+	 *
+	 * @param	width
+	 * 			The width of the world for this new pixel mapping.
+	 * @param	height
+	 * 			The height of the world for this new pixel mapping.
+	 * @param	columns
+	 * 			The amount of columns of the passable map for this new pixel mapping.
+	 * @param	rows
+	 * 			The amount of rows of the passable map for this new pixel mapping.
+	 * @post	The pixel width of this new mapping is equal to the given width divided by the given amount of columns. <br>
+	 * 			| new.getPixelWidth() == width / columns
+	 * @post	The pixel height of this new mapping is equal to the given height divided by the given amount of rows. <br>
+	 * 			| new.getPixelHeight() == height / rows
+	 * @throws	IllegalArgumentException
+	 * 			The given amount of columns or rows is not strictly positive. <br>
+	 * 			| columns <= 0 || rows <= 0
+	 */
+	public PixelMapping(double width, double height, int columns, int rows) throws IllegalArgumentException {
+		if (columns <= 0 || rows <= 0)
+			throw new IllegalArgumentException();
+		this.width = width;
+		this.height = height;
+		this.columns = columns;
+		this.rows = rows;
+		this.pixelWidth = width / columns;
+		this.pixelHeight = height / rows;
+		this.inversePixelWidth = columns / width;
+		this.inversePixelHeight = rows / height;
+	}
+
+	/**
+	 * Return the column in which the given x-coordinate is located.
+	 *
+	 * @param	x
+	 * 			The x-coordinate to get the column for.
+	 * @return	The column whose right edge is the first edge at or beyond the given x-coordinate,
+	 * 			clamped to the columns of the passable map. <br>
+	 * 			A coordinate on the edge between two columns belongs to the left one,
+	 * 			a coordinate on or beyond the right edge of the world belongs to the last column. <br>
+	 * 			| result == clamp(ceil(x / getPixelWidth()) - 1, 0, getAmountOfColumns() - 1)
+	 */
+	public int getColumn(double x) {
+		return clamp((int) Math.ceil(x * inversePixelWidth) - 1, columns);
+	}
+
+	/**
+	 * Return the row in which the given y-coordinate is located.
+	 *
+	 * @param	y
+	 * 			The y-coordinate to get the row for.
+	 * @return	The row whose upper edge is the first edge at or above the given y-coordinate,
+	 * 			clamped to the rows of the passable map. <br>
+	 * 			A coordinate on the edge between two rows belongs to the lower one,
+	 * 			a coordinate on or below the bottom edge of the world belongs to the last row. <br>
+	 * 			| result == getAmountOfRows() - 1 - clamp(ceil(y / getPixelHeight()) - 1, 0, getAmountOfRows() - 1)
+	 */
+	public int getRow(double y) {
+		return rows - 1 - clamp((int) Math.ceil(y * inversePixelHeight) - 1, rows);
+	}
+
+	/**
+	 * Return the horizontal distance between the given x-coordinate and the given column.
+	 *
+	 * @param	x
+	 * 			The x-coordinate to get the distance from.
+	 * @param	column
+	 * 			The column to get the distance to.
+	 * @return	0 if the given x-coordinate lies within the column, the distance to its nearest edge otherwise. <br>
+	 * 			| Math.max(0, Math.max(column * getPixelWidth() - x, x - (column + 1) * getPixelWidth()))
+	 */
+	public double getHorizontalGap(double x, int column) {
+		return Math.max(0, Math.max(column * pixelWidth - x, x - (column + 1) * pixelWidth));
+	}
+
+	/**
+	 * Return the vertical distance between the given y-coordinate and the given row.
+	 *
+	 * @param	y
+	 * 			The y-coordinate to get the distance from.
+	 * @param	row
+	 * 			The row to get the distance to.
+	 * @return	0 if the given y-coordinate lies within the row, the distance to its nearest edge otherwise. <br>
+	 * 			| Math.max(0, Math.max(getBottomY(row) - y, y - getTopY(row)))
+	 */
+	public double getVerticalGap(double y, int row) {
+		return Math.max(0, Math.max(getBottomY(row) - y, y - getTopY(row)));
+	}
+
+	/**
+	 * Return how far the given y-coordinate lies below the top edge of the world.
+	 *
+	 * @param	y
+	 * 			The y-coordinate to be mirrored.
+	 * @return	The given y-coordinate measured downwards from the top edge of the world,
+	 * 			the direction in which rows are counted. <br>
+	 * 			| result == getHeight() - y
+	 */
+	public double getDepth(double y) {
+		return height - y;
+	}
+
+	/**
+	 * Return the y-coordinate of the bottom edge of the given row.
+	 *
+	 * @param	row
+	 * 			The row to get the bottom edge of.
+	 * @return	| (getAmountOfRows() - 1 - row) * getPixelHeight()
+	 */
+	public double getBottomY(int row) {
+		return (rows - 1 - row) * pixelHeight;
+	}
+
+	/**
+	 * Return the y-coordinate of the top edge of the given row.
+	 *
+	 * @param	row
+	 * 			The row to get the top edge of.
+	 * @return	| (getAmountOfRows() - row) * getPixelHeight()
+	 */
+	public double getTopY(int row) {
+		return (rows - row) * pixelHeight;
+	}
+
+	/**
+	 * Return the x-coordinate of the centre of the given column.
+	 *
+	 * @param	column
+	 * 			The column to get the centre of.
+	 * @return	| (column + 0.5) * getPixelWidth()
+	 */
+	public double getCentreX(int column) {
+		return (column + 0.5) * pixelWidth;
+	}
+
+	/**
+	 * Return the y-coordinate of the centre of the given row.
+	 *
+	 * @param	row
+	 * 			The row to get the centre of.
+	 * @return	| (getAmountOfRows() - row - 0.5) * getPixelHeight()
+	 */
+	public double getCentreY(int row) {
+		return (rows - row - 0.5) * pixelHeight;
+	}
+
+	/**
+	 * Return the distance between the centre of a pixel and its corners.
+	 *
+	 * @return	| Math.sqrt(getPixelWidth() ^ 2 + getPixelHeight() ^ 2) / 2
+	 */
+	public double getHalfDiagonal() {
+		return Math.sqrt(pixelWidth * pixelWidth + pixelHeight * pixelHeight) / 2;
+	}
+
+	/**
+	 * Clamp the given index to the bounds of the given amount of indices.
+	 *
+	 * @param	index
+	 * 			The index to be clamped.
+	 * @param	amount
+	 * 			The amount of valid indices.
+	 * @return	0 if the given index is negative, amount - 1 if the given index is larger then amount - 1,
+	 * 			the given index otherwise. <br>
+	 * 			| Math.max(0, Math.min(index, amount - 1))
+	 */
+	private static int clamp(int index, int amount) {
+		if (index < 0)
+			return 0;
+		if (index >= amount)
+			return amount - 1;
+		return index;
+	}
+
+	/**
+	 * Return the width of the world of this pixel mapping.
+	 */
+	@Basic @Immutable
+	public double getWidth() {
+		return width;
+	}
+
+	/**
+	 * Return the height of the world of this pixel mapping.
+	 */
+	@Basic @Immutable
+	public double getHeight() {
+		return height;
+	}
+
+	/**
+	 * Return the amount of columns of this pixel mapping.
+	 */
+	@Basic @Immutable
+	public int getAmountOfColumns() {
+		return columns;
+	}
+
+	/**
+	 * Return the amount of rows of this pixel mapping.
+	 */
+	@Basic @Immutable
+	public int getAmountOfRows() {
+		return rows;
+	}
+
+	/**
+	 * Return the width of a single pixel of this pixel mapping.
+	 */
+	@Basic @Immutable
+	public double getPixelWidth() {
+		return pixelWidth;
+	}
+
+	/**
+	 * Return the height of a single pixel of this pixel mapping.
+	 */
+	@Basic @Immutable
+	public double getPixelHeight() {
+		return pixelHeight;
+	}
+
+	/*
+	 * Variables registering the dimensions of the world of this pixel mapping.
+	 */
+	private final double width;
+	private final double height;
+
+	/*
+	 * Variables registering the amount of columns and rows of this pixel mapping.
+	 */
+	private final int columns;
+	private final int rows;
+
+	/*
+	 * Variables registering the size of a single pixel of this pixel mapping.
+	 */
+	private final double pixelWidth;
+	private final double pixelHeight;
+
+	/*
+	 * Variables registering the inverse of the size of a single pixel, so a lookup is a multiplication.
+	 */
+	private final double inversePixelWidth;
+	private final double inversePixelHeight;
+
+}
@@ -0,0 +1,347 @@
+package worms.model.World;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Random;
+
+import worms.model.Position;
+import worms.model.worm.Worm;
+import be.kuleuven.cs.som.annotate.*;
+
+/**
+ * A class of placement indexes, which register the centres of pixels at which worms stand on impassable terrain,
+ * and hand them out uniformly at random. <br>
+ * Radii are grouped in classes whose largest radius is WorldConstants.PLACEMENT_RADIUS_CLASS_RATIO times
+ * their smallest one. The candidate centres of a class, at which a worm with some radius of that class may stand,
+ * are computed once from the distance field of a world, so worms of many different radii share a few scans
+ * of the map. Every draw takes constant time: a drawn centre at which the worm does not stand, or that overlaps
+ * a worm already in the world, is swapped out of the range still to be drawn from, so a single placement never
+ * draws the same centre twice and ends after at most as many draws as there are candidates. <br>
+ * Whether a worm stands on a candidate centre is decided on the pixels themselves, with a disk and an annulus
+ * from a stencil cache, which are rasterised once per radius and shared by every centre that is looked at. <br>
+ * When the terrain is edited, only the centres within reach of the edited pixels are looked at again.
+ *
+ * @author Ruben
+ */
+public class PlacementIndex {
+
+	/**
+	 * Initialize this new placement index for the terrain measured by the given distance field.
+	 *
+	 * @param	distanceField
+	 * 			The distance field for this new index.
+	 * @post	The distance field of this new index is the given distance field. <br>
+	 * 			| new.getDistanceField() == distanceField
+	 * @throws	IllegalArgumentException
+	 * 			The given distance field is not effective. <br>
+	 * 			| distanceField == null
+	 */
+	public PlacementIndex(DistanceField distanceField) throws IllegalArgumentException {
+		if (distanceField == null)
+			throw new IllegalArgumentException();
+		this.distanceField = distanceField;
+		this.mapping = distanceField.getPixelMapping();
+		this.stencilCache = new StencilCache(mapping, WorldConstants.STENCIL_CACHE_CAPACITY);
+	}
+
+	/**
+	 * Initialize this new placement index as a copy of the given index, for the given copy of its distance field.
+	 *
+	 * @param	other
+	 * 			The placement index to be copied.
+	 * @param	distanceField
+	 * 			The distance field for this new index, with the same distances as the distance field of the given index.
+	 * @post	The distance field of this new index is the given distance field, and its candidate centres
+	 * 			are those of the given index. <br>
+	 * 			| new.getDistanceField() == distanceField && <br>
+	 * 			| for each radius : new.getAmountOfCandidates(radius) == other.getAmountOfCandidates(radius)
+	 * @throws	IllegalArgumentException
+	 * 			The given index or distance field is not effective, or the distance field does not have the same pixels. <br>
+	 * 			| other == null || distanceField == null || <br>
+	 * 			| distanceField.getPixelMapping().getAmountOfColumns() != other.mapping.getAmountOfColumns() || <br>
+	 * 			| distanceField.getPixelMapping().getAmountOfRows() != other.mapping.getAmountOfRows()
+	 */
+	public PlacementIndex(PlacementIndex other, DistanceField distanceField) throws IllegalArgumentException {
+		if (other == null || distanceField == null
+				|| distanceField.getPixelMapping().getAmountOfColumns() != other.mapping.getAmountOfColumns()
+				|| distanceField.getPixelMapping().getAmountOfRows() != other.mapping.getAmountOfRows())
+			throw new IllegalArgumentException();
+		this.distanceField = distanceField;
+		this.mapping = distanceField.getPixelMapping();
+		this.stencilCache = new StencilCache(mapping, WorldConstants.STENCIL_CACHE_CAPACITY);
+		synchronized (other) {
+			for (Integer radiusClass : other.buckets.keySet())
+				buckets.put(radiusClass, new Bucket(other.buckets.get(radiusClass)));
+		}
+	}
+
+	/**
+	 * Return the distance field of this placement index.
+	 */
+	@Basic @Immutable
+	public DistanceField getDistanceField() {
+		return distanceField;
+	}
+
+	/**
+	 * Return the cache of the stencils with which this placement index checks where worms stand.
+	 */
+	@Basic @Immutable
+	public StencilCache getStencilCache() {
+		return stencilCache;
+	}
+
+	/**
+	 * Return the amount of standing centres for a worm with the given radius.
+	 *
+	 * @param	radius
+	 * 			The radius of the worm.
+	 * @return	The amount of pixels whose centre lies at least the given radius inside the world, is passable,
+	 * 			and has the nearest impassable terrain between the given radius and WorldConstants.ADJACENCY_FACTOR
+	 * 			times the given radius.
+	 */
+	public synchronized int getAmountOfPositions(double radius) {
+		Bucket bucket = getBucket(radius);
+		Stencil body = stencilCache.getDisk(radius);
+		Stencil reach = stencilCache.getAnnulus(radius, WorldConstants.ADJACENCY_FACTOR * radius);
+		int result = 0;
+		for (int index = 0; index < bucket.size; index++)
+			if (isStanding(bucket.pixels[index], radius, body, reach))
+				result++;
+		return result;
+	}
+
+	/**
+	 * Return the amount of candidate centres this index registers for the class of the given radius.
+	 *
+	 * @param	radius
+	 * 			The radius of the worm.
+	 * @return	At least the amount of standing centres for the given radius. <br>
+	 * 			| result >= getAmountOfPositions(radius)
+	 */
+	public synchronized int getAmountOfCandidates(double radius) {
+		return getBucket(radius).size;
+	}
+
+	/**
+	 * Compute the candidate centres for the class of the given radius, unless they have been computed already.
+	 *
+	 * @param	radius
+	 * 			The radius of the worms to be placed.
+	 */
+	public synchronized void prepare(double radius) {
+		getBucket(radius);
+	}
+
+	/**
+	 * Return a standing position for a worm with the given radius that does not overlap any of the given worms.
+	 *
+	 * @param	radius
+	 * 			The radius of the worm to be placed.
+	 * @param	random
+	 * 			The random number generator from which the position is drawn.
+	 * @param	worms
+	 * 			The worms the position may not overlap with.
+	 * @return	The centre of a pixel drawn uniformly from the standing centres for the given radius
+	 * 			that lie further than the given radius plus their radius from every given worm,
+	 * 			or null if there is no such centre.
+	 */
+	public synchronized Position findPosition(double radius, Random random, Collection<Worm> worms) {
+		Bucket bucket = getBucket(radius);
+		Stencil body = stencilCache.getDisk(radius);
+		Stencil reach = stencilCache.getAnnulus(radius, WorldConstants.ADJACENCY_FACTOR * radius);
+		for (int remaining = bucket.size; remaining > 0; remaining--) {
+			int drawn = random.nextInt(remaining);
+			int pixel = bucket.pixels[drawn];
+			double x = mapping.getCentreX(pixel % mapping.getAmountOfColumns());
+			double y = mapping.getCentreY(pixel / mapping.getAmountOfColumns());
+			if (isStanding(pixel, radius, body, reach) && !overlaps(x, y, radius, worms))
+				return new Position(x, y);
+			// Move the rejected centre past the range that is still drawn from.
+			bucket.pixels[drawn] = bucket.pixels[remaining - 1];
+			bucket.pixels[remaining - 1] = pixel;
+		}
+		return null;
+	}
+
+	/**
+	 * Bring the standing centres of this index up to date after the pixels of the given rectangle have changed.
+	 *
+	 * @param	fromColumn
+	 * 			The first column of the rectangle, inclusive.
+	 * @param	fromRow
+	 * 			The first row of the rectangle, inclusive.
+	 * @param	toColumn
+	 * 			The last column of the rectangle, exclusive.
+	 * @param	toRow
+	 * 			The last row of the rectangle, exclusive.
+	 * @pre		The distance field of this index is up to date with its terrain.
+	 * @post	For every radius, the standing centres of this index are those of a new index for the distance field. <br>
+	 * 			| for each radius : new.getAmountOfPositions(radius) == new PlacementIndex(getDistanceField()).getAmountOfPositions(radius)
+	 */
+	public synchronized void update(int fromColumn, int fromRow, int toColumn, int toRow) {
+		for (Bucket bucket : buckets.values())
+			bucket.update(fromColumn, fromRow, toColumn, toRow);
+	}
+
+	/**
+	 * Return the amount of bytes taken by the candidate centres of this index.
+	 */
+	public synchronized long getMemoryFootprint() {
+		long bytes = 0;
+		for (Bucket bucket : buckets.values())
+			bytes += 4L * bucket.pixels.length;
+		return bytes;
+	}
+
+	private static boolean overlaps(double x, double y, double radius, Collection<Worm> worms) {
+		for (Worm worm : worms) {
+			double reach = radius + worm.getRadius();
+			double dx = worm.getX() - x, dy = worm.getY() - y;
+			if (dx * dx + dy * dy < reach * reach)
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Return the bucket of candidate centres for the class of the given radius, computing it if needed.
+	 */
+	private Bucket getBucket(double radius) {
+		int radiusClass = (int) Math.floor(Math.log(radius) / Math.log(WorldConstants.PLACEMENT_RADIUS_CLASS_RATIO));
+		Bucket bucket = buckets.get(radiusClass);
+		if (bucket == null) {
+			bucket = new Bucket(Math.pow(WorldConstants.PLACEMENT_RADIUS_CLASS_RATIO, radiusClass),
+					Math.pow(WorldConstants.PLACEMENT_RADIUS_CLASS_RATIO, radiusClass + 1));
+			buckets.put(radiusClass, bucket);
+		}
+		return bucket;
+	}
+
+	/**
+	 * Check whether a worm with the given radius centred on the given pixel stands on impassable terrain. <br>
+	 * 		The given body covers the pixels closer than the radius to the centre, the given reach those between
+	 * 		the radius and WorldConstants.ADJACENCY_FACTOR times the radius; outside the world counts as impassable.
+	 */
+	private boolean isStanding(int pixel, double radius, Stencil body, Stencil reach) {
+		int column = pixel % mapping.getAmountOfColumns();
+		int row = pixel / mapping.getAmountOfColumns();
+		if (!isCandidate(column, row, radius, radius))
+			return false;
+		Terrain terrain = distanceField.getTerrain();
+		return !body.hasImpassable(terrain, column, row) && reach.hasImpassable(terrain, column, row);
+	}
+
+	/**
+	 * Check whether a worm with some radius between the given radii may stand centred on the given pixel. <br>
+	 * 		The distance between pixel centres bounds the exact distance to within half a diagonal, so no worm
+	 * 		with a radius between the given radii stands on a pixel that is not a candidate. A distance cut off
+	 * 		at the bound of the field is only a lower bound, so it never rules out a larger radius.
+	 */
+	private boolean isCandidate(int column, int row, double minimalRadius, double maximalRadius) {
+		double x = mapping.getCentreX(column);
+		double y = mapping.getCentreY(row);
+		double border = Math.min(Math.min(x, y), Math.min(mapping.getWidth() - x, mapping.getHeight() - y));
+		if (border < minimalRadius)
+			return false;
+		double reach = distanceField.getDistanceToImpassable(column, row);
+		return reach >= Math.min(minimalRadius, distanceField.getBound())
+				&& Math.min(reach - mapping.getHalfDiagonal(), border) <= WorldConstants.ADJACENCY_FACTOR * maximalRadius;
+	}
+
+	/**
+	 * A class of buckets, registering the candidate centres for a single class of radii as pixel indices.
+	 */
+	private class Bucket {
+
+		private Bucket(double minimalRadius, double maximalRadius) {
+			this.minimalRadius = minimalRadius;
+			this.maximalRadius = maximalRadius;
+			this.pixels = new int[1024];
+			addCandidates(0, 0, mapping.getAmountOfColumns(), mapping.getAmountOfRows());
+		}
+
+		private Bucket(Bucket other) {
+			this.minimalRadius = other.minimalRadius;
+			this.maximalRadius = other.maximalRadius;
+			this.pixels = Arrays.copyOf(other.pixels, other.pixels.length);
+			this.size = other.size;
+		}
+
+		/**
+		 * Look at the centres within reach of the given rectangle again. <br>
+		 * A centre only becomes or stops being a candidate if a changed pixel lies within
+		 * WorldConstants.ADJACENCY_FACTOR times the largest radius of this bucket.
+		 */
+		private void update(int fromColumn, int fromRow, int toColumn, int toRow) {
+			double reach = WorldConstants.ADJACENCY_FACTOR * maximalRadius;
+			int columnReach = (int) Math.ceil(reach / mapping.getPixelWidth()) + 1;
+			int rowReach = (int) Math.ceil(reach / mapping.getPixelHeight()) + 1;
+			fromColumn = Math.max(0, fromColumn - columnReach);
+			fromRow = Math.max(0, fromRow - rowReach);
+			toColumn = Math.min(mapping.getAmountOfColumns(), toColumn + columnReach);
+			toRow = Math.min(mapping.getAmountOfRows(), toRow + rowReach);
+			int kept = 0;
+			for (int index = 0; index < size; index++) {
+				int column = pixels[index] % mapping.getAmountOfColumns();
+				int row = pixels[index] / mapping.getAmountOfColumns();
+				if (column < fromColumn || column >= toColumn || row < fromRow || row >= toRow)
+					pixels[kept++] = pixels[index];
+			}
+			size = kept;
+			addCandidates(fromColumn, fromRow, toColumn, toRow);
+		}
+
+		/**
+		 * Add the candidate centres of the given rectangle to this bucket.
+		 */
+		private void addCandidates(int fromColumn, int fromRow, int toColumn, int toRow) {
+			for (int row = fromRow; row < toRow; row++)
+				for (int column = fromColumn; column < toColumn; column++)
+					if (isCandidate(column, row, minimalRadius, maximalRadius)) {
+						if (size == pixels.length)
+							pixels = Arrays.copyOf(pixels, 2 * size);
+						pixels[size++] = row * mapping.getAmountOfColumns() + column;
+					}
+		}
+
+		/*
+		 * Variables registering the smallest and the largest radius of the class of this bucket.
+		 */
+		private final double minimalRadius;
+		private final double maximalRadius;
+
+		/*
+		 * An array registering the candidate centres of this bucket, in the order they are drawn from.
+		 */
+		private int[] pixels;
+
+		/*
+		 * A variable registering the amount of candidate centres of this bucket.
+		 */
+		private int size;
+
+	}
+
+	/*
+	 * A variable registering the distance field of this placement index.
+	 */
+	private final DistanceField distanceField;
+
+	/*
+	 * A variable registering the pixel mapping of the distance field of this placement index.
+	 */
+	private final PixelMapping mapping;
+
+	/*
+	 * A variable registering the cache of the stencils with which this placement index checks where worms stand.
+	 */
+	private final StencilCache stencilCache;
+
+	/*
+	 * A map registering the buckets of this placement index by their class of radii.
+	 */
+	private final HashMap<Integer, Bucket> buckets = new HashMap<Integer, Bucket>();
+
+}
@@ -0,0 +1,126 @@
+package worms.model.World;
+
+/**
+ * A class of stencils, which register a set of pixel offsets around a centre pixel as a list of row spans. <br>
+ * A span covers the columns from its first column offset up to, but not including, its last column offset
+ * in the row at its row offset from the centre pixel.
+ *
+ * @author Ruben
+ */
+public class Stencil {
+
+	/**
+	 * Initialize this new stencil with the given spans.
+	 *
+	 * @param	spans
+	 * 			The spans for this new stencil, as consecutive triples of a row offset,
+	 * 			a first column offset (inclusive) and a last column offset (exclusive).
+	 * @throws	IllegalArgumentException
+	 * 			The given spans are not effective or do not consist of triples. <br>
+	 * 			| spans == null || spans.length % 3 != 0
+	 */
+	public Stencil(int[] spans) throws IllegalArgumentException {
+		if (spans == null || spans.length % 3 != 0)
+			throw new IllegalArgumentException();
+		this.spans = spans.clone();
+		int pixels = 0;
+		for (int index = 0; index < spans.length; index += 3)
+			pixels += spans[index + 2] - spans[index + 1];
+		this.amountOfPixels = pixels;
+	}
+
+	/**
+	 * Return the amount of spans of this stencil.
+	 */
+	public int getAmountOfSpans() {
+		return spans.length / 3;
+	}
+
+	/**
+	 * Return the row offset of the span with the given index.
+	 */
+	public int getRowOffset(int index) {
+		return spans[3 * index];
+	}
+
+	/**
+	 * Return the first column offset, inclusive, of the span with the given index.
+	 */
+	public int getFromColumnOffset(int index) {
+		return spans[3 * index + 1];
+	}
+
+	/**
+	 * Return the last column offset, exclusive, of the span with the given index.
+	 */
+	public int getToColumnOffset(int index) {
+		return spans[3 * index + 2];
+	}
+
+	/**
+	 * Return the amount of pixels covered by this stencil.
+	 */
+	public int getAmountOfPixels() {
+		return amountOfPixels;
+	}
+
+	/**
+	 * Check whether this stencil, centred on the given pixel, covers an impassable pixel of the given terrain.
+	 * Pixels outside the terrain count as impassable.
+	 *
+	 * @param	terrain
+	 * 			The terrain to be checked.
+	 * @param	column
+	 * 			The column of the centre pixel.
+	 * @param	row
+	 * 			The row of the centre pixel.
+	 * @return	True if some pixel covered by this stencil lies outside the given terrain or is impassable in it.
+	 */
+	public boolean hasImpassable(Terrain terrain, int column, int row) {
+		for (int index = 0; index < spans.length; index += 3) {
+			int spanRow = row + spans[index];
+			int from = column + spans[index + 1];
+			int to = column + spans[index + 2];
+			if (spanRow < 0 || spanRow >= terrain.getAmountOfRows() || from < 0 || to > terrain.getAmountOfColumns())
+				return true;
+			if (terrain.hasImpassableInRow(spanRow, from, to))
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Check whether this stencil, centred on the given pixel, covers a passable pixel of the given terrain.
+	 *
+	 * @param	terrain
+	 * 			The terrain to be checked.
+	 * @param	column
+	 * 			The column of the centre pixel.
+	 * @param	row
+	 * 			The row of the centre pixel.
+	 * @return	True if some pixel covered by this stencil lies inside the given terrain and is passable in it.
+	 */
+	public boolean hasPassable(Terrain terrain, int column, int row) {
+		for (int index = 0; index < spans.length; index += 3) {
+			int spanRow = row + spans[index];
+			if (spanRow < 0 || spanRow >= terrain.getAmountOfRows())
+				continue;
+			int from = Math.max(0, column + spans[index + 1]);
+			int to = Math.min(terrain.getAmountOfColumns(), column + spans[index + 2]);
+			if (terrain.hasPassableInRow(spanRow, from, to))
+				return true;
+		}
+		return false;
+	}
+
+	/*
+	 * An array registering the spans of this stencil as consecutive triples.
+	 */
+	private final int[] spans;
+
+	/*
+	 * A variable registering the amount of pixels covered by this stencil.
+	 */
+	private final int amountOfPixels;
+
+}
@@ -0,0 +1,197 @@
+package worms.model.World;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import be.kuleuven.cs.som.annotate.*;
+
+/**
+ * A class of stencil caches, which rasterise the pixels a disk or an annulus reaches once per pair of radii
+ * and keep the most recently used stencils. <br>
+ * A stencil is centred on the centre of a pixel, and the distance of a pixel is the distance between that centre
+ * and the nearest point of the pixel, as the distance field measures it. Radii are used as given, so a stencil
+ * answers exactly for the pixel centres the worms of a placement index stand on; the few radii of the worms
+ * of a game keep the cache small.
+ *
+ * @author Ruben
+ */
+public class StencilCache {
+
+	/**
+	 * Initialize this new stencil cache for the pixels of the given mapping, keeping at most the given amount of stencils.
+	 *
+	 * @param	mapping
+	 * 			The pixel mapping for this new cache.
+	 * @param	capacity
+	 * 			The maximal amount of stencils of this new cache.
+	 * @post	The capacity of this new cache is equal to the given capacity. <br>
+	 * 			| new.getCapacity() == capacity
+	 * @throws	IllegalArgumentException
+	 * 			The given mapping is not effective or the given capacity is not strictly positive. <br>
+	 * 			| mapping == null || capacity <= 0
+	 */
+	public StencilCache(PixelMapping mapping, final int capacity) throws IllegalArgumentException {
+		if (mapping == null || capacity <= 0)
+			throw new IllegalArgumentException();
+		this.pixelWidth = mapping.getPixelWidth();
+		this.pixelHeight = mapping.getPixelHeight();
+		this.capacity = capacity;
+		this.stencils = new LinkedHashMap<Map.Entry<Double, Double>, Stencil>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Map.Entry<Double, Double>, Stencil> eldest) {
+				return size() > capacity;
+			}
+		};
+	}
+
+	/**
+	 * Return the stencil of the pixels that come closer than the given radius to the centre of the centre pixel.
+	 *
+	 * @param	radius
+	 * 			The radius of the disk.
+	 * @return	A stencil covering exactly the pixels whose distance is smaller than the given radius.
+	 */
+	public Stencil getDisk(double radius) {
+		return getStencil(-1, radius);
+	}
+
+	/**
+	 * Return the stencil of the pixels whose distance to the centre of the centre pixel lies between the given radii.
+	 *
+	 * @param	innerRadius
+	 * 			The inner radius of the annulus.
+	 * @param	outerRadius
+	 * 			The outer radius of the annulus.
+	 * @return	A stencil covering exactly the pixels whose distance is at least the given inner radius
+	 * 			and at most the given outer radius.
+	 */
+	public Stencil getAnnulus(double innerRadius, double outerRadius) {
+		return getStencil(Math.max(0, innerRadius), outerRadius);
+	}
+
+	/**
+	 * Return the stencil with the given radii, where a negative inner radius stands for an open disk.
+	 */
+	private synchronized Stencil getStencil(double innerRadius, double outerRadius) {
+		Map.Entry<Double, Double> key = new SimpleImmutableEntry<Double, Double>(innerRadius, outerRadius);
+		Stencil stencil = stencils.get(key);
+		if (stencil != null) {
+			hits++;
+			return stencil;
+		}
+		misses++;
+		stencil = rasterise(innerRadius, outerRadius);
+		stencils.put(key, stencil);
+		return stencil;
+	}
+
+	/**
+	 * Rasterise the stencil with the given radii around the centre of the centre pixel. <br>
+	 * In every row the distance of a pixel grows with its column offset, so the pixels of a row form
+	 * a single span around the centre, or two spans on either side of the hole of an annulus.
+	 */
+	private Stencil rasterise(double innerRadius, double outerRadius) {
+		int reachRows = (int) Math.ceil(Math.max(0, outerRadius) / pixelHeight) + 1;
+		int[] spans = new int[6 * (2 * reachRows + 1)];
+		int amount = 0;
+		for (int rowOffset = -reachRows; rowOffset <= reachRows; rowOffset++) {
+			double gapY = getGap(rowOffset, pixelHeight);
+			int outerReach = -1;
+			while (isWithinOuter(outerReach + 1, gapY, innerRadius, outerRadius))
+				outerReach++;
+			int innerReach = 0;
+			while (innerReach <= outerReach && Math.hypot(getGap(innerReach, pixelWidth), gapY) < innerRadius)
+				innerReach++;
+			if (innerReach > outerReach)
+				continue;
+			if (innerReach == 0) {
+				amount = addSpan(spans, amount, rowOffset, -outerReach, outerReach + 1);
+			} else {
+				amount = addSpan(spans, amount, rowOffset, -outerReach, -innerReach + 1);
+				amount = addSpan(spans, amount, rowOffset, innerReach, outerReach + 1);
+			}
+		}
+		return new Stencil(Arrays.copyOf(spans, amount));
+	}
+
+	/**
+	 * Check whether the pixel at the given column offset, in a row at the given vertical gap, lies within
+	 * the outer radius of the stencil with the given radii. The outer edge of a disk is open, that of an annulus closed.
+	 */
+	private boolean isWithinOuter(int columnOffset, double gapY, double innerRadius, double outerRadius) {
+		double gap = Math.hypot(getGap(columnOffset, pixelWidth), gapY);
+		return (innerRadius < 0) ? gap < outerRadius : gap <= outerRadius;
+	}
+
+	/**
+	 * Return the distance between the centre of a pixel and the nearest point of the pixel at the given offset,
+	 * along an axis with the given pixel size.
+	 */
+	private static double getGap(int offset, double pixelSize) {
+		return Math.max(0, Math.abs(offset) - 0.5) * pixelSize;
+	}
+
+	private static int addSpan(int[] spans, int amount, int rowOffset, int fromColumnOffset, int toColumnOffset) {
+		spans[amount] = rowOffset;
+		spans[amount + 1] = fromColumnOffset;
+		spans[amount + 2] = toColumnOffset;
+		return amount + 3;
+	}
+
+	/**
+	 * Return the maximal amount of stencils of this cache.
+	 */
+	@Basic @Immutable
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Return the amount of stencils currently in this cache.
+	 */
+	public synchronized int getSize() {
+		return stencils.size();
+	}
+
+	/**
+	 * Return the amount of requests this cache answered with a stencil it already had.
+	 */
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	/**
+	 * Return the amount of requests for which this cache had to rasterise a new stencil.
+	 */
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	/*
+	 * A variable registering the maximal amount of stencils of this cache.
+	 */
+	private final int capacity;
+
+	/*
+	 * Variables registering the size of a single pixel.
+	 */
+	private final double pixelWidth;
+	private final double pixelHeight;
+
+	/*
+	 * A map registering the stencils of this cache by their radii, in order of last use.
+	 */
+	private final LinkedHashMap<Map.Entry<Double, Double>, Stencil> stencils;
+
+	/*
+	 * Variables registering the amount of hits and misses of this cache.
+	 */
+	private long hits;
+	private long misses;
+
+}
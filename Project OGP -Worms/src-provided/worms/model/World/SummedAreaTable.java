@@ -0,0 +1,109 @@
+package worms.model.World;
+
+import be.kuleuven.cs.som.annotate.*;
+
+/**
+ * A class of summed-area tables, which register for every pixel of a terrain the amount of impassable pixels
+ * above and to the left of it, so that the impassable pixels of any rectangle are counted with four lookups. <br>
+ * A summed-area table takes an int for every pixel; see TiledOccupancyTable for a variant whose memory
+ * is bounded by the size of its tiles. An edit invalidates every sum below and to the right of it,
+ * so editing a summed-area table is linear in that part of the terrain.
+ *
+ * @author Ruben
+ */
+public class SummedAreaTable implements OccupancyIndex {
+
+	/**
+	 * Initialize this new summed-area table for the given terrain.
+	 *
+	 * @param	terrain
+	 * 			The terrain for this new table.
+	 * @post	The terrain of this new table is the given terrain. <br>
+	 * 			| new.getTerrain() == terrain
+	 * @throws	IllegalArgumentException
+	 * 			The given terrain is not effective. <br>
+	 * 			| terrain == null
+	 */
+	public SummedAreaTable(Terrain terrain) throws IllegalArgumentException {
+		if (terrain == null)
+			throw new IllegalArgumentException();
+		this.terrain = terrain;
+		this.stride = terrain.getAmountOfColumns() + 1;
+		this.sums = new int[stride * (terrain.getAmountOfRows() + 1)];
+		for (int row = 0; row < terrain.getAmountOfRows(); row++) {
+			int count = 0;
+			for (int column = 0; column < terrain.getAmountOfColumns(); column++) {
+				if (!terrain.isPassable(column, row))
+					count++;
+				sums[(row + 1) * stride + column + 1] = sums[row * stride + column + 1] + count;
+			}
+		}
+	}
+
+	@Override @Basic @Immutable
+	public Terrain getTerrain() {
+		return terrain;
+	}
+
+	@Override
+	public int countImpassable(int fromColumn, int fromRow, int toColumn, int toRow) {
+		return sums[toRow * stride + toColumn] - sums[fromRow * stride + toColumn]
+				- sums[toRow * stride + fromColumn] + sums[fromRow * stride + fromColumn];
+	}
+
+	@Override
+	public void update(int fromColumn, int fromRow, int toColumn, int toRow) {
+		fromColumn = Math.max(0, fromColumn);
+		fromRow = Math.max(0, fromRow);
+		toColumn = Math.min(terrain.getAmountOfColumns(), toColumn);
+		toRow = Math.min(terrain.getAmountOfRows(), toRow);
+		if (fromColumn >= toColumn || fromRow >= toRow)
+			return;
+		// The change of every corner sum is the change of the corner above it plus the change of the row prefix between them.
+		int width = terrain.getAmountOfColumns() - fromColumn;
+		int[] changes = new int[width + 1];
+		boolean changed = false;
+		for (int row = fromRow; row < terrain.getAmountOfRows(); row++) {
+			int base = (row + 1) * stride + fromColumn;
+			int above = row * stride + fromColumn;
+			if (row < toRow) {
+				int count = sums[base] - sums[above];
+				int change = 0;
+				for (int offset = 1; offset <= width; offset++) {
+					if (offset <= toColumn - fromColumn) {
+						if (!terrain.isPassable(fromColumn + offset - 1, row))
+							count++;
+						change = count - (sums[base + offset] - (sums[above + offset] - changes[offset]));
+					}
+					changes[offset] += change;
+					changed |= changes[offset] != 0;
+				}
+			}
+			if (!changed)
+				continue;
+			for (int offset = 1; offset <= width; offset++)
+				sums[base + offset] += changes[offset];
+		}
+	}
+
+	@Override
+	public long getMemoryFootprint() {
+		return 4L * sums.length;
+	}
+
+	/*
+	 * A variable registering the terrain of this table.
+	 */
+	private final Terrain terrain;
+
+	/*
+	 * A variable registering the amount of sums in every row of this table.
+	 */
+	private final int stride;
+
+	/*
+	 * An array registering, for every pixel corner, the amount of impassable pixels above and to the left of it.
+	 */
+	private final int[] sums;
+
+}
@@ -0,0 +1,122 @@
+package worms.model.World;
+
+/**
+ * An interface for the terrain of a world, a rectangular grid of pixels which are either passable or impassable. <br>
+ * Row 0 is the top row of the terrain, column 0 its leftmost column, as in the image the terrain is taken from;
+ * the pixel mapping of a world turns its upward y-coordinates into these rows. <br>
+ * Next to single pixels, a terrain answers questions about spans of a row, so that
+ * a query can test many pixels in a single operation.
+ *
+ * @author Ruben
+ */
+public interface Terrain {
+
+	/**
+	 * Return the amount of columns of this terrain.
+	 */
+	public int getAmountOfColumns();
+
+	/**
+	 * Return the amount of rows of this terrain.
+	 */
+	public int getAmountOfRows();
+
+	/**
+	 * Check whether the pixel on the given column and row is passable.
+	 *
+	 * @param	column
+	 * 			The column in which the pixel is located.
+	 * @param	row
+	 * 			The row in which the pixel is located.
+	 * @pre		The given column and row are inside this terrain. <br>
+	 * 			| 0 <= column < getAmountOfColumns() && 0 <= row < getAmountOfRows()
+	 * @return	True if the pixel is passable, false otherwise.
+	 */
+	public boolean isPassable(int column, int row);
+
+	/**
+	 * Check whether the given row contains an impassable pixel in the given span of columns.
+	 *
+	 * @param	row
+	 * 			The row to be checked.
+	 * @param	fromColumn
+	 * 			The first column of the span, inclusive.
+	 * @param	toColumn
+	 * 			The last column of the span, exclusive.
+	 * @pre		The given row is inside this terrain and the span lies inside its columns. <br>
+	 * 			| 0 <= row < getAmountOfRows() && 0 <= fromColumn <= toColumn <= getAmountOfColumns()
+	 * @return	True if some pixel of the span is impassable. <br>
+	 * 			| for some column in fromColumn..toColumn-1 : !isPassable(column, row)
+	 */
+	public boolean hasImpassableInRow(int row, int fromColumn, int toColumn);
+
+	/**
+	 * Check whether the given row contains a passable pixel in the given span of columns.
+	 *
+	 * @param	row
+	 * 			The row to be checked.
+	 * @param	fromColumn
+	 * 			The first column of the span, inclusive.
+	 * @param	toColumn
+	 * 			The last column of the span, exclusive.
+	 * @pre		The given row is inside this terrain and the span lies inside its columns. <br>
+	 * 			| 0 <= row < getAmountOfRows() && 0 <= fromColumn <= toColumn <= getAmountOfColumns()
+	 * @return	True if some pixel of the span is passable. <br>
+	 * 			| for some column in fromColumn..toColumn-1 : isPassable(column, row)
+	 */
+	public boolean hasPassableInRow(int row, int fromColumn, int toColumn);
+
+	/**
+	 * Return the amount of impassable pixels of the given row in the given span of columns.
+	 *
+	 * @param	row
+	 * 			The row to be counted.
+	 * @param	fromColumn
+	 * 			The first column of the span, inclusive.
+	 * @param	toColumn
+	 * 			The last column of the span, exclusive.
+	 * @pre		The given row is inside this terrain and the span lies inside its columns. <br>
+	 * 			| 0 <= row < getAmountOfRows() && 0 <= fromColumn <= toColumn <= getAmountOfColumns()
+	 * @return	| count column in fromColumn..toColumn-1 : !isPassable(column, row)
+	 */
+	public int countImpassableInRow(int row, int fromColumn, int toColumn);
+
+	/**
+	 * Return the first column of the given span of the given row whose pixel has the given passability.
+	 *
+	 * @param	row
+	 * 			The row to be searched.
+	 * @param	fromColumn
+	 * 			The first column of the span, inclusive.
+	 * @param	toColumn
+	 * 			The last column of the span, exclusive.
+	 * @param	passable
+	 * 			The passability to search for.
+	 * @pre		The given row is inside this terrain and the span lies inside its columns. <br>
+	 * 			| 0 <= row < getAmountOfRows() && 0 <= fromColumn <= toColumn <= getAmountOfColumns()
+	 * @return	The smallest column in the span whose pixel has the given passability,
+	 * 			or -1 if there is no such column. <br>
+	 * 			| result == min { column in fromColumn..toColumn-1 | isPassable(column, row) == passable }
+	 */
+	public int getFirstInRow(int row, int fromColumn, int toColumn, boolean passable);
+
+	/**
+	 * Return the last column of the given span of the given row whose pixel has the given passability.
+	 *
+	 * @param	row
+	 * 			The row to be searched.
+	 * @param	fromColumn
+	 * 			The first column of the span, inclusive.
+	 * @param	toColumn
+	 * 			The last column of the span, exclusive.
+	 * @param	passable
+	 * 			The passability to search for.
+	 * @pre		The given row is inside this terrain and the span lies inside its columns. <br>
+	 * 			| 0 <= row < getAmountOfRows() && 0 <= fromColumn <= toColumn <= getAmountOfColumns()
+	 * @return	The largest column in the span whose pixel has the given passability,
+	 * 			or -1 if there is no such column. <br>
+	 * 			| result == max { column in fromColumn..toColumn-1 | isPassable(column, row) == passable }
+	 */
+	public int getLastInRow(int row, int fromColumn, int toColumn, boolean passable);
+
+}
@@ -0,0 +1,146 @@
+package worms.model.World;
+
+/**
+ * An enumeration of the ways in which the terrain of a world can be stored in memory: as a bit-packed terrain,
+ * or as a list of impassable intervals per row. <br>
+ * The backend of a world is chosen from the measured density of its terrain when the world is loaded:
+ * a terrain with few intervals per row is stored as intervals, any other terrain is bit-packed.
+ *
+ * @author Ruben
+ */
+public enum TerrainBackend {
+
+	PACKED {
+
+		@Override
+		public long getMemoryFootprint(Terrain terrain) {
+			return 8L * terrain.getAmountOfRows() * PackedTerrain.getWordsPerRow(terrain.getAmountOfColumns());
+		}
+
+		@Override
+		public EditableTerrain copy(Terrain terrain) {
+			if (terrain instanceof PackedTerrain)
+				return new PackedTerrain((PackedTerrain) terrain);
+			int columns = terrain.getAmountOfColumns();
+			PackedTerrain result = new PackedTerrain(columns, terrain.getAmountOfRows(),
+					new long[terrain.getAmountOfRows() * PackedTerrain.getWordsPerRow(columns)]);
+			for (int row = 0; row < terrain.getAmountOfRows(); row++) {
+				int from = terrain.getFirstInRow(row, 0, columns, false);
+				while (from >= 0) {
+					int to = terrain.getFirstInRow(row, from, columns, true);
+					if (to < 0)
+						to = columns;
+					result.setPassableInRow(row, from, to, false);
+					from = terrain.getFirstInRow(row, to, columns, false);
+				}
+			}
+			return result;
+		}
+
+		@Override
+		public boolean isBackendOf(Terrain terrain) {
+			return terrain instanceof PackedTerrain;
+		}
+
+	},
+
+	INTERVALS {
+
+		@Override
+		public long getMemoryFootprint(Terrain terrain) {
+			if (terrain instanceof IntervalTerrain)
+				return ((IntervalTerrain) terrain).getMemoryFootprint();
+			return IntervalTerrain.getMemoryFootprint(terrain);
+		}
+
+		@Override
+		public EditableTerrain copy(Terrain terrain) {
+			if (terrain instanceof IntervalTerrain)
+				return new IntervalTerrain((IntervalTerrain) terrain);
+			return new IntervalTerrain(terrain);
+		}
+
+		@Override
+		public boolean isBackendOf(Terrain terrain) {
+			return terrain instanceof IntervalTerrain;
+		}
+
+	};
+
+	/**
+	 * Return the amount of bytes the given terrain occupies, or would occupy, in this backend.
+	 *
+	 * @param	terrain
+	 * 			The terrain to be measured.
+	 */
+	public abstract long getMemoryFootprint(Terrain terrain);
+
+	/**
+	 * Return a copy of the given terrain stored in this backend.
+	 *
+	 * @param	terrain
+	 * 			The terrain to be copied.
+	 * @return	A terrain of this backend with the pixels of the given terrain, which does not change with it. <br>
+	 * 			| isBackendOf(result) && for each column, row : result.isPassable(column, row) == terrain.isPassable(column, row)
+	 */
+	public abstract EditableTerrain copy(Terrain terrain);
+
+	/**
+	 * Check whether the given terrain is stored in this backend.
+	 *
+	 * @param	terrain
+	 * 			The terrain to be checked.
+	 */
+	public abstract boolean isBackendOf(Terrain terrain);
+
+	/**
+	 * Return the backend for the given terrain.
+	 *
+	 * @param	terrain
+	 * 			The terrain to choose a backend for.
+	 * @return	INTERVALS if the intervals of the given terrain take at most WorldConstants.INTERVAL_TERRAIN_MAXIMAL_RATIO
+	 * 			times the bytes of its packed words; PACKED otherwise. <br>
+	 * 			| if (INTERVALS.getMemoryFootprint(terrain) <= WorldConstants.INTERVAL_TERRAIN_MAXIMAL_RATIO * PACKED.getMemoryFootprint(terrain))
+	 * 			|	then result == INTERVALS
+	 * 			|	else result == PACKED
+	 */
+	public static TerrainBackend select(Terrain terrain) {
+		if (INTERVALS.getMemoryFootprint(terrain) <= WorldConstants.INTERVAL_TERRAIN_MAXIMAL_RATIO * PACKED.getMemoryFootprint(terrain))
+			return INTERVALS;
+		return PACKED;
+	}
+
+	/**
+	 * Return the given terrain stored in the backend selected for it.
+	 *
+	 * @param	terrain
+	 * 			The terrain to be stored.
+	 * @return	The given terrain itself if it is editable and already stored in the selected backend,
+	 * 			or else a copy of it in that backend. <br>
+	 * 			| if (terrain instanceof EditableTerrain && select(terrain).isBackendOf(terrain))
+	 * 			|	then result == terrain
+	 * 			|	else result == select(terrain).copy(terrain)
+	 */
+	public static EditableTerrain store(Terrain terrain) {
+		TerrainBackend backend = select(terrain);
+		if (terrain instanceof EditableTerrain && backend.isBackendOf(terrain))
+			return (EditableTerrain) terrain;
+		return backend.copy(terrain);
+	}
+
+	/**
+	 * Return the backend the given terrain is stored in.
+	 *
+	 * @param	terrain
+	 * 			The terrain to be checked.
+	 * @return	The backend of the given terrain, or null if it is stored in none of these backends.
+	 */
+	public static TerrainBackend of(Terrain terrain) {
+		for (TerrainBackend backend : values()) {
+			if (backend.isBackendOf(terrain))
+				return backend;
+		}
+		return null;
+	}
+
+}
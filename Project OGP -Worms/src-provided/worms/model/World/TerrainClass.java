@@ -0,0 +1,11 @@
+package worms.model.World;
+
+/**
+ * An enumeration of the classes in which a circular region of a world can fall: passable, passable and
+ * adjacent to impassable terrain, or entirely impassable.
+ * 
+ * @author Ruben
+ */
+public enum TerrainClass {
+	PASSABLE, ADJACENT, IMPASSABLE
+}
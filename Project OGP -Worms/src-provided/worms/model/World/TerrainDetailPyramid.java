@@ -0,0 +1,338 @@
+package worms.model.World;
+
+import be.kuleuven.cs.som.annotate.*;
+
+/**
+ * A class of level-of-detail pyramids, which register downsampled copies of a terrain at every power of two
+ * up to WorldConstants.DETAIL_MAXIMAL_BLOCK_SIZE. <br>
+ * Every level of detail halves the resolution of the level below it in two conservative reductions: in the
+ * solid reduction a block is impassable if any of its pixels is, in the free reduction a block is passable if
+ * any of its pixels is. A region that is passable in the solid reduction is therefore passable in the terrain
+ * itself, and a region that is impassable in the free reduction is impassable in the terrain itself. Only the
+ * answer that a region is mixed can be wrong, and only for pixels within the error bound of the level. <br>
+ * Level 0 is the terrain itself. The reductions are built from the runs of passable and impassable pixels of
+ * the level below, so a terrain with few runs per row is reduced quickly, and they are brought up to date
+ * block by block when the terrain is edited.
+ *
+ * @author Ruben
+ */
+public class TerrainDetailPyramid {
+
+	/**
+	 * Initialize this new level-of-detail pyramid for the given terrain, with pixels of the size given by the given mapping.
+	 *
+	 * @param	terrain
+	 * 			The terrain for this new pyramid.
+	 * @param	mapping
+	 * 			The mapping between positions and pixels of the given terrain.
+	 * @post	The terrain of this new pyramid is the given terrain. <br>
+	 * 			| new.getTerrain() == terrain
+	 * @throws	IllegalArgumentException
+	 * 			The given terrain or mapping is not effective, or they do not have the same amount of pixels. <br>
+	 * 			| terrain == null || mapping == null || <br>
+	 * 			| terrain.getAmountOfColumns() != mapping.getAmountOfColumns() || terrain.getAmountOfRows() != mapping.getAmountOfRows()
+	 */
+	public TerrainDetailPyramid(Terrain terrain, PixelMapping mapping) throws IllegalArgumentException {
+		if (terrain == null || mapping == null || terrain.getAmountOfColumns() != mapping.getAmountOfColumns()
+				|| terrain.getAmountOfRows() != mapping.getAmountOfRows())
+			throw new IllegalArgumentException();
+		this.terrain = terrain;
+		this.pixelWidth = mapping.getPixelWidth();
+		this.pixelHeight = mapping.getPixelHeight();
+		this.mapping = mapping;
+		int amountOfLevels = 1;
+		while ((1 << amountOfLevels) <= WorldConstants.DETAIL_MAXIMAL_BLOCK_SIZE
+				&& (1 << (amountOfLevels - 1)) < Math.max(terrain.getAmountOfColumns(), terrain.getAmountOfRows()))
+			amountOfLevels++;
+		this.solid = new PackedTerrain[amountOfLevels];
+		this.free = new PackedTerrain[amountOfLevels];
+		for (int level = 1; level < amountOfLevels; level++) {
+			int size = 1 << level;
+			int columns = (terrain.getAmountOfColumns() + size - 1) / size;
+			int rows = (terrain.getAmountOfRows() + size - 1) / size;
+			solid[level] = new PackedTerrain(columns, rows, new long[rows * PackedTerrain.getWordsPerRow(columns)]);
+			free[level] = new PackedTerrain(columns, rows, new long[rows * PackedTerrain.getWordsPerRow(columns)]);
+		}
+		this.queries = new long[amountOfLevels];
+		this.mixedQueries = new long[amountOfLevels];
+		update(0, 0, terrain.getAmountOfColumns(), terrain.getAmountOfRows());
+	}
+
+	/**
+	 * Initialize this new level-of-detail pyramid as a copy of the given pyramid, for the given copy of its terrain.
+	 *
+	 * @param	other
+	 * 			The pyramid to be copied.
+	 * @param	terrain
+	 * 			The terrain for this new pyramid, with the same pixels as the terrain of the given pyramid.
+	 * @post	The terrain of this new pyramid is the given terrain, and its reductions are those of the given pyramid. <br>
+	 * 			| new.getTerrain() == terrain && new.getAmountOfLevels() == other.getAmountOfLevels()
+	 * @throws	IllegalArgumentException
+	 * 			The given pyramid or terrain is not effective, or the terrain does not have the same amount of pixels. <br>
+	 * 			| other == null || terrain == null || <br>
+	 * 			| terrain.getAmountOfColumns() != other.getTerrain().getAmountOfColumns() || <br>
+	 * 			| terrain.getAmountOfRows() != other.getTerrain().getAmountOfRows()
+	 */
+	public TerrainDetailPyramid(TerrainDetailPyramid other, Terrain terrain) throws IllegalArgumentException {
+		if (other == null || terrain == null || terrain.getAmountOfColumns() != other.terrain.getAmountOfColumns()
+				|| terrain.getAmountOfRows() != other.terrain.getAmountOfRows())
+			throw new IllegalArgumentException();
+		this.terrain = terrain;
+		this.pixelWidth = other.pixelWidth;
+		this.pixelHeight = other.pixelHeight;
+		this.mapping = other.mapping;
+		this.solid = new PackedTerrain[other.solid.length];
+		this.free = new PackedTerrain[other.free.length];
+		for (int level = 1; level < solid.length; level++) {
+			solid[level] = new PackedTerrain(other.solid[level]);
+			free[level] = new PackedTerrain(other.free[level]);
+		}
+		this.queries = new long[solid.length];
+		this.mixedQueries = new long[solid.length];
+	}
+
+	/**
+	 * Recompute the blocks of every level of detail that contain a pixel of the given rectangle of pixels.
+	 *
+	 * @param	fromColumn
+	 * 			The first column of the rectangle.
+	 * @param	fromRow
+	 * 			The first row of the rectangle.
+	 * @param	toColumn
+	 * 			The column just after the rectangle.
+	 * @param	toRow
+	 * 			The row just after the rectangle.
+	 */
+	public void update(int fromColumn, int fromRow, int toColumn, int toRow) {
+		fromColumn = Math.max(0, fromColumn);
+		fromRow = Math.max(0, fromRow);
+		toColumn = Math.min(terrain.getAmountOfColumns(), toColumn);
+		toRow = Math.min(terrain.getAmountOfRows(), toRow);
+		if (fromColumn >= toColumn || fromRow >= toRow)
+			return;
+		for (int level = 1; level < solid.length; level++) {
+			fromColumn /= 2;
+			fromRow /= 2;
+			toColumn = (toColumn + 1) / 2;
+			toRow = (toRow + 1) / 2;
+			reduce(getSolidReduction(level - 1), solid[level], false, fromColumn, fromRow, toColumn, toRow);
+			reduce(getFreeReduction(level - 1), free[level], true, fromColumn, fromRow, toColumn, toRow);
+		}
+	}
+
+	/**
+	 * Recompute the given rectangle of blocks of the given reduction from the given finer terrain.
+	 * The blocks are first given the passability opposite to the given marked passability, after which every
+	 * block containing a pixel of the finer terrain with the marked passability is given that passability.
+	 */
+	private static void reduce(Terrain finer, PackedTerrain coarser, boolean marked, int fromColumn, int fromRow,
+			int toColumn, int toRow) {
+		int fineFrom = 2 * fromColumn;
+		int fineTo = Math.min(2 * toColumn, finer.getAmountOfColumns());
+		for (int row = fromRow; row < toRow; row++) {
+			coarser.setPassableInRow(row, fromColumn, toColumn, !marked);
+			for (int fineRow = 2 * row; fineRow < Math.min(2 * row + 2, finer.getAmountOfRows()); fineRow++) {
+				int from = finer.getFirstInRow(fineRow, fineFrom, fineTo, marked);
+				while (from >= 0) {
+					int to = finer.getFirstInRow(fineRow, from, fineTo, !marked);
+					if (to < 0)
+						to = fineTo;
+					coarser.setPassableInRow(row, from / 2, (to + 1) / 2, marked);
+					from = finer.getFirstInRow(fineRow, to, fineTo, marked);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Return the terrain of this pyramid.
+	 */
+	@Basic @Immutable
+	public Terrain getTerrain() {
+		return terrain;
+	}
+
+	/**
+	 * Return the amount of levels of detail of this pyramid, including the terrain itself.
+	 */
+	@Immutable
+	public int getAmountOfLevels() {
+		return solid.length;
+	}
+
+	/**
+	 * Return the solid reduction of the given level of detail.
+	 *
+	 * @param	level
+	 * 			The level of detail.
+	 * @return	The terrain whose pixel (column, row) is impassable if and only if some pixel of the terrain of this
+	 * 			pyramid in the block of 2^level by 2^level pixels at (column * 2^level, row * 2^level) is impassable. <br>
+	 * 			| if (level == 0) then result == getTerrain()
+	 */
+	public Terrain getSolidReduction(int level) {
+		return (level == 0) ? terrain : solid[level];
+	}
+
+	/**
+	 * Return the free reduction of the given level of detail.
+	 *
+	 * @param	level
+	 * 			The level of detail.
+	 * @return	The terrain whose pixel (column, row) is passable if and only if some pixel of the terrain of this
+	 * 			pyramid in the block of 2^level by 2^level pixels at (column * 2^level, row * 2^level) is passable. <br>
+	 * 			| if (level == 0) then result == getTerrain()
+	 */
+	public Terrain getFreeReduction(int level) {
+		return (level == 0) ? terrain : free[level];
+	}
+
+	/**
+	 * Return the error bound of the given level of detail.
+	 *
+	 * @param	level
+	 * 			The level of detail.
+	 * @return	The largest distance between a point of a block of the given level and the pixels of that block,
+	 * 			which is the distance by which a region can grow when it is looked up at the given level. <br>
+	 * 			| result == ((1 << level) - 1) * Math.hypot(pixelWidth, pixelHeight)
+	 */
+	public double getErrorBound(int level) {
+		return ((1 << level) - 1) * Math.hypot(pixelWidth, pixelHeight);
+	}
+
+	/**
+	 * Return the coarsest level of detail whose error bound does not exceed the given tolerance.
+	 *
+	 * @param	tolerance
+	 * 			The largest error allowed.
+	 * @return	| result == max { level in 0..getAmountOfLevels()-1 | level == 0 || getErrorBound(level) <= tolerance }
+	 */
+	public int selectLevel(double tolerance) {
+		int level = 0;
+		while (level + 1 < solid.length && getErrorBound(level + 1) <= tolerance)
+			level++;
+		return level;
+	}
+
+	/**
+	 * Return how the pixels of the terrain of this pyramid touched by the given disk are occupied,
+	 * looked up at the coarsest level of detail whose error bound does not exceed the given tolerance. <br>
+	 * The selected level is registered as the last selected level of this pyramid.
+	 *
+	 * @param	x
+	 * 			The x-coordinate of the centre of the disk.
+	 * @param	y
+	 * 			The y-coordinate of the centre of the disk.
+	 * @param	radius
+	 * 			The radius of the disk.
+	 * @param	tolerance
+	 * 			The largest error allowed.
+	 * @return	PASSABLE only if every pixel touched by the disk is passable, and IMPASSABLE only if every pixel touched
+	 * 			by the disk is impassable. MIXED if the disk, grown by at most the error bound of the selected level,
+	 * 			touches both passable and impassable pixels. Null if the disk touches no pixels.
+	 */
+	public Occupancy getDiskOccupancy(double x, double y, double radius, double tolerance) {
+		int level = selectLevel(tolerance);
+		lastSelectedLevel = level;
+		queries[level]++;
+		Terrain solidReduction = getSolidReduction(level);
+		Terrain freeReduction = getFreeReduction(level);
+		double blockWidth = pixelWidth * (1 << level);
+		double blockHeight = pixelHeight * (1 << level);
+		// Rows are counted from the top of the world down.
+		y = mapping.getDepth(y);
+		int fromRow = Math.max(0, (int) Math.floor((y - radius) / blockHeight));
+		int toRow = Math.min(solidReduction.getAmountOfRows(), (int) Math.floor((y + radius) / blockHeight) + 1);
+		boolean anySolid = false, anyFree = false, any = false;
+		for (int row = fromRow; row < toRow && !(anySolid && anyFree); row++) {
+			double nearY = Math.max(0, Math.max(row * blockHeight - y, y - (row + 1) * blockHeight));
+			if (nearY > radius)
+				continue;
+			double reach = Math.sqrt(radius * radius - nearY * nearY);
+			int from = Math.max(0, (int) Math.floor((x - reach) / blockWidth));
+			int to = Math.min(solidReduction.getAmountOfColumns(), (int) Math.floor((x + reach) / blockWidth) + 1);
+			if (from >= to)
+				continue;
+			any = true;
+			anySolid = anySolid || solidReduction.hasImpassableInRow(row, from, to);
+			anyFree = anyFree || freeReduction.hasPassableInRow(row, from, to);
+		}
+		if (!any)
+			return null;
+		if (!anySolid)
+			return Occupancy.PASSABLE;
+		if (!anyFree)
+			return Occupancy.IMPASSABLE;
+		mixedQueries[level]++;
+		return Occupancy.MIXED;
+	}
+
+	/**
+	 * Return the level of detail selected by the last query of this pyramid, or -1 if it has not been queried.
+	 */
+	@Basic
+	public int getLastSelectedLevel() {
+		return lastSelectedLevel;
+	}
+
+	/**
+	 * Return the amount of queries of this pyramid that were looked up at the given level of detail.
+	 *
+	 * @param	level
+	 * 			The level of detail.
+	 */
+	public long getAmountOfQueries(int level) {
+		return queries[level];
+	}
+
+	/**
+	 * Return the amount of queries of this pyramid at the given level of detail that were answered as mixed,
+	 * and may have to be looked up again in the terrain itself.
+	 *
+	 * @param	level
+	 * 			The level of detail.
+	 */
+	public long getAmountOfMixedQueries(int level) {
+		return mixedQueries[level];
+	}
+
+	/**
+	 * Return the amount of bytes taken by the reductions of this pyramid.
+	 */
+	public long getMemoryFootprint() {
+		long bytes = 0;
+		for (int level = 1; level < solid.length; level++)
+			bytes += solid[level].getMemoryFootprint() + free[level].getMemoryFootprint();
+		return bytes;
+	}
+
+	/*
+	 * A variable registering the terrain of this pyramid.
+	 */
+	private final Terrain terrain;
+
+	/*
+	 * Variables registering the size of a single pixel.
+	 */
+	private final double pixelWidth;
+	private final double pixelHeight;
+
+	/*
+	 * A variable registering the pixel mapping of the terrain, across which disks are mirrored.
+	 */
+	private final PixelMapping mapping;
+
+	/*
+	 * Arrays registering the solid and the free reduction of every level of detail above the terrain itself.
+	 */
+	private final PackedTerrain[] solid;
+	private final PackedTerrain[] free;
+
+	/*
+	 * Variables registering the level of detail of the last query, and the amount of queries
+	 * and of mixed answers at every level of detail.
+	 */
+	private int lastSelectedLevel = -1;
+	private final long[] queries;
+	private final long[] mixedQueries;
+
+}
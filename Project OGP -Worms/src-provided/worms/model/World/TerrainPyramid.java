@@ -0,0 +1,511 @@
+package worms.model.World;
+
+import be.kuleuven.cs.som.annotate.*;
+
+/**
+ * A class of terrain pyramids, which register for square blocks of a terrain whether they are entirely passable,
+ * entirely impassable or mixed, at every power of two from WorldConstants.PYRAMID_BLOCK_SIZE up to the whole terrain. <br>
+ * Queries start at the top of the pyramid and only descend into mixed blocks that are cut by the queried region,
+ * so their cost grows with the length of the terrain boundary inside the region rather than with its area.
+ * Only pixels inside the terrain are considered; the border of a world is left to the world itself. <br>
+ * Regions given in coordinates of a world are mirrored vertically on entry, so that the blocks can be measured
+ * from the top row of the terrain down.
+ *
+ * @author Ruben
+ */
+public class TerrainPyramid {
+
+	/**
+	 * Initialize this new terrain pyramid for the given terrain, with pixels of the size given by the given mapping.
+	 *
+	 * @param	terrain
+	 * 			The terrain for this new pyramid.
+	 * @param	mapping
+	 * 			The mapping between positions and pixels of the given terrain.
+	 * @post	The terrain of this new pyramid is the given terrain. <br>
+	 * 			| new.getTerrain() == terrain
+	 * @throws	IllegalArgumentException
+	 * 			The given terrain or mapping is not effective, or they do not have the same amount of pixels. <br>
+	 * 			| terrain == null || mapping == null || <br>
+	 * 			| terrain.getAmountOfColumns() != mapping.getAmountOfColumns() || terrain.getAmountOfRows() != mapping.getAmountOfRows()
+	 */
+	public TerrainPyramid(Terrain terrain, PixelMapping mapping) throws IllegalArgumentException {
+		if (terrain == null || mapping == null || terrain.getAmountOfColumns() != mapping.getAmountOfColumns()
+				|| terrain.getAmountOfRows() != mapping.getAmountOfRows())
+			throw new IllegalArgumentException();
+		this.terrain = terrain;
+		this.pixelWidth = mapping.getPixelWidth();
+		this.pixelHeight = mapping.getPixelHeight();
+		this.mapping = mapping;
+		int amountOfLevels = 1;
+		while ((BLOCK_SIZE << (amountOfLevels - 1)) < Math.max(terrain.getAmountOfColumns(), terrain.getAmountOfRows()))
+			amountOfLevels++;
+		this.states = new byte[amountOfLevels][];
+		this.levelColumns = new int[amountOfLevels];
+		this.levelRows = new int[amountOfLevels];
+		for (int level = 0; level < amountOfLevels; level++) {
+			int size = BLOCK_SIZE << level;
+			levelColumns[level] = (terrain.getAmountOfColumns() + size - 1) / size;
+			levelRows[level] = (terrain.getAmountOfRows() + size - 1) / size;
+			states[level] = new byte[levelColumns[level] * levelRows[level]];
+		}
+		update(0, 0, terrain.getAmountOfColumns(), terrain.getAmountOfRows());
+	}
+
+	/**
+	 * Recompute the states of all blocks that contain a pixel of the given rectangle of pixels.
+	 *
+	 * @param	fromColumn
+	 * 			The first column of the rectangle.
+	 * @param	fromRow
+	 * 			The first row of the rectangle.
+	 * @param	toColumn
+	 * 			The column just after the rectangle.
+	 * @param	toRow
+	 * 			The row just after the rectangle.
+	 */
+	public void update(int fromColumn, int fromRow, int toColumn, int toRow) {
+		fromColumn = Math.max(0, fromColumn);
+		fromRow = Math.max(0, fromRow);
+		toColumn = Math.min(terrain.getAmountOfColumns(), toColumn);
+		toRow = Math.min(terrain.getAmountOfRows(), toRow);
+		if (fromColumn >= toColumn || fromRow >= toRow)
+			return;
+		int firstColumn = fromColumn / BLOCK_SIZE, lastColumn = (toColumn - 1) / BLOCK_SIZE;
+		int firstRow = fromRow / BLOCK_SIZE, lastRow = (toRow - 1) / BLOCK_SIZE;
+		for (int blockRow = firstRow; blockRow <= lastRow; blockRow++)
+			for (int blockColumn = firstColumn; blockColumn <= lastColumn; blockColumn++) {
+				int c0 = blockColumn * BLOCK_SIZE, c1 = Math.min(c0 + BLOCK_SIZE, terrain.getAmountOfColumns());
+				int r1 = Math.min((blockRow + 1) * BLOCK_SIZE, terrain.getAmountOfRows());
+				int state = 0;
+				for (int row = blockRow * BLOCK_SIZE; row < r1 && state != MIXED; row++)
+					state |= scanRow(row, c0, c1);
+				states[0][blockRow * levelColumns[0] + blockColumn] = (byte) state;
+			}
+		for (int level = 1; level < states.length; level++) {
+			firstColumn /= 2;
+			lastColumn /= 2;
+			firstRow /= 2;
+			lastRow /= 2;
+			for (int blockRow = firstRow; blockRow <= lastRow; blockRow++)
+				for (int blockColumn = firstColumn; blockColumn <= lastColumn; blockColumn++) {
+					int state = 0;
+					for (int child = 0; child < 4; child++) {
+						int childColumn = 2 * blockColumn + (child & 1), childRow = 2 * blockRow + (child >> 1);
+						if (childColumn < levelColumns[level - 1] && childRow < levelRows[level - 1])
+							state |= states[level - 1][childRow * levelColumns[level - 1] + childColumn];
+					}
+					states[level][blockRow * levelColumns[level] + blockColumn] = (byte) state;
+				}
+		}
+	}
+
+	/**
+	 * Return the terrain of this pyramid.
+	 */
+	@Basic @Immutable
+	public Terrain getTerrain() {
+		return terrain;
+	}
+
+	/**
+	 * Return the amount of levels of this pyramid.
+	 */
+	public int getAmountOfLevels() {
+		return states.length;
+	}
+
+	/**
+	 * Return how the pixels of the terrain of this pyramid touched by the given disk are occupied.
+	 *
+	 * @param	x
+	 * 			The x-coordinate of the centre of the disk.
+	 * @param	y
+	 * 			The y-coordinate of the centre of the disk.
+	 * @param	radius
+	 * 			The radius of the disk.
+	 * @return	The occupancy of the pixels whose square lies within the given radius of the given centre,
+	 * 			or null if there are no such pixels.
+	 */
+	public Occupancy getDiskOccupancy(double x, double y, double radius) {
+		return getAnnulusOccupancy(x, y, 0, radius);
+	}
+
+	/**
+	 * Return how the pixels of the terrain of this pyramid touched by the given annulus are occupied.
+	 *
+	 * @param	x
+	 * 			The x-coordinate of the centre of the annulus.
+	 * @param	y
+	 * 			The y-coordinate of the centre of the annulus.
+	 * @param	innerRadius
+	 * 			The inner radius of the annulus.
+	 * @param	outerRadius
+	 * 			The outer radius of the annulus.
+	 * @return	The occupancy of the pixels whose square comes within the given outer radius of the given centre
+	 * 			and reaches at least as far as the given inner radius, or null if there are no such pixels.
+	 */
+	public Occupancy getAnnulusOccupancy(double x, double y, double innerRadius, double outerRadius) {
+		return toOccupancy(collect(new Annulus(x, mapping.getDepth(y), innerRadius, outerRadius)));
+	}
+
+	/**
+	 * Return how the given rectangle of pixels of the terrain of this pyramid is occupied.
+	 *
+	 * @param	fromColumn
+	 * 			The first column of the rectangle.
+	 * @param	fromRow
+	 * 			The first row of the rectangle.
+	 * @param	toColumn
+	 * 			The column just after the rectangle.
+	 * @param	toRow
+	 * 			The row just after the rectangle.
+	 * @return	The occupancy of the pixels of the terrain in the given rectangle, or null if there are no such pixels.
+	 */
+	public Occupancy getBoxOccupancy(int fromColumn, int fromRow, int toColumn, int toRow) {
+		return toOccupancy(collect(new Box(fromColumn, fromRow, toColumn, toRow)));
+	}
+
+	/**
+	 * Return the fraction of the given segment at which it first enters an impassable pixel of the terrain of this pyramid.
+	 *
+	 * @param	fromX
+	 * 			The x-coordinate of the start of the segment.
+	 * @param	fromY
+	 * 			The y-coordinate of the start of the segment.
+	 * @param	toX
+	 * 			The x-coordinate of the end of the segment.
+	 * @param	toY
+	 * 			The y-coordinate of the end of the segment.
+	 * @return	The smallest t between 0 and 1 for which the point (fromX + t*(toX-fromX), fromY + t*(toY-fromY))
+	 * 			lies in the square of an impassable pixel, or -1 if there is no such t.
+	 */
+	public double getFirstImpassable(double fromX, double fromY, double toX, double toY) {
+		Ray ray = new Ray(fromX, mapping.getDepth(fromY), toX, mapping.getDepth(toY));
+		int top = states.length - 1;
+		double first = -1;
+		for (int blockRow = 0; blockRow < levelRows[top]; blockRow++)
+			for (int blockColumn = 0; blockColumn < levelColumns[top]; blockColumn++) {
+				double hit = cast(ray, top, blockColumn, blockRow);
+				if (hit >= 0 && (first < 0 || hit < first))
+					first = hit;
+			}
+		return first;
+	}
+
+	/**
+	 * Return the amount of bytes taken by the states of the blocks of this pyramid.
+	 */
+	public long getMemoryFootprint() {
+		long bytes = 0;
+		for (byte[] level : states)
+			bytes += level.length;
+		return bytes;
+	}
+
+	/**
+	 * Combine the states of the pixels of the terrain in the given region, starting at the top of this pyramid.
+	 */
+	private int collect(Region region) {
+		int top = states.length - 1;
+		int state = 0;
+		for (int blockRow = 0; blockRow < levelRows[top] && state != MIXED; blockRow++)
+			for (int blockColumn = 0; blockColumn < levelColumns[top] && state != MIXED; blockColumn++)
+				state = collect(region, top, blockColumn, blockRow, state);
+		return state;
+	}
+
+	private int collect(Region region, int level, int blockColumn, int blockRow, int state) {
+		int size = BLOCK_SIZE << level;
+		int c0 = blockColumn * size, c1 = Math.min(c0 + size, terrain.getAmountOfColumns());
+		int r0 = blockRow * size, r1 = Math.min(r0 + size, terrain.getAmountOfRows());
+		int relation = region.getRelation(c0, r0, c1, r1);
+		if (relation == OUTSIDE)
+			return state;
+		int blockState = states[level][blockRow * levelColumns[level] + blockColumn];
+		if (blockState != MIXED || relation == INSIDE)
+			return state | blockState;
+		if (level == 0) {
+			for (int row = r0; row < r1 && state != MIXED; row++)
+				state |= region.scanRow(row, c0, c1);
+			return state;
+		}
+		for (int child = 0; child < 4 && state != MIXED; child++) {
+			int childColumn = 2 * blockColumn + (child & 1), childRow = 2 * blockRow + (child >> 1);
+			if (childColumn < levelColumns[level - 1] && childRow < levelRows[level - 1])
+				state = collect(region, level - 1, childColumn, childRow, state);
+		}
+		return state;
+	}
+
+	/**
+	 * Return the first fraction of the given ray inside an impassable pixel of the given block, or -1 if there is none.
+	 */
+	private double cast(Ray ray, int level, int blockColumn, int blockRow) {
+		int size = BLOCK_SIZE << level;
+		int c0 = blockColumn * size, c1 = Math.min(c0 + size, terrain.getAmountOfColumns());
+		int r0 = blockRow * size, r1 = Math.min(r0 + size, terrain.getAmountOfRows());
+		double entry = ray.getEntry(c0 * pixelWidth, r0 * pixelHeight, c1 * pixelWidth, r1 * pixelHeight);
+		if (entry < 0)
+			return -1;
+		int blockState = states[level][blockRow * levelColumns[level] + blockColumn];
+		if (blockState == PASSABLE)
+			return -1;
+		if (blockState == IMPASSABLE)
+			return entry;
+		if (level == 0) {
+			double first = -1;
+			for (int row = r0; row < r1; row++)
+				for (int column = c0; column < c1; column++)
+					if (!terrain.isPassable(column, row)) {
+						double hit = ray.getEntry(column * pixelWidth, row * pixelHeight, (column + 1) * pixelWidth,
+								(row + 1) * pixelHeight);
+						if (hit >= 0 && (first < 0 || hit < first))
+							first = hit;
+					}
+			return first;
+		}
+		// The children are visited in the order the ray enters them, so the first hit is the nearest one.
+		double[] entries = new double[4];
+		for (int child = 0; child < 4; child++) {
+			int childColumn = 2 * blockColumn + (child & 1), childRow = 2 * blockRow + (child >> 1);
+			int childSize = size / 2;
+			if (childColumn >= levelColumns[level - 1] || childRow >= levelRows[level - 1])
+				entries[child] = -1;
+			else
+				entries[child] = ray.getEntry(childColumn * childSize * pixelWidth, childRow * childSize * pixelHeight,
+						Math.min((childColumn + 1) * childSize, terrain.getAmountOfColumns()) * pixelWidth,
+						Math.min((childRow + 1) * childSize, terrain.getAmountOfRows()) * pixelHeight);
+		}
+		for (int visited = 0; visited < 4; visited++) {
+			int next = -1;
+			for (int child = 0; child < 4; child++)
+				if (entries[child] >= 0 && (next < 0 || entries[child] < entries[next]))
+					next = child;
+			if (next < 0)
+				return -1;
+			entries[next] = -1;
+			double hit = cast(ray, level - 1, 2 * blockColumn + (next & 1), 2 * blockRow + (next >> 1));
+			if (hit >= 0)
+				return hit;
+		}
+		return -1;
+	}
+
+	/**
+	 * Return the state of the given span of pixels in the given row of the terrain of this pyramid.
+	 */
+	private int scanRow(int row, int fromColumn, int toColumn) {
+		if (fromColumn >= toColumn)
+			return 0;
+		int impassable = terrain.countImpassableInRow(row, fromColumn, toColumn);
+		int state = 0;
+		if (impassable > 0)
+			state |= IMPASSABLE;
+		if (impassable < toColumn - fromColumn)
+			state |= PASSABLE;
+		return state;
+	}
+
+	private static Occupancy toOccupancy(int state) {
+		switch (state) {
+		case PASSABLE:
+			return Occupancy.PASSABLE;
+		case IMPASSABLE:
+			return Occupancy.IMPASSABLE;
+		case MIXED:
+			return Occupancy.MIXED;
+		default:
+			return null;
+		}
+	}
+
+	/**
+	 * An interface for regions of pixels that can be queried in a pyramid.
+	 */
+	private interface Region {
+
+		/**
+		 * Return whether the given rectangle of pixels lies OUTSIDE, INSIDE or PARTLY inside this region.
+		 */
+		int getRelation(int fromColumn, int fromRow, int toColumn, int toRow);
+
+		/**
+		 * Return the state of the pixels of this region in the given span of the given row.
+		 */
+		int scanRow(int row, int fromColumn, int toColumn);
+
+	}
+
+	/**
+	 * A class of rectangles of pixels.
+	 */
+	private class Box implements Region {
+
+		private Box(int fromColumn, int fromRow, int toColumn, int toRow) {
+			this.fromColumn = fromColumn;
+			this.fromRow = fromRow;
+			this.toColumn = toColumn;
+			this.toRow = toRow;
+		}
+
+		@Override
+		public int getRelation(int c0, int r0, int c1, int r1) {
+			if (fromColumn >= toColumn || fromRow >= toRow)
+				return OUTSIDE;
+			if (c1 <= fromColumn || c0 >= toColumn || r1 <= fromRow || r0 >= toRow)
+				return OUTSIDE;
+			if (c0 >= fromColumn && c1 <= toColumn && r0 >= fromRow && r1 <= toRow)
+				return INSIDE;
+			return PARTLY;
+		}
+
+		@Override
+		public int scanRow(int row, int c0, int c1) {
+			if (row < fromRow || row >= toRow)
+				return 0;
+			return TerrainPyramid.this.scanRow(row, Math.max(c0, fromColumn), Math.min(c1, toColumn));
+		}
+
+		private final int fromColumn, fromRow, toColumn, toRow;
+
+	}
+
+	/**
+	 * A class of annuli, covering every pixel whose square comes within the outer radius of the centre
+	 * and reaches at least as far as the inner radius. A disk is an annulus with inner radius zero.
+	 */
+	private class Annulus implements Region {
+
+		private Annulus(double x, double y, double innerRadius, double outerRadius) {
+			this.x = x;
+			this.y = y;
+			this.innerRadius = innerRadius;
+			this.outerRadius = outerRadius;
+		}
+
+		@Override
+		public int getRelation(int c0, int r0, int c1, int r1) {
+			double nearX = Math.max(0, Math.max(c0 * pixelWidth - x, x - c1 * pixelWidth));
+			double nearY = Math.max(0, Math.max(r0 * pixelHeight - y, y - r1 * pixelHeight));
+			double farX = Math.max(Math.abs(x - c0 * pixelWidth), Math.abs(x - c1 * pixelWidth));
+			double farY = Math.max(Math.abs(y - r0 * pixelHeight), Math.abs(y - r1 * pixelHeight));
+			double near = nearX * nearX + nearY * nearY;
+			double far = farX * farX + farY * farY;
+			if (near > outerRadius * outerRadius || far < innerRadius * innerRadius)
+				return OUTSIDE;
+			if (far <= outerRadius * outerRadius && near >= innerRadius * innerRadius)
+				return INSIDE;
+			return PARTLY;
+		}
+
+		@Override
+		public int scanRow(int row, int c0, int c1) {
+			double nearY = Math.max(0, Math.max(row * pixelHeight - y, y - (row + 1) * pixelHeight));
+			if (nearY > outerRadius)
+				return 0;
+			double reach = Math.sqrt(outerRadius * outerRadius - nearY * nearY);
+			int from = Math.max(c0, (int) Math.floor((x - reach) / pixelWidth));
+			int to = Math.min(c1, (int) Math.floor((x + reach) / pixelWidth) + 1);
+			double farY = Math.max(Math.abs(y - row * pixelHeight), Math.abs(y - (row + 1) * pixelHeight));
+			if (farY >= innerRadius)
+				return TerrainPyramid.this.scanRow(row, from, to);
+			// Pixels whose far corner is closer than the inner radius lie in the hole of the annulus.
+			double hole = Math.sqrt(innerRadius * innerRadius - farY * farY);
+			int holeFrom = (int) Math.floor((x - hole) / pixelWidth) + 1;
+			int holeTo = (int) Math.ceil((x + hole) / pixelWidth - 1);
+			return TerrainPyramid.this.scanRow(row, from, Math.min(to, holeFrom))
+					| TerrainPyramid.this.scanRow(row, Math.max(from, holeTo), to);
+		}
+
+		private final double x, y, innerRadius, outerRadius;
+
+	}
+
+	/**
+	 * A class of segments, parametrised by a fraction between 0 and 1.
+	 */
+	private static class Ray {
+
+		private Ray(double fromX, double fromY, double toX, double toY) {
+			this.x = fromX;
+			this.y = fromY;
+			this.dx = toX - fromX;
+			this.dy = toY - fromY;
+		}
+
+		/**
+		 * Return the first fraction of this ray inside the given rectangle, or -1 if it does not meet the rectangle.
+		 */
+		private double getEntry(double minX, double minY, double maxX, double maxY) {
+			double entry = 0, exit = 1;
+			if (dx == 0) {
+				if (x < minX || x > maxX)
+					return -1;
+			} else {
+				double t0 = (minX - x) / dx, t1 = (maxX - x) / dx;
+				entry = Math.max(entry, Math.min(t0, t1));
+				exit = Math.min(exit, Math.max(t0, t1));
+			}
+			if (dy == 0) {
+				if (y < minY || y > maxY)
+					return -1;
+			} else {
+				double t0 = (minY - y) / dy, t1 = (maxY - y) / dy;
+				entry = Math.max(entry, Math.min(t0, t1));
+				exit = Math.min(exit, Math.max(t0, t1));
+			}
+			return (entry <= exit) ? entry : -1;
+		}
+
+		private final double x, y, dx, dy;
+
+	}
+
+	/*
+	 * Constants registering the state of a block as a set of bits: a bit for passable pixels and a bit for impassable pixels.
+	 */
+	private static final int PASSABLE = 1;
+	private static final int IMPASSABLE = 2;
+	private static final int MIXED = PASSABLE | IMPASSABLE;
+
+	/*
+	 * Constants registering the relation between a block and a queried region.
+	 */
+	private static final int OUTSIDE = 0;
+	private static final int PARTLY = 1;
+	private static final int INSIDE = 2;
+
+	/*
+	 * A constant registering the width and height of the blocks at the bottom of every pyramid.
+	 */
+	private static final int BLOCK_SIZE = WorldConstants.PYRAMID_BLOCK_SIZE;
+
+	/*
+	 * A variable registering the terrain of this pyramid.
+	 */
+	private final Terrain terrain;
+
+	/*
+	 * Variables registering the size of a single pixel.
+	 */
+	private final double pixelWidth;
+	private final double pixelHeight;
+
+	/*
+	 * A variable registering the pixel mapping of the terrain, across which regions are mirrored.
+	 */
+	private final PixelMapping mapping;
+
+	/*
+	 * An array registering, for every level of this pyramid, the states of its blocks row by row.
+	 */
+	private final byte[][] states;
+
+	/*
+	 * Arrays registering, for every level of this pyramid, the amount of blocks in a row and in a column.
+	 */
+	private final int[] levelColumns;
+	private final int[] levelRows;
+
+}
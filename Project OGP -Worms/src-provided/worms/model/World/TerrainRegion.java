@@ -0,0 +1,115 @@
+package worms.model.World;
+
+import be.kuleuven.cs.som.annotate.*;
+
+/**
+ * A class of terrain regions, axis-aligned rectangles of pixels in which the terrain of a world has changed.
+ *
+ * @invar	The span of columns and the span of rows of every terrain region are not empty. <br>
+ * 			| getFromColumn() < getToColumn() && getFromRow() < getToRow()
+ *
+ * @author Ruben
+ */
+@Value
+public class TerrainRegion {
+
+	/**
+	 * Initialize this new terrain region with the given spans of columns and rows.
+	 *
+	 * @param	fromColumn
+	 * 			The first column of this new region, inclusive.
+	 * @param	fromRow
+	 * 			The first row of this new region, inclusive.
+	 * @param	toColumn
+	 * 			The last column of this new region, exclusive.
+	 * @param	toRow
+	 * 			The last row of this new region, exclusive.
+	 * @post	The spans of this new region are the given spans. <br>
+	 * 			| new.getFromColumn() == fromColumn && new.getFromRow() == fromRow && <br>
+	 * 			| new.getToColumn() == toColumn && new.getToRow() == toRow
+	 * @throws	IllegalArgumentException
+	 * 			One of the given spans is empty. <br>
+	 * 			| fromColumn >= toColumn || fromRow >= toRow
+	 */
+	public TerrainRegion(int fromColumn, int fromRow, int toColumn, int toRow) throws IllegalArgumentException {
+		if (fromColumn >= toColumn || fromRow >= toRow)
+			throw new IllegalArgumentException();
+		this.fromColumn = fromColumn;
+		this.fromRow = fromRow;
+		this.toColumn = toColumn;
+		this.toRow = toRow;
+	}
+
+	/**
+	 * Return the first column of this region, inclusive.
+	 */
+	@Basic @Immutable
+	public int getFromColumn() {
+		return fromColumn;
+	}
+
+	/**
+	 * Return the first row of this region, inclusive.
+	 */
+	@Basic @Immutable
+	public int getFromRow() {
+		return fromRow;
+	}
+
+	/**
+	 * Return the last column of this region, exclusive.
+	 */
+	@Basic @Immutable
+	public int getToColumn() {
+		return toColumn;
+	}
+
+	/**
+	 * Return the last row of this region, exclusive.
+	 */
+	@Basic @Immutable
+	public int getToRow() {
+		return toRow;
+	}
+
+	/**
+	 * Return the smallest region containing both this region and the given region.
+	 *
+	 * @param	other
+	 * 			The region to be joined with this region.
+	 * @return	| new TerrainRegion(min(getFromColumn(), other.getFromColumn()), min(getFromRow(), other.getFromRow()), <br>
+	 * 			|	max(getToColumn(), other.getToColumn()), max(getToRow(), other.getToRow()))
+	 */
+	public TerrainRegion union(TerrainRegion other) {
+		return new TerrainRegion(Math.min(fromColumn, other.getFromColumn()), Math.min(fromRow, other.getFromRow()),
+				Math.max(toColumn, other.getToColumn()), Math.max(toRow, other.getToRow()));
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		if (!(other instanceof TerrainRegion))
+			return false;
+		TerrainRegion region = (TerrainRegion) other;
+		return fromColumn == region.getFromColumn() && fromRow == region.getFromRow()
+				&& toColumn == region.getToColumn() && toRow == region.getToRow();
+	}
+
+	@Override
+	public int hashCode() {
+		return ((fromColumn * 31 + fromRow) * 31 + toColumn) * 31 + toRow;
+	}
+
+	@Override
+	public String toString() {
+		return "[" + fromColumn + ", " + toColumn + ") x [" + fromRow + ", " + toRow + ")";
+	}
+
+	/*
+	 * Variables registering the spans of columns and rows of this region.
+	 */
+	private final int fromColumn;
+	private final int fromRow;
+	private final int toColumn;
+	private final int toRow;
+
+}
@@ -0,0 +1,119 @@
+package worms.model.World;
+
+import be.kuleuven.cs.som.annotate.*;
+
+/**
+ * A class of terrain snapshots, which keep an editable terrain together with the indexes that have been computed
+ * for it: its distance field, its level-of-detail pyramid and its placement index. <br>
+ * A world created from a snapshot takes over the terrain and the indexes of that snapshot and edits them in place,
+ * so a snapshot that is to be used for more than one world hands out copies of itself.
+ *
+ * @invar	The distance field, the level-of-detail pyramid and the placement index of every snapshot
+ * 			have been computed for its terrain. <br>
+ * 			| getDistanceField().getTerrain() == getTerrain() && getDetailPyramid().getTerrain() == getTerrain() && <br>
+ * 			| getPlacementIndex().getDistanceField() == getDistanceField()
+ *
+ * @author Ruben
+ */
+public class TerrainSnapshot {
+
+	/**
+	 * Initialize this new snapshot with the given terrain and the given indexes of that terrain.
+	 *
+	 * @param	terrain
+	 * 			The terrain for this new snapshot.
+	 * @param	distanceField
+	 * 			The distance field of the given terrain.
+	 * @param	detailPyramid
+	 * 			The level-of-detail pyramid of the given terrain.
+	 * @param	placementIndex
+	 * 			The placement index of the given distance field.
+	 * @post	The terrain and the indexes of this new snapshot are the given terrain and indexes. <br>
+	 * 			| new.getTerrain() == terrain && new.getDistanceField() == distanceField && <br>
+	 * 			| new.getDetailPyramid() == detailPyramid && new.getPlacementIndex() == placementIndex
+	 * @throws	IllegalArgumentException
+	 * 			One of the given arguments is not effective, or one of the given indexes was not computed for the given terrain. <br>
+	 * 			| terrain == null || distanceField == null || detailPyramid == null || placementIndex == null || <br>
+	 * 			| distanceField.getTerrain() != terrain || detailPyramid.getTerrain() != terrain || <br>
+	 * 			| placementIndex.getDistanceField() != distanceField
+	 */
+	public TerrainSnapshot(EditableTerrain terrain, DistanceField distanceField, TerrainDetailPyramid detailPyramid,
+			PlacementIndex placementIndex) throws IllegalArgumentException {
+		if (terrain == null || distanceField == null || detailPyramid == null || placementIndex == null
+				|| distanceField.getTerrain() != terrain || detailPyramid.getTerrain() != terrain
+				|| placementIndex.getDistanceField() != distanceField)
+			throw new IllegalArgumentException();
+		this.terrain = terrain;
+		this.distanceField = distanceField;
+		this.detailPyramid = detailPyramid;
+		this.placementIndex = placementIndex;
+	}
+
+	/**
+	 * Return a copy of this snapshot, whose terrain and indexes can be edited without affecting this snapshot.
+	 *
+	 * @return	A snapshot over a copy of the terrain of this snapshot, stored in the same backend,
+	 * 			with copies of the indexes of this snapshot. <br>
+	 * 			| result.getTerrain() != getTerrain() && <br>
+	 * 			| for each column, row : result.getTerrain().isPassable(column, row) == getTerrain().isPassable(column, row)
+	 */
+	public TerrainSnapshot copy() {
+		EditableTerrain terrainCopy = TerrainBackend.of(terrain).copy(terrain);
+		DistanceField fieldCopy = new DistanceField(distanceField, terrainCopy);
+		return new TerrainSnapshot(terrainCopy, fieldCopy, new TerrainDetailPyramid(detailPyramid, terrainCopy),
+				new PlacementIndex(placementIndex, fieldCopy));
+	}
+
+	/**
+	 * Return the terrain of this snapshot.
+	 */
+	@Basic @Immutable
+	public EditableTerrain getTerrain() {
+		return terrain;
+	}
+
+	/**
+	 * Return the distance field of the terrain of this snapshot.
+	 */
+	@Basic @Immutable
+	public DistanceField getDistanceField() {
+		return distanceField;
+	}
+
+	/**
+	 * Return the level-of-detail pyramid of the terrain of this snapshot.
+	 */
+	@Basic @Immutable
+	public TerrainDetailPyramid getDetailPyramid() {
+		return detailPyramid;
+	}
+
+	/**
+	 * Return the placement index of the terrain of this snapshot.
+	 */
+	@Basic @Immutable
+	public PlacementIndex getPlacementIndex() {
+		return placementIndex;
+	}
+
+	/**
+	 * Return the amount of bytes taken by the terrain and the indexes of this snapshot.
+	 */
+	public long getMemoryFootprint() {
+		return TerrainBackend.of(terrain).getMemoryFootprint(terrain) + distanceField.getMemoryFootprint()
+				+ detailPyramid.getMemoryFootprint() + placementIndex.getMemoryFootprint();
+	}
+
+	/*
+	 * A variable registering the terrain of this snapshot.
+	 */
+	private final EditableTerrain terrain;
+
+	/*
+	 * Variables registering the indexes of the terrain of this snapshot.
+	 */
+	private final DistanceField distanceField;
+	private final TerrainDetailPyramid detailPyramid;
+	private final PlacementIndex placementIndex;
+
+}
@@ -0,0 +1,142 @@
+package worms.model.World;
+
+import be.kuleuven.cs.som.annotate.*;
+
+/**
+ * A class of tiled occupancy tables, which keep a summed-area table over square tiles of a terrain
+ * instead of over its pixels. <br>
+ * The tiles that lie entirely inside a rectangle are counted with four lookups, the pixels along the
+ * edges of the rectangle are counted a row span at a time in the terrain itself.
+ * The memory of the table shrinks with the square of the tile size, its queries grow linearly with it.
+ * An edit recounts only the tiles it touches, and shifts the sums of the tile corners below and to the right of them.
+ *
+ * @invar	The tile size of every tiled occupancy table is a strictly positive multiple of 64. <br>
+ * 			| getTileSize() > 0 && getTileSize() % 64 == 0
+ *
+ * @author Ruben
+ */
+public class TiledOccupancyTable implements OccupancyIndex {
+
+	/**
+	 * Initialize this new tiled occupancy table for the given terrain with the given tile size.
+	 *
+	 * @param	terrain
+	 * 			The terrain for this new table.
+	 * @param	tileSize
+	 * 			The width and height of the tiles of this new table, in pixels.
+	 * @post	The terrain of this new table is the given terrain. <br>
+	 * 			| new.getTerrain() == terrain
+	 * @post	The tile size of this new table is the given tile size. <br>
+	 * 			| new.getTileSize() == tileSize
+	 * @throws	IllegalArgumentException
+	 * 			The given terrain is not effective or the given tile size is not a strictly positive multiple of 64. <br>
+	 * 			| terrain == null || tileSize <= 0 || tileSize % 64 != 0
+	 */
+	public TiledOccupancyTable(Terrain terrain, int tileSize) throws IllegalArgumentException {
+		if (terrain == null || tileSize <= 0 || tileSize % 64 != 0)
+			throw new IllegalArgumentException();
+		this.terrain = terrain;
+		this.tileSize = tileSize;
+		this.tileColumns = terrain.getAmountOfColumns() / tileSize;
+		this.tileRows = terrain.getAmountOfRows() / tileSize;
+		this.sums = new int[(tileColumns + 1) * (tileRows + 1)];
+		int stride = tileColumns + 1;
+		for (int tileRow = 0; tileRow < tileRows; tileRow++) {
+			int count = 0;
+			for (int tileColumn = 0; tileColumn < tileColumns; tileColumn++) {
+				for (int row = tileRow * tileSize; row < (tileRow + 1) * tileSize; row++)
+					count += terrain.countImpassableInRow(row, tileColumn * tileSize, (tileColumn + 1) * tileSize);
+				sums[(tileRow + 1) * stride + tileColumn + 1] = sums[tileRow * stride + tileColumn + 1] + count;
+			}
+		}
+	}
+
+	@Override @Basic @Immutable
+	public Terrain getTerrain() {
+		return terrain;
+	}
+
+	/**
+	 * Return the width and height of the tiles of this table, in pixels.
+	 */
+	@Basic @Immutable
+	public int getTileSize() {
+		return tileSize;
+	}
+
+	@Override
+	public int countImpassable(int fromColumn, int fromRow, int toColumn, int toRow) {
+		int firstTileColumn = (fromColumn + tileSize - 1) / tileSize;
+		int lastTileColumn = Math.min(toColumn / tileSize, tileColumns);
+		int firstTileRow = (fromRow + tileSize - 1) / tileSize;
+		int lastTileRow = Math.min(toRow / tileSize, tileRows);
+		if (firstTileColumn >= lastTileColumn || firstTileRow >= lastTileRow)
+			return countByRows(fromColumn, fromRow, toColumn, toRow);
+		int stride = tileColumns + 1;
+		int count = sums[lastTileRow * stride + lastTileColumn] - sums[firstTileRow * stride + lastTileColumn]
+				- sums[lastTileRow * stride + firstTileColumn] + sums[firstTileRow * stride + firstTileColumn];
+		int innerFromColumn = firstTileColumn * tileSize;
+		int innerToColumn = lastTileColumn * tileSize;
+		int innerFromRow = firstTileRow * tileSize;
+		int innerToRow = lastTileRow * tileSize;
+		count += countByRows(fromColumn, fromRow, toColumn, innerFromRow);
+		count += countByRows(fromColumn, innerToRow, toColumn, toRow);
+		count += countByRows(fromColumn, innerFromRow, innerFromColumn, innerToRow);
+		count += countByRows(innerToColumn, innerFromRow, toColumn, innerToRow);
+		return count;
+	}
+
+	@Override
+	public void update(int fromColumn, int fromRow, int toColumn, int toRow) {
+		int stride = tileColumns + 1;
+		int lastTileColumn = Math.min(tileColumns, (toColumn + tileSize - 1) / tileSize);
+		int lastTileRow = Math.min(tileRows, (toRow + tileSize - 1) / tileSize);
+		for (int tileRow = Math.max(0, fromRow) / tileSize; tileRow < lastTileRow; tileRow++)
+			for (int tileColumn = Math.max(0, fromColumn) / tileSize; tileColumn < lastTileColumn; tileColumn++) {
+				int old = sums[(tileRow + 1) * stride + tileColumn + 1] - sums[tileRow * stride + tileColumn + 1]
+						- sums[(tileRow + 1) * stride + tileColumn] + sums[tileRow * stride + tileColumn];
+				int delta = countByRows(tileColumn * tileSize, tileRow * tileSize, (tileColumn + 1) * tileSize, (tileRow + 1) * tileSize) - old;
+				if (delta != 0)
+					for (int cornerRow = tileRow + 1; cornerRow <= tileRows; cornerRow++)
+						for (int cornerColumn = tileColumn + 1; cornerColumn <= tileColumns; cornerColumn++)
+							sums[cornerRow * stride + cornerColumn] += delta;
+			}
+	}
+
+	/**
+	 * Count the impassable pixels of the given rectangle a row span at a time.
+	 */
+	private int countByRows(int fromColumn, int fromRow, int toColumn, int toRow) {
+		int count = 0;
+		for (int row = fromRow; row < toRow; row++)
+			count += terrain.countImpassableInRow(row, fromColumn, toColumn);
+		return count;
+	}
+
+	@Override
+	public long getMemoryFootprint() {
+		return 4L * sums.length;
+	}
+
+	/*
+	 * A variable registering the terrain of this table.
+	 */
+	private final Terrain terrain;
+
+	/*
+	 * A variable registering the width and height of the tiles of this table.
+	 */
+	private final int tileSize;
+
+	/*
+	 * Variables registering the amount of complete tiles in a row and in a column of this table.
+	 */
+	private final int tileColumns;
+	private final int tileRows;
+
+	/*
+	 * An array registering, for every tile corner, the amount of impassable pixels in the complete tiles above and to the left of it.
+	 */
+	private final int[] sums;
+
+}
@@ -0,0 +1,453 @@
+package worms.model.World;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+import be.kuleuven.cs.som.annotate.*;
+
+/**
+ * A class of terrains stored in square tiles of TILE_SIZE by TILE_SIZE pixels in a memory-mapped file,
+ * for maps that are too large to be held on the heap. <br>
+ * Within a tile, every row is stored as TILE_SIZE / 64 long words, with a set bit for every impassable pixel. The tiles follow each other in the file row of tiles after row of tiles,
+ * behind a header holding the dimensions of the terrain. <br>
+ * Only a bounded amount of tiles is resident on the heap at any time: a tile is copied out of the mapping when it is changed
+ * or used repeatedly, and the least recently used tile is written back to the mapping when another tile needs its place.
+ * Words of other tiles are read from the mapping directly.
+ * Queries on spans of a row walk the words of the row from tile to tile, so they are not affected by tile boundaries. <br>
+ * A world on a tiled terrain keeps no per-pixel distance field or placement index; it answers its distance
+ * queries by scanning the rows around the position. <br>
+ * Tiled terrains are not thread-safe.
+ *
+ * @author Ruben
+ */
+public class TiledTerrain extends WordTerrain {
+
+	/**
+	 * The amount of columns and rows of every tile.
+	 */
+	public static final int TILE_SIZE = 256;
+
+	/**
+	 * Initialize this new tiled terrain with the given file, dimensions and capacity.
+	 *
+	 * @param	file
+	 * 			The file holding the tiles for this new terrain.
+	 * @param	columns
+	 * 			The amount of columns for this new terrain.
+	 * @param	rows
+	 * 			The amount of rows for this new terrain.
+	 * @param	capacity
+	 * 			The amount of tiles this new terrain may keep resident.
+	 */
+	private TiledTerrain(RandomAccessFile file, int columns, int rows, int capacity) {
+		this.file = file;
+		this.columns = columns;
+		this.rows = rows;
+		this.tileColumns = (columns + TILE_SIZE - 1) / TILE_SIZE;
+		this.tileRows = (rows + TILE_SIZE - 1) / TILE_SIZE;
+		this.capacity = capacity;
+		this.segments = new LongBuffer[(int) ((getAmountOfTiles() + SEGMENT_TILES - 1) / SEGMENT_TILES)];
+		this.mappings = new MappedByteBuffer[segments.length];
+		this.missedTiles = new long[capacity];
+		this.misses = new int[capacity];
+		Arrays.fill(missedTiles, -1L);
+	}
+
+	/**
+	 * Create a new tiled terrain with the given dimensions in the given file, passable everywhere.
+	 *
+	 * @param	file
+	 * 			The file to store the tiles of the new terrain in; an existing file is overwritten.
+	 * @param	columns
+	 * 			The amount of columns of the new terrain.
+	 * @param	rows
+	 * 			The amount of rows of the new terrain.
+	 * @param	capacity
+	 * 			The amount of tiles the new terrain may keep resident.
+	 * @return	A terrain of the given dimensions of which every pixel is passable. <br>
+	 * 			| result.getAmountOfColumns() == columns && result.getAmountOfRows() == rows &&
+	 * 			| for each column, row : result.isPassable(column, row)
+	 * @throws	IllegalArgumentException
+	 * 			The given file is not effective, or the given dimensions or capacity are not strictly positive. <br>
+	 * 			| file == null || columns <= 0 || rows <= 0 || capacity <= 0
+	 * @throws	IOException
+	 * 			The file could not be written.
+	 */
+	public static TiledTerrain create(File file, int columns, int rows, int capacity)
+			throws IllegalArgumentException, IOException {
+		if (file == null || columns <= 0 || rows <= 0 || capacity <= 0)
+			throw new IllegalArgumentException();
+		RandomAccessFile output = new RandomAccessFile(file, "rw");
+		TiledTerrain result = new TiledTerrain(output, columns, rows, capacity);
+		// The tiles are left sparse: a file extended with zeros is passable everywhere.
+		output.setLength(0);
+		output.setLength(HEADER_SIZE + result.getAmountOfTiles() * TILE_BYTES);
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		header.putInt(MAGIC).putInt(VERSION).putInt(columns).putInt(rows).putInt(TILE_SIZE);
+		output.seek(0);
+		output.write(header.array());
+		return result;
+	}
+
+	/**
+	 * Create a new tiled terrain in the given file, with the pixels of the given terrain.
+	 *
+	 * @param	file
+	 * 			The file to store the tiles of the new terrain in; an existing file is overwritten.
+	 * @param	terrain
+	 * 			The terrain to be copied.
+	 * @param	capacity
+	 * 			The amount of tiles the new terrain may keep resident.
+	 * @return	A terrain with the dimensions and pixels of the given terrain. <br>
+	 * 			| for each column, row : result.isPassable(column, row) == terrain.isPassable(column, row)
+	 * @throws	IllegalArgumentException
+	 * 			The given file or terrain is not effective, or the given capacity is not strictly positive. <br>
+	 * 			| file == null || terrain == null || capacity <= 0
+	 * @throws	IOException
+	 * 			The file could not be written.
+	 */
+	public static TiledTerrain create(File file, Terrain terrain, int capacity) throws IllegalArgumentException, IOException {
+		if (terrain == null)
+			throw new IllegalArgumentException();
+		TiledTerrain result = create(file, terrain.getAmountOfColumns(), terrain.getAmountOfRows(), capacity);
+		for (int row = 0; row < terrain.getAmountOfRows(); row++) {
+			int from = terrain.getFirstInRow(row, 0, terrain.getAmountOfColumns(), false);
+			while (from >= 0) {
+				int to = terrain.getFirstInRow(row, from, terrain.getAmountOfColumns(), true);
+				if (to < 0)
+					to = terrain.getAmountOfColumns();
+				result.setPassableInRow(row, from, to, false);
+				from = terrain.getFirstInRow(row, to, terrain.getAmountOfColumns(), false);
+			}
+		}
+		result.flush();
+		return result;
+	}
+
+	/**
+	 * Open the tiled terrain stored in the given file.
+	 *
+	 * @param	file
+	 * 			The file holding the tiles of the terrain.
+	 * @param	capacity
+	 * 			The amount of tiles the terrain may keep resident.
+	 * @return	The terrain stored in the given file.
+	 * @throws	IllegalArgumentException
+	 * 			The given file is not effective, or the given capacity is not strictly positive. <br>
+	 * 			| file == null || capacity <= 0
+	 * @throws	IOException
+	 * 			The file could not be read, or does not hold a tiled terrain.
+	 */
+	public static TiledTerrain open(File file, int capacity) throws IllegalArgumentException, IOException {
+		if (file == null || capacity <= 0)
+			throw new IllegalArgumentException();
+		RandomAccessFile input = new RandomAccessFile(file, "rw");
+		byte[] bytes = new byte[HEADER_SIZE];
+		input.readFully(bytes);
+		ByteBuffer header = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+		int columns = header.getInt(8);
+		int rows = header.getInt(12);
+		if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION || header.getInt(16) != TILE_SIZE
+				|| columns <= 0 || rows <= 0) {
+			input.close();
+			throw new IOException("not a tiled terrain: " + file);
+		}
+		TiledTerrain result = new TiledTerrain(input, columns, rows, capacity);
+		if (input.length() != HEADER_SIZE + result.getAmountOfTiles() * TILE_BYTES) {
+			input.close();
+			throw new IOException("truncated tiled terrain: " + file);
+		}
+		return result;
+	}
+
+	@Override @Basic @Immutable
+	public int getAmountOfColumns() {
+		return columns;
+	}
+
+	@Override @Basic @Immutable
+	public int getAmountOfRows() {
+		return rows;
+	}
+
+	/**
+	 * Return the amount of tiles of this terrain.
+	 *
+	 * @return	| ceil(getAmountOfColumns() / TILE_SIZE) * ceil(getAmountOfRows() / TILE_SIZE)
+	 */
+	public long getAmountOfTiles() {
+		return (long) tileColumns * tileRows;
+	}
+
+	/**
+	 * Return the maximal amount of tiles of this terrain that are resident on the heap.
+	 */
+	@Basic @Immutable
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Return the amount of tiles of this terrain that are resident on the heap.
+	 */
+	public int getAmountOfResidentTiles() {
+		return tiles.size();
+	}
+
+	/**
+	 * Return the amount of times a tile of this terrain was copied out of its mapping.
+	 */
+	@Basic
+	public long getAmountOfTileLoads() {
+		return tileLoads;
+	}
+
+	/**
+	 * Return the amount of bytes the resident tiles of this terrain occupy on the heap.
+	 */
+	public long getMemoryFootprint() {
+		return (long) tiles.size() * TILE_BYTES;
+	}
+
+	@Override
+	public void setPassableInRow(int row, int fromColumn, int toColumn, boolean passable) {
+		if (fromColumn >= toColumn)
+			return;
+		int first = fromColumn >>> 6;
+		int last = (toColumn - 1) >>> 6;
+		for (int index = first; index <= last; index++) {
+			long mask = -1L;
+			if (index == first)
+				mask &= -1L << fromColumn;
+			if (index == last)
+				mask &= -1L >>> (63 - ((toColumn - 1) & 63));
+			Tile tile = getTile(getTileNumber(row, index), true);
+			int position = getWordPosition(row, index);
+			if (passable)
+				tile.words[position] &= ~mask;
+			else
+				tile.words[position] |= mask;
+			tile.dirty = true;
+		}
+	}
+
+	/**
+	 * Write every changed resident tile of this terrain back to its mapping, and the mapping to its file.
+	 */
+	public void flush() {
+		for (Tile tile : tiles.values())
+			writeBack(tile);
+		for (MappedByteBuffer mapping : mappings) {
+			if (mapping != null)
+				mapping.force();
+		}
+	}
+
+	/**
+	 * Flush this terrain and close its file.
+	 *
+	 * @post	No tiles of this terrain are resident anymore. <br>
+	 * 			| new.getAmountOfResidentTiles() == 0
+	 * @throws	IOException
+	 * 			The file could not be closed.
+	 */
+	public void close() throws IOException {
+		flush();
+		tiles.clear();
+		file.close();
+	}
+
+	@Override
+	public long getWord(int row, int index) {
+		long number = getTileNumber(row, index);
+		Tile tile = getTile(number, false);
+		if (tile == null)
+			return getSegment(number).get(getSegmentPosition(number) + getWordPosition(row, index));
+		return tile.words[getWordPosition(row, index)];
+	}
+
+	/**
+	 * Return the number of the tile holding the given word of the given row.
+	 */
+	private long getTileNumber(int row, int index) {
+		return (long) (row / TILE_SIZE) * tileColumns + index / WORDS_PER_TILE_ROW;
+	}
+
+	/**
+	 * Return the position of the given word of the given row in the words of its tile.
+	 */
+	private static int getWordPosition(int row, int index) {
+		return (row % TILE_SIZE) * WORDS_PER_TILE_ROW + index % WORDS_PER_TILE_ROW;
+	}
+
+	/**
+	 * Return the resident tile with the given number. <br>
+	 * A tile that is not resident is loaded if it is to be changed, or if it has been read often enough to be admitted;
+	 * otherwise no tile is returned and the word is to be read from the mapping itself.
+	 */
+	private Tile getTile(long number, boolean change) {
+		Tile tile = tiles.get(number);
+		if (tile == null) {
+			if (!change && !isAdmitted(number))
+				return null;
+			tile =  (tiles.size() < capacity) ? new Tile() : evict();
+			tile.number = number;
+			LongBuffer segment = getSegment(number).duplicate();
+			segment.position(getSegmentPosition(number));
+			segment.get(tile.words);
+			tileLoads++;
+			tiles.put(number, tile);
+		}
+		return tile;
+	}
+
+	/**
+	 * Check whether the tile with the given number, which is read but not resident, is to be loaded. <br>
+	 * A tile is only admitted once it has been missed more often than a single query of a span of a row can miss it,
+	 * so that queries scattered over the terrain are read from the mapping instead of evicting the tiles in use.
+	 * Misses are remembered in a table of as many slots as the capacity of this terrain; tiles sharing a slot forget each other.
+	 */
+	private boolean isAdmitted(long number) {
+		int slot = (int) (number % missedTiles.length);
+		if (missedTiles[slot] != number) {
+			missedTiles[slot] = number;
+			misses[slot] = 0;
+		}
+		return ++misses[slot] > WORDS_PER_TILE_ROW;
+	}
+
+	/**
+	 * Write back and drop the least recently used tile, and return it so that its words can be reused.
+	 */
+	private Tile evict() {
+		Iterator<Tile> iterator = tiles.values().iterator();
+		Tile tile = iterator.next();
+		writeBack(tile);
+		iterator.remove();
+		return tile;
+	}
+
+	/**
+	 * Write the given tile back to its mapping if it has changed.
+	 */
+	private void writeBack(Tile tile) {
+		if (tile.dirty) {
+			LongBuffer segment = getSegment(tile.number).duplicate();
+			segment.position(getSegmentPosition(tile.number));
+			segment.put(tile.words);
+			tile.dirty = false;
+		}
+	}
+
+	/**
+	 * Return the mapping of the segment of the file holding the given tile, mapping it if needed.
+	 */
+	private LongBuffer getSegment(long number) {
+		int segment = (int) (number / SEGMENT_TILES);
+		if (segments[segment] == null) {
+			long first = (long) segment * SEGMENT_TILES;
+			long size = Math.min(SEGMENT_TILES, getAmountOfTiles() - first) * TILE_BYTES;
+			try {
+				mappings[segment] = file.getChannel().map(FileChannel.MapMode.READ_WRITE, HEADER_SIZE + first * TILE_BYTES, size);
+				segments[segment] = mappings[segment].order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+			} catch (IOException e) {
+				throw new IllegalStateException("cannot map tiles of terrain", e);
+			}
+		}
+		return segments[segment];
+	}
+
+	/**
+	 * Return the position of the first word of the given tile in its segment.
+	 */
+	private static int getSegmentPosition(long number) {
+		return (int) (number % SEGMENT_TILES) * WORDS_PER_TILE;
+	}
+
+	/**
+	 * A class of tiles of a tiled terrain that are resident on the heap.
+	 */
+	private static class Tile {
+
+		/*
+		 * A variable registering the number of this tile, counted row of tiles after row of tiles.
+		 */
+		private long number;
+
+		/*
+		 * An array registering the words of this tile, row after row.
+		 */
+		private final long[] words = new long[WORDS_PER_TILE];
+
+		/*
+		 * A variable registering whether this tile has changed since it was loaded or written back.
+		 */
+		private boolean dirty;
+
+	}
+
+	/*
+	 * Constants registering the layout of the file of a tiled terrain.
+	 */
+	private static final int MAGIC = 0x54544c57; // "WLTT"
+	private static final int VERSION = 1;
+	private static final int HEADER_SIZE = 32;
+	private static final int WORDS_PER_TILE_ROW = TILE_SIZE / 64;
+	private static final int WORDS_PER_TILE = TILE_SIZE * WORDS_PER_TILE_ROW;
+	private static final long TILE_BYTES = 8L * WORDS_PER_TILE;
+
+	/*
+	 * A constant registering the amount of tiles mapped at once, so that no single mapping exceeds a gigabyte.
+	 */
+	private static final int SEGMENT_TILES = (int) ((1L << 30) / TILE_BYTES);
+
+	/*
+	 * A variable registering the file holding the tiles of this terrain.
+	 */
+	private final RandomAccessFile file;
+
+	/*
+	 * Variables registering the amount of columns and rows of this terrain, in pixels and in tiles.
+	 */
+	private final int columns;
+	private final int rows;
+	private final int tileColumns;
+	private final int tileRows;
+
+	/*
+	 * A variable registering the maximal amount of resident tiles of this terrain.
+	 */
+	private final int capacity;
+
+	/*
+	 * Arrays registering the mappings of the segments of the file of this terrain, mapped on first use.
+	 */
+	private final LongBuffer[] segments;
+	private final MappedByteBuffer[] mappings;
+
+	/*
+	 * A map registering the resident tiles of this terrain by their number, least recently used first.
+	 */
+	private final LinkedHashMap<Long, Tile> tiles = new LinkedHashMap<Long, Tile>(16, 0.75f, true);
+
+	/*
+	 * Arrays registering recently missed tiles that are not resident, and how often they were missed.
+	 */
+	private final long[] missedTiles;
+	private final int[] misses;
+
+	/*
+	 * A variable registering the amount of times a tile was copied out of its mapping.
+	 */
+	private long tileLoads;
+
+}
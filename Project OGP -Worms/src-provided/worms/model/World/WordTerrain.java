@@ -0,0 +1,120 @@
+package worms.model.World;
+
+/**
+ * A class of terrains that store every row as a sequence of long words of 64 pixels, where a set bit marks
+ * an impassable pixel. <br>
+ * The pixel in column c is bit (c % 64) of word (c / 64) of its row, and bits beyond the last column of a row
+ * are always cleared. Queries on spans of a row are answered a word at a time, by masking the first and last
+ * word of the span, however the words themselves are stored.
+ *
+ * @author Ruben
+ */
+public abstract class WordTerrain implements EditableTerrain {
+
+	/**
+	 * Return the word with the given index of the given row.
+	 *
+	 * @param	row
+	 * 			The row of the word.
+	 * @param	index
+	 * 			The index of the word in its row.
+	 * @return	The 64 pixels from column index * 64 on, with a set bit for every impassable pixel.
+	 */
+	public abstract long getWord(int row, int index);
+
+	@Override
+	public boolean isPassable(int column, int row) {
+		return (getWord(row, column >>> 6) & (1L << column)) == 0;
+	}
+
+	@Override
+	public boolean hasImpassableInRow(int row, int fromColumn, int toColumn) {
+		if (fromColumn >= toColumn)
+			return false;
+		int first = fromColumn >>> 6;
+		int last = (toColumn - 1) >>> 6;
+		long firstMask = -1L << fromColumn;
+		long lastMask = -1L >>> (63 - ((toColumn - 1) & 63));
+		if (first == last)
+			return (getWord(row, first) & firstMask & lastMask) != 0;
+		if ((getWord(row, first) & firstMask) != 0)
+			return true;
+		for (int index = first + 1; index < last; index++) {
+			if (getWord(row, index) != 0)
+				return true;
+		}
+		return (getWord(row, last) & lastMask) != 0;
+	}
+
+	@Override
+	public boolean hasPassableInRow(int row, int fromColumn, int toColumn) {
+		if (fromColumn >= toColumn)
+			return false;
+		int first = fromColumn >>> 6;
+		int last = (toColumn - 1) >>> 6;
+		long firstMask = -1L << fromColumn;
+		long lastMask = -1L >>> (63 - ((toColumn - 1) & 63));
+		if (first == last)
+			return (~getWord(row, first) & firstMask & lastMask) != 0;
+		if ((~getWord(row, first) & firstMask) != 0)
+			return true;
+		for (int index = first + 1; index < last; index++) {
+			if (getWord(row, index) != -1L)
+				return true;
+		}
+		return (~getWord(row, last) & lastMask) != 0;
+	}
+
+	@Override
+	public int countImpassableInRow(int row, int fromColumn, int toColumn) {
+		if (fromColumn >= toColumn)
+			return 0;
+		int first = fromColumn >>> 6;
+		int last = (toColumn - 1) >>> 6;
+		long firstMask = -1L << fromColumn;
+		long lastMask = -1L >>> (63 - ((toColumn - 1) & 63));
+		if (first == last)
+			return Long.bitCount(getWord(row, first) & firstMask & lastMask);
+		int count = Long.bitCount(getWord(row, first) & firstMask);
+		for (int index = first + 1; index < last; index++)
+			count += Long.bitCount(getWord(row, index));
+		return count + Long.bitCount(getWord(row, last) & lastMask);
+	}
+
+	@Override
+	public int getFirstInRow(int row, int fromColumn, int toColumn, boolean passable) {
+		if (fromColumn >= toColumn)
+			return -1;
+		int last = (toColumn - 1) >>> 6;
+		long flip = passable ? -1L : 0L;
+		long word = (getWord(row, fromColumn >>> 6) ^ flip) & (-1L << fromColumn);
+		for (int index = fromColumn >>> 6; ; ) {
+			if (index == last)
+				word &= -1L >>> (63 - ((toColumn - 1) & 63));
+			if (word != 0)
+				return (index << 6) + Long.numberOfTrailingZeros(word);
+			if (++index > last)
+				return -1;
+			word = getWord(row, index) ^ flip;
+		}
+	}
+
+	@Override
+	public int getLastInRow(int row, int fromColumn, int toColumn, boolean passable) {
+		if (fromColumn >= toColumn)
+			return -1;
+		int first = fromColumn >>> 6;
+		long flip = passable ? -1L : 0L;
+		long word = (getWord(row, (toColumn - 1) >>> 6) ^ flip) & (-1L >>> (63 - ((toColumn - 1) & 63)));
+		for (int index = (toColumn - 1) >>> 6; ; ) {
+			if (index == first)
+				word &= -1L << fromColumn;
+			if (word != 0)
+				return (index << 6) + 63 - Long.numberOfLeadingZeros(word);
+			if (--index < first)
+				return -1;
+			word = getWord(row, index) ^ flip;
+		}
+	}
+
+}
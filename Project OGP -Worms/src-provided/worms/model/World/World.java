@@ -1,8 +1,11 @@
 package worms.model.World;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import worms.model.Position;
+import worms.model.weapon.Projectile;
 import worms.model.worm.Worm;
 import be.kuleuven.cs.som.annotate.*;
 import be.kuleuven.cs.som.taglet.*;
@@ -24,14 +27,74 @@ public class World {
 	 * 			The height for this new world.
 	 * @param	passableMap
 	 * 			The map of passable locations of this new world.
-	 * @post	
+	 * @effect	This new world is initialized with the given width, height, random and a terrain of the given passable map,
+	 * 			stored in the backend selected for its density. <br>
+	 * 			| this(width, height, TerrainBackend.store(new PackedTerrain(passableMap)), random)
 	 */
 	public World(double width, double height, boolean[][] passableMap, Random random) {
+		this(width, height, TerrainBackend.store(new PackedTerrain(passableMap)), random);
+	}
+	
+	/**
+	 * Initializes this new world with the given width, height, terrain and a random.
+	 * 
+	 * @param	width
+	 * 			The width for this new world.
+	 * @param	height
+	 * 			The height for this new world.
+	 * @param	terrain
+	 * 			The terrain of this new world.
+	 * @post	The terrain of this new world is the given terrain. <br>
+	 * 			| new.getTerrain() == terrain
+	 * @note	The distance field of this new world is only computed when it is first needed.
+	 * @throws	IllegalArgumentException
+	 * 			The given terrain is not effective. <br>
+	 * 			| terrain == null
+	 */
+	public World(double width, double height, Terrain terrain, Random random) throws IllegalArgumentException {
+		if (terrain == null)
+			throw new IllegalArgumentException();
+		setWidth(width);
+		setHeight(height);
+		worms = new HashSet<Worm>();
+		this.terrain = terrain;
+		this.random = random;
+		this.pixelMapping = new PixelMapping(width, height, getAmountOfColums(), getAmountOfRows());
+	}
+	
+	/**
+	 * Initializes this new world with the given width, height, a snapshot of its terrain with the indexes
+	 * that have already been computed for it, and a random. <br>
+	 * 		This new world edits the terrain and the indexes of the given snapshot in place.
+	 * 
+	 * @param	width
+	 * 			The width for this new world.
+	 * @param	height
+	 * 			The height for this new world.
+	 * @param	snapshot
+	 * 			The snapshot of the terrain of this new world.
+	 * @post	The terrain of this new world is the terrain of the given snapshot, and its distance field,
+	 * 			level-of-detail pyramid and placement index are those of the given snapshot. <br>
+	 * 			| new.getTerrain() == snapshot.getTerrain() && new.getDistanceField() == snapshot.getDistanceField() && <br>
+	 * 			| new.getDetailPyramid() == snapshot.getDetailPyramid() && new.getPlacementIndex() == snapshot.getPlacementIndex()
+	 * @throws	IllegalArgumentException
+	 * 			The given snapshot is not effective, or its distance field was not computed for the given dimensions. <br>
+	 * 			| snapshot == null || snapshot.getDistanceField().getPixelMapping().getWidth() != width || <br>
+	 * 			| snapshot.getDistanceField().getPixelMapping().getHeight() != height
+	 */
+	public World(double width, double height, TerrainSnapshot snapshot, Random random) throws IllegalArgumentException {
+		if (snapshot == null || snapshot.getDistanceField().getPixelMapping().getWidth() != width
+				|| snapshot.getDistanceField().getPixelMapping().getHeight() != height)
+			throw new IllegalArgumentException();
 		setWidth(width);
 		setHeight(height);
 		worms = new HashSet<Worm>();
-		this.passableMap = passableMap;
+		this.terrain = snapshot.getTerrain();
 		this.random = random;
+		this.pixelMapping = snapshot.getDistanceField().getPixelMapping();
+		this.distanceField = snapshot.getDistanceField();
+		this.detailPyramid = snapshot.getDetailPyramid();
+		this.placementIndex = snapshot.getPlacementIndex();
 	}
 	
 	/*
@@ -105,16 +168,94 @@ public class World {
 	 * @post	This world contains the given worm. <br>
 	 * 			| new.hasAsWorm(worm) && <br>
 	 * 			| isInMap(worm)
+	 * @effect	The given worm is placed in this world. <br>
+	 * 			| placeWormInWorld(worm)
 	 * @throws	IllegalArgumentException
 	 * 			This world can not have the given worm. <br>
 	 * 			| !canHaveAsWorm(worm)
+	 * @throws	IllegalStateException
+	 * 			There is no spot left in this world for the given worm, in which case it is not added.
 	 */
-	public void addWorm(Worm worm) throws IllegalArgumentException{
+	public void addWorm(Worm worm) throws IllegalArgumentException, IllegalStateException {
+		if (!canHaveAsWorm(worm))
+			throw new IllegalArgumentException();
+		placeWormInWorld(worm);
+		worms.add(worm);
+		worm.setWorld(this);
+	}
+	
+	/**
+	 * Add the given new worms to this world, each at a random spot where it stands on impassable terrain. <br>
+	 * 		The worms are placed one after the other, each avoiding the worms placed before it.
+	 * 		Either all of the given worms are added, or none of them is.
+	 * 
+	 * @param 	newWorms
+	 * 			The worms to be added.
+	 * @post	This world contains every given worm. <br>
+	 * 			| for each worm in newWorms : new.hasAsWorm(worm)
+	 * @effect	Every given worm is placed in this world. <br>
+	 * 			| for each worm in newWorms : placeWormInWorld(worm)
+	 * @throws	IllegalArgumentException
+	 * 			The given collection is not effective, this world can not have one of the given worms,
+	 * 			or a worm is given more than once. <br>
+	 * 			| newWorms == null || for some worm in newWorms : !canHaveAsWorm(worm)
+	 * @throws	IllegalStateException
+	 * 			There is no spot left in this world for one of the given worms, in which case none of them
+	 * 			is added and every given worm keeps its position.
+	 */
+	public void addWorms(Collection<Worm> newWorms) throws IllegalArgumentException, IllegalStateException {
+		if (newWorms == null || new HashSet<Worm>(newWorms).size() != newWorms.size())
+			throw new IllegalArgumentException();
+		for (Worm worm : newWorms)
+			if (!canHaveAsWorm(worm))
+				throw new IllegalArgumentException();
+		HashSet<Worm> placed = getAllWorms();
+		ArrayList<Position> oldPositions = new ArrayList<Position>();
+		for (Worm worm : newWorms) {
+			Position position = getPlacementIndex().findPosition(worm.getRadius(), random, placed);
+			if (position == null) {
+				int index = 0;
+				for (Worm moved : newWorms) {
+					if (index == oldPositions.size())
+						break;
+					moved.setX(oldPositions.get(index).getX());
+					moved.setY(oldPositions.get(index).getY());
+					index++;
+				}
+				throw new IllegalStateException("Only " + oldPositions.size() + " of " + newWorms.size()
+						+ " worms fit in this world.");
+			}
+			oldPositions.add(worm.getPosition());
+			worm.setX(position.getX());
+			worm.setY(position.getY());
+			placed.add(worm);
+		}
+		for (Worm worm : newWorms) {
+			worms.add(worm);
+			worm.setWorld(this);
+		}
+	}
+	
+	/**
+	 * Add a new worm to this world at the position it already has. <br>
+	 * 		The worm is not checked against the terrain or the other worms of this world, but worms placed
+	 * 		in this world afterwards avoid it like any other worm of this world.
+	 * 
+	 * @param 	worm
+	 * 			The worm to be added.
+	 * @post	This world contains the given worm, and the given worm is in this world. <br>
+	 * 			| new.hasAsWorm(worm) && (new worm).getWorld() == this
+	 * @post	The position of the given worm is left unchanged. <br>
+	 * 			| (new worm).getPosition().equals(worm.getPosition())
+	 * @throws	IllegalArgumentException
+	 * 			This world can not have the given worm. <br>
+	 * 			| !canHaveAsWorm(worm)
+	 */
+	public void addWormAtPosition(Worm worm) throws IllegalArgumentException {
 		if (!canHaveAsWorm(worm))
 			throw new IllegalArgumentException();
 		worms.add(worm);
 		worm.setWorld(this);
-		placeWormInWorld(worm);
 	}
 	
 	/**
@@ -192,19 +333,83 @@ public class World {
 		return true;
 	}
 	
-	public void placeWormInWorld(Worm worm) {
-		
-		Position position = new Position(random.nextDouble() * (getWidth() - 2 * worm.getRadius() * 1.01) + worm.getRadius() * 1.01, random.nextDouble() * (getHeight() - 2 * worm.getRadius() * 1.01 ) + worm.getRadius() * 1.01);
-		
-		while (!isAdjacentToImpassableTerrain(position, worm.getRadius())) {
-			position.setX(random.nextDouble() * (getWidth() - 2 * worm.getRadius() * 1.01) + worm.getRadius() * 1.01);
-			position.setY(random.nextDouble() * (getHeight() - 2 * worm.getRadius() * 1.01) + worm.getRadius() * 1.01);
+	/**
+	 * Move the given worm to a random spot of this world where it stands on impassable terrain. <br>
+	 * 		The spot is drawn with the random of this world from the placement index of this world,
+	 * 		so that worlds with the same seed place their worms in the same spots. A world that keeps no
+	 * 		distance field has no placement index; the worm is dropped from random free spots instead,
+	 * 		at most WorldConstants.PLACEMENT_ATTEMPTS times.
+	 * 
+	 * @param 	worm
+	 * 			The worm to be placed.
+	 * @post	The given worm is adjacent to impassable terrain, and does not overlap with any other worm of this world. <br>
+	 * 			| isAdjacentToImpassableTerrain(worm.getPosition(), worm.getRadius()) && <br>
+	 * 			| for each other in getAllWorms() : <br>
+	 * 			|	other == worm || distance(other, worm) >= other.getRadius() + worm.getRadius()
+	 * @throws	IllegalStateException
+	 * 			There is no spot left in this world where the given worm stands on impassable terrain
+	 * 			without overlapping another worm of this world.
+	 */
+	public void placeWormInWorld(Worm worm) throws IllegalStateException {
+		HashSet<Worm> others = getAllWorms();
+		others.remove(worm);
+		PlacementIndex index = getPlacementIndex();
+		Position position;
+		if (index != null)
+			position = index.findPosition(worm.getRadius(), random, others);
+		else
+			position = dropPosition(worm.getRadius(), others);
+		if (position == null)
+			throw new IllegalStateException("No spot left for a worm with radius " + worm.getRadius() + ".");
+		worm.setX(position.getX());
+		worm.setY(position.getY());
+	}
+	
+	/**
+	 * Return a spot where a worm with the given radius stands on impassable terrain without overlapping any of
+	 * the given worms, found by dropping it from random spots where it is free, or null if none is found in
+	 * WorldConstants.PLACEMENT_ATTEMPTS attempts.
+	 */
+	private Position dropPosition(double radius, Collection<Worm> others) {
+		for (int attempt = 0; attempt < WorldConstants.PLACEMENT_ATTEMPTS; attempt++) {
+			double x = radius + random.nextDouble() * (getWidth() - 2 * radius);
+			double y = radius + random.nextDouble() * (getHeight() - 2 * radius);
+			if (compareDistanceToImpassable(x, y, radius) < 0)
+				continue;
+			Position position = new Position(x, y);
+			if (canFall(position, radius))
+				position = new Position(x, y - getFallDistance(position, radius));
+			if (isAdjacentToImpassableTerrain(position, radius) && !overlaps(position, radius, others))
+				return position;
 		}
-		
-		System.out.println(position.getX() + " " + position.getY());
-		
+		return null;
+	}
+	
+	/**
+	 * Check whether a worm with the given radius at the given position overlaps any of the given worms.
+	 */
+	private static boolean overlaps(Position position, double radius, Collection<Worm> worms) {
+		for (Worm worm : worms)
+			if (position.getDistanceFrom(worm.getPosition()) < radius + worm.getRadius())
+				return true;
+		return false;
 	}
 	
+	/**
+	 * Return the index of spots where worms stand on the terrain of this world, built on first use,
+	 * or null if this world keeps no distance field to build it from.
+	 */
+	public synchronized PlacementIndex getPlacementIndex() {
+		if (placementIndex == null && keepsDistanceField())
+			placementIndex = new PlacementIndex(getDistanceField());
+		return placementIndex;
+	}
+	
+	/*
+	 * A variable registering the spots where worms stand on the terrain of this world.
+	 */
+	private PlacementIndex placementIndex;
+	
 	/**
 	 * Return a HashSet containing all the worms in this world.
 	 */
@@ -219,28 +424,47 @@ public class World {
 	private HashSet<Worm> worms;
 	
 	/**
-	 * Return the amount of columns of this world.
+	 * Return the projectile flying in this world, or null if no projectile is flying.
 	 */
-	public int getAmountOfColums() {
-		return passableMap[0].length;
+	@Basic
+	public Projectile getActiveProjectile() {
+		return activeProjectile;
+	}
+	
+	/**
+	 * Set the projectile flying in this world to the given projectile.
+	 * 
+	 * @param 	projectile
+	 * 			The projectile flying in this world, or null if no projectile is flying.
+	 * @post	| new.getActiveProjectile() == projectile
+	 * @throws	IllegalArgumentException
+	 * 			The given projectile is terminated. <br>
+	 * 			| projectile != null && projectile.isTerminated()
+	 */
+	public void setActiveProjectile(Projectile projectile) throws IllegalArgumentException {
+		if (projectile != null && projectile.isTerminated())
+			throw new IllegalArgumentException();
+		activeProjectile = projectile;
 	}
 	
 	/*
-	 * A variable registering the amount of columns of this world.
+	 * A variable registering the projectile flying in this world.
+	 */
+	private Projectile activeProjectile;
+	
+	/**
+	 * Return the amount of columns of this world.
 	 */
-	private int columns;
+	public int getAmountOfColums() {
+		return terrain.getAmountOfColumns();
+	}
 	
 	/**
 	 * Return the amount of rows of this world
 	 */
 	public int getAmountOfRows() {
-		return passableMap.length;
+		return terrain.getAmountOfRows();
 	}
-
-	/*
-	 * A variable registering the amount of rows of this world.
-	 */
-	private int rows;
 	
 	/**
 	 * Check whether the pixel on the given column and row is passable.
@@ -249,16 +473,18 @@ public class World {
 	 * 			The column in which the pixel is located.
 	 * @param 	r
 	 * 			The row in which the pixel is located.
-	 * @return	True if the pixel is passable. <br>
-	 * 			False if the pixel is not passable. <br>
+	 * @return	False if the pixel lies outside the terrain of this world. <br>
+	 * 			| c < 0 || r < 0 || c >= getAmountOfColums() || r >= getAmountOfRows() <br>
+	 * 			Otherwise, true if and only if the pixel is passable in the terrain of this world. <br>
+	 * 			| getTerrain().isPassable(c, r)
 	 */
 	public boolean isPassablePixel(int c , int r) {
 		if (c < 0 || r < 0)
 			return false;
-		if (c > getAmountOfColums() || r > getAmountOfRows())
+		if (c >= getAmountOfColums() || r >= getAmountOfRows())
 			return false;
 		
-		return passableMap[r][c];
+		return terrain.isPassable(c, r);
 	}
 	
 	/**
@@ -271,49 +497,178 @@ public class World {
 	 * 			False otherwise.
 	 */
 	public boolean isPassablePosition(Position position) {
-		
-		if  (isValidPosition(position)) {
-			int row = getPositionRow(position);
-			int column = getPositionColumn(position);
-		
-			if (isPassablePixel(column, row))
-			return true;
-		}
-		
-		return false;
+		if (position == null)
+			return false;
+		return isPassablePoint(position.getX(), position.getY());
+	}
+	
+	private boolean isPassablePoint(double x, double y) {
+		if (x < 0 || x > getWidth() || y < 0 || y > getHeight())
+			return false;
+		return isPassablePixel(pixelMapping.getColumn(x), pixelMapping.getRow(y));
 	}
 	
+	/**
+	 * Check whether the circle, chosen according to the given radius, around the given position is passable.
+	 * 
+	 * @param 	position
+	 * 			The position to check the surrounding terrain for.
+	 * @param 	radius
+	 * 			The radius of the circle that is checked.
+	 * @return	True if there is no impassable terrain within a tenth of the given radius of the given position. <br>
+	 * 			Everything outside this world counts as impassable terrain. <br>
+	 * 			| compareDistanceToImpassable(position.getX(), position.getY(), 0.1 * radius) > 0
+	 */
 	public boolean isPassable(Position position, double radius) {
-		
-		double maxDistance = 0.1 * radius;
-		
-		for (double angle = 0.; angle <= 2 * Math.PI; angle += (Math.PI / 180)) {
-			
-			for (double distance = 0.; distance <= maxDistance; distance += (maxDistance / 100)) {
-				
-				Position toCheck = new Position(distance * Math.cos(angle) + position.getX(), distance * Math.sin(angle) + position.getY());
-				if (!isPassablePosition(toCheck))
-					return false;
-			}
-		}
-		return true;
+		return compareDistanceToImpassable(position.getX(), position.getY(), 0.1 * radius) > 0;
 	}
 	
+	/**
+	 * Check whether the circle, chosen according to the given radius, around the given position is impassable.
+	 * 
+	 * @param 	position
+	 * 			The position to check the surrounding terrain for.
+	 * @param 	radius
+	 * 			The radius of the circle that is checked.
+	 * @return	True if there is no passable terrain within a tenth of the given radius of the given position. <br>
+	 * 			| compareDistanceToPassable(position.getX(), position.getY(), 0.1 * radius) > 0
+	 */
 	public boolean isImpassable(Position position, double radius) {
-		
-		double maxDistance = 0.1 * radius;
-		
-		for (double angle = 0.; angle <= 2 * Math.PI; angle += (Math.PI / 180)) {
-			
-			for (double distance = 0.; distance <= maxDistance; distance += (maxDistance / 100)) {
-				
-				Position toCheck = new Position(distance * Math.cos(angle) + position.getX(), distance * Math.sin(angle) + position.getY());
-				if (isPassablePosition(toCheck))
-					return false;
-			}
-		}
-		return true;
-		
+		return compareDistanceToPassable(position.getX(), position.getY(), 0.1 * radius) > 0;
+	}
+	
+	/**
+	 * Compare the distance between the given position and the nearest impassable terrain with the given distance. <br>
+	 * 		Everything outside this world counts as impassable terrain. The distance field of this world answers
+	 * 		the comparison if this world keeps one; otherwise the rows of the terrain within the given distance
+	 * 		are scanned.
+	 * 
+	 * @param	x
+	 * 			The x-coordinate of the position.
+	 * @param	y
+	 * 			The y-coordinate of the position.
+	 * @param	distance
+	 * 			The distance to compare with.
+	 * @return	A negative number, zero or a positive number if the distance to the nearest impassable terrain
+	 * 			is smaller than, equal to or larger than the given distance. <br>
+	 * 			| result == Math.signum(getDistanceToImpassable(x, y) - distance)
+	 */
+	public int compareDistanceToImpassable(double x, double y, double distance) {
+		DistanceField field = getDistanceField();
+		if (field != null)
+			return field.compareDistanceToImpassable(x, y, distance);
+		double border = getDistanceToBorder(x, y);
+		if (border < distance)
+			return -1;
+		double exact = Math.min(border, DistanceField.getExactDistance(terrain, pixelMapping, x, y, Math.nextUp(distance), false));
+		return (int) Math.signum(exact - distance);
+	}
+	
+	/**
+	 * Compare the distance between the given position and the nearest passable terrain with the given distance. <br>
+	 * 		The distance field of this world answers the comparison if this world keeps one; otherwise the rows
+	 * 		of the terrain within the given distance are scanned.
+	 * 
+	 * @param	x
+	 * 			The x-coordinate of the position.
+	 * @param	y
+	 * 			The y-coordinate of the position.
+	 * @param	distance
+	 * 			The distance to compare with.
+	 * @return	A negative number, zero or a positive number if the distance to the nearest passable pixel
+	 * 			is smaller than, equal to or larger than the given distance.
+	 */
+	public int compareDistanceToPassable(double x, double y, double distance) {
+		DistanceField field = getDistanceField();
+		if (field != null)
+			return field.compareDistanceToPassable(x, y, distance);
+		double exact = DistanceField.getExactDistance(terrain, pixelMapping, x, y, Math.nextUp(distance), true);
+		return (int) Math.signum(exact - distance);
+	}
+	
+	/**
+	 * Return the distance between the given position and the nearest impassable terrain. <br>
+	 * 		Everything outside this world counts as impassable terrain.
+	 * 
+	 * @param	x
+	 * 			The x-coordinate of the position.
+	 * @param	y
+	 * 			The y-coordinate of the position.
+	 * @return	The smallest distance between the given position and an impassable pixel or the edge of this world,
+	 * 			or a negative number if the given position lies outside this world.
+	 */
+	public double getDistanceToImpassable(double x, double y) {
+		DistanceField field = getDistanceField();
+		if (field != null)
+			return field.getDistanceToImpassable(x, y);
+		return getDistanceToImpassable(x, y, Double.POSITIVE_INFINITY);
+	}
+	
+	/**
+	 * Return a lower bound on the distance between the given position and the nearest impassable terrain. <br>
+	 * 		Everything outside this world counts as impassable terrain. The bound is read from the distance field
+	 * 		if this world keeps one; otherwise the terrain is scanned up to the bound of a distance field.
+	 * 
+	 * @param	x
+	 * 			The x-coordinate of the position.
+	 * @param	y
+	 * 			The y-coordinate of the position.
+	 * @return	| result <= getDistanceToImpassable(x, y)
+	 */
+	public double getLowerBoundToImpassable(double x, double y) {
+		DistanceField field = getDistanceField();
+		if (field != null)
+			return field.getLowerBoundToImpassable(x, y);
+		return getDistanceToImpassable(x, y, getScanLimit());
+	}
+	
+	/**
+	 * Return an upper bound on the distance between the given position and the nearest impassable terrain. <br>
+	 * 		Everything outside this world counts as impassable terrain. The bound is read from the distance field
+	 * 		if this world keeps one; otherwise the terrain is scanned up to the bound of a distance field.
+	 * 
+	 * @param	x
+	 * 			The x-coordinate of the position.
+	 * @param	y
+	 * 			The y-coordinate of the position.
+	 * @return	| result >= getDistanceToImpassable(x, y)
+	 */
+	public double getUpperBoundToImpassable(double x, double y) {
+		DistanceField field = getDistanceField();
+		if (field != null)
+			return field.getUpperBoundToImpassable(x, y);
+		double limit = getScanLimit();
+		double distance = getDistanceToImpassable(x, y, limit);
+		return (distance < limit) ? distance : getDistanceToBorder(x, y);
+	}
+	
+	/**
+	 * Return the distance between the given position and the nearest impassable terrain, scanning the terrain
+	 * up to the given limit, or the given limit if there is no impassable terrain closer than the limit.
+	 */
+	private double getDistanceToImpassable(double x, double y, double limit) {
+		double border = getDistanceToBorder(x, y);
+		if (border <= limit)
+			limit = border;
+		if (limit <= 0)
+			return limit;
+		return DistanceField.getExactDistance(terrain, pixelMapping, x, y, limit, false);
+	}
+	
+	/**
+	 * Return the distance up to which the terrain is scanned for a bound on the distance to impassable terrain
+	 * in a world without a distance field: the bound a distance field of this world would have.
+	 */
+	private double getScanLimit() {
+		return WorldConstants.DISTANCE_FIELD_BOUND * Math.min(pixelMapping.getPixelWidth(), pixelMapping.getPixelHeight());
+	}
+	
+	/**
+	 * Return the distance between the given position and the edge of this world, negative if the position
+	 * lies outside this world.
+	 */
+	private double getDistanceToBorder(double x, double y) {
+		return Math.min(Math.min(x, getWidth() - x), Math.min(y, getHeight() - y));
 	}
 	
 	/**
@@ -344,20 +699,11 @@ public class World {
 	 * 
 	 * @param 	position
 	 * 			The position to get the column for.
-	 * @return	The column in which the position is located.
+	 * @return	The column in which the position is located. <br>
+	 * 			| getPixelMapping().getColumn(position.getX())
 	 */
 	public int getPositionColumn(Position position) {
-		
-		double pixelWidth =  getWidth() / getAmountOfColums();
-		int column = 0;
-		
-		for (double columns = pixelWidth; columns <= getWidth(); columns += pixelWidth) {
-			if (position.getX() <= columns)
-				break;
-			column++;
-		}
-		
-		return column;
+		return pixelMapping.getColumn(position.getX());
 	}
 	
 	/**
@@ -365,21 +711,25 @@ public class World {
 	 * 
 	 * @param 	position
 	 * 			The position to get the row for.
-	 * @return	The row in which the position is located.
+	 * @return	The row in which the position is located. <br>
+	 * 			| getPixelMapping().getRow(position.getY())
 	 */
 	public int getPositionRow(Position position) {
-		double pixelHeight = getHeight() / getAmountOfRows();
-		int row = 0;
-		
-		for (double rows = pixelHeight; rows <= getHeight(); rows += pixelHeight) {
-			if (position.getY() <= rows)
-				break;
-			row++;
-		}
-		
-		return row;
+		return pixelMapping.getRow(position.getY());
 	}
 	
+	/**
+	 * Return the pixel mapping of this world.
+	 */
+	public PixelMapping getPixelMapping() {
+		return pixelMapping;
+	}
+	
+	/*
+	 * A variable registering the mapping of coordinates of this world to the pixels of its passable map.
+	 */
+	private final PixelMapping pixelMapping;
+	
 	/**
 	 * Check whether the given position is in the boundaries of this map.
 	 * 
@@ -411,39 +761,831 @@ public class World {
 	 * 			The position to check the surrounding terrain for.
 	 * @param 	radius
 	 * 			The radius of the circle that is checked.
-	 * @return	True if there is impassable terrain adjacent to the given position and if the given position is a passable position <br>
+	 * @return	True if the given position is a passable position and the nearest impassable terrain lies
+	 * 			between the given radius and 1.1 times the given radius of the given position. <br>
+	 * 			Everything outside this world counts as impassable terrain. <br>
 	 * 			| isPassablePosition(position) && <br>
-	 * 			| for some (Position toCheck) <br>
-	 * 			|	(position.getDistanceFrom(toCheck) <= 0.1 * radius) && <br>
-	 * 			| 	(!isPassablePosition(toCheck))
+	 * 			| compareDistanceToImpassable(position.getX(), position.getY(), radius) >= 0 && <br>
+	 * 			| compareDistanceToImpassable(position.getX(), position.getY(), 1.1 * radius) <= 0
 	 */
 	public boolean isAdjacentToImpassableTerrain(Position position, double radius) {
+		if (!isPassablePosition(position))
+			return false;
+		return isAdjacentAroundPassablePoint(position.getX(), position.getY(), radius);
+	}
+	
+	/**
+	 * Return a distance within which no position is adjacent to impassable terrain for the given radius. <br>
+	 * 		The distance to impassable terrain changes no faster than the position itself, so the nearest adjacent
+	 * 		position lies at least as far as the distance to impassable terrain lies outside the range between the
+	 * 		given radius and 1.1 times the given radius. The distance is taken from the bounds of the distance field
+	 * 		if this world keeps one; otherwise the terrain is scanned up to 2.2 times the given radius.
+	 * 
+	 * @param	position
+	 * 			The position to measure from.
+	 * @param	radius
+	 * 			The radius of the circle that is checked.
+	 * @return	No position closer than the result to the given position is adjacent to impassable terrain. <br>
+	 * 			| result >= 0 && <br>
+	 * 			| for each other in Position : <br>
+	 * 			|	if (position.getDistanceFrom(other) < result) <br>
+	 * 			|		then !isAdjacentToImpassableTerrain(other, radius)
+	 */
+	public double getDistanceToAdjacency(Position position, double radius) {
+		double x = position.getX(), y = position.getY();
+		double reach = WorldConstants.ADJACENCY_FACTOR * radius;
+		double lower, upper;
+		if (getDistanceField() != null) {
+			lower = getLowerBoundToImpassable(x, y);
+			upper = getUpperBoundToImpassable(x, y);
+		} else {
+			lower = getDistanceToImpassable(x, y, 2 * reach);
+			upper = (lower < 2 * reach) ? lower : Double.POSITIVE_INFINITY;
+		}
+		return Math.max(0, Math.max(lower - reach, radius - upper));
+	}
+	
+	private boolean isAdjacentAroundPassablePoint(double x, double y, double radius) {
+		if (compareDistanceToImpassable(x, y, radius) < 0)
+			return false;
+		return compareDistanceToImpassable(x, y, WorldConstants.ADJACENCY_FACTOR * radius) <= 0;
+	}
+	
+	/**
+	 * Return the class of the circle, chosen according to the given radius, around the given position.
+	 * 
+	 * @param 	position
+	 * 			The centre of the circle.
+	 * @param 	radius
+	 * 			The radius of the circle.
+	 * @return	IMPASSABLE if every pixel touched by the circle is impassable. <br>
+	 * 			| if (getDiskOccupancy(position, radius) == Occupancy.IMPASSABLE) <br>
+	 * 			|	then result == TerrainClass.IMPASSABLE <br>
+	 * 			ADJACENT if the circle is passable and adjacent to impassable terrain. <br>
+	 * 			| else if (isAdjacentToImpassableTerrain(position, radius)) <br>
+	 * 			|	then result == TerrainClass.ADJACENT <br>
+	 * 			PASSABLE otherwise. <br>
+	 * 			| else result == TerrainClass.PASSABLE
+	 */
+	public TerrainClass classify(Position position, double radius) {
+		return classify(position.getX(), position.getY(), radius);
+	}
+	
+	/**
+	 * Store the class of the circle, chosen according to the given radius, around each of the given positions
+	 * in the given array of classes. <br>
+	 * 		No objects are created for the individual positions. If asked for, batches of 
+	 * 		WorldConstants.CLASSIFICATION_BATCH_SIZE positions are classified in parallel.
+	 * 
+	 * @param 	xs
+	 * 			The x-coordinates of the centres of the circles.
+	 * @param 	ys
+	 * 			The y-coordinates of the centres of the circles.
+	 * @param 	radius
+	 * 			The radius of the circles.
+	 * @param 	classes
+	 * 			The array in which to store the class of each circle.
+	 * @param 	parallel
+	 * 			Whether the work may be split over the common fork-join pool.
+	 * @post	The class of the circle around each position is stored at the index of that position. <br>
+	 * 			| for each index in 0..xs.length-1 : <br>
+	 * 			|	classes[index] == classify(new Position(xs[index], ys[index]), radius)
+	 * @throws	IllegalArgumentException
+	 * 			One of the given arrays is not effective, or the arrays do not have the same length. <br>
+	 * 			| xs == null || ys == null || classes == null || ys.length != xs.length || classes.length != xs.length
+	 */
+	public void classify(double[] xs, double[] ys, double radius, TerrainClass[] classes, boolean parallel)
+			throws IllegalArgumentException {
+		if (xs == null || ys == null || classes == null || ys.length != xs.length || classes.length != xs.length)
+			throw new IllegalArgumentException();
+		// Tiled terrains keep their resident tiles up to date while they are read, so they are read by one thread.
+		if (parallel && xs.length > WorldConstants.CLASSIFICATION_BATCH_SIZE && !(terrain instanceof TiledTerrain))
+			ForkJoinPool.commonPool().invoke(new ClassificationTask(xs, ys, radius, classes, 0, xs.length));
+		else
+			classify(xs, ys, radius, classes, 0, xs.length);
+	}
+	
+	private void classify(double[] xs, double[] ys, double radius, TerrainClass[] classes, int from, int to) {
+		for (int index = from; index < to; index++)
+			classes[index] = classify(xs[index], ys[index], radius);
+	}
+	
+	/**
+	 * Return the class of the given circle. <br>
+	 * 		A circle around a passable point can never be entirely impassable, and a circle around an impassable
+	 * 		point is entirely impassable exactly when no passable pixel lies within its radius.
+	 */
+	private TerrainClass classify(double x, double y, double radius) {
+		if (isPassablePoint(x, y))
+			return isAdjacentAroundPassablePoint(x, y, radius) ? TerrainClass.ADJACENT : TerrainClass.PASSABLE;
+		if (compareDistanceToPassable(x, y, radius) > 0)
+			return TerrainClass.IMPASSABLE;
+		return TerrainClass.PASSABLE;
+	}
+	
+	/**
+	 * A class of tasks classifying a range of positions, splitting it in halves until it fits in a batch.
+	 */
+	private class ClassificationTask extends RecursiveAction {
 		
-		if (isPassablePosition(position)) {
-			
-			double maxDistance = 0.1 * radius + radius;
-			
-			for (double angle = 0.; angle <= 2 * Math.PI; angle += (Math.PI / 90)) {
-
-				for (double distance = radius; distance <= maxDistance; distance += (0.1 * radius) / 10) {
-					
-					Position toCheck = new Position(distance * Math.cos(angle) + position.getX(), distance * Math.sin(angle) + position.getY());
-					if (!isPassablePosition(toCheck))
-						return true;
-					
+		private ClassificationTask(double[] xs, double[] ys, double radius, TerrainClass[] classes, int from, int to) {
+			this.xs = xs;
+			this.ys = ys;
+			this.radius = radius;
+			this.classes = classes;
+			this.from = from;
+			this.to = to;
+		}
+		
+		@Override
+		protected void compute() {
+			if (to - from <= WorldConstants.CLASSIFICATION_BATCH_SIZE) {
+				classify(xs, ys, radius, classes, from, to);
+				return;
+			}
+			int middle = (from + to) >>> 1;
+			invokeAll(new ClassificationTask(xs, ys, radius, classes, from, middle),
+					new ClassificationTask(xs, ys, radius, classes, middle, to));
+		}
+		
+		private static final long serialVersionUID = 1L;
+		
+		private final double[] xs, ys;
+		
+		private final double radius;
+		
+		private final TerrainClass[] classes;
+		
+		private final int from, to;
+		
+	}
+	
+	/**
+	 * Return how the circle, chosen according to the given radius, around the given position is occupied by terrain. <br>
+	 * 		A circle wide enough to be looked up at a coarser level of detail, allowing an error of
+	 * 		WorldConstants.DETAIL_QUERY_TOLERANCE_RATIO times its radius, is first looked up in the level-of-detail
+	 * 		pyramid of this world, whose passable and impassable answers are exact. Only a circle that is mixed there
+	 * 		is looked up in the terrain pyramid of this world, which only descends into mixed blocks along the edge of the circle.
+	 * 
+	 * @param 	position
+	 * 			The centre of the circle.
+	 * @param 	radius
+	 * 			The radius of the circle.
+	 * @return	PASSABLE if no pixel touched by the circle is impassable and the circle lies inside this world. <br>
+	 * 			IMPASSABLE if every pixel touched by the circle is impassable. <br>
+	 * 			MIXED otherwise.
+	 */
+	public Occupancy getDiskOccupancy(Position position, double radius) {
+		double tolerance = radius * WorldConstants.DETAIL_QUERY_TOLERANCE_RATIO;
+		if (tolerance >= getDetailPyramid().getErrorBound(1)) {
+			Occupancy occupancy = getDiskOccupancy(position, radius, tolerance);
+			if (occupancy != Occupancy.MIXED)
+				return occupancy;
+		}
+		Occupancy occupancy = getTerrainPyramid().getDiskOccupancy(position.getX(), position.getY(), radius);
+		return addBorder(occupancy, !isInMap(position, radius));
+	}
+	
+	/**
+	 * Return how the circle, chosen according to the given radius, around the given position is occupied by terrain,
+	 * allowing the given error. <br>
+	 * 		The circle is looked up in the level-of-detail pyramid of this world, at the coarsest level whose error bound
+	 * 		does not exceed the given tolerance, so a large circle that allows a large error only looks at a few
+	 * 		coarse rows.
+	 * 
+	 * @param 	position
+	 * 			The centre of the circle.
+	 * @param 	radius
+	 * 			The radius of the circle.
+	 * @param	tolerance
+	 * 			The largest error allowed.
+	 * @return	PASSABLE if no pixel touched by the circle is impassable and the circle lies inside this world. <br>
+	 * 			IMPASSABLE if every pixel touched by the circle is impassable. <br>
+	 * 			MIXED otherwise, or if the circle grown by at most the given tolerance touches both passable
+	 * 			and impassable terrain. <br>
+	 * 			| if (tolerance < getDetailPyramid().getErrorBound(1)) then result == getDiskOccupancy(position, radius)
+	 */
+	public Occupancy getDiskOccupancy(Position position, double radius, double tolerance) {
+		Occupancy occupancy = getDetailPyramid().getDiskOccupancy(position.getX(), position.getY(), radius, tolerance);
+		return addBorder(occupancy, !isInMap(position, radius));
+	}
+	
+	/**
+	 * Return how the annulus, chosen according to the given radii, around the given position is occupied by terrain.
+	 * 
+	 * @param 	position
+	 * 			The centre of the annulus.
+	 * @param 	innerRadius
+	 * 			The inner radius of the annulus.
+	 * @param 	outerRadius
+	 * 			The outer radius of the annulus.
+	 * @return	PASSABLE if no pixel touched by the annulus is impassable and the annulus lies inside this world. <br>
+	 * 			IMPASSABLE if every pixel touched by the annulus is impassable. <br>
+	 * 			MIXED otherwise.
+	 */
+	public Occupancy getAnnulusOccupancy(Position position, double innerRadius, double outerRadius) {
+		Occupancy occupancy = getTerrainPyramid().getAnnulusOccupancy(position.getX(), position.getY(), innerRadius, outerRadius);
+		return addBorder(occupancy, !isInMap(position, outerRadius));
+	}
+	
+	/**
+	 * Return the fraction of the segment between the given positions at which it first enters impassable terrain.
+	 * 
+	 * @param 	from
+	 * 			The start of the segment.
+	 * @param 	to
+	 * 			The end of the segment.
+	 * @return	The smallest t between 0 and 1 for which the point at fraction t of the segment lies in an impassable pixel
+	 * 			of this world, or -1 if there is no such t. Only the part of the segment inside this world is considered.
+	 */
+	public double getFirstImpassableOnSegment(Position from, Position to) {
+		return getTerrainPyramid().getFirstImpassable(from.getX(), from.getY(), to.getX(), to.getY());
+	}
+	
+	/**
+	 * Return how the given rectangle of this world is occupied by terrain.
+	 * 
+	 * @param 	minX
+	 * 			The smallest x-coordinate of the rectangle.
+	 * @param 	minY
+	 * 			The smallest y-coordinate of the rectangle.
+	 * @param 	maxX
+	 * 			The largest x-coordinate of the rectangle.
+	 * @param 	maxY
+	 * 			The largest y-coordinate of the rectangle.
+	 * @return	PASSABLE if no pixel touched by the rectangle is impassable and the rectangle lies inside this world. <br>
+	 * 			IMPASSABLE if every pixel touched by the rectangle is impassable. <br>
+	 * 			MIXED otherwise.
+	 */
+	public Occupancy getBoxOccupancy(double minX, double minY, double maxX, double maxY) {
+		boolean solid = minX < 0 || minY < 0 || maxX > getWidth() || maxY > getHeight();
+		int fromColumn = Math.max(0, (int) Math.floor(minX / pixelMapping.getPixelWidth()));
+		int toColumn = Math.min(getAmountOfColums() - 1, (int) Math.floor(maxX / pixelMapping.getPixelWidth()));
+		// Rows are counted from the top of this world down, so the largest y-coordinate gives the first row.
+		int fromRow = Math.max(0, getAmountOfRows() - 1 - (int) Math.floor(maxY / pixelMapping.getPixelHeight()));
+		int toRow = Math.min(getAmountOfRows() - 1, getAmountOfRows() - 1 - (int) Math.floor(minY / pixelMapping.getPixelHeight()));
+		if (fromColumn > toColumn || fromRow > toRow)
+			return getOccupancy(false, solid);
+		int impassable = getOccupancyIndex().countImpassable(fromColumn, fromRow, toColumn + 1, toRow + 1);
+		int pixels = (toColumn + 1 - fromColumn) * (toRow + 1 - fromRow);
+		return getOccupancy(impassable < pixels, solid || impassable > 0);
+	}
+	
+	private static Occupancy addBorder(Occupancy occupancy, boolean crossesBorder) {
+		if (occupancy == null || (crossesBorder && occupancy != Occupancy.IMPASSABLE))
+			return getOccupancy(occupancy != null, true);
+		return occupancy;
+	}
+	
+	private static Occupancy getOccupancy(boolean free, boolean solid) {
+		if (free && solid)
+			return Occupancy.MIXED;
+		if (free)
+			return Occupancy.PASSABLE;
+		return Occupancy.IMPASSABLE;
+	}
+	
+	/**
+	 * Return the occupancy index of the terrain of this world. <br>
+	 * 		The index is built on first use: a summed-area table for terrains up to WorldConstants.SUMMED_AREA_TABLE_PIXEL_LIMIT pixels,
+	 * 		a tiled occupancy table for larger terrains.
+	 */
+	public synchronized OccupancyIndex getOccupancyIndex() {
+		if (occupancyIndex == null) {
+			if ((long) getAmountOfColums() * getAmountOfRows() <= WorldConstants.SUMMED_AREA_TABLE_PIXEL_LIMIT)
+				occupancyIndex = new SummedAreaTable(terrain);
+			else
+				occupancyIndex = new TiledOccupancyTable(terrain, WorldConstants.OCCUPANCY_TILE_SIZE);
+		}
+		return occupancyIndex;
+	}
+	
+	/*
+	 * A variable registering the index counting the impassable pixels of this world, built on first use.
+	 */
+	private OccupancyIndex occupancyIndex;
+	
+	/**
+	 * Return the pyramid of passable, impassable and mixed blocks of the terrain of this world, built on first use.
+	 */
+	public synchronized TerrainPyramid getTerrainPyramid() {
+		if (terrainPyramid == null)
+			terrainPyramid = new TerrainPyramid(terrain, pixelMapping);
+		return terrainPyramid;
+	}
+	
+	/*
+	 * A variable registering the pyramid of blocks of the terrain of this world.
+	 */
+	private TerrainPyramid terrainPyramid;
+	
+	/**
+	 * Return the index of the runs of impassable pixels in every column of the terrain of this world, built on first use.
+	 */
+	public synchronized ColumnSurfaceIndex getColumnSurfaceIndex() {
+		if (columnSurfaceIndex == null)
+			columnSurfaceIndex = new ColumnSurfaceIndex(terrain, pixelMapping);
+		return columnSurfaceIndex;
+	}
+	
+	/*
+	 * A variable registering the index of the runs of impassable pixels in every column of the terrain of this world.
+	 */
+	private ColumnSurfaceIndex columnSurfaceIndex;
+	
+	/**
+	 * Check whether a circle, chosen according to the given radius, around the given position can fall down.
+	 * 
+	 * @param 	position
+	 * 			The centre of the circle.
+	 * @param 	radius
+	 * 			The radius of the circle.
+	 * @return	True if the given position is a passable position and the nearest impassable terrain lies
+	 * 			further than 1.1 times the given radius of the given position. <br>
+	 * 			Everything outside this world counts as impassable terrain. <br>
+	 * 			| isPassablePosition(position) && <br>
+	 * 			| compareDistanceToImpassable(position.getX(), position.getY(), 1.1 * radius) > 0
+	 */
+	public boolean canFall(Position position, double radius) {
+		if (!isPassablePosition(position))
+			return false;
+		return compareDistanceToImpassable(position.getX(), position.getY(), WorldConstants.ADJACENCY_FACTOR * radius) > 0;
+	}
+	
+	/**
+	 * Return the distance a circle, chosen according to the given radius, around the given position falls
+	 * straight down before it rests on impassable terrain or on the bottom of this world.
+	 * 
+	 * @param 	position
+	 * 			The centre of the circle.
+	 * @param 	radius
+	 * 			The radius of the circle.
+	 * @return	The distance between the given position and the highest position straight below it at which
+	 * 			the circle touches an impassable pixel or the bottom of this world, found with a binary search
+	 * 			in every column the circle covers. <br>
+	 * 			| result == position.getY() - <br>
+	 * 			|	Math.max(radius, getColumnSurfaceIndex().getLandingHeight(position.getX(), position.getY(), radius))
+	 * @throws	IllegalStateException
+	 * 			The circle can not fall. <br>
+	 * 			| !canFall(position, radius)
+	 */
+	public double getFallDistance(Position position, double radius) throws IllegalStateException {
+		if (!canFall(position, radius))
+			throw new IllegalStateException();
+		double landing = getColumnSurfaceIndex().getLandingHeight(position.getX(), position.getY(), radius);
+		return position.getY() - Math.max(radius, landing);
+	}
+	
+	/**
+	 * Return the level-of-detail pyramid of the terrain of this world, built on first use unless one has been given.
+	 */
+	public synchronized TerrainDetailPyramid getDetailPyramid() {
+		if (detailPyramid == null)
+			detailPyramid = new TerrainDetailPyramid(terrain, pixelMapping);
+		return detailPyramid;
+	}
+	
+	/*
+	 * A variable registering the downsampled reductions of the terrain of this world.
+	 */
+	private TerrainDetailPyramid detailPyramid;
+	
+	/**
+	 * Return the distance field of the terrain of this world, built on first use unless one has been given,
+	 * or null if this world keeps no distance field. <br>
+	 * 		The field takes 4 bytes for every pixel of this world next to its terrain, and building it reads every
+	 * 		pixel a few times, so a world that is only asked for the occupancy of its terrain never builds it.
+	 * 		A world on a tiled terrain, whose pixels need not fit on the heap, keeps no field at all: its queries
+	 * 		scan the rows of the terrain around the position instead.
+	 */
+	public DistanceField getDistanceField() {
+		DistanceField result = distanceField;
+		if (result == null && keepsDistanceField()) {
+			synchronized (this) {
+				if (distanceField == null)
+					distanceField = new DistanceField(terrain, pixelMapping);
+				result = distanceField;
+			}
+		}
+		return result;
+	}
+	
+	/**
+	 * Check whether this world keeps a distance field of its terrain.
+	 * 
+	 * @return	False if the terrain of this world is a tiled terrain and no distance field was given. <br>
+	 * 			| result == (distanceField != null || !(getTerrain() instanceof TiledTerrain))
+	 */
+	public boolean keepsDistanceField() {
+		return distanceField != null || !(terrain instanceof TiledTerrain);
+	}
+	
+	/*
+	 * A variable registering the distances between the pixels of this world and the nearest (im)passable pixel,
+	 * built on first use. It is volatile, since classifications in parallel read it without locking this world.
+	 */
+	private volatile DistanceField distanceField;
+	
+	/**
+	 * Return the terrain of this world.
+	 */
+	public Terrain getTerrain() {
+		return terrain;
+	}
+	
+	/*
+	 * A variable registering the terrain of passable and not-passable pixels of this world.
+	 */
+	private final Terrain terrain;
+	
+	/**
+	 * Make every pixel whose centre lies in the given disk passable, as an explosion digging a crater.
+	 * 
+	 * @param	position
+	 * 			The centre of the disk.
+	 * @param	radius
+	 * 			The radius of the disk.
+	 * @effect	The pixels of the disk are made passable. <br>
+	 * 			| setPassableInDisk(position, radius, true)
+	 */
+	public void carveDisk(Position position, double radius) throws IllegalArgumentException, IllegalStateException {
+		setPassableInDisk(position, radius, true);
+	}
+	
+	/**
+	 * Make every pixel whose centre lies in the given disk impassable.
+	 * 
+	 * @param	position
+	 * 			The centre of the disk.
+	 * @param	radius
+	 * 			The radius of the disk.
+	 * @effect	The pixels of the disk are made impassable. <br>
+	 * 			| setPassableInDisk(position, radius, false)
+	 */
+	public void fillDisk(Position position, double radius) throws IllegalArgumentException, IllegalStateException {
+		setPassableInDisk(position, radius, false);
+	}
+	
+	/**
+	 * Give every pixel whose centre lies in the given disk the given passability, and bring the
+	 * indexes of this world up to date with the changed rectangle of pixels.
+	 * 
+	 * @param	position
+	 * 			The centre of the disk.
+	 * @param	radius
+	 * 			The radius of the disk.
+	 * @param	passable
+	 * 			Whether the pixels of the disk become passable.
+	 * @post	Every pixel whose centre lies in the disk has the given passability, no other pixel has changed. <br>
+	 * 			| for each column, row : <br>
+	 * 			|	if (hypot(getPixelMapping().getCentreX(column) - position.getX(), getPixelMapping().getCentreY(row) - position.getY()) <= radius) <br>
+	 * 			|	then new.isPassablePixel(column, row) == passable
+	 * @post	If some pixel has been changed, the rectangle around the changed pixels is added to the dirty regions of this world.
+	 * @throws	IllegalArgumentException
+	 * 			The given position is not effective or the given radius is not a valid, non-negative number. <br>
+	 * 			| position == null || !(radius >= 0) || Double.isInfinite(radius)
+	 * @throws	IllegalStateException
+	 * 			The terrain of this world cannot be edited. <br>
+	 * 			| !(getTerrain() instanceof EditableTerrain)
+	 */
+	private synchronized void setPassableInDisk(Position position, double radius, boolean passable)
+			throws IllegalArgumentException, IllegalStateException {
+		if (position == null || !(radius >= 0) || Double.isInfinite(radius))
+			throw new IllegalArgumentException();
+		if (!(terrain instanceof EditableTerrain))
+			throw new IllegalStateException("The terrain of this world cannot be edited.");
+		EditableTerrain editable = (EditableTerrain) terrain;
+		double x = position.getX(), y = position.getY();
+		double pixelWidth = pixelMapping.getPixelWidth();
+		int firstRow = Math.max(0, Math.min(pixelMapping.getRow(y - radius), pixelMapping.getRow(y + radius)) - 1);
+		int lastRow = Math.min(getAmountOfRows() - 1, Math.max(pixelMapping.getRow(y - radius), pixelMapping.getRow(y + radius)) + 1);
+		int fromColumn = getAmountOfColums(), fromRow = getAmountOfRows(), toColumn = 0, toRow = 0;
+		for (int row = firstRow; row <= lastRow; row++) {
+			double dy = pixelMapping.getCentreY(row) - y;
+			if (Math.abs(dy) > radius)
+				continue;
+			double half = Math.sqrt(radius * radius - dy * dy);
+			int from = (int) Math.max(0, Math.ceil((x - half) / pixelWidth - 0.5));
+			int to = (int) Math.min(getAmountOfColums(), Math.floor((x + half) / pixelWidth - 0.5) + 1);
+			if (from >= to)
+				continue;
+			editable.setPassableInRow(row, from, to, passable);
+			fromColumn = Math.min(fromColumn, from);
+			toColumn = Math.max(toColumn, to);
+			fromRow = Math.min(fromRow, row);
+			toRow = Math.max(toRow, row + 1);
+		}
+		if (fromColumn < toColumn && fromRow < toRow)
+			updateIndexes(new TerrainRegion(fromColumn, fromRow, toColumn, toRow));
+	}
+	
+	/**
+	 * Give every pixel that differs between the given terrains the passability it has in the second terrain, and bring
+	 * the indexes of this world up to date with the changed rectangle of pixels. <br>
+	 * 		Pixels that are the same in both terrains are left alone, so a world whose level has been edited keeps its
+	 * 		craters wherever the level itself has not changed. Every row is compared run by run, so rows that have not
+	 * 		changed take a single run of each terrain.
+	 * 
+	 * @param	before
+	 * 			The terrain this world was created from.
+	 * @param	after
+	 * 			The changed version of that terrain.
+	 * @post	Every pixel that differs between the given terrains has the passability it has in the second terrain,
+	 * 			no other pixel has changed. <br>
+	 * 			| for each column, row : <br>
+	 * 			|	if (before.isPassable(column, row) != after.isPassable(column, row)) <br>
+	 * 			|	then new.isPassablePixel(column, row) == after.isPassable(column, row) <br>
+	 * 			|	else new.isPassablePixel(column, row) == isPassablePixel(column, row)
+	 * @post	If some pixel has been changed, the rectangle around the changed pixels is added to the dirty regions of this world.
+	 * @throws	IllegalArgumentException
+	 * 			One of the given terrains is not effective or does not have as many pixels as this world. <br>
+	 * 			| before == null || after == null || <br>
+	 * 			| before.getAmountOfColumns() != getAmountOfColums() || before.getAmountOfRows() != getAmountOfRows() || <br>
+	 * 			| after.getAmountOfColumns() != getAmountOfColums() || after.getAmountOfRows() != getAmountOfRows()
+	 * @throws	IllegalStateException
+	 * 			The terrain of this world cannot be edited. <br>
+	 * 			| !(getTerrain() instanceof EditableTerrain)
+	 */
+	public synchronized void applyTerrainChanges(Terrain before, Terrain after)
+			throws IllegalArgumentException, IllegalStateException {
+		if (before == null || after == null || before.getAmountOfColumns() != getAmountOfColums()
+				|| before.getAmountOfRows() != getAmountOfRows() || after.getAmountOfColumns() != getAmountOfColums()
+				|| after.getAmountOfRows() != getAmountOfRows())
+			throw new IllegalArgumentException();
+		if (!(terrain instanceof EditableTerrain))
+			throw new IllegalStateException("The terrain of this world cannot be edited.");
+		EditableTerrain editable = (EditableTerrain) terrain;
+		int columns = getAmountOfColums();
+		int fromColumn = columns, fromRow = getAmountOfRows(), toColumn = 0, toRow = 0;
+		for (int row = 0; row < getAmountOfRows(); row++) {
+			int from = 0;
+			while (from < columns) {
+				// The run of pixels of the changed terrain starting at from, and the pixels in it that used to differ.
+				boolean passable = after.isPassable(from, row);
+				int to = after.getFirstInRow(row, from, columns, !passable);
+				if (to < 0)
+					to = columns;
+				int changed = before.getFirstInRow(row, from, to, !passable);
+				while (changed >= 0) {
+					int end = before.getFirstInRow(row, changed, to, passable);
+					if (end < 0)
+						end = to;
+					editable.setPassableInRow(row, changed, end, passable);
+					fromColumn = Math.min(fromColumn, changed);
+					toColumn = Math.max(toColumn, end);
+					fromRow = Math.min(fromRow, row);
+					toRow = Math.max(toRow, row + 1);
+					changed = before.getFirstInRow(row, end, to, !passable);
 				}
-				
+				from = to;
+			}
+		}
+		if (fromColumn < toColumn && fromRow < toRow)
+			updateIndexes(new TerrainRegion(fromColumn, fromRow, toColumn, toRow));
+	}
+	
+	/**
+	 * Bring every index of the terrain of this world up to date after the pixels of the given region have changed,
+	 * and register the region as dirty.
+	 */
+	private void updateIndexes(TerrainRegion region) {
+		int fromColumn = region.getFromColumn(), fromRow = region.getFromRow();
+		int toColumn = region.getToColumn(), toRow = region.getToRow();
+		if (distanceField != null)
+			distanceField.update(fromColumn, fromRow, toColumn, toRow);
+		if (occupancyIndex != null)
+			occupancyIndex.update(fromColumn, fromRow, toColumn, toRow);
+		if (terrainPyramid != null)
+			terrainPyramid.update(fromColumn, fromRow, toColumn, toRow);
+		if (detailPyramid != null)
+			detailPyramid.update(fromColumn, fromRow, toColumn, toRow);
+		if (placementIndex != null)
+			placementIndex.update(fromColumn, fromRow, toColumn, toRow);
+		if (columnSurfaceIndex != null)
+			columnSurfaceIndex.update(fromColumn, fromRow, toColumn, toRow);
+		terrainVersion++;
+		if (dirtyRegions.size() >= WorldConstants.DIRTY_REGION_LIMIT) {
+			// Nobody is collecting the regions one by one; keep a single region around all of them.
+			TerrainRegion union = region;
+			for (TerrainRegion dirty : dirtyRegions)
+				union = union.union(dirty);
+			dirtyRegions.clear();
+			region = union;
+		}
+		dirtyRegions.add(region);
+	}
+	
+	/**
+	 * Return the regions of pixels that have changed since the dirty regions of this world were last taken,
+	 * and forget them.
+	 * 
+	 * @return	A list of regions covering every pixel whose passability has changed since the last call,
+	 * 			in the order in which they have changed.
+	 * @post	This world has no dirty regions. <br>
+	 * 			| new.takeDirtyRegions().isEmpty()
+	 */
+	public synchronized List<TerrainRegion> takeDirtyRegions() {
+		List<TerrainRegion> taken = new ArrayList<TerrainRegion>(dirtyRegions);
+		dirtyRegions.clear();
+		return taken;
+	}
+	
+	/*
+	 * A list registering the regions of pixels that have changed since they were last taken.
+	 */
+	private final List<TerrainRegion> dirtyRegions = new ArrayList<TerrainRegion>();
+	
+	/**
+	 * Return the version of the terrain of this world, which changes whenever the terrain is edited.
+	 */
+	public int getTerrainVersion() {
+		return terrainVersion;
+	}
+	
+	/*
+	 * A variable registering the amount of times the terrain of this world has changed.
+	 */
+	private volatile int terrainVersion;
+	
+	/**
+	 * Advance the simulation of this world by the given amount of real time. <br>
+	 * 		The time is added to an accumulator, and the simulation moves on in ticks of WorldConstants.SIMULATION_TICK
+	 * 		as long as the accumulator holds a whole tick. Everything the simulation does happens on a tick, and depends
+	 * 		only on the amount of ticks since it started, so a world ends up in exactly the same state for the same
+	 * 		commands on the same ticks, however the real time is cut into steps. What is left in the accumulator
+	 * 		only serves to show motions between ticks.
+	 * 
+	 * @param	dt
+	 * 			The amount of real time to advance the simulation by.
+	 * @return	The amount of ticks the simulation has advanced.
+	 * @effect	The jumps that have lasted their landing time are completed, in the order in which they were started. <br>
+	 * 			| for each tick : for each worm in jumping worms : <br>
+	 * 			|	if (tick - startTick) * WorldConstants.SIMULATION_TICK >= worm.jumpTime(timeStep) <br>
+	 * 			|	then worm.jump(timeStep)
+	 * @throws	IllegalArgumentException
+	 * 			The given time is not a valid, non-negative number. <br>
+	 * 			| !(dt >= 0) || Double.isInfinite(dt)
+	 */
+	public synchronized int step(double dt) throws IllegalArgumentException {
+		if (!(dt >= 0) || Double.isInfinite(dt))
+			throw new IllegalArgumentException();
+		accumulator += dt;
+		int ticks = 0;
+		while (accumulator >= WorldConstants.SIMULATION_TICK) {
+			accumulator -= WorldConstants.SIMULATION_TICK;
+			tick();
+			ticks++;
+		}
+		return ticks;
+	}
+	
+	/**
+	 * Advance the simulation of this world by a single tick, completing the jumps that have lasted their landing time.
+	 */
+	private void tick() {
+		amountOfTicks++;
+		Iterator<Flight> iterator = flights.iterator();
+		while (iterator.hasNext()) {
+			Flight flight = iterator.next();
+			if (flight.getElapsedTime(amountOfTicks, 0) >= flight.worm.jumpTime(flight.timeStep)) {
+				iterator.remove();
+				flight.worm.jump(flight.timeStep);
 			}
-			
 		}
+	}
+	
+	/**
+	 * Return the amount of ticks the simulation of this world has advanced.
+	 */
+	public synchronized long getAmountOfTicks() {
+		return amountOfTicks;
+	}
+	
+	/**
+	 * Return the time the simulation of this world has advanced.
+	 * 
+	 * @return	| getAmountOfTicks() * WorldConstants.SIMULATION_TICK
+	 */
+	public synchronized double getSimulationTime() {
+		return amountOfTicks * WorldConstants.SIMULATION_TICK;
+	}
+	
+	/**
+	 * Return how far the real time has come between the last tick of the simulation of this world and the next one.
+	 * 
+	 * @return	A number between 0, inclusive, and 1, exclusive.
+	 */
+	public synchronized double getInterpolation() {
+		return accumulator / WorldConstants.SIMULATION_TICK;
+	}
+	
+	/**
+	 * Start a jump of the given worm, which the simulation of this world completes once it has lasted its landing time.
+	 * 
+	 * @param	worm
+	 * 			The worm that jumps.
+	 * @param	timeStep
+	 * 			The time step with which the landing time is found.
+	 * @post	| new.isJumping(worm)
+	 * @throws	IllegalArgumentException
+	 * 			This world does not have the given worm. <br>
+	 * 			| !hasAsWorm(worm)
+	 * @throws	IllegalStateException
+	 * 			The given worm is already jumping, or it can not jump. <br>
+	 * 			| isJumping(worm) || !worm.canJump()
+	 */
+	public synchronized void startJump(Worm worm, double timeStep) throws IllegalArgumentException, IllegalStateException {
+		if (!hasAsWorm(worm))
+			throw new IllegalArgumentException();
+		if (isJumping(worm))
+			throw new IllegalStateException();
+		worm.getTrajectory(timeStep);
+		flights.add(new Flight(worm, timeStep, amountOfTicks));
+	}
+	
+	/**
+	 * Check whether the given worm is jumping in the simulation of this world.
+	 * 
+	 * @param	worm
+	 * 			The worm to check.
+	 */
+	public synchronized boolean isJumping(Worm worm) {
+		return getFlight(worm) != null;
+	}
+	
+	/**
+	 * Check whether nothing is moving in the simulation of this world.
+	 */
+	public synchronized boolean isIdle() {
+		return flights.isEmpty();
+	}
+	
+	/**
+	 * Return the position at which the given worm is shown at the current real time. <br>
+	 * 		A jumping worm is shown on its parabola, between the last tick and the next one as far as the real time
+	 * 		has come, but never past its landing position; any other worm is shown at its position.
+	 * 
+	 * @param	worm
+	 * 			The worm to be shown.
+	 * @return	| if (isJumping(worm)) <br>
+	 * 			|	then result == worm.jumpStep(min(elapsed time + getInterpolation() * WorldConstants.SIMULATION_TICK, worm.jumpTime(timeStep))) <br>
+	 * 			|	else result == worm.getPosition()
+	 */
+	public synchronized Position getInterpolatedPosition(Worm worm) {
+		Flight flight = getFlight(worm);
+		if (flight == null)
+			return worm.getPosition();
+		double elapsed = flight.getElapsedTime(amountOfTicks, getInterpolation());
+		return worm.jumpStep(Math.min(elapsed, worm.jumpTime(flight.timeStep)));
+	}
+	
+	private Flight getFlight(Worm worm) {
+		for (Flight flight : flights)
+			if (flight.worm == worm)
+				return flight;
+		return null;
+	}
+	
+	/**
+	 * A class of jumps in progress in the simulation of a world.
+	 */
+	private static class Flight {
+		
+		private Flight(Worm worm, double timeStep, long startTick) {
+			this.worm = worm;
+			this.timeStep = timeStep;
+			this.startTick = startTick;
+		}
+		
+		/**
+		 * Return the time this jump has lasted at the given tick, and the given fraction of the next one.
+		 */
+		private double getElapsedTime(long tick, double fraction) {
+			return (tick - startTick + fraction) * WorldConstants.SIMULATION_TICK;
+		}
+		
+		private final Worm worm;
+		
+		private final double timeStep;
+		
+		private final long startTick;
 		
-		return false;
 	}
 	
 	/*
-	 * A 2 dimensional matrix of booleans registering a map of passable and not-passable locations of this world. <br>
+	 * A list registering the jumps in progress in the simulation of this world, in the order in which they were started.
+	 */
+	private final List<Flight> flights = new ArrayList<Flight>();
+	
+	/*
+	 * A variable registering the amount of ticks the simulation of this world has advanced.
+	 */
+	private long amountOfTicks;
+	
+	/*
+	 * A variable registering the real time that has not been simulated yet, less than a tick.
 	 */
-	private boolean[][] passableMap;
+	private double accumulator;
 	
 	/**
 	 * Check whether the given dimension is a valid dimension or not.
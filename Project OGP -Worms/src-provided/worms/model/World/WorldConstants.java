@@ -11,6 +11,34 @@ public class WorldConstants {
 
 	public final static double GRAVITATIONAL_CONSTANT = 9.08665;
 	
+	public final static int SUMMED_AREA_TABLE_PIXEL_LIMIT = 1 << 23;
+	
+	public final static int OCCUPANCY_TILE_SIZE = 64;
+	
+	public final static int PYRAMID_BLOCK_SIZE = 8;
+	
+	public final static int CLASSIFICATION_BATCH_SIZE = 4096;
+	
+	public final static int DIRTY_REGION_LIMIT = 64;
+	
+	public final static double INTERVAL_TERRAIN_MAXIMAL_RATIO = 0.5;
+	
+	public final static int DETAIL_MAXIMAL_BLOCK_SIZE = 64;
+	
+	public final static double DETAIL_QUERY_TOLERANCE_RATIO = 0.25;
+	
+	public final static double ADJACENCY_FACTOR = 1.1;
+	
+	public final static int DISTANCE_FIELD_BOUND = 64;
+	
+	public final static double PLACEMENT_RADIUS_CLASS_RATIO = 1.25;
+	
+	public final static int PLACEMENT_ATTEMPTS = 1000;
+	
+	public final static int STENCIL_CACHE_CAPACITY = 64;
+	
+	public final static double SIMULATION_TICK = 1. / 64;
+	
 	private WorldConstants() {
 		
 	}
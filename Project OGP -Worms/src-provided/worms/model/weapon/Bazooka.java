@@ -1,6 +1,7 @@
 package worms.model.weapon;
 
 import worms.model.Position;
+import worms.model.World.World;
 import worms.model.worm.Worm;
 
 public class Bazooka extends Weapon {
@@ -9,9 +10,23 @@ public class Bazooka extends Weapon {
 		super(orientation, position, worm);
 	}
 	
-	public void shoot(int propulsion, double timeStep) {
-		this.projectile = new BazookaProjectile(propulsion, orientation, position, getForce(propulsion), worm.getWorld());
-		projectile.jump(timeStep);
+	@Override
+	public String getName() {
+		return "Bazooka";
+	}
+	
+	@Override
+	public int getActionPointsCost() {
+		return ProjectileConstants.BAZOOKA_PROJECTILE_ACTIONPOINTS_COST;
+	}
+	
+	/**
+	 * Return a new bazooka projectile, shot with a force that grows with the given propulsion yield.
+	 */
+	@Override
+	public Projectile createProjectile(int propulsion, double orientation, Position position, World world) {
+		this.projectile = new BazookaProjectile(propulsion, orientation, position, getForce(propulsion), world);
+		return projectile;
 	}
 	
 	public double getForce(int propulsion) {
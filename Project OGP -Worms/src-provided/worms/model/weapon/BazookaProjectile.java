@@ -12,4 +12,33 @@ public class BazookaProjectile extends Projectile {
 		hitPointsReduction = ProjectileConstants.BAZOOKA_PROJECTILE_HITPOINTS_REDUCTION;
 	}
 	
+	/**
+	 * Return the radius of the crater this projectile digs where it lands.
+	 */
+	public double getCraterRadius() {
+		return ProjectileConstants.BAZOOKA_CRATER_RADIUS;
+	}
+	
+	/**
+	 * Hit what this projectile flew into, and dig a crater where it landed.
+	 * 
+	 * @effect	| super.hit(impact)
+	 * @effect	| explode()
+	 */
+	@Override
+	protected void hit(Impact impact) {
+		super.hit(impact);
+		explode();
+	}
+	
+	/**
+	 * Dig a crater around the position of this projectile.
+	 * 
+	 * @effect	The terrain of the world of this projectile is carved around its position. <br>
+	 * 			| world.carveDisk(getPosition(), getCraterRadius())
+	 */
+	public void explode() {
+		world.carveDisk(getPosition(), getCraterRadius());
+	}
+	
 }
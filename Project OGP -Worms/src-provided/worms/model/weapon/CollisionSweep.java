@@ -0,0 +1,164 @@
+package worms.model.weapon;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import worms.model.Position;
+import worms.model.World.World;
+import worms.model.World.WorldConstants;
+import worms.model.worm.Worm;
+
+/**
+ * A class of continuous collision checks, sweeping the circle of a projectile along its ballistic path
+ * against the terrain, the worms and the edge of a world. <br>
+ * The sweep advances conservatively: the distance between the projectile and the nearest thing it can hit
+ * changes at most as fast as the projectile moves, so it can never pass through terrain or a worm, however
+ * fast it flies, and it stops within ProjectileConstants.CONTACT_TOLERANCE of the first contact. <br>
+ * Before sweeping, the worms are culled against the bounding box of the whole path, so a shot only ever
+ * measures its distance to the few worms near its path.
+ *
+ * @author Ruben
+ */
+public class CollisionSweep {
+
+	/**
+	 * Initialize this new collision sweep for the given world.
+	 *
+	 * @param	world
+	 * 			The world to sweep projectiles through.
+	 * @post	| new.getWorld() == world
+	 * @throws	IllegalArgumentException
+	 * 			The given world is not effective. <br>
+	 * 			| world == null
+	 */
+	public CollisionSweep(World world) throws IllegalArgumentException {
+		if (world == null)
+			throw new IllegalArgumentException();
+		this.world = world;
+	}
+
+	/**
+	 * Return the world of this collision sweep.
+	 */
+	public World getWorld() {
+		return world;
+	}
+
+	/**
+	 * Return the first impact of a projectile with the given radius that starts at the given position
+	 * with the given velocity. <br>
+	 * Worms that the projectile overlaps at its start, such as the worm that shoots it, are not hit.
+	 *
+	 * @param	start
+	 * 			The position at which the projectile starts.
+	 * @param	vx
+	 * 			The initial horizontal velocity of the projectile.
+	 * @param	vy
+	 * 			The initial vertical velocity of the projectile.
+	 * @param	radius
+	 * 			The radius of the projectile.
+	 * @return	The earliest time at which the projectile comes within ProjectileConstants.CONTACT_TOLERANCE of
+	 * 			impassable terrain, of a worm it did not overlap at its start, or of the edge of the world,
+	 * 			with its position at that time and what it hits there. <br>
+	 * 			Where it comes that close to several of them at once, the edge of the world comes first,
+	 * 			then terrain, then worms.
+	 */
+	public Impact sweep(Position start, double vx, double vy, double radius) {
+		double x0 = start.getX();
+		double y0 = start.getY();
+		double g = WorldConstants.GRAVITATIONAL_CONSTANT;
+		List<Worm> candidates = getCandidates(x0, y0, vx, vy, radius);
+		lastAmountOfCandidates = candidates.size();
+		lastAmountOfSteps = 0;
+		double slack = 4 * world.getPixelMapping().getHalfDiagonal();
+		double t = 0;
+		while (true) {
+			lastAmountOfSteps++;
+			double x = x0 + vx * t;
+			double y = y0 + vy * t - g * t * t / 2;
+			double edge = Math.min(Math.min(x, world.getWidth() - x), Math.min(y, world.getHeight() - y)) - radius;
+			if (edge <= ProjectileConstants.CONTACT_TOLERANCE)
+				return new Impact(t, new Position(x, y), ImpactKind.WORLD_EDGE, null);
+			// The distance to impassable terrain counts the edge as well, but the edge is farther.
+			double terrain = world.getLowerBoundToImpassable(x, y) - radius;
+			if (terrain < slack)
+				terrain = world.getDistanceToImpassable(x, y) - radius;
+			if (terrain <= ProjectileConstants.CONTACT_TOLERANCE)
+				return new Impact(t, new Position(x, y), ImpactKind.TERRAIN, null);
+			double clearance = terrain;
+			for (Worm worm : candidates) {
+				double gap = Math.hypot(x - worm.getX(), y - worm.getY()) - worm.getRadius() - radius;
+				if (gap <= ProjectileConstants.CONTACT_TOLERANCE)
+					return new Impact(t, new Position(x, y), ImpactKind.WORM, worm);
+				clearance = Math.min(clearance, gap);
+			}
+			clearance = Math.min(clearance, edge);
+			// After a time s the projectile has moved at most v * s + g * s^2 / 2, with v its speed at time t.
+			double speed = Math.hypot(vx, vy - g * t);
+			t += 2 * clearance / (speed + Math.sqrt(speed * speed + 2 * g * clearance));
+		}
+	}
+
+	/**
+	 * Return the worms of the world of this sweep that a projectile with the given radius, starting at the
+	 * given position with the given velocity, can hit before it leaves the world. <br>
+	 * The path is bounded by a box from its start to the time it falls below the bottom of the world,
+	 * including its top if it rises; worms whose circle does not reach that box, widened by the radius of
+	 * the projectile, and worms the projectile overlaps at its start are left out.
+	 */
+	private List<Worm> getCandidates(double x0, double y0, double vx, double vy, double radius) {
+		double g = WorldConstants.GRAVITATIONAL_CONSTANT;
+		// The projectile is below the world once y0 + vy * t - g * t^2 / 2 < -radius.
+		double end = (vy + Math.sqrt(vy * vy + 2 * g * (y0 + radius))) / g;
+		if (vx != 0)
+			end = Math.min(end, ((vx > 0) ? world.getWidth() + radius - x0 : -radius - x0) / vx);
+		double x1 = x0 + vx * end;
+		double y1 = y0 + vy * end - g * end * end / 2;
+		double top = Math.max(y0, y1);
+		if (vy > 0 && vy / g < end)
+			top = y0 + vy * vy / (2 * g);
+		double left = Math.min(x0, x1) - radius;
+		double right = Math.max(x0, x1) + radius;
+		double bottom = Math.min(y0, y1) - radius;
+		top += radius;
+		List<Worm> result = new ArrayList<Worm>();
+		for (Worm worm : world.getAllWorms()) {
+			double x = worm.getX();
+			double y = worm.getY();
+			double reach = worm.getRadius();
+			if (Math.hypot(x - x0, y - y0) < reach + radius)
+				continue;
+			double dx = Math.max(0, Math.max(left - x, x - right));
+			double dy = Math.max(0, Math.max(bottom - y, y - top));
+			if (dx * dx + dy * dy <= reach * reach)
+				result.add(worm);
+		}
+		return result;
+	}
+
+	/**
+	 * Return the amount of worms that were measured against during the last sweep.
+	 */
+	public int getLastAmountOfCandidates() {
+		return lastAmountOfCandidates;
+	}
+
+	/**
+	 * Return the amount of steps the last sweep took.
+	 */
+	public int getLastAmountOfSteps() {
+		return lastAmountOfSteps;
+	}
+
+	/*
+	 * A variable registering the world of this collision sweep.
+	 */
+	private final World world;
+
+	/*
+	 * Variables registering the amount of candidate worms and steps of the last sweep.
+	 */
+	private int lastAmountOfCandidates;
+	private int lastAmountOfSteps;
+
+}
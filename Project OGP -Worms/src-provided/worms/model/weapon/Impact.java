@@ -0,0 +1,93 @@
+package worms.model.weapon;
+
+import worms.model.Position;
+import worms.model.worm.Worm;
+import be.kuleuven.cs.som.annotate.*;
+
+/**
+ * A class of impacts, registering when and where a projectile hits something, and what it hits.
+ * 
+ * @author Ruben
+ */
+@Value
+public class Impact {
+
+	/**
+	 * Initialize this new impact with the given time, position, kind and worm.
+	 * 
+	 * @param	time
+	 * 			The time after the start of the flight at which the projectile hits.
+	 * @param	position
+	 * 			The position of the centre of the projectile when it hits.
+	 * @param	kind
+	 * 			What the projectile hits.
+	 * @param	worm
+	 * 			The worm the projectile hits, if it hits a worm.
+	 * @post	| new.getTime() == time && new.getKind() == kind && new.getWorm() == worm
+	 * @post	| new.getPosition().getX() == position.getX() && new.getPosition().getY() == position.getY()
+	 * @throws	IllegalArgumentException
+	 * 			A worm is given if and only if the kind is not WORM. <br>
+	 * 			| (kind == ImpactKind.WORM) != (worm != null)
+	 */
+	public Impact(double time, Position position, ImpactKind kind, Worm worm) throws IllegalArgumentException {
+		if ((kind == ImpactKind.WORM) != (worm != null))
+			throw new IllegalArgumentException();
+		this.time = time;
+		this.position = position.clone();
+		this.kind = kind;
+		this.worm = worm;
+	}
+
+	/**
+	 * Return the time after the start of the flight at which the projectile hits.
+	 */
+	@Basic @Immutable
+	public double getTime() {
+		return time;
+	}
+
+	/**
+	 * Return the position of the centre of the projectile when it hits.
+	 */
+	@Basic @Immutable
+	public Position getPosition() {
+		return position.clone();
+	}
+
+	/**
+	 * Return what the projectile hits.
+	 */
+	@Basic @Immutable
+	public ImpactKind getKind() {
+		return kind;
+	}
+
+	/**
+	 * Return the worm the projectile hits, or null if it hits no worm.
+	 */
+	@Basic @Immutable
+	public Worm getWorm() {
+		return worm;
+	}
+
+	/*
+	 * A variable registering the time at which the projectile hits.
+	 */
+	private final double time;
+
+	/*
+	 * A variable registering the position of the projectile when it hits.
+	 */
+	private final Position position;
+
+	/*
+	 * A variable registering what the projectile hits.
+	 */
+	private final ImpactKind kind;
+
+	/*
+	 * A variable registering the worm the projectile hits.
+	 */
+	private final Worm worm;
+
+}
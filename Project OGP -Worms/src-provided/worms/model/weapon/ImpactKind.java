@@ -0,0 +1,11 @@
+package worms.model.weapon;
+
+/**
+ * An enumeration of the things a projectile can hit: impassable terrain, a worm, or the edge of its world,
+ * through which it leaves the world.
+ * 
+ * @author Ruben
+ */
+public enum ImpactKind {
+	TERRAIN, WORM, WORLD_EDGE
+}
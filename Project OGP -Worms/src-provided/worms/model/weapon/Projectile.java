@@ -9,6 +9,7 @@ public class Projectile {
 
 	public Projectile(int propulsion, double orientation, Position position, double force, World world) {
 		this.propulsion = propulsion;
+		this.orientation = orientation;
 		this.world = world;
 		setPosition(position);
 		this.force = force;
@@ -76,24 +77,102 @@ public class Projectile {
 		return (getForce() / getMass()) * ProjectileConstants.TIME_OF_EXERTING_PROJECTILE_FORCE;
 	}
 	
-	public void jump(double timeStep) {
-		Position newPosition = jumpStep(jumpTime(timeStep));
-		setPosition(newPosition);
+	/**
+	 * Move this projectile to where its flight ends, hit what it flew into there and end its flight.
+	 * 
+	 * @param	timeStep
+	 * 			The elementary time interval of the flight, which the sweep does not need.
+	 * @effect	This projectile is moved to the position of its impact. <br>
+	 * 			| setPosition(getImpact().getPosition())
+	 * @effect	This projectile hits what it flew into. <br>
+	 * 			| hit(getImpact())
+	 * @effect	This projectile is terminated. <br>
+	 * 			| terminate()
+	 * @throws	IllegalStateException
+	 * 			This projectile is terminated. <br>
+	 * 			| isTerminated()
+	 */
+	public void jump(double timeStep) throws IllegalStateException {
+		if (isTerminated())
+			throw new IllegalStateException();
+		Impact impact = getImpact();
+		setPosition(impact.getPosition());
+		hit(impact);
+		terminate();
+	}
+	
+	/**
+	 * Hit what this projectile flew into at the given impact.
+	 * 
+	 * @param	impact
+	 * 			The impact of this projectile.
+	 * @effect	If the projectile hits a worm, that worm loses the hit points of this projectile. <br>
+	 * 			| if (impact.getWorm() != null) <br>
+	 * 			|	then impact.getWorm().reduceHitPoints(getHitPointsReduction())
+	 */
+	protected void hit(Impact impact) {
+		if (impact.getWorm() != null)
+			impact.getWorm().reduceHitPoints(getHitPointsReduction());
+	}
+	
+	/**
+	 * Check whether this projectile is terminated.
+	 */
+	public boolean isTerminated() {
+		return isTerminated;
 	}
 	
+	/**
+	 * Terminate this projectile.
+	 * 
+	 * @post	| new.isTerminated()
+	 * @post	This projectile is no longer the active projectile of its world. <br>
+	 * 			| world.getActiveProjectile() != this
+	 */
+	public void terminate() {
+		isTerminated = true;
+		if (world != null && world.getActiveProjectile() == this)
+			world.setActiveProjectile(null);
+	}
+	
+	/*
+	 * A variable registering whether this projectile is terminated.
+	 */
+	private boolean isTerminated = false;
+	
+	/**
+	 * Return the time this projectile flies before it hits something.
+	 * 
+	 * @param	timeStep
+	 * 			The elementary time interval of the flight, which the sweep does not need.
+	 * @return	| getImpact().getTime()
+	 */
 	public double jumpTime(double timeStep) {
-		
-		double t = 0.;
-		Position currentPosition = jumpStep(t);
-		
-		while (!world.isAdjacentToImpassableTerrain(getPosition(), getRadius())) {
-			t += timeStep;
-			currentPosition = jumpStep(t);
-		}
-		
-		return t;
+		return getImpact().getTime();
+	}
+	
+	/**
+	 * Return the first impact of this projectile along its flight from its current position: the time
+	 * it hits terrain, a worm other than the one it is shot from, or the edge of its world. <br>
+	 * 		The flight is swept once for every position of this projectile, so asking for the time of a flight
+	 * 		and then making it costs a single sweep. Nothing else moves in the world while a projectile flies.
+	 * 
+	 * @return	| new CollisionSweep(world).sweep(getPosition(), getInitialHorizontalVelocity(),
+	 * 			|	getInitialVerticalVelocity(), getRadius())
+	 */
+	public Impact getImpact() {
+		if (impact == null)
+			impact = new CollisionSweep(world).sweep(getPosition(), getInitialHorizontalVelocity(),
+					getInitialVerticalVelocity(), getRadius());
+		return impact;
 	}
 	
+	/*
+	 * A variable registering the first impact of this projectile from its current position,
+	 * or null if it has not been swept yet.
+	 */
+	private Impact impact;
+	
 	public Position jumpStep(double t) {
 		Position jumpStep = new Position(getNewXAfterTime(t), getNewYAfterTime(t));
 		return jumpStep;
@@ -117,6 +196,7 @@ public class Projectile {
 	
 	private void setPosition(Position position) {
 		this.position = position;
+		this.impact = null;
 	}
 	
 	public Position getPosition() {
@@ -23,6 +23,10 @@ public class ProjectileConstants {
 	
 	public static final int BAZOOKA_PROJECTILE_ACTIONPOINTS_COST = 50;
 	
+	public static final double BAZOOKA_CRATER_RADIUS = 1.0;
+	
+	public static final double CONTACT_TOLERANCE = 1e-6;
+	
 	private ProjectileConstants() {
 		
 	}
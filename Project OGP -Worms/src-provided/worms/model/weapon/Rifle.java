@@ -1,6 +1,7 @@
 package worms.model.weapon;
 
 import worms.model.Position;
+import worms.model.World.World;
 import worms.model.worm.Worm;
 
 public class Rifle extends Weapon {
@@ -9,9 +10,23 @@ public class Rifle extends Weapon {
 		super(orientation, position, worm);
 	}
 	
-	public void shoot(double timeStep) {
-		this.projectile = new RifleProjectile(0, orientation, position, getForce(), worm.getWorld());
-		projectile.jump(timeStep);
+	@Override
+	public String getName() {
+		return "Rifle";
+	}
+	
+	@Override
+	public int getActionPointsCost() {
+		return ProjectileConstants.RIFLE_PROJECTILE_ACTIONPOINTS_COST;
+	}
+	
+	/**
+	 * Return a new rifle projectile, which is shot with the same force whatever the given propulsion yield.
+	 */
+	@Override
+	public Projectile createProjectile(int propulsion, double orientation, Position position, World world) {
+		this.projectile = new RifleProjectile(0, orientation, position, getForce(), world);
+		return projectile;
 	}
 
 	public double getForce() {
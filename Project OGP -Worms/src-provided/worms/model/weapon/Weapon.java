@@ -1,12 +1,46 @@
 package worms.model.weapon;
 
 import worms.model.Position;
+import worms.model.World.World;
 import worms.model.worm.Worm;
 
 public class Weapon {
 
 	public Weapon (double orientation, Position position, Worm worm) {
-		
+		this.orientation = orientation;
+		this.position = position;
+		this.worm = worm;
+	}
+	
+	/**
+	 * Return the name of this weapon.
+	 */
+	public String getName() {
+		return "Weapon";
+	}
+	
+	/**
+	 * Return the amount of action points it costs to shoot this weapon.
+	 */
+	public int getActionPointsCost() {
+		return 0;
+	}
+	
+	/**
+	 * Return a new projectile of this weapon, shot with the given propulsion yield in the given direction
+	 * from the given position in the given world.
+	 * 
+	 * @param	propulsion
+	 * 			The propulsion yield the projectile is shot with.
+	 * @param	orientation
+	 * 			The direction in which the projectile is shot.
+	 * @param	position
+	 * 			The position from which the projectile is shot.
+	 * @param	world
+	 * 			The world in which the projectile flies.
+	 */
+	public Projectile createProjectile(int propulsion, double orientation, Position position, World world) {
+		return new Projectile(propulsion, orientation, position, 0, world);
 	}
 	
 	public boolean isTerminated() {
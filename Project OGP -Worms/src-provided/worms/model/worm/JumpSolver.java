@@ -0,0 +1,123 @@
+package worms.model.worm;
+
+import worms.model.Position;
+import worms.model.World.World;
+import worms.model.World.WorldConstants;
+
+/**
+ * An enumeration of the ways in which the time a worm needs to land after a jump can be found. <br>
+ * FIXED_STEP follows the parabola of the jump in steps of the given time step, and is kept as the reference.
+ * ADAPTIVE takes steps as long as the distance bounds of the world allow: the distance to the nearest terrain
+ * changes at most as fast as the worm moves, so no landing spot can be passed while the worm moves less than
+ * its clearance. Only where the clearance gives no such bound does it take a step of the given time step,
+ * and a step that reaches a landing spot is bisected to the first landing time within
+ * WormConstants.JUMP_TIME_TOLERANCE.
+ *
+ * @author Ruben
+ */
+public enum JumpSolver {
+
+	FIXED_STEP {
+
+		@Override
+		public double getJumpTime(Worm worm, double timeStep) {
+			World world = worm.getWorld();
+			double t = 0.;
+			Position currentPosition = worm.jumpStep(t);
+			while (!worm.canLandAt(currentPosition) && world.isInMap(currentPosition, worm.getRadius())) {
+				t += timeStep;
+				currentPosition = worm.jumpStep(t);
+			}
+			return t;
+		}
+
+	},
+
+	ADAPTIVE {
+
+		@Override
+		public double getJumpTime(Worm worm, double timeStep) {
+			double t = 0.;
+			while (!hasLanded(worm, t)) {
+				double step = getClearStep(worm, t);
+				if (step >= timeStep) {
+					t += step;
+					continue;
+				}
+				if (!hasLanded(worm, t + timeStep)) {
+					t += timeStep;
+					continue;
+				}
+				// The worm lands within this step: bisect to the first time it does.
+				double low = t;
+				double high = t + timeStep;
+				while (high - low > WormConstants.JUMP_TIME_TOLERANCE) {
+					double middle = (low + high) / 2;
+					if (hasLanded(worm, middle))
+						high = middle;
+					else
+						low = middle;
+				}
+				return high;
+			}
+			return t;
+		}
+
+	};
+
+	/**
+	 * Return the time the given worm needs to land after a jump in its direction.
+	 *
+	 * @param	worm
+	 * 			The worm that jumps.
+	 * @param	timeStep
+	 * 			The time step along the parabola of the jump.
+	 * @return	A time at which the given worm can land, or at which it has left the map of its world. <br>
+	 * 			| !worm.getWorld().isInMap(worm.jumpStep(result), worm.getRadius()) || worm.canLandAt(worm.jumpStep(result))
+	 * @throws	IllegalStateException
+	 * 			The given worm can not jump. <br>
+	 * 			| !worm.canJump()
+	 */
+	public abstract double getJumpTime(Worm worm, double timeStep) throws IllegalStateException;
+
+	/**
+	 * Check whether the jump of the given worm ends at the given time.
+	 */
+	private static boolean hasLanded(Worm worm, double t) {
+		Position position = worm.jumpStep(t);
+		return !worm.getWorld().isInMap(position, worm.getRadius()) || worm.canLandAt(position);
+	}
+
+	/**
+	 * Return how long the given worm can go on jumping from the given time without being able to land
+	 * and without leaving the map of its world, or 0 if no such time follows from the distance bounds of the world. <br>
+	 * The worm can not land where the nearest terrain is farther than WorldConstants.ADJACENCY_FACTOR times its radius,
+	 * or nearer than its radius, or within its radius from where it started; these distances, like the distance to
+	 * the edge of the world, change at most as fast as the worm moves.
+	 */
+	private static double getClearStep(Worm worm, double t) {
+		Position position = worm.jumpStep(t);
+		double x = position.getX();
+		double y = position.getY();
+		double radius = worm.getRadius();
+		World world = worm.getWorld();
+		double reach = WorldConstants.ADJACENCY_FACTOR * radius;
+		double clearance = Math.max(world.getLowerBoundToImpassable(x, y) - reach, radius - world.getUpperBoundToImpassable(x, y));
+		if (clearance <= 0) {
+			// The bounds of the field are a pixel wide; near the terrain only the exact distance gives a step.
+			double distance = world.getDistanceToImpassable(x, y);
+			clearance = Math.max(distance - reach, radius - distance);
+		}
+		clearance = Math.max(clearance, radius - position.getDistanceFrom(worm.getPosition()));
+		clearance = Math.min(clearance, Math.min(Math.min(x, world.getWidth() - x), Math.min(y, world.getHeight() - y)) - radius);
+		if (clearance <= 0)
+			return 0;
+		// After a time s the worm has moved at most v * s + g * s^2 / 2, with v its speed at the given time.
+		double vx = worm.getInitialHorizontalVelocity();
+		double vy = worm.getInitialVerticalVelocity() - WorldConstants.GRAVITATIONAL_CONSTANT * t;
+		double speed = Math.sqrt(vx * vx + vy * vy);
+		double g = WorldConstants.GRAVITATIONAL_CONSTANT;
+		return 2 * clearance / (speed + Math.sqrt(speed * speed + 2 * g * clearance));
+	}
+
+}
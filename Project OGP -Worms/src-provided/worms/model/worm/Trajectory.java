@@ -0,0 +1,142 @@
+package worms.model.worm;
+
+import java.util.Arrays;
+
+import worms.model.Position;
+import be.kuleuven.cs.som.annotate.*;
+
+/**
+ * A class of jump trajectories, holding the time a worm needs to land after a jump and the positions
+ * along its parabola at evenly spaced times. <br>
+ * The parabola is sampled at least every WormConstants.TRAJECTORY_SAMPLE_INTERVAL seconds, and the last
+ * sample is the landing position.
+ *
+ * @author Ruben
+ */
+@Value
+public class Trajectory {
+
+	/**
+	 * Initialize this new trajectory as the jump of the given worm that lands after the given time.
+	 *
+	 * @param	worm
+	 * 			The worm that jumps.
+	 * @param	landingTime
+	 * 			The time the given worm needs to land.
+	 * @param	timeStep
+	 * 			The time step with which the landing time was found.
+	 * @post	The landing time and time step of this new trajectory are the given ones. <br>
+	 * 			| new.getLandingTime() == landingTime && new.getTimeStep() == timeStep
+	 * @post	The samples of this new trajectory lie on the jump of the given worm at evenly spaced times. <br>
+	 * 			| new.getAmountOfSamples() == 1 + (int) (landingTime / WormConstants.TRAJECTORY_SAMPLE_INTERVAL) && <br>
+	 * 			| for each i in 0..new.getAmountOfSamples()-1 : <br>
+	 * 			|	new.getSampleTime(i) == (i + 1) * landingTime / new.getAmountOfSamples() && <br>
+	 * 			|	new.getSampleX(i) == worm.jumpStep(new.getSampleTime(i)).getX() && <br>
+	 * 			|	new.getSampleY(i) == worm.jumpStep(new.getSampleTime(i)).getY()
+	 * @throws	IllegalStateException
+	 * 			The given worm can not jump. <br>
+	 * 			| !worm.canJump()
+	 */
+	public Trajectory(Worm worm, double landingTime, double timeStep) throws IllegalStateException {
+		this.landingTime = landingTime;
+		this.timeStep = timeStep;
+		int amount = 1 + (int) (landingTime / WormConstants.TRAJECTORY_SAMPLE_INTERVAL);
+		this.xs = new double[amount];
+		this.ys = new double[amount];
+		for (int i = 0; i < amount; i++) {
+			Position position = worm.jumpStep((i + 1) * landingTime / amount);
+			xs[i] = position.getX();
+			ys[i] = position.getY();
+		}
+	}
+
+	/**
+	 * Return the time the worm of this trajectory needs to land.
+	 */
+	@Basic @Immutable
+	public double getLandingTime() {
+		return landingTime;
+	}
+
+	/**
+	 * Return the time step with which the landing time of this trajectory was found.
+	 */
+	@Basic @Immutable
+	public double getTimeStep() {
+		return timeStep;
+	}
+
+	/**
+	 * Return the amount of samples of this trajectory.
+	 */
+	@Basic @Immutable
+	public int getAmountOfSamples() {
+		return xs.length;
+	}
+
+	/**
+	 * Return the time after the start of the jump at which the given sample of this trajectory lies.
+	 *
+	 * @param	index
+	 * 			The index of the sample.
+	 * @return	| (index + 1) * getLandingTime() / getAmountOfSamples()
+	 */
+	public double getSampleTime(int index) {
+		return (index + 1) * landingTime / xs.length;
+	}
+
+	/**
+	 * Return the x-coordinate of the given sample of this trajectory.
+	 *
+	 * @param	index
+	 * 			The index of the sample.
+	 */
+	@Basic @Immutable
+	public double getSampleX(int index) {
+		return xs[index];
+	}
+
+	/**
+	 * Return the y-coordinate of the given sample of this trajectory.
+	 *
+	 * @param	index
+	 * 			The index of the sample.
+	 */
+	@Basic @Immutable
+	public double getSampleY(int index) {
+		return ys[index];
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		if (!(other instanceof Trajectory))
+			return false;
+		Trajectory trajectory = (Trajectory) other;
+		return Double.compare(landingTime, trajectory.getLandingTime()) == 0
+				&& Double.compare(timeStep, trajectory.getTimeStep()) == 0
+				&& Arrays.equals(xs, trajectory.xs) && Arrays.equals(ys, trajectory.ys);
+	}
+
+	@Override
+	public int hashCode() {
+		return ((Double.valueOf(landingTime).hashCode() * 31 + Double.valueOf(timeStep).hashCode()) * 31
+				+ Arrays.hashCode(xs)) * 31 + Arrays.hashCode(ys);
+	}
+
+	/*
+	 * A variable registering the time the worm of this trajectory needs to land.
+	 */
+	private final double landingTime;
+
+	/*
+	 * A variable registering the time step with which the landing time was found.
+	 */
+	private final double timeStep;
+
+	/*
+	 * Arrays registering the coordinates of the samples of this trajectory.
+	 */
+	private final double[] xs;
+	private final double[] ys;
+
+}
@@ -102,6 +102,7 @@ public class Worm {
 			throw new IllegalArgumentException();
 		
 		position.setX(xCoordinate);
+		stateVersion++;
 	}
 	
 	/**
@@ -129,6 +130,7 @@ public class Worm {
 			throw new IllegalArgumentException();
 		
 		position.setY(yCoordinate);
+		stateVersion++;
 	}
 	
 	/**
@@ -169,14 +171,28 @@ public class Worm {
 	}
 	
 	/**
-	 * Do a single step in the direction of this worm.
+	 * Do a single step in the direction of this worm. <br>
+	 * 		In a world, the worm looks for the farthest spot it can reach along its direction, diverging from it
+	 * 		by at most WormConstants.MAXIMAL_MOVE_DIVERGENCE, where it is passable and adjacent to impassable terrain.
+	 * 		Among spots at the same distance, the one closest to its direction is taken. If there is no such spot,
+	 * 		or the worm is not in a world, it steps its radius straight ahead, from where it may fall.
 	 * 
-	 * @post	The given worm has been moved one step in its direction. <br>
-	 * 			| new.getX() == getX() + cos(direction) * radius && <br>
+	 * @post	If this worm is in a world with a spot as described above, this worm stands on that spot. <br>
+	 * 			| if (getWorld() != null && findStepTarget() != null) <br>
+	 * 			|	then new.getPosition().equals(findStepTarget())
+	 * @post	Otherwise, the given worm has been moved one step in its direction. <br>
+	 * 			| else new.getX() == getX() + cos(direction) * radius && <br>
 	 * 			| new.getY() == getY() + sin(direction) * radius 
 	 */
 	private void doSingleStep() {
 		
+		Position target = (getWorld() == null) ? null : findStepTarget();
+		if (target != null) {
+			setX(target.getX());
+			setY(target.getY());
+			return;
+		}
+		
 		double horizontalDistance, verticalDistance;
 
 		horizontalDistance = Math.cos(direction) * radius;
@@ -187,6 +203,39 @@ public class Worm {
 
 	}
 	
+	/**
+	 * Return the farthest spot at most a radius away in about the direction of this worm where it is passable
+	 * and adjacent to impassable terrain, or null if there is no such spot. <br>
+	 * 		Distances are tried from the radius of this worm down to WormConstants.MINIMAL_MOVE_DISTANCE,
+	 * 		and for every distance the divergences from the direction of this worm in steps of
+	 * 		WormConstants.MOVE_DIVERGENCE_STEP, alternately to either side. <br>
+	 * 		The same spot is found ray by ray: every ray is only searched for distances farther than the best spot
+	 * 		so far, and a spot that is not adjacent skips the distances the world rules out around it.
+	 * 		A ray through open air or through terrain is thus settled in a few checks instead of one per distance.
+	 */
+	private Position findStepTarget() {
+		int divergences = (int) Math.round(WormConstants.MAXIMAL_MOVE_DIVERGENCE / WormConstants.MOVE_DIVERGENCE_STEP);
+		int distances = (int) Math.round((getRadius() - WormConstants.MINIMAL_MOVE_DISTANCE) / WormConstants.MOVE_DISTANCE_STEP);
+		Position target = null;
+		int best = distances + 1;
+		for (int divergence = 0; divergence <= divergences; divergence++)
+			for (int side = 1; side >= ((divergence == 0) ? 1 : -1); side -= 2) {
+				double angle = getDirection() + side * divergence * WormConstants.MOVE_DIVERGENCE_STEP;
+				for (int i = 0; i < best; ) {
+					double distance = getRadius() - i * WormConstants.MOVE_DISTANCE_STEP;
+					Position candidate = new Position(getX() + distance * Math.cos(angle), getY() + distance * Math.sin(angle));
+					if (getWorld().isAdjacentToImpassableTerrain(candidate, getRadius())) {
+						target = candidate;
+						best = i;
+						break;
+					}
+					double skip = getWorld().getDistanceToAdjacency(candidate, getRadius()) / WormConstants.MOVE_DISTANCE_STEP;
+					i += Math.max(1, (int) Math.ceil(skip - 1e-9));
+				}
+			}
+		return target;
+	}
+	
 	/**
 	 * Get the cost to move this worm over the given number of steps.
 	 * 
@@ -221,6 +270,92 @@ public class Worm {
 		setCurrentActionPoints(currentActionPoints - cost);
 	}
 	
+	/**
+	 * Check whether this worm can fall down.
+	 * 
+	 * @return	True if this worm is in a world and is not adjacent to impassable terrain there. <br>
+	 * 			| getWorld() != null && getWorld().canFall(getPosition(), getRadius())
+	 */
+	public boolean canFall() {
+		return world != null && world.canFall(getPosition(), radius);
+	}
+	
+	/**
+	 * Make this worm fall down until it rests on impassable terrain or on the bottom of its world,
+	 * and subtract the damage of the fall.
+	 * 
+	 * @post	This worm has fallen straight down over the fall distance of its world. <br>
+	 * 			| new.getX() == getX() && <br>
+	 * 			| new.getY() == getY() - getWorld().getFallDistance(getPosition(), getRadius())
+	 * @post	This worm has lost WormConstants.FALL_DAMAGE_PER_METRE hit points for every metre it has fallen,
+	 * 			but no more than it had. <br>
+	 * 			| new.getCurrentHitPoints() == Math.max(0, getCurrentHitPoints() - <br>
+	 * 			|	(int) (WormConstants.FALL_DAMAGE_PER_METRE * getWorld().getFallDistance(getPosition(), getRadius())))
+	 * @throws	IllegalStateException
+	 * 			This worm can not fall. <br>
+	 * 			| !canFall()
+	 */
+	public void fall() throws IllegalStateException {
+		if (!canFall())
+			throw new IllegalStateException();
+		double distance = world.getFallDistance(getPosition(), radius);
+		setY(getY() - distance);
+		reduceHitPoints((int) (WormConstants.FALL_DAMAGE_PER_METRE * distance));
+	}
+	
+	/**
+	 * Check whether this worm can shoot its current weapon with the given propulsion yield.
+	 * 
+	 * @param	yield
+	 * 			The propulsion yield to be checked.
+	 * @return	True if and only if this worm is in a world in which no projectile is flying, the given yield
+	 * 			lies between 0 and 100, and this worm has the action points its current weapon costs. <br>
+	 * 			| getWorld() != null && getWorld().getActiveProjectile() == null && yield >= 0 && yield <= 100 && <br>
+	 * 			| getCurrentActionPoints() >= getCurrentWeapon().getActionPointsCost()
+	 */
+	public boolean canShoot(int yield) {
+		if (world == null || world.getActiveProjectile() != null)
+			return false;
+		if (yield < 0 || yield > 100)
+			return false;
+		return getCurrentActionPoints() >= currentWeapon.getActionPointsCost();
+	}
+	
+	/**
+	 * Shoot the current weapon of this worm in its direction with the given propulsion yield. <br>
+	 * 		The projectile starts on the edge of this worm and becomes the flying projectile of its world.
+	 * 
+	 * @param	yield
+	 * 			The propulsion yield to shoot with.
+	 * @return	The new projectile, which is the active projectile of the world of this worm. <br>
+	 * 			| getWorld().getActiveProjectile() == result
+	 * @post	This worm has paid the action points its current weapon costs. <br>
+	 * 			| new.getCurrentActionPoints() == getCurrentActionPoints() - getCurrentWeapon().getActionPointsCost()
+	 * @throws	IllegalStateException
+	 * 			This worm can not shoot with the given yield. <br>
+	 * 			| !canShoot(yield)
+	 */
+	public Projectile shoot(int yield) throws IllegalStateException {
+		if (!canShoot(yield))
+			throw new IllegalStateException();
+		Position start = new Position(getX() + Math.cos(direction) * radius, getY() + Math.sin(direction) * radius);
+		Projectile projectile = currentWeapon.createProjectile(yield, direction, start, world);
+		setCurrentActionPoints(getCurrentActionPoints() - currentWeapon.getActionPointsCost());
+		world.setActiveProjectile(projectile);
+		return projectile;
+	}
+	
+	/**
+	 * Reduce the hit points of this worm by the given amount, but not below zero.
+	 * 
+	 * @param	damage
+	 * 			The amount of hit points this worm loses.
+	 * @post	| new.getCurrentHitPoints() == Math.max(0, getCurrentHitPoints() - damage)
+	 */
+	public void reduceHitPoints(int damage) {
+		setCurrentHitPoints(Math.max(0, getCurrentHitPoints() - damage));
+	}
+	
 	/**
 	 * Make this worm jump in it's direction.
 	 * 
@@ -248,23 +383,104 @@ public class Worm {
 	/**
 	 * Get the jump time of this worm.
 	 * 
-	 * @return	The time it takes for this worm to complete a jump in its direction. <br>
-	 * 			| jumpDistance() / ( getInitialJumpVelocity() * cos(direction))
+	 * @param	timeStep
+	 * 			The time step along the parabola of the jump.
+	 * @return	The time it takes for this worm to complete a jump in its direction, found by the adaptive solver. <br>
+	 * 			| getTrajectory(timeStep).getLandingTime()
+	 * @throws	IllegalStateException
+	 * 			This worm can not jump. <br>
+	 * 			| !canJump()
 	 */
 	public double jumpTime(double timeStep) throws IllegalStateException{
+		return getTrajectory(timeStep).getLandingTime();
+	}
+	
+	/**
+	 * Return the trajectory of a jump of this worm in its direction. <br>
+	 * The trajectory is kept until the position, direction, action points, radius or world of this worm
+	 * or the terrain of its world change, so that drawing and starting a jump do not find the landing time again.
+	 * 
+	 * @param	timeStep
+	 * 			The time step along the parabola of the jump.
+	 * @return	A trajectory with the landing time found by the adaptive solver. <br>
+	 * 			| result.getLandingTime() == jumpTime(timeStep, JumpSolver.ADAPTIVE) && result.getTimeStep() == timeStep
+	 * @throws	IllegalStateException
+	 * 			This worm can not jump. <br>
+	 * 			| !canJump()
+	 */
+	public Trajectory getTrajectory(double timeStep) throws IllegalStateException{
 		if (!canJump())
 			throw new IllegalStateException();
 		
-		double t = 0.;
-		Position currentPosition = jumpStep(t);
-			
-		while (!canLandAt(currentPosition) && world.isInMap(currentPosition, getRadius())) {
-			t+= timeStep;
-			currentPosition = jumpStep(t);
+		int terrainVersion = getWorld().getTerrainVersion();
+		if (trajectory != null && trajectory.getTimeStep() == timeStep
+				&& trajectoryStateVersion == stateVersion && trajectoryTerrainVersion == terrainVersion) {
+			trajectoryHits++;
+			return trajectory;
 		}
-			
-		return t;
+		trajectoryMisses++;
+		trajectory = new Trajectory(this, jumpTime(timeStep, JumpSolver.ADAPTIVE), timeStep);
+		trajectoryStateVersion = stateVersion;
+		trajectoryTerrainVersion = terrainVersion;
+		return trajectory;
+	}
+	
+	/**
+	 * Return the amount of times the trajectory of this worm was asked for and had not changed.
+	 */
+	public long getAmountOfTrajectoryHits() {
+		return trajectoryHits;
+	}
+	
+	/**
+	 * Return the amount of times the trajectory of this worm was asked for and had to be found again.
+	 */
+	public long getAmountOfTrajectoryMisses() {
+		return trajectoryMisses;
+	}
+	
+	/*
+	 * A variable registering the version of the state of this worm that a jump depends on,
+	 * which changes with its position, direction, action points, radius and world.
+	 */
+	private int stateVersion;
+	
+	/*
+	 * A variable registering the last trajectory of this worm.
+	 */
+	private Trajectory trajectory;
+	
+	/*
+	 * Variables registering the versions of the state of this worm and the terrain of its world
+	 * for which the last trajectory was found.
+	 */
+	private int trajectoryStateVersion;
+	private int trajectoryTerrainVersion;
+	
+	/*
+	 * Variables registering the amount of times the trajectory was and was not kept.
+	 */
+	private long trajectoryHits;
+	private long trajectoryMisses;
+	
+	/**
+	 * Get the jump time of this worm, found by the given solver.
+	 * 
+	 * @param	timeStep
+	 * 			The time step along the parabola of the jump.
+	 * @param	solver
+	 * 			The solver to find the landing time with.
+	 * @return	The time it takes for this worm to complete a jump in its direction. <br>
+	 * 			| solver.getJumpTime(this, timeStep)
+	 * @throws	IllegalStateException
+	 * 			This worm can not jump. <br>
+	 * 			| !canJump()
+	 */
+	public double jumpTime(double timeStep, JumpSolver solver) throws IllegalStateException{
+		if (!canJump())
+			throw new IllegalStateException();
 		
+		return solver.getJumpTime(this, timeStep);
 	}
 	
 	/**
@@ -432,6 +648,7 @@ public class Worm {
 	private void setDirection(double direction) {
 		assert isValidNumber(direction);
 		this.direction = getDirectionInBounds(direction);
+		stateVersion++;
 	}
 	
 	/**
@@ -548,6 +765,7 @@ public class Worm {
 		
 		this.radius = radius;
 		setMass();
+		stateVersion++;
 	}
 	
 	/**
@@ -754,8 +972,10 @@ public class Worm {
 	 * 			| new.getActionPoints() == actionPoints
 	 */
 	private void setCurrentActionPoints(int actionPoints) {
-		if ((actionPoints >= 0) && (actionPoints <= maxActionPoints))
+		if ((actionPoints >= 0) && (actionPoints <= maxActionPoints)) {
 			currentActionPoints = actionPoints;
+			stateVersion++;
+		}
 	}
 	
 	/**
@@ -908,6 +1128,7 @@ public class Worm {
 		if (!world.hasAsWorm(this))
 			throw new IllegalArgumentException();
 		this.world = world;
+		stateVersion++;
 	}
 	
 	/*
@@ -1018,9 +1239,16 @@ public class Worm {
 	public void selectNextWeapon() {
 		int index = getWeaponIndex(currentWeapon);
 		index++;
-		if (index > getNbWeapons())
+		if (index >= getNbWeapons())
 			index = 0;
-		currentWeapon = getWeaponAt(index);
+		currentWeapon = weapons.get(index);
+	}
+	
+	/**
+	 * Return the name of the weapon this worm currently has selected.
+	 */
+	public String getCurrentWeaponName() {
+		return currentWeapon.getName();
 	}
 	
 	/**
@@ -10,6 +10,22 @@ public final class WormConstants {
 	
 	public final static double DENSITY = 1062;
 	
+	public final static double JUMP_TIME_TOLERANCE = 1e-6;
+	
+	public final static double TRAJECTORY_SAMPLE_INTERVAL = 0.1;
+	
+	public final static int FALL_DAMAGE_PER_METRE = 3;
+	
+	public final static double MOVE_DIVERGENCE_STEP = 0.0175;
+	
+	public final static double MAXIMAL_MOVE_DIVERGENCE = 0.7875;
+	
+	public final static double MOVE_DISTANCE_STEP = 0.01;
+	
+	public final static double MINIMAL_MOVE_DISTANCE = 0.1;
+	
+	public final static double NEW_WORM_RADIUS = 0.5;
+	
 	private WormConstants() {
 		
 	}
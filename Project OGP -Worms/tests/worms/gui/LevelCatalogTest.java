@@ -0,0 +1,107 @@
+package worms.gui;
+
+import static org.junit.Assert.*;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.ImageIO;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class LevelCatalogTest {
+
+	private File directory;
+
+	@Before
+	public void setup() throws IOException {
+		directory = File.createTempFile("levels", "");
+		directory.delete();
+		directory.mkdir();
+		directory.deleteOnExit();
+		writeLevel("Wide", 900, 300);
+		writeLevel("Tall", 200, 600);
+	}
+
+	private void writeLevel(String name, int width, int height) throws IOException {
+		BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+		for (int column = 0; column < width; column++)
+			image.setRGB(column, height - 1, 0xff000000 | column);
+		File map = new File(directory, name + ".png");
+		ImageIO.write(image, "png", map);
+		File level = new File(directory, name + ".lvl");
+		FileWriter writer = new FileWriter(level);
+		writer.write("map:" + name + ".png\nheight:20\n");
+		writer.close();
+		map.deleteOnExit();
+		level.deleteOnExit();
+		new File(directory, name + LevelCatalog.THUMBNAIL_FILE_EXTENSION).deleteOnExit();
+	}
+
+	private static LevelCatalog.Entry awaitReady(LevelCatalog catalog, String name) throws InterruptedException {
+		catalog.getLevels();
+		for (int i = 0; i < 2000 && !allReady(catalog); i++)
+			Thread.sleep(10);
+		for (LevelCatalog.Entry entry : catalog.getEntries())
+			if (entry.getLevel().getName().equals(name))
+				return entry;
+		return null;
+	}
+
+	private static boolean allReady(LevelCatalog catalog) {
+		for (LevelCatalog.Entry entry : catalog.getEntries())
+			if (!entry.isReady())
+				return false;
+		return true;
+	}
+
+	@Test
+	public void testThumbnails() throws InterruptedException {
+		LevelCatalog catalog = new LevelCatalog(directory);
+		final CountDownLatch latch = new CountDownLatch(2);
+		catalog.addListener(new LevelCatalog.Listener() {
+
+			@Override
+			public void entryReady(LevelCatalog.Entry entry) {
+				latch.countDown();
+			}
+		});
+		Level[] levels = catalog.getLevels();
+		assertEquals(2, levels.length);
+		assertEquals("Tall", levels[0].getName());
+		assertEquals(new File(directory, "Tall.png"), levels[0].getMapFile());
+		assertTrue(latch.await(20, TimeUnit.SECONDS));
+		LevelCatalog.Entry wide = awaitReady(catalog, "Wide");
+		assertEquals(900, wide.getMapWidth());
+		assertEquals(300, wide.getMapHeight());
+		assertEquals(GUIConstants.THUMBNAIL_WIDTH, wide.getThumbnail().getWidth());
+		assertTrue(wide.getThumbnailFile().isFile());
+		LevelCatalog.Entry tall = awaitReady(catalog, "Tall");
+		assertEquals(GUIConstants.THUMBNAIL_HEIGHT, tall.getThumbnail().getHeight());
+	}
+
+	@Test
+	public void testThumbnailFileIsReused() throws InterruptedException {
+		awaitReady(new LevelCatalog(directory), "Wide");
+		File file = new File(directory, "Wide" + LevelCatalog.THUMBNAIL_FILE_EXTENSION);
+		assertTrue(file.setLastModified(1000));
+		LevelCatalog.Entry entry = awaitReady(new LevelCatalog(directory), "Wide");
+		assertEquals(900, entry.getMapWidth());
+		assertEquals(1000, file.lastModified());
+	}
+
+	@Test
+	public void testChangedMapIsThumbnailedAgain() throws InterruptedException, IOException {
+		awaitReady(new LevelCatalog(directory), "Wide");
+		writeLevel("Wide", 640, 480);
+		LevelCatalog.Entry entry = awaitReady(new LevelCatalog(directory), "Wide");
+		assertEquals(640, entry.getMapWidth());
+		assertEquals(480, entry.getMapHeight());
+	}
+
+}
@@ -0,0 +1,153 @@
+package worms.gui;
+
+import static org.junit.Assert.*;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import javax.imageio.ImageIO;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class LevelWatcherTest {
+
+	private File directory;
+
+	private LevelCache cache;
+
+	private LevelCatalog catalog;
+
+	private LevelWatcher watcher;
+
+	@Before
+	public void setup() throws IOException {
+		directory = File.createTempFile("levels", "");
+		directory.delete();
+		directory.mkdir();
+		writeLevel("Cave", 0);
+		writeLevel("Hill", 0);
+		cache = new LevelCache(LevelCache.DEFAULT_BUDGET);
+		catalog = new LevelCatalog(directory);
+		watcher = new LevelWatcher(directory, catalog, cache);
+	}
+
+	/**
+	 * Write a level of 64 by 32 pixels whose bottom rows are solid, from the
+	 * given row on.
+	 */
+	private void writeLevel(String name, int solidRows) throws IOException {
+		BufferedImage image = new BufferedImage(64, 32,
+				BufferedImage.TYPE_INT_ARGB);
+		for (int row = 32 - solidRows; row < 32; row++)
+			for (int column = 0; column < 64; column++)
+				image.setRGB(column, row, 0xff000000);
+		File map = new File(directory, name + ".png");
+		ImageIO.write(image, "png", map);
+		File level = new File(directory, name + ".lvl");
+		if (!level.exists()) {
+			FileWriter writer = new FileWriter(level);
+			writer.write("map:" + name + ".png\nheight:8\n");
+			writer.close();
+		}
+		// Make sure the change is visible to the cache, whatever the
+		// resolution of the file system clock.
+		map.setLastModified(System.currentTimeMillis() + 2000L * solidRows);
+	}
+
+	/**
+	 * Delete the levels, their thumbnails and the directory holding them.
+	 * The directory is flat, so its files can be deleted one by one.
+	 */
+	private void deleteDirectory() {
+		File[] files = directory.listFiles();
+		if (files != null)
+			for (File file : files)
+				file.delete();
+		directory.delete();
+	}
+
+	private Level getLevel(String name) {
+		return new Level(new File(directory, name + ".lvl"));
+	}
+
+	@Test
+	public void testOnlyCachedChangedLevelsAreRebuilt() throws IOException {
+		try {
+			LevelCache.Entry cave = cache.get(getLevel("Cave"));
+			LevelCache.Entry hill = cache.get(getLevel("Hill"));
+			assertFalse(cave.getSnapshot().getTerrain().hasImpassableInRow(31, 0, 64));
+			writeLevel("Cave", 4);
+			List<LevelCache.Entry> reloaded = watcher.reload(new HashSet<String>(
+					Arrays.asList("Cave.png")));
+			assertEquals(1, reloaded.size());
+			LevelCache.Entry entry = reloaded.get(0);
+			assertEquals("Cave", entry.getLevel().getName());
+			assertNotSame(cave, entry);
+			assertEquals(64, entry.getSnapshot().getTerrain().countImpassableInRow(31, 0, 64));
+			assertTrue(entry.getSnapshot().getTerrain().isPassable(0, 27));
+			assertEquals(2, cache.getAmountOfEntries());
+			assertSame(hill, cache.get(getLevel("Hill")));
+			assertSame(entry, cache.get(getLevel("Cave")));
+			assertEquals(1, watcher.getAmountOfReloads());
+		} finally {
+			deleteDirectory();
+		}
+	}
+
+	@Test
+	public void testStaleEntryIsReplaced() throws IOException {
+		try {
+			LevelCache.Entry cave = cache.get(getLevel("Cave"));
+			long used = cache.getUsedBytes();
+			writeLevel("Cave", 4);
+			LevelCache.Entry entry = cache.get(getLevel("Cave"));
+			assertNotSame(cave, entry);
+			assertEquals(64, entry.getSnapshot().getTerrain().countImpassableInRow(31, 0, 64));
+			assertEquals(1, cache.getAmountOfEntries());
+			assertEquals(2, cache.getMisses());
+			assertEquals(used, cache.getUsedBytes());
+		} finally {
+			deleteDirectory();
+		}
+	}
+
+	@Test
+	public void testUncachedAndUnrelatedChanges() throws IOException {
+		try {
+			writeLevel("Hill", 2);
+			assertTrue(watcher.reload(new HashSet<String>(Arrays.asList("Hill.png"))).isEmpty());
+			assertEquals(0, cache.getAmountOfEntries());
+			assertTrue(watcher.reload(new HashSet<String>(Arrays.asList("Hill.lvlt"))).isEmpty());
+			assertEquals(1, watcher.getAmountOfReloads());
+			assertEquals(2, catalog.getLevels().length);
+		} finally {
+			deleteDirectory();
+		}
+	}
+
+	@Test
+	public void testChangeIsPickedUp() throws IOException, InterruptedException {
+		try {
+			cache.get(getLevel("Hill"));
+			watcher.start();
+			writeLevel("Hill", 8);
+			for (int i = 0; i < 1000 && watcher.getAmountOfReloads() == 0; i++)
+				Thread.sleep(10);
+			assertTrue(watcher.getAmountOfReloads() > 0);
+			// The cache was rebuilt by the watcher, not by this lookup.
+			long misses = cache.getMisses();
+			assertFalse(cache.get(getLevel("Hill")).getSnapshot().getTerrain().isPassable(0, 31));
+			assertEquals(misses, cache.getMisses());
+		} finally {
+			watcher.stop();
+			deleteDirectory();
+		}
+	}
+
+}
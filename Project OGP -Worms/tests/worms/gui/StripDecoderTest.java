@@ -0,0 +1,61 @@
+package worms.gui;
+
+import static org.junit.Assert.*;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+import javax.imageio.ImageIO;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import worms.model.World.MaskPacker;
+import worms.model.World.PackedTerrain;
+
+public class StripDecoderTest {
+
+	private BufferedImage image;
+
+	private File file;
+
+	@Before
+	public void setup() throws IOException {
+		Random random = new Random(4417);
+		image = new BufferedImage(301, 97, BufferedImage.TYPE_4BYTE_ABGR);
+		for (int row = 0; row < image.getHeight(); row++)
+			for (int column = 0; column < image.getWidth(); column++)
+				image.setRGB(column, row, (random.nextInt(256) << 24) | random.nextInt(1 << 24));
+		file = File.createTempFile("strips", ".png");
+		file.deleteOnExit();
+		ImageIO.write(image, "png", file);
+	}
+
+	@Test
+	public void testDecodeTerrain() throws IOException {
+		PackedTerrain expected = TerrainExtractor.extract(image, MaskPacker.SWAR);
+		// strips of 1, 8 and all rows
+		for (long bytes : new long[] { 1, 8 * 4 * 301, 1 << 20 }) {
+			PackedTerrain terrain = new StripDecoder(file, bytes).decodeTerrain(MaskPacker.SWAR);
+			assertEquals(301, terrain.getAmountOfColumns());
+			assertEquals(97, terrain.getAmountOfRows());
+			for (int row = 0; row < 97; row++)
+				for (int index = 0; index < terrain.getWordsPerRow(); index++)
+					assertEquals(expected.getWord(row, index), terrain.getWord(row, index));
+		}
+	}
+
+	@Test
+	public void testDecodeDisplayImage() throws IOException {
+		StripDecoder decoder = new StripDecoder(file);
+		assertEquals(301, decoder.getSize().width);
+		assertEquals(97, decoder.getSize().height);
+		BufferedImage display = decoder.decodeDisplayImage(100, 30);
+		assertEquals(101, display.getWidth());
+		assertEquals(33, display.getHeight());
+		assertEquals(image.getRGB(3, 6), display.getRGB(1, 2));
+	}
+
+}
@@ -0,0 +1,111 @@
+package worms.gui;
+
+import static org.junit.Assert.*;
+
+import java.awt.Transparency;
+import java.awt.color.ColorSpace;
+import java.awt.image.BufferedImage;
+import java.awt.image.ComponentColorModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.IndexColorModel;
+import java.awt.image.WritableRaster;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import worms.model.World.MaskPacker;
+import worms.model.World.PackedTerrain;
+
+public class TerrainExtractorTest {
+
+	private Random random;
+
+	private int[] alphas;
+
+	@Before
+	public void setup() {
+		random = new Random(1123);
+		alphas = new int[] { 0, 0x0f, 0x10, 0x7f, 0x80, 0xff };
+	}
+
+	private void assertExtracted(BufferedImage image) {
+		for (MaskPacker packer : MaskPacker.values())
+			for (boolean parallel : new boolean[] { false, true }) {
+				PackedTerrain terrain = new TerrainExtractor(image, packer).extract(parallel);
+				for (int row = 0; row < image.getHeight(); row++)
+					for (int column = 0; column < image.getWidth(); column++)
+						assertEquals(((image.getRGB(column, row) >>> 24) & 0xF0) == 0, terrain.isPassable(column, row));
+			}
+	}
+
+	private BufferedImage randomImage(int type) {
+		BufferedImage image = new BufferedImage(173, 150, type);
+		for (int row = 0; row < image.getHeight(); row++)
+			for (int column = 0; column < image.getWidth(); column++)
+				image.setRGB(column, row, (alphas[random.nextInt(alphas.length)] << 24) | random.nextInt(1 << 24));
+		return image;
+	}
+
+	@Test
+	public void testFourByteAbgr() {
+		assertExtracted(randomImage(BufferedImage.TYPE_4BYTE_ABGR));
+	}
+
+	@Test
+	public void testIntArgb() {
+		assertExtracted(randomImage(BufferedImage.TYPE_INT_ARGB));
+	}
+
+	@Test
+	public void testSubimage() {
+		assertExtracted(randomImage(BufferedImage.TYPE_4BYTE_ABGR).getSubimage(13, 7, 130, 120));
+		assertExtracted(randomImage(BufferedImage.TYPE_INT_ARGB).getSubimage(64, 1, 70, 140));
+	}
+
+	@Test
+	public void testIndexedWithAlpha() {
+		byte[] reds = new byte[16], greens = new byte[16], blues = new byte[16], alpha = new byte[16];
+		for (int index = 0; index < 16; index++)
+			alpha[index] = (byte) alphas[index % alphas.length];
+		IndexColorModel colors = new IndexColorModel(4, 16, reds, greens, blues, alpha);
+		for (int type : new int[] { BufferedImage.TYPE_BYTE_INDEXED, BufferedImage.TYPE_BYTE_BINARY }) {
+			BufferedImage image = new BufferedImage(173, 150, type, colors);
+			WritableRaster raster = image.getRaster();
+			for (int row = 0; row < image.getHeight(); row++)
+				for (int column = 0; column < image.getWidth(); column++)
+					raster.setSample(column, row, 0, random.nextInt(16));
+			assertExtracted(image);
+		}
+	}
+
+	@Test
+	public void testGrayAlpha() {
+		for (int dataType : new int[] { DataBuffer.TYPE_BYTE, DataBuffer.TYPE_USHORT }) {
+			ComponentColorModel colors = new ComponentColorModel(ColorSpace.getInstance(ColorSpace.CS_GRAY), true, false,
+					Transparency.TRANSLUCENT, dataType);
+			WritableRaster raster = colors.createCompatibleWritableRaster(173, 150);
+			int maximum = (dataType == DataBuffer.TYPE_BYTE) ? 0xff : 0xffff;
+			for (int row = 0; row < raster.getHeight(); row++)
+				for (int column = 0; column < raster.getWidth(); column++) {
+					raster.setSample(column, row, 0, random.nextInt(maximum + 1));
+					raster.setSample(column, row, 1, random.nextInt(maximum + 1));
+				}
+			assertExtracted(new BufferedImage(colors, raster, false, null));
+		}
+	}
+
+	@Test
+	public void testOpaqueImage() {
+		PackedTerrain terrain = TerrainExtractor.extract(randomImage(BufferedImage.TYPE_INT_RGB), MaskPacker.SWAR);
+		assertEquals(173 * 150, countImpassable(terrain));
+	}
+
+	private static int countImpassable(PackedTerrain terrain) {
+		int count = 0;
+		for (int row = 0; row < terrain.getAmountOfRows(); row++)
+			count += terrain.countImpassableInRow(row, 0, terrain.getAmountOfColumns());
+		return count;
+	}
+
+}
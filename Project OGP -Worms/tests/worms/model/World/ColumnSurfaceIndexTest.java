@@ -0,0 +1,100 @@
+package worms.model.World;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import worms.model.Position;
+import worms.model.worm.Worm;
+import worms.model.worm.WormConstants;
+
+public class ColumnSurfaceIndexTest {
+
+	private Random random;
+
+	private World world;
+
+	@Before
+	public void setup() {
+		random = new Random(2525);
+		// A floor and a ceiling of a metre with blobs of terrain in between.
+		boolean[][] passableMap = new boolean[60][80];
+		for (int row = 0; row < passableMap.length; row++)
+			for (int column = 0; column < passableMap[row].length; column++)
+				passableMap[row][column] = row >= 10 && row < 50;
+		world = new World(8.0, 6.0, passableMap, new Random(5));
+		for (int i = 0; i < 12; i++)
+			world.fillDisk(new Position(random.nextDouble() * 8, random.nextDouble() * 6), 0.2 + random.nextDouble() * 0.6);
+	}
+
+	private void assertMatchesTerrain(ColumnSurfaceIndex index) {
+		Terrain terrain = index.getTerrain();
+		for (int column = 0; column < terrain.getAmountOfColumns(); column++) {
+			int expected = -1;
+			for (int row = terrain.getAmountOfRows() - 1; row >= 0; row--) {
+				if (!terrain.isPassable(column, row))
+					expected = row;
+				assertEquals(expected, index.getImpassableAtOrBelow(column, row));
+			}
+		}
+	}
+
+	@Test
+	public void testRunsFollowEdits() {
+		ColumnSurfaceIndex index = world.getColumnSurfaceIndex();
+		assertMatchesTerrain(index);
+		for (int i = 0; i < 30; i++) {
+			Position position = new Position(random.nextDouble() * 8, random.nextDouble() * 6);
+			if (random.nextBoolean())
+				world.carveDisk(position, 0.1 + random.nextDouble() * 0.8);
+			else
+				world.fillDisk(position, 0.1 + random.nextDouble() * 0.8);
+			assertMatchesTerrain(index);
+		}
+	}
+
+	@Test
+	public void testLandingTouchesTerrain() {
+		DistanceField field = world.getDistanceField();
+		int falls = 0;
+		for (int i = 0; i < 2000; i++) {
+			Position start = new Position(random.nextDouble() * 8, random.nextDouble() * 6);
+			double radius = 0.05 + random.nextDouble() * 0.5;
+			if (!world.canFall(start, radius))
+				continue;
+			double distance = world.getFallDistance(start, radius);
+			double x = start.getX(), y = start.getY() - distance;
+			// The circle rests on terrain or the bottom of the world, and was clear of both all the way down.
+			assertEquals(radius, field.getDistanceToImpassable(x, y), 1e-9);
+			for (double drop = 0; drop < distance - 1e-6; drop += 0.01)
+				assertTrue(field.getDistanceToImpassable(x, start.getY() - drop) > radius);
+			falls++;
+		}
+		assertTrue(falls > 100);
+	}
+
+	@Test
+	public void testWormFallDamage() {
+		Worm worm = new Worm(world, 0, 0, 0, 0.42, "Faller");
+		world.addWorm(worm);
+		assertFalse(worm.canFall());
+		// Lift the worm to a spot where it hangs free, then let it fall.
+		Position start;
+		do
+			start = new Position(1 + random.nextDouble() * 6, 2 + random.nextDouble() * 3);
+		while (!world.canFall(start, worm.getRadius()));
+		worm.setX(start.getX());
+		worm.setY(start.getY());
+		int hitPoints = worm.getCurrentHitPoints();
+		double distance = world.getFallDistance(start, worm.getRadius());
+		worm.fall();
+		assertEquals(start.getX(), worm.getX(), 0);
+		assertEquals(start.getY() - distance, worm.getY(), 0);
+		assertEquals(Math.max(0, hitPoints - (int) (WormConstants.FALL_DAMAGE_PER_METRE * distance)), worm.getCurrentHitPoints());
+		assertFalse(worm.canFall());
+	}
+
+}
@@ -0,0 +1,193 @@
+package worms.model.World;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import worms.model.Position;
+
+public class DistanceFieldTest {
+
+	private static final double EPS = 1e-9;
+
+	private Random random;
+
+	private PackedTerrain terrain;
+
+	private PixelMapping mapping;
+
+	private DistanceField field;
+
+	@Before
+	public void setup() {
+		random = new Random(7357);
+		boolean[][] passableMap = new boolean[37][90];
+		for (int row = 0; row < passableMap.length; row++)
+			for (int column = 0; column < passableMap[row].length; column++)
+				passableMap[row][column] = (row < 25) && random.nextInt(30) != 0;
+		terrain = new PackedTerrain(passableMap);
+		mapping = new PixelMapping(9.0, 3.7, 90, 37);
+		field = new DistanceField(terrain, mapping);
+	}
+
+	private double bruteForceDistance(double x, double y, boolean toPassable) {
+		double best = Double.POSITIVE_INFINITY;
+		for (int row = 0; row < terrain.getAmountOfRows(); row++)
+			for (int column = 0; column < terrain.getAmountOfColumns(); column++)
+				if (terrain.isPassable(column, row) == toPassable)
+					best = Math.min(best, Math.hypot(mapping.getHorizontalGap(x, column), mapping.getVerticalGap(y, row)));
+		if (!toPassable)
+			best = Math.min(best, Math.min(Math.min(x, 9.0 - x), Math.min(y, 3.7 - y)));
+		return best;
+	}
+
+	@Test
+	public void testPixelDistances() {
+		for (int row = 0; row < terrain.getAmountOfRows(); row++) {
+			for (int column = 0; column < terrain.getAmountOfColumns(); column++) {
+				double best = Double.POSITIVE_INFINITY;
+				for (int r = 0; r < terrain.getAmountOfRows(); r++)
+					for (int c = 0; c < terrain.getAmountOfColumns(); c++)
+						if (terrain.isPassable(c, r) != terrain.isPassable(column, row))
+							best = Math.min(best, 0.1 * Math.hypot(c - column, r - row));
+				if (terrain.isPassable(column, row))
+					assertEquals(best, field.getDistanceToImpassable(column, row), 1e-5);
+				else
+					assertEquals(best, field.getDistanceToPassable(column, row), 1e-5);
+			}
+		}
+	}
+
+	@Test
+	public void testExactDistances() {
+		for (int i = 0; i < 2000; i++) {
+			double x = random.nextDouble() * 9.0;
+			double y = random.nextDouble() * 3.7;
+			assertEquals(bruteForceDistance(x, y, false), field.getDistanceToImpassable(x, y), EPS);
+			assertEquals(bruteForceDistance(x, y, true), field.getDistanceToPassable(x, y), EPS);
+		}
+	}
+
+	@Test
+	public void testComparisons() {
+		for (int i = 0; i < 2000; i++) {
+			double x = random.nextDouble() * 9.0;
+			double y = random.nextDouble() * 3.7;
+			double distance = random.nextDouble() * 0.6;
+			double toImpassable = bruteForceDistance(x, y, false);
+			double toPassable = bruteForceDistance(x, y, true);
+			if (Math.abs(toImpassable - distance) > EPS)
+				assertEquals((int) Math.signum(toImpassable - distance), field.compareDistanceToImpassable(x, y, distance));
+			if (Math.abs(toPassable - distance) > EPS)
+				assertEquals((int) Math.signum(toPassable - distance), field.compareDistanceToPassable(x, y, distance));
+		}
+	}
+
+	@Test
+	public void testBoundedField() {
+		DistanceField bounded = new DistanceField(terrain, mapping, 3);
+		assertEquals(0.3, bounded.getBound(), 1e-6);
+		for (int row = 0; row < terrain.getAmountOfRows(); row++)
+			for (int column = 0; column < terrain.getAmountOfColumns(); column++) {
+				assertEquals(Math.min(field.getDistanceToImpassable(column, row), bounded.getBound()),
+						bounded.getDistanceToImpassable(column, row), 1e-5);
+				assertEquals(Math.min(field.getDistanceToPassable(column, row), bounded.getBound()),
+						bounded.getDistanceToPassable(column, row), 1e-5);
+			}
+		for (int i = 0; i < 2000; i++) {
+			double x = random.nextDouble() * 9.0;
+			double y = random.nextDouble() * 3.7;
+			double distance = random.nextDouble() * 0.6;
+			double toImpassable = bruteForceDistance(x, y, false);
+			double toPassable = bruteForceDistance(x, y, true);
+			assertEquals(toImpassable, bounded.getDistanceToImpassable(x, y), EPS);
+			assertEquals(toPassable, bounded.getDistanceToPassable(x, y), EPS);
+			if (Math.abs(toImpassable - distance) > EPS)
+				assertEquals((int) Math.signum(toImpassable - distance), bounded.compareDistanceToImpassable(x, y, distance));
+			if (Math.abs(toPassable - distance) > EPS)
+				assertEquals((int) Math.signum(toPassable - distance), bounded.compareDistanceToPassable(x, y, distance));
+		}
+	}
+
+	@Test
+	public void testBoundedUpdate() {
+		DistanceField bounded = new DistanceField(terrain, mapping, 3);
+		terrain.setPassableInRow(30, 10, 50, true);
+		terrain.setPassableInRow(31, 10, 50, true);
+		terrain.setPassableInRow(5, 60, 62, false);
+		bounded.update(10, 5, 62, 32);
+		DistanceField fresh = new DistanceField(terrain, mapping, 3);
+		for (int row = 0; row < terrain.getAmountOfRows(); row++)
+			for (int column = 0; column < terrain.getAmountOfColumns(); column++)
+				assertEquals(fresh.getDistanceToImpassable(column, row) - fresh.getDistanceToPassable(column, row),
+						bounded.getDistanceToImpassable(column, row) - bounded.getDistanceToPassable(column, row), 0);
+	}
+
+	@Test
+	public void testWorldPredicates() {
+		// X X X X
+		// . . . .
+		// . . . .
+		// X X X X
+		World world = new World(4.0, 4.0, new boolean[][] { { false, false, false, false }, { true, true, true, true },
+				{ true, true, true, true }, { false, false, false, false } }, random);
+		assertTrue(world.isAdjacentToImpassableTerrain(new Position(2.0, 1.5), 0.5));
+		assertFalse(world.isAdjacentToImpassableTerrain(new Position(2.0, 1.5), 0.4));
+		assertFalse(world.isAdjacentToImpassableTerrain(new Position(2.0, 1.2), 0.5));
+		assertTrue(world.isPassable(new Position(2.0, 1.5), 0.5));
+		assertFalse(world.isImpassable(new Position(2.0, 1.5), 0.5));
+		assertTrue(world.isImpassable(new Position(2.0, 0.5), 0.5));
+		assertFalse(world.isImpassable(new Position(2.0, 0.5), 6.0));
+	}
+
+	@Test
+	public void testBatchClassification() {
+		World world = new World(9.0, 3.7, terrain, random);
+		double[] xs = new double[10000], ys = new double[10000];
+		for (int i = 0; i < xs.length; i++) {
+			xs[i] = -0.5 + random.nextDouble() * 10.0;
+			ys[i] = -0.5 + random.nextDouble() * 4.7;
+		}
+		for (double radius : new double[] { 0.05, 0.3, 1.0 }) {
+			TerrainClass[] sequential = new TerrainClass[xs.length], parallel = new TerrainClass[xs.length];
+			world.classify(xs, ys, radius, sequential, false);
+			world.classify(xs, ys, radius, parallel, true);
+			for (int i = 0; i < xs.length; i++) {
+				Position position = new Position(xs[i], ys[i]);
+				TerrainClass expected = TerrainClass.PASSABLE;
+				if (world.getDiskOccupancy(position, radius) == Occupancy.IMPASSABLE)
+					expected = TerrainClass.IMPASSABLE;
+				else if (world.isAdjacentToImpassableTerrain(position, radius))
+					expected = TerrainClass.ADJACENT;
+				assertEquals(expected, sequential[i]);
+				assertEquals(expected, parallel[i]);
+			}
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testBatchClassificationLengths() {
+		new World(9.0, 3.7, terrain, random).classify(new double[3], new double[3], 0.5, new TerrainClass[2], false);
+	}
+
+	@Test
+	public void testCopyIsIndependent() {
+		PackedTerrain copiedTerrain = new PackedTerrain(terrain);
+		DistanceField copy = new DistanceField(field, copiedTerrain);
+		copiedTerrain.setPassableInRow(30, 0, 90, true);
+		copy.update(0, 30, 90, 31);
+		assertFalse(terrain.isPassable(40, 30));
+		assertEquals(0, field.getDistanceToImpassable(40, 30), EPS);
+		assertTrue(copy.getDistanceToImpassable(40, 30) > 0);
+		assertEquals(new DistanceField(copiedTerrain, mapping).getDistanceToImpassable(40, 30), copy.getDistanceToImpassable(40, 30), EPS);
+		TerrainSnapshot snapshot = new TerrainSnapshot(copiedTerrain, copy, new TerrainDetailPyramid(copiedTerrain, mapping),
+				new PlacementIndex(copy));
+		World world = new World(9.0, 3.7, snapshot, random);
+		assertSame(copiedTerrain, world.getTerrain());
+		assertSame(copy, world.getDistanceField());
+	}
+
+}
@@ -0,0 +1,111 @@
+package worms.model.World;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import worms.model.Position;
+
+public class IntervalTerrainTest {
+
+	private Random random;
+
+	private PackedTerrain packed;
+
+	private IntervalTerrain intervals;
+
+	@Before
+	public void setup() {
+		random = new Random(8191);
+		boolean[][] passableMap = new boolean[40][300];
+		for (int row = 0; row < passableMap.length; row++) {
+			boolean passable = random.nextBoolean();
+			for (int column = 0; column < passableMap[row].length; column++) {
+				if (random.nextInt(12) == 0)
+					passable = !passable;
+				passableMap[row][column] = passable;
+			}
+		}
+		passableMap[0] = new boolean[300];
+		Arrays.fill(passableMap[1], true);
+		packed = new PackedTerrain(passableMap);
+		intervals = new IntervalTerrain(packed);
+	}
+
+	private void assertSameQueries() {
+		for (int row = 0; row < packed.getAmountOfRows(); row++)
+			for (int column = 0; column < packed.getAmountOfColumns(); column++)
+				assertEquals(packed.isPassable(column, row), intervals.isPassable(column, row));
+		for (int i = 0; i < 3000; i++) {
+			int row = random.nextInt(40);
+			int from = random.nextInt(301);
+			int to = from + random.nextInt(301 - from);
+			boolean passable = random.nextBoolean();
+			assertEquals(packed.countImpassableInRow(row, from, to), intervals.countImpassableInRow(row, from, to));
+			assertEquals(packed.hasImpassableInRow(row, from, to), intervals.hasImpassableInRow(row, from, to));
+			assertEquals(packed.hasPassableInRow(row, from, to), intervals.hasPassableInRow(row, from, to));
+			assertEquals(packed.getFirstInRow(row, from, to, passable), intervals.getFirstInRow(row, from, to, passable));
+			assertEquals(packed.getLastInRow(row, from, to, passable), intervals.getLastInRow(row, from, to, passable));
+		}
+	}
+
+	@Test
+	public void testQueries() {
+		assertSameQueries();
+		assertEquals(1, intervals.getAmountOfIntervals(0));
+		assertEquals(0, intervals.getAmountOfIntervals(1));
+		assertEquals(intervals.getMemoryFootprint(), IntervalTerrain.getMemoryFootprint(packed));
+	}
+
+	@Test
+	public void testSplitAndMerge() {
+		intervals.setPassableInRow(0, 100, 120, true);
+		assertEquals(2, intervals.getAmountOfIntervals(0));
+		intervals.setPassableInRow(0, 100, 120, false);
+		assertEquals(1, intervals.getAmountOfIntervals(0));
+		intervals.setPassableInRow(0, 0, 300, true);
+		assertEquals(0, intervals.getAmountOfIntervals(0));
+		intervals.setPassableInRow(1, 10, 20, false);
+		intervals.setPassableInRow(1, 20, 30, false);
+		assertEquals(1, intervals.getAmountOfIntervals(1));
+	}
+
+	@Test
+	public void testEdits() {
+		IntervalTerrain copy = new IntervalTerrain(intervals);
+		for (int i = 0; i < 3000; i++) {
+			int row = random.nextInt(40);
+			int from = random.nextInt(301);
+			int to = from + random.nextInt(Math.min(40, 301 - from));
+			boolean passable = random.nextBoolean();
+			packed.setPassableInRow(row, from, to, passable);
+			intervals.setPassableInRow(row, from, to, passable);
+		}
+		assertSameQueries();
+		assertEquals(300, copy.countImpassableInRow(0, 0, 300));
+	}
+
+	@Test
+	public void testCarvedWorld() {
+		World world = new World(20, 10, new IntervalTerrain(packed), new Random(3));
+		World reference = new World(20, 10, packed, new Random(3));
+		Position centre = new Position(10, 5);
+		world.carveDisk(centre, 2);
+		reference.carveDisk(centre, 2);
+		for (int i = 0; i < 500; i++) {
+			Position position = new Position(20 * random.nextDouble(), 10 * random.nextDouble());
+			double radius = 0.05 + random.nextDouble();
+			assertEquals(reference.isPassable(position, radius), world.isPassable(position, radius));
+			assertEquals(reference.isAdjacentToImpassableTerrain(position, radius), world.isAdjacentToImpassableTerrain(position, radius));
+			assertEquals(reference.getDiskOccupancy(position, radius), world.getDiskOccupancy(position, radius));
+			assertEquals(reference.getAnnulusOccupancy(position, radius / 2, radius), world.getAnnulusOccupancy(position, radius / 2, radius));
+			assertEquals(reference.getBoxOccupancy(position.getX(), position.getY(), position.getX() + radius, position.getY() + radius),
+					world.getBoxOccupancy(position.getX(), position.getY(), position.getX() + radius, position.getY() + radius));
+		}
+	}
+
+}
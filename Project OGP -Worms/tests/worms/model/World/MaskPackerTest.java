@@ -0,0 +1,41 @@
+package worms.model.World;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class MaskPackerTest {
+
+	private void assertPacked(MaskPacker packer, byte[] data, int offset, int pixelStride, int columns) {
+		long[] words = new long[PackedTerrain.getWordsPerRow(columns) + 2];
+		words[0] = -1;
+		words[words.length - 1] = -1;
+		packer.packRow(data, offset, pixelStride, columns, words, 1);
+		assertEquals(-1, words[0]);
+		assertEquals(-1, words[words.length - 1]);
+		for (int column = 0; column < 64 * (words.length - 2); column++) {
+			long bit = (words[1 + column / 64] >>> column) & 1;
+			long expected = (column < columns && (data[offset + column * pixelStride] & 0xF0) != 0) ? 1 : 0;
+			assertEquals(expected, bit);
+		}
+	}
+
+	@Test
+	public void testPackers() {
+		Random random = new Random(8);
+		byte[] data = new byte[4 * 1000 + 16];
+		random.nextBytes(data);
+		for (int i = 0; i < data.length; i += 3)
+			data[i] &= 0x0F;
+		for (MaskPacker packer : MaskPacker.values())
+			for (int columns : new int[] { 1, 63, 64, 65, 128, 200, 1000 }) {
+				assertPacked(packer, data, 0, 4, columns);
+				assertPacked(packer, data, 8, 4, columns);
+				assertPacked(packer, data, 3, 4, columns);
+				assertPacked(packer, data, 0, 2, columns);
+			}
+	}
+
+}
@@ -0,0 +1,84 @@
+package worms.model.World;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import worms.model.Position;
+
+public class OccupancyIndexTest {
+
+	private Random random;
+
+	private boolean[][] passableMap;
+
+	private PackedTerrain terrain;
+
+	@Before
+	public void setup() {
+		random = new Random(7357);
+		passableMap = new boolean[300][333];
+		for (int row = 0; row < passableMap.length; row++)
+			for (int column = 0; column < passableMap[row].length; column++)
+				passableMap[row][column] = (row + column / 3) % 150 < 100 && random.nextInt(50) != 0;
+		terrain = new PackedTerrain(passableMap);
+	}
+
+	private int bruteForceCount(int fromColumn, int fromRow, int toColumn, int toRow) {
+		int count = 0;
+		for (int row = fromRow; row < toRow; row++)
+			for (int column = fromColumn; column < toColumn; column++)
+				if (!passableMap[row][column])
+					count++;
+		return count;
+	}
+
+	private void assertCounts(OccupancyIndex index) {
+		for (int i = 0; i < 500; i++) {
+			int fromColumn = random.nextInt(334);
+			int toColumn = fromColumn + random.nextInt(334 - fromColumn);
+			int fromRow = random.nextInt(301);
+			int toRow = fromRow + random.nextInt(301 - fromRow);
+			assertEquals(bruteForceCount(fromColumn, fromRow, toColumn, toRow),
+					index.countImpassable(fromColumn, fromRow, toColumn, toRow));
+		}
+	}
+
+	@Test
+	public void testSummedAreaTable() {
+		assertCounts(new SummedAreaTable(terrain));
+	}
+
+	@Test
+	public void testTiledOccupancyTable() {
+		assertCounts(new TiledOccupancyTable(terrain, 64));
+		assertCounts(new TiledOccupancyTable(terrain, 128));
+	}
+
+	@Test
+	public void testDiskOccupancy() {
+		World world = new World(33.3, 30.0, terrain, random);
+		PixelMapping mapping = world.getPixelMapping();
+		for (int i = 0; i < 300; i++) {
+			double x = random.nextDouble() * 33.3;
+			double y = random.nextDouble() * 30.0;
+			double radius = random.nextDouble() * 3;
+			boolean free = false;
+			boolean solid = !world.isInMap(new Position(x, y), radius);
+			for (int row = 0; row < 300; row++)
+				for (int column = 0; column < 333; column++)
+					if (Math.hypot(mapping.getHorizontalGap(x, column), mapping.getVerticalGap(y, row)) <= radius) {
+						if (passableMap[row][column])
+							free = true;
+						else
+							solid = true;
+					}
+			Occupancy expected = (free && solid) ? Occupancy.MIXED : (free ? Occupancy.PASSABLE : Occupancy.IMPASSABLE);
+			assertEquals(expected, world.getDiskOccupancy(new Position(x, y), radius));
+		}
+	}
+
+}
@@ -0,0 +1,76 @@
+package worms.model.World;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class PackedTerrainTest {
+
+	private boolean[][] passableMap;
+
+	private PackedTerrain terrain;
+
+	@Before
+	public void setup() {
+		Random random = new Random(7357);
+		passableMap = new boolean[5][200];
+		for (int row = 0; row < passableMap.length; row++)
+			for (int column = 0; column < passableMap[row].length; column++)
+				passableMap[row][column] = random.nextInt(40) != 0;
+		passableMap[4] = new boolean[200];
+		terrain = new PackedTerrain(passableMap);
+	}
+
+	@Test
+	public void testPixels() {
+		for (int row = 0; row < passableMap.length; row++)
+			for (int column = 0; column < passableMap[row].length; column++)
+				assertEquals(passableMap[row][column], terrain.isPassable(column, row));
+	}
+
+	@Test
+	public void testRowSpans() {
+		for (int row = 0; row < passableMap.length; row++) {
+			for (int from = 0; from <= 200; from += 7) {
+				for (int to = from; to <= 200; to += 5) {
+					int count = 0;
+					for (int column = from; column < to; column++)
+						if (!passableMap[row][column])
+							count++;
+					assertEquals(count, terrain.countImpassableInRow(row, from, to));
+					assertEquals(count > 0, terrain.hasImpassableInRow(row, from, to));
+					assertEquals(count < to - from, terrain.hasPassableInRow(row, from, to));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testPaddingIsNotImpassable() {
+		PackedTerrain packed = new PackedTerrain(70, 1, new long[] { 0L, -1L });
+		assertEquals(6, packed.countImpassableInRow(0, 0, 70));
+		assertFalse(packed.hasPassableInRow(0, 64, 70));
+	}
+
+	@Test
+	public void testSetPassableInRow() {
+		for (int i = 0; i < 200; i++) {
+			int row = i % passableMap.length, from = (i * 37) % 201, to = from + (i * 11) % (201 - from);
+			boolean passable = i % 3 != 0;
+			terrain.setPassableInRow(row, from, to, passable);
+			for (int column = from; column < to; column++)
+				passableMap[row][column] = passable;
+		}
+		testPixels();
+		assertEquals(0, terrain.getWord(0, terrain.getWordsPerRow() - 1) >>> (200 & 63));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testRaggedMap() {
+		new PackedTerrain(new boolean[][] { { true, true }, { true } });
+	}
+
+}
@@ -0,0 +1,111 @@
+package worms.model.World;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class PixelMappingTest {
+
+	private Random random;
+
+	@Before
+	public void setup() {
+		random = new Random(7357);
+	}
+
+	// The lookup World used before the pixel mapping was introduced. It counted
+	// rows upwards from y = 0, whereas row 0 is the top row of a map.
+	private static int loopIndex(double coordinate, double size, int amount) {
+		double pixelSize = size / amount;
+		int index = 0;
+		for (double edge = pixelSize; edge <= size; edge += pixelSize) {
+			if (coordinate <= edge)
+				break;
+			index++;
+		}
+		return index;
+	}
+
+	// Whether the given coordinate lies so close to a pixel edge that the
+	// accumulated floating point steps of the loop may fall on either side.
+	private static boolean isOnEdge(double coordinate, double size, int amount) {
+		double scaled = coordinate * amount / size;
+		return Math.abs(scaled - Math.rint(scaled)) < 1e-6;
+	}
+
+	private void assertEquivalent(double width, double height, int columns, int rows) {
+		PixelMapping mapping = new PixelMapping(width, height, columns, rows);
+		for (int i = 0; i < 10000; i++) {
+			double x = random.nextDouble() * width;
+			double y = random.nextDouble() * height;
+			if (!isOnEdge(x, width, columns))
+				assertEquals(loopIndex(x, width, columns), mapping.getColumn(x));
+			if (!isOnEdge(y, height, rows))
+				assertEquals(rows - 1 - loopIndex(y, height, rows), mapping.getRow(y));
+		}
+	}
+
+	@Test
+	public void testEquivalentToLoopOnSquarePixels() {
+		assertEquivalent(4.0, 4.0, 4, 4);
+		assertEquivalent(37.5, 20.0, 3000, 1600);
+	}
+
+	@Test
+	public void testEquivalentToLoopOnIrregularPixels() {
+		assertEquivalent(3.0, 2.0, 7, 3);
+		assertEquivalent(26.666, 20.0, 1024, 768);
+	}
+
+	@Test
+	public void testPixelEdges() {
+		PixelMapping mapping = new PixelMapping(4.0, 4.0, 4, 4);
+		assertEquals(0, mapping.getColumn(0.0));
+		assertEquals(0, mapping.getColumn(1.0));
+		assertEquals(1, mapping.getColumn(1.5));
+		assertEquals(1, mapping.getColumn(2.0));
+		assertEquals(3, mapping.getColumn(4.0));
+		assertEquals(0, mapping.getRow(4.0));
+		assertEquals(3, mapping.getRow(0.0));
+		assertEquals(2, mapping.getRow(2.0));
+		assertEquals(3.5, mapping.getCentreY(0), 0);
+		assertEquals(0.0, mapping.getBottomY(3), 0);
+		assertEquals(4.0, mapping.getTopY(0), 0);
+	}
+
+	@Test
+	public void testRowsCountedFromTheTop() {
+		PixelMapping mapping = new PixelMapping(26.666, 20.0, 1024, 768);
+		assertEquals(0, mapping.getRow(20.0 - 1e-9));
+		assertEquals(767, mapping.getRow(1e-9));
+		for (int row = 0; row < 768; row++) {
+			assertEquals(row, mapping.getRow(mapping.getCentreY(row)));
+			assertTrue(mapping.getBottomY(row) < mapping.getCentreY(row));
+			assertTrue(mapping.getCentreY(row) < mapping.getTopY(row));
+			assertEquals(row * mapping.getPixelHeight(), mapping.getDepth(mapping.getTopY(row)), 1e-9);
+		}
+		for (int i = 0; i < 1000; i++) {
+			double y = random.nextDouble() * 20.0;
+			if (!isOnEdge(y, 20.0, 768))
+				assertEquals((int) Math.floor(mapping.getDepth(y) / mapping.getPixelHeight()), mapping.getRow(y));
+		}
+	}
+
+	@Test
+	public void testClampedOutsideWorld() {
+		PixelMapping mapping = new PixelMapping(4.0, 4.0, 4, 4);
+		assertEquals(0, mapping.getColumn(-3.0));
+		assertEquals(3, mapping.getColumn(12.0));
+		assertEquals(3, mapping.getRow(-0.5));
+		assertEquals(0, mapping.getRow(4.5));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testIllegalAmountOfColumns() {
+		new PixelMapping(4.0, 4.0, 0, 4);
+	}
+
+}
@@ -0,0 +1,158 @@
+package worms.model.World;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import worms.model.Position;
+import worms.model.worm.Worm;
+
+public class PlacementIndexTest {
+
+	private boolean[][] passableMap;
+
+	@Before
+	public void setup() {
+		passableMap = new boolean[100][1000];
+		for (int row = 0; row < passableMap.length; row++)
+			for (int column = 0; column < passableMap[row].length; column++)
+				passableMap[row][column] = row >= 10 && !(row < 30 && column % 200 < 20);
+	}
+
+	private ArrayList<Worm> fill(World world, int amount) {
+		ArrayList<Worm> worms = new ArrayList<Worm>();
+		for (int i = 0; i < amount; i++) {
+			Worm worm = new Worm(world, 0, 0, 0, 0.25, "Test");
+			world.addWorm(worm);
+			worms.add(worm);
+		}
+		return worms;
+	}
+
+	@Test
+	public void testPlacement() {
+		World world = new World(100.0, 10.0, passableMap, new Random(11));
+		ArrayList<Worm> worms = fill(world, 100);
+		for (Worm worm : worms) {
+			assertTrue(world.isAdjacentToImpassableTerrain(worm.getPosition(), worm.getRadius()));
+			for (Worm other : worms)
+				if (other != worm)
+					assertTrue(Math.hypot(other.getX() - worm.getX(), other.getY() - worm.getY()) >= 0.5);
+		}
+	}
+
+	@Test
+	public void testWormsAtTheirPosition() {
+		World world = new World(100.0, 10.0, passableMap, new Random(15));
+		ArrayList<Worm> fixed = new ArrayList<Worm>();
+		for (int i = 0; i < 40; i++) {
+			Worm worm = new Worm(world, 2.5 * i + 1.25, 9.25, 0, 0.25, "Fixed");
+			world.addWormAtPosition(worm);
+			assertEquals(2.5 * i + 1.25, worm.getX(), 0);
+			fixed.add(worm);
+		}
+		for (Worm worm : fill(world, 60))
+			for (Worm other : fixed)
+				assertTrue(Math.hypot(other.getX() - worm.getX(), other.getY() - worm.getY()) >= 0.5);
+	}
+
+	@Test
+	public void testDeterminism() {
+		ArrayList<Worm> first = fill(new World(100.0, 10.0, passableMap, new Random(12)), 50);
+		ArrayList<Worm> second = fill(new World(100.0, 10.0, passableMap, new Random(12)), 50);
+		for (int i = 0; i < first.size(); i++) {
+			assertEquals(first.get(i).getX(), second.get(i).getX(), 0);
+			assertEquals(first.get(i).getY(), second.get(i).getY(), 0);
+		}
+	}
+
+	@Test
+	public void testRadiusClasses() {
+		World world = new World(100.0, 10.0, passableMap, new Random(14));
+		PlacementIndex index = world.getPlacementIndex();
+		PixelMapping mapping = world.getPixelMapping();
+		Random random = new Random(15);
+		for (int i = 0; i < 8; i++) {
+			double radius = 0.2 + random.nextDouble() * 0.4;
+			int expected = 0;
+			for (int row = 0; row < mapping.getAmountOfRows(); row++)
+				for (int column = 0; column < mapping.getAmountOfColumns(); column++) {
+					Position centre = new Position(mapping.getCentreX(column), mapping.getCentreY(row));
+					if (world.isInMap(centre, radius) && world.isAdjacentToImpassableTerrain(centre, radius))
+						expected++;
+				}
+			assertEquals(expected, index.getAmountOfPositions(radius));
+			assertTrue(index.getAmountOfCandidates(radius) >= expected);
+			Position position = index.findPosition(radius, random, new ArrayList<Worm>());
+			if (expected == 0)
+				assertNull(position);
+			else
+				assertTrue(world.isAdjacentToImpassableTerrain(position, radius));
+		}
+	}
+
+	@Test
+	public void testBulkPlacement() {
+		World world = new World(100.0, 10.0, passableMap, new Random(16));
+		ArrayList<Worm> worms = new ArrayList<Worm>();
+		for (int i = 0; i < 60; i++)
+			worms.add(new Worm(world, 0, 0, 0, 0.25, "Test"));
+		world.addWorms(worms);
+		assertEquals(60, world.getAllWorms().size());
+		for (Worm worm : worms)
+			assertTrue(world.isAdjacentToImpassableTerrain(worm.getPosition(), worm.getRadius()));
+		ArrayList<Worm> tooMany = new ArrayList<Worm>();
+		for (int i = 0; i < 1000; i++)
+			tooMany.add(new Worm(world, 0, 0, 0, 0.25, "Test"));
+		try {
+			world.addWorms(tooMany);
+			fail();
+		} catch (IllegalStateException exc) {
+			assertEquals(60, world.getAllWorms().size());
+			for (Worm worm : tooMany) {
+				assertNull(worm.getWorld());
+				assertEquals(0, worm.getX(), 0);
+			}
+		}
+	}
+
+	@Test
+	public void testExhaustion() {
+		World world = new World(100.0, 10.0, passableMap, new Random(13));
+		int placed = 0;
+		try {
+			while (true) {
+				world.addWorm(new Worm(world, 0, 0, 0, 0.25, "Test"));
+				placed++;
+			}
+		} catch (IllegalStateException exc) {
+			assertEquals(placed, world.getAllWorms().size());
+			assertTrue(placed > 100);
+		}
+	}
+
+	@Test
+	public void testCopy() {
+		World original = new World(100.0, 10.0, passableMap, new Random(15));
+		original.getPlacementIndex().prepare(0.25);
+		TerrainSnapshot snapshot = new TerrainSnapshot((EditableTerrain) original.getTerrain(), original.getDistanceField(),
+				original.getDetailPyramid(), original.getPlacementIndex());
+		World copy = new World(100.0, 10.0, snapshot.copy(), new Random(16));
+		ArrayList<Worm> expected = fill(new World(100.0, 10.0, passableMap, new Random(16)), 30);
+		ArrayList<Worm> worms = fill(copy, 30);
+		for (int i = 0; i < worms.size(); i++) {
+			assertEquals(expected.get(i).getX(), worms.get(i).getX(), 0);
+			assertEquals(expected.get(i).getY(), worms.get(i).getY(), 0);
+		}
+		// Editing the copy leaves the candidates of the original alone.
+		int candidates = original.getPlacementIndex().getAmountOfCandidates(0.25);
+		copy.fillDisk(new Position(50, 3), 0.8);
+		assertEquals(candidates, original.getPlacementIndex().getAmountOfCandidates(0.25));
+		assertTrue(candidates != copy.getPlacementIndex().getAmountOfCandidates(0.25));
+	}
+
+}
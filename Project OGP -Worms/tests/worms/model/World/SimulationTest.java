@@ -0,0 +1,107 @@
+package worms.model.World;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import worms.model.Position;
+import worms.model.worm.Worm;
+
+public class SimulationTest {
+
+	private static final double TIME_STEP = 1e-4;
+
+	private boolean[][] passableMap;
+
+	@Before
+	public void setup() {
+		// A floor and a ceiling with hills, so that worms land at different heights.
+		passableMap = new boolean[150][200];
+		for (int row = 0; row < passableMap.length; row++)
+			for (int column = 0; column < passableMap[row].length; column++)
+				passableMap[row][column] = Math.abs(row - 75) < 50 + 10 * Math.sin(column / 15.0);
+	}
+
+	private List<Worm> addWorms(World world) {
+		List<Worm> result = new ArrayList<Worm>();
+		Random random = new Random(24);
+		for (int i = 0; i < 6; i++) {
+			Worm worm = new Worm(world, 0, 0, random.nextDouble() * Math.PI, 0.42, "Jumper");
+			world.addWorm(worm);
+			result.add(worm);
+		}
+		return result;
+	}
+
+	/**
+	 * Start the jumps of the given worms one after another, each one a second after the previous one,
+	 * feeding the simulation with the given real time steps, and return the positions the worms end up at.
+	 */
+	private double[] simulate(World world, List<Worm> worms, double[] steps) {
+		int next = 0;
+		int step = 0;
+		while (next < worms.size() || !world.isIdle()) {
+			if (next < worms.size() && world.getSimulationTime() >= next)
+				world.startJump(worms.get(next++), TIME_STEP);
+			world.step(steps[step++ % steps.length]);
+		}
+		double[] result = new double[2 * worms.size()];
+		for (int i = 0; i < worms.size(); i++) {
+			result[2 * i] = worms.get(i).getX();
+			result[2 * i + 1] = worms.get(i).getY();
+		}
+		return result;
+	}
+
+	@Test
+	public void testStepsAreCutIntoTicks() {
+		World world = new World(20, 15, passableMap, new Random(3));
+		assertEquals(0, world.step(WorldConstants.SIMULATION_TICK / 2));
+		assertEquals(0.5, world.getInterpolation(), 1e-12);
+		assertEquals(1, world.step(WorldConstants.SIMULATION_TICK / 2));
+		assertEquals(10, world.step(10 * WorldConstants.SIMULATION_TICK));
+		assertEquals(11, world.getAmountOfTicks());
+		assertEquals(11 * WorldConstants.SIMULATION_TICK, world.getSimulationTime(), 0);
+	}
+
+	@Test
+	public void testJumpLandsAfterItsJumpTime() {
+		World world = new World(20, 15, passableMap, new Random(3));
+		Worm worm = addWorms(world).get(0);
+		Position start = worm.getPosition();
+		double jumpTime = worm.jumpTime(TIME_STEP);
+		Position landing = worm.jumpStep(jumpTime);
+		world.startJump(worm, TIME_STEP);
+		int ticks = 0;
+		while (world.isJumping(worm)) {
+			assertEquals(start.getX(), worm.getX(), 0);
+			world.step(WorldConstants.SIMULATION_TICK / 3);
+			Position shown = world.getInterpolatedPosition(worm);
+			assertTrue(Math.abs(shown.getX() - start.getX()) <= Math.abs(landing.getX() - start.getX()) + 1e-9);
+			ticks++;
+		}
+		assertEquals(Math.ceil(jumpTime / WorldConstants.SIMULATION_TICK), Math.ceil(ticks / 3.), 1);
+		assertEquals(landing.getX(), worm.getX(), 0);
+		assertEquals(landing.getY(), worm.getY(), 0);
+	}
+
+	@Test
+	public void testResultsDoNotDependOnFrameTiming() {
+		World fixed = new World(20, 15, passableMap, new Random(3));
+		double[] expected = simulate(fixed, addWorms(fixed), new double[] { WorldConstants.SIMULATION_TICK });
+		World uneven = new World(20, 15, passableMap, new Random(3));
+		double[] actual = simulate(uneven, addWorms(uneven), new double[] { 0.013, 0.041, 0.002, 0.07, 0.0333 });
+		// Arrays.equals compares the bits of the doubles.
+		assertTrue(Arrays.equals(expected, actual));
+		World again = new World(20, 15, passableMap, new Random(3));
+		assertTrue(Arrays.equals(expected, simulate(again, addWorms(again), new double[] { 0.013, 0.041, 0.002, 0.07, 0.0333 })));
+		assertEquals(uneven.getAmountOfTicks(), again.getAmountOfTicks());
+	}
+
+}
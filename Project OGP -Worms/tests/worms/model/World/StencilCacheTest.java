@@ -0,0 +1,111 @@
+package worms.model.World;
+
+import static org.junit.Assert.*;
+
+import java.util.HashSet;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import worms.model.worm.Worm;
+
+public class StencilCacheTest {
+
+	private Random random;
+
+	private boolean[][] passableMap;
+
+	private World world;
+
+	@Before
+	public void setup() {
+		random = new Random(4242);
+		passableMap = new boolean[120][150];
+		for (int row = 0; row < passableMap.length; row++)
+			for (int column = 0; column < passableMap[row].length; column++)
+				passableMap[row][column] = random.nextInt(400) != 0;
+		world = new World(30.0, 12.0, passableMap, random);
+	}
+
+	private boolean covers(Stencil stencil, int columnOffset, int rowOffset) {
+		for (int index = 0; index < stencil.getAmountOfSpans(); index++)
+			if (stencil.getRowOffset(index) == rowOffset && stencil.getFromColumnOffset(index) <= columnOffset
+					&& columnOffset < stencil.getToColumnOffset(index))
+				return true;
+		return false;
+	}
+
+	@Test
+	public void testCoverage() {
+		StencilCache cache = new StencilCache(world.getPixelMapping(), 8);
+		double pixelWidth = world.getPixelMapping().getPixelWidth();
+		double pixelHeight = world.getPixelMapping().getPixelHeight();
+		for (int i = 0; i < 60; i++) {
+			double outer = (i < 10) ? i * pixelWidth / 2 : random.nextDouble() * 2;
+			double inner = (i % 3 == 0) ? 0 : random.nextDouble() * outer;
+			Stencil disk = cache.getDisk(outer);
+			Stencil annulus = cache.getAnnulus(inner, outer);
+			int diskPixels = 0, annulusPixels = 0;
+			for (int rowOffset = -30; rowOffset <= 30; rowOffset++)
+				for (int columnOffset = -30; columnOffset <= 30; columnOffset++) {
+					double gap = Math.hypot(Math.max(0, Math.abs(columnOffset) - 0.5) * pixelWidth,
+							Math.max(0, Math.abs(rowOffset) - 0.5) * pixelHeight);
+					assertEquals(gap < outer, covers(disk, columnOffset, rowOffset));
+					assertEquals(inner <= gap && gap <= outer, covers(annulus, columnOffset, rowOffset));
+					if (gap < outer)
+						diskPixels++;
+					if (inner <= gap && gap <= outer)
+						annulusPixels++;
+				}
+			assertEquals(diskPixels, disk.getAmountOfPixels());
+			assertEquals(annulusPixels, annulus.getAmountOfPixels());
+		}
+	}
+
+	@Test
+	public void testHitsAndEviction() {
+		StencilCache cache = new StencilCache(world.getPixelMapping(), 2);
+		Stencil first = cache.getDisk(1.0);
+		assertSame(first, cache.getDisk(1.0));
+		assertEquals(1, cache.getHits());
+		assertEquals(1, cache.getMisses());
+		assertNotSame(first, cache.getAnnulus(0, 1.0));
+		cache.getDisk(2.0);
+		assertEquals(2, cache.getSize());
+		assertNotSame(first, cache.getDisk(1.0));
+		assertEquals(4, cache.getMisses());
+	}
+
+	@Test
+	public void testAgainstDistances() {
+		PixelMapping mapping = world.getPixelMapping();
+		Terrain terrain = world.getDistanceField().getTerrain();
+		StencilCache cache = new StencilCache(mapping, 4);
+		for (int i = 0; i < 300; i++) {
+			int column = random.nextInt(mapping.getAmountOfColumns());
+			int row = random.nextInt(mapping.getAmountOfRows());
+			double x = mapping.getCentreX(column), y = mapping.getCentreY(row);
+			double radius = 0.21 + random.nextInt(4) * 0.15;
+			double outer = WorldConstants.ADJACENCY_FACTOR * radius;
+			assertEquals(world.compareDistanceToImpassable(x, y, radius) < 0,
+					cache.getDisk(radius).hasImpassable(terrain, column, row));
+			if (world.compareDistanceToImpassable(x, y, radius) >= 0)
+				assertEquals(world.compareDistanceToImpassable(x, y, outer) <= 0,
+						cache.getAnnulus(radius, outer).hasImpassable(terrain, column, row));
+		}
+		assertTrue(cache.getHits() > 0);
+	}
+
+	@Test
+	public void testPlacementUsesStencils() {
+		PlacementIndex index = world.getPlacementIndex();
+		assertNotNull(index.findPosition(0.3, random, new HashSet<Worm>()));
+		index.getAmountOfPositions(0.3);
+		StencilCache cache = index.getStencilCache();
+		assertEquals(2, cache.getSize());
+		assertEquals(2, cache.getMisses());
+		assertEquals(2, cache.getHits());
+	}
+
+}
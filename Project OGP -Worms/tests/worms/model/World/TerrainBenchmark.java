@@ -0,0 +1,637 @@
+package worms.model.World;
+
+import java.util.Random;
+
+import worms.gui.Level;
+import worms.model.Position;
+import worms.model.weapon.CollisionSweep;
+import worms.model.weapon.Impact;
+import worms.model.weapon.ImpactKind;
+import worms.model.weapon.ProjectileConstants;
+import worms.model.weapon.RifleProjectile;
+import worms.model.worm.JumpSolver;
+import worms.model.worm.Worm;
+
+/**
+ * A micro benchmark for the terrain queries of a world. <br>
+ * It is not a unit test: run its main method from the project directory and compare the printed timings.
+ *
+ * @author Ruben
+ */
+public class TerrainBenchmark {
+
+	private static final int QUERIES = 1000000;
+
+	public static void main(String[] args) {
+		benchmarkPixelMapping();
+		benchmarkDistanceField();
+		benchmarkOccupancy();
+		benchmarkPyramid();
+		benchmarkMaskPacking();
+		benchmarkExplosions();
+		benchmarkLevelLoading();
+		benchmarkExtraction();
+		benchmarkStripDecoding();
+		benchmarkTiledTerrain();
+		benchmarkBackends();
+		benchmarkDetailLevels();
+		benchmarkJumpSolvers();
+		benchmarkProjectileSweep();
+		benchmarkFalls();
+	}
+
+	/**
+	 * The cost of a coordinate lookup must no longer grow with the width of the world.
+	 */
+	private static void benchmarkPixelMapping() {
+		System.out.println("== pixel mapping (ns per lookup) ==");
+		for (int columns = 256; columns <= 16384; columns *= 4) {
+			World world = new World(columns / 80., 20., new boolean[16][columns], new Random(0));
+			Position[] positions = randomPositions(world, new Random(columns), 1024);
+			int checksum = 0;
+			long start = System.nanoTime();
+			for (int i = 0; i < QUERIES; i++)
+				checksum += world.getPositionColumn(positions[i & 1023]);
+			long elapsed = System.nanoTime() - start;
+			System.out.println(columns + " columns: " + (elapsed / (double) QUERIES) + " (" + checksum + ")");
+		}
+	}
+
+	/**
+	 * The adjacency test on a shipped level, through the distance field and through the polar sampling it replaced.
+	 */
+	private static void benchmarkDistanceField() {
+		System.out.println("== adjacency on shipped levels (us per query) ==");
+		for (Level level : Level.getAvailableLevels()) {
+			level.load();
+			long start = System.nanoTime();
+			World world = new World(level.getWorldWidth(), level.getWorldHeight(), level.getPassableMap(), new Random(0));
+			long built = System.nanoTime() - start;
+			Position[] positions = randomPositions(world, new Random(1), 1024);
+			int adjacent = 0;
+			start = System.nanoTime();
+			for (int i = 0; i < 100000; i++)
+				if (world.isAdjacentToImpassableTerrain(positions[i & 1023], 0.5))
+					adjacent++;
+			long field = System.nanoTime() - start;
+			start = System.nanoTime();
+			for (int i = 0; i < 1000; i++)
+				if (isAdjacentBySampling(world, positions[i & 1023], 0.5))
+					adjacent++;
+			long sampling = System.nanoTime() - start;
+			System.out.println(level.getName() + ": build " + (built / 1e6) + " ms, field " + (field / 1e3 / 100000)
+					+ ", sampling " + (sampling / 1e3 / 1000) + " (" + adjacent + ")");
+		}
+	}
+
+	/**
+	 * Counting the impassable pixels of a large box, in a summed-area table and in tiled tables.
+	 */
+	private static void benchmarkOccupancy() {
+		System.out.println("== box occupancy on Skulls (ns per query, bytes) ==");
+		Level level = new Level(new java.io.File("levels/Skulls.lvl"));
+		level.load();
+		PackedTerrain terrain = new PackedTerrain(level.getPassableMap());
+		OccupancyIndex[] indexes = { new SummedAreaTable(terrain), new TiledOccupancyTable(terrain, 64),
+				new TiledOccupancyTable(terrain, 256) };
+		for (OccupancyIndex index : indexes) {
+			Random random = new Random(2);
+			long count = 0;
+			long start = System.nanoTime();
+			for (int i = 0; i < 100000; i++) {
+				int column = random.nextInt(terrain.getAmountOfColumns() - 400);
+				int row = random.nextInt(terrain.getAmountOfRows() - 400);
+				count += index.countImpassable(column, row, column + 400, row + 400);
+			}
+			long elapsed = System.nanoTime() - start;
+			System.out.println(index.getClass().getSimpleName() + ": " + (elapsed / 100000) + " ns, "
+					+ index.getMemoryFootprint() + " bytes (" + count + ")");
+		}
+	}
+
+	/**
+	 * Disk and ray queries on shipped levels, through the terrain pyramid and by scanning every row or step.
+	 */
+	private static void benchmarkPyramid() {
+		System.out.println("== pyramid against flat scanning (us per query) ==");
+		for (String name : new String[] { "Simple", "Skulls" }) {
+			Level level = new Level(new java.io.File("levels/" + name + ".lvl"));
+			level.load();
+			World world = new World(level.getWorldWidth(), level.getWorldHeight(), level.getPassableMap(), new Random(0));
+			long start = System.nanoTime();
+			TerrainPyramid pyramid = world.getTerrainPyramid();
+			long built = System.nanoTime() - start;
+			for (double radius : new double[] { 0.5, 2, 8 }) {
+				Position[] positions = randomPositions(world, new Random(3), 1024);
+				int mixed = 0;
+				start = System.nanoTime();
+				for (int i = 0; i < 10000; i++)
+					if (pyramid.getDiskOccupancy(positions[i & 1023].getX(), positions[i & 1023].getY(), radius) == Occupancy.MIXED)
+						mixed++;
+				long tree = System.nanoTime() - start;
+				start = System.nanoTime();
+				for (int i = 0; i < 10000; i++)
+					if (getDiskOccupancyByScanning(world, positions[i & 1023], radius) == Occupancy.MIXED)
+						mixed++;
+				long flat = System.nanoTime() - start;
+				System.out.println(name + " disk r=" + radius + ": pyramid " + (tree / 1e3 / 10000) + ", flat "
+						+ (flat / 1e3 / 10000) + " (" + mixed + ")");
+			}
+			Position[] from = randomPositions(world, new Random(4), 1024);
+			Position[] to = randomPositions(world, new Random(5), 1024);
+			double sum = 0;
+			start = System.nanoTime();
+			for (int i = 0; i < 10000; i++)
+				sum += pyramid.getFirstImpassable(from[i & 1023].getX(), from[i & 1023].getY(), to[i & 1023].getX(), to[i & 1023].getY());
+			long tree = System.nanoTime() - start;
+			start = System.nanoTime();
+			for (int i = 0; i < 10000; i++)
+				sum += getFirstImpassableByStepping(world, from[i & 1023], to[i & 1023]);
+			long flat = System.nanoTime() - start;
+			System.out.println(name + " ray: pyramid " + (tree / 1e3 / 10000) + ", flat " + (flat / 1e3 / 10000)
+					+ "; build " + (built / 1e6) + " ms, " + pyramid.getMemoryFootprint() + " bytes (" + sum + ")");
+		}
+	}
+
+	/**
+	 * Extracting the terrain of the shipped levels: through the boolean passable map, and packed straight from the image.
+	 */
+	private static void benchmarkMaskPacking() {
+		System.out.println("== mask extraction (ms per level, after two warm-up rounds) ==");
+		for (int round = 0; round < 3; round++)
+			for (Level level : Level.getAvailableLevels()) {
+				level.load();
+				long words = 0;
+				long start = System.nanoTime();
+				for (int i = 0; i < 20; i++)
+					words += new PackedTerrain(level.getPassableMap()).getWord(0, 0);
+				long matrix = System.nanoTime() - start;
+				StringBuilder line = new StringBuilder(level.getName() + ": passable map " + (matrix / 1e6 / 20));
+				for (MaskPacker packer : MaskPacker.values()) {
+					start = System.nanoTime();
+					for (int i = 0; i < 20; i++)
+						words += level.getPassableTerrain(packer).getWord(0, 0);
+					line.append(", " + packer + " " + ((System.nanoTime() - start) / 1e6 / 20));
+				}
+				if (round == 2)
+					System.out.println(line + " (" + words + ")");
+			}
+	}
+
+	/**
+	 * Carving 100 craters in Skulls with every index in use: updated in place, and rebuilt after every crater.
+	 */
+	private static void benchmarkExplosions() {
+		System.out.println("== explosions on Skulls (ms per crater) ==");
+		Level level = new Level(new java.io.File("levels/Skulls.lvl"));
+		level.load();
+		World world = new World(level.getWorldWidth(), level.getWorldHeight(), level.getPassableTerrain(), new Random(0));
+		world.getOccupancyIndex();
+		world.getTerrainPyramid();
+		int positions = world.getPlacementIndex().getAmountOfPositions(0.5);
+		Position[] craters = randomPositions(world, new Random(6), 100);
+		long start = System.nanoTime();
+		for (Position crater : craters)
+			world.carveDisk(crater, worms.model.weapon.ProjectileConstants.BAZOOKA_CRATER_RADIUS);
+		long incremental = System.nanoTime() - start;
+		positions += world.getPlacementIndex().getAmountOfPositions(0.5);
+		start = System.nanoTime();
+		for (int i = 0; i < 5; i++) {
+			positions += new PlacementIndex(new DistanceField(world.getTerrain(), world.getPixelMapping())).getAmountOfPositions(0.5);
+			positions += new SummedAreaTable(world.getTerrain()).countImpassable(0, 0, 1, 1);
+			positions += new TerrainPyramid(world.getTerrain(), world.getPixelMapping()).getAmountOfLevels();
+		}
+		long rebuilt = System.nanoTime() - start;
+		System.out.println("Skulls: incremental " + (incremental / 1e6 / 100) + ", full rebuild " + (rebuilt / 1e6 / 5)
+				+ " (" + positions + ")");
+	}
+
+	/**
+	 * Loading the shipped levels up to their packed terrain: decoding the map image, and mapping the compiled level.
+	 */
+	private static void benchmarkLevelLoading() {
+		System.out.println("== level loading (ms per load, after two warm-up rounds) ==");
+		for (Level level : Level.getAvailableLevels()) {
+			boolean existed = level.getCompiledFile().exists();
+			try {
+				System.setProperty("worms.compiledlevels", "false");
+				level.load();
+				level.compile();
+				long words = 0;
+				long[] timings = new long[2];
+				for (int round = 0; round < 3; round++)
+					for (int path = 0; path < 2; path++) {
+						System.setProperty("worms.compiledlevels", (path == 0) ? "false" : "true");
+						long start = System.nanoTime();
+						for (int i = 0; i < 5; i++) {
+							Level loaded = new Level(new java.io.File("levels/" + level.getName() + ".lvl"));
+							loaded.load();
+							words += loaded.getPassableTerrain().getWord(0, 0);
+						}
+						timings[path] = System.nanoTime() - start;
+					}
+				System.out.println(level.getName() + ": image " + (timings[0] / 1e6 / 5) + ", compiled "
+						+ (timings[1] / 1e6 / 5) + " (" + level.getCompiledFile().length() + " bytes, " + words + ")");
+			} catch (java.io.IOException exc) {
+				System.out.println(level.getName() + ": " + exc);
+			} finally {
+				System.clearProperty("worms.compiledlevels");
+				if (!existed)
+					level.getCompiledFile().delete();
+			}
+		}
+	}
+
+	/**
+	 * Extracting the terrain of Skulls tiled two by two, for several raster layouts, on one thread and on the fork-join pool.
+	 */
+	private static void benchmarkExtraction() {
+		System.out.println("== extraction of a 6000x3200 map (ms per extraction, after two warm-up rounds) ==");
+		Level level = new Level(new java.io.File("levels/Skulls.lvl"));
+		level.load();
+		java.awt.image.BufferedImage map = level.getMapImage();
+		int[] types = { java.awt.image.BufferedImage.TYPE_4BYTE_ABGR, java.awt.image.BufferedImage.TYPE_INT_ARGB };
+		for (int type : types) {
+			java.awt.image.BufferedImage image = new java.awt.image.BufferedImage(2 * map.getWidth(), 2 * map.getHeight(), type);
+			java.awt.Graphics2D graphics = image.createGraphics();
+			graphics.setComposite(java.awt.AlphaComposite.Src);
+			for (int i = 0; i < 4; i++)
+				graphics.drawImage(map, (i % 2) * map.getWidth(), (i / 2) * map.getHeight(), null);
+			graphics.dispose();
+			long words = 0;
+			long[] timings = new long[2];
+			for (int round = 0; round < 3; round++)
+				for (int parallel = 0; parallel < 2; parallel++) {
+					long start = System.nanoTime();
+					for (int i = 0; i < 5; i++)
+						words += new worms.gui.TerrainExtractor(image, MaskPacker.getDefault()).extract(parallel == 1).getWord(0, 0);
+					timings[parallel] = System.nanoTime() - start;
+				}
+			System.out.println("type " + type + ": sequential " + (timings[0] / 1e6 / 5) + ", parallel " + (timings[1] / 1e6 / 5)
+					+ " (" + words + ")");
+		}
+	}
+
+	/**
+	 * Run with a small heap (e.g. -Xmx256m): the full ARGB image of this map would take 512 MB.
+	 */
+	private static void benchmarkStripDecoding() {
+		System.out.println("== strip decoding of a 16384x8192 map ==");
+		int width = 16384, height = 8192;
+		java.io.File file;
+		try {
+			file = java.io.File.createTempFile("strips", ".png");
+			// A palette image of one bit per pixel, with a transparent and an opaque entry.
+			java.awt.image.IndexColorModel colors = new java.awt.image.IndexColorModel(1, 2, new byte[] { 0, 100 },
+					new byte[] { 0, 70 }, new byte[] { 0, 40 }, new byte[] { 0, (byte) 0xff });
+			java.awt.image.BufferedImage image = new java.awt.image.BufferedImage(width, height,
+					java.awt.image.BufferedImage.TYPE_BYTE_BINARY, colors);
+			java.awt.image.WritableRaster raster = image.getRaster();
+			for (int row = 0; row < height; row++)
+				for (int column = 0; column < width; column++)
+					if (row > height / 2 + 600 * Math.sin(column / 700.0) + 200 * Math.sin(row / 90.0 + column / 50.0))
+						raster.setSample(column, row, 0, 1);
+			javax.imageio.ImageIO.write(image, "png", file);
+			image = null;
+			raster = null;
+		} catch (java.io.IOException e) {
+			throw new RuntimeException(e);
+		}
+		try {
+			for (long megabytes : new long[] { 4, 16, 64 }) {
+				System.gc();
+				for (java.lang.management.MemoryPoolMXBean pool : java.lang.management.ManagementFactory.getMemoryPoolMXBeans())
+					pool.resetPeakUsage();
+				long start = System.nanoTime();
+				PackedTerrain terrain = new worms.gui.StripDecoder(file, megabytes << 20).decodeTerrain(MaskPacker.getDefault());
+				long time = System.nanoTime() - start;
+				long peak = 0;
+				for (java.lang.management.MemoryPoolMXBean pool : java.lang.management.ManagementFactory.getMemoryPoolMXBeans())
+					if (pool.getType() == java.lang.management.MemoryType.HEAP)
+						peak += pool.getPeakUsage().getUsed();
+				System.out.println(megabytes + " MB strips: " + (time / 1e6) + " ms, peak heap " + (peak >> 20) + " MB, mask "
+						+ (terrain.getMemoryFootprint() >> 20) + " MB");
+			}
+			long start = System.nanoTime();
+			java.awt.image.BufferedImage display = new worms.gui.StripDecoder(file).decodeDisplayImage(1024, 768);
+			System.out.println("display image " + display.getWidth() + "x" + display.getHeight() + ": "
+					+ (System.nanoTime() - start) / 1e6 + " ms");
+		} catch (java.io.IOException e) {
+			throw new RuntimeException(e);
+		} finally {
+			file.delete();
+		}
+	}
+
+	/**
+	 * Run with a small heap (e.g. -Xmx64m): the packed terrain of this map would take 512 MB.
+	 */
+	private static void benchmarkTiledTerrain() {
+		System.out.println("== tiled terrain of 65536x65536 pixels, 1024 resident tiles ==");
+		int size = 65536;
+		java.io.File file = null;
+		try {
+			file = java.io.File.createTempFile("terrain", ".tiles");
+			long start = System.nanoTime();
+			TiledTerrain terrain = TiledTerrain.create(file, size, size, 1024);
+			for (int row = 0; row < size; row++) {
+				Random random = new Random(row / 64);
+				for (int column = random.nextInt(4096); column < size; column += 2048 + random.nextInt(4096)) {
+					int to = Math.min(size, column + 512 + random.nextInt(2048) + (row & 63));
+					terrain.setPassableInRow(row, column, to, false);
+				}
+			}
+			terrain.flush();
+			System.out.println("generated in " + (System.nanoTime() - start) / 1000000 + " ms, file " + (file.length() >> 20) + " MB");
+			Random random = new Random(65536);
+			long found = 0;
+			for (int round = 0; round < 3; round++) {
+				long loads = terrain.getAmountOfTileLoads();
+				start = System.nanoTime();
+				for (int i = 0; i < 1000000; i++) {
+					int row = random.nextInt(size);
+					int from = random.nextInt(size - 2048);
+					if (terrain.isPassable(from, row))
+						found++;
+					found += terrain.countImpassableInRow(row, from, from + random.nextInt(2048));
+				}
+				long time = System.nanoTime() - start;
+				System.gc();
+				Runtime runtime = Runtime.getRuntime();
+				System.out.println("random round " + round + ": " + (time / 1e6) + " ms per 1M queries, " + (terrain.getAmountOfTileLoads() - loads)
+						+ " tile loads, " + terrain.getAmountOfResidentTiles() + " resident tiles, heap used "
+						+ ((runtime.totalMemory() - runtime.freeMemory()) >> 20) + " MB");
+			}
+			// Queries around a point that wanders over the map, as the worms of a game do.
+			long loads = terrain.getAmountOfTileLoads();
+			int x = size / 2, y = size / 2;
+			start = System.nanoTime();
+			for (int i = 0; i < 1000000; i++) {
+				if (i % 1000 == 0) {
+					x = Math.max(2048, Math.min(size - 4096, x + random.nextInt(1025) - 512));
+					y = Math.max(2048, Math.min(size - 2048, y + random.nextInt(1025) - 512));
+				}
+				int row = y + random.nextInt(2048) - 1024;
+				int from = x + random.nextInt(2048) - 1024;
+				found += terrain.countImpassableInRow(row, from, from + random.nextInt(256));
+			}
+			System.out.println("local: " + (System.nanoTime() - start) / 1e6 + " ms per 1M queries, "
+					+ (terrain.getAmountOfTileLoads() - loads) + " tile loads (" + found + ")");
+			terrain.close();
+		} catch (java.io.IOException e) {
+			throw new RuntimeException(e);
+		} finally {
+			if (file != null)
+				file.delete();
+		}
+	}
+
+	private static void benchmarkBackends() {
+		System.out.println("== terrain backends of the shipped levels (bytes; ms per 1M random span queries) ==");
+		for (Level level : Level.getAvailableLevels()) {
+			level.load();
+			PackedTerrain packed = level.getPassableTerrain();
+			IntervalTerrain intervals = new IntervalTerrain(packed);
+			int amount = 0;
+			for (int row = 0; row < intervals.getAmountOfRows(); row++)
+				amount += intervals.getAmountOfIntervals(row);
+			long tiled = 0;
+			try {
+				java.io.File file = java.io.File.createTempFile("terrain", ".tiles");
+				TiledTerrain terrain = TiledTerrain.create(file, packed, 64);
+				tiled = terrain.getMemoryFootprint();
+				terrain.close();
+				file.delete();
+			} catch (java.io.IOException e) {
+				throw new RuntimeException(e);
+			}
+			System.out.println(level.getName() + " (" + packed.getAmountOfColumns() + "x" + packed.getAmountOfRows() + ", " + amount
+					+ " intervals): packed " + packed.getMemoryFootprint() + ", intervals " + intervals.getMemoryFootprint()
+					+ ", tiled " + tiled + " resident of " + (packed.getAmountOfColumns() + 255) / 256 * ((packed.getAmountOfRows() + 255) / 256) * 8192L
+					+ " mapped; selected " + TerrainBackend.select(packed));
+			for (Terrain terrain : new Terrain[] { packed, intervals }) {
+				Random random = new Random(18);
+				long count = 0;
+				long start = System.nanoTime();
+				for (int i = 0; i < 1000000; i++) {
+					int row = random.nextInt(terrain.getAmountOfRows());
+					int from = random.nextInt(terrain.getAmountOfColumns());
+					count += terrain.countImpassableInRow(row, from, Math.min(terrain.getAmountOfColumns(), from + random.nextInt(64)));
+				}
+				System.out.println("  " + TerrainBackend.of(terrain) + ": " + (System.nanoTime() - start) / 1e6 + " (" + count + ")");
+			}
+		}
+	}
+
+	private static void benchmarkDetailLevels() {
+		System.out.println("== large disks: coarsest level of detail within a tenth of the radius, against the exact pyramid (us per query) ==");
+		for (String name : new String[] { "Simple", "Skulls" }) {
+			Level level = new Level(new java.io.File("levels/" + name + ".lvl"));
+			level.load();
+			World world = new World(level.getWorldWidth(), level.getWorldHeight(), level.getPassableTerrain(), new Random(0));
+			TerrainPyramid pyramid = world.getTerrainPyramid();
+			long start = System.nanoTime();
+			TerrainDetailPyramid detail = world.getDetailPyramid();
+			long built = System.nanoTime() - start;
+			double pixel = world.getPixelMapping().getPixelWidth();
+			for (double pixels : new double[] { 32, 128, 512 }) {
+				double radius = pixels * pixel;
+				Position[] positions = randomPositions(world, new Random(3), 1024);
+				int exactMixed = 0, coarseMixed = 0;
+				start = System.nanoTime();
+				for (int i = 0; i < 10000; i++)
+					if (pyramid.getDiskOccupancy(positions[i & 1023].getX(), positions[i & 1023].getY(), radius) == Occupancy.MIXED)
+						exactMixed++;
+				long exact = System.nanoTime() - start;
+				start = System.nanoTime();
+				for (int i = 0; i < 10000; i++)
+					if (detail.getDiskOccupancy(positions[i & 1023].getX(), positions[i & 1023].getY(), radius, radius / 10) == Occupancy.MIXED)
+						coarseMixed++;
+				long coarse = System.nanoTime() - start;
+				int selected = detail.getLastSelectedLevel();
+				System.out.println(name + " disk of " + pixels + " pixels: pyramid " + (exact / 1e3 / 10000) + " (" + exactMixed
+						+ " mixed), LOD " + selected + " (error " + detail.getErrorBound(selected) + ") " + (coarse / 1e3 / 10000)
+						+ " (" + coarseMixed + " mixed)");
+			}
+			System.out.println(name + ": build " + (built / 1e6) + " ms, " + detail.getMemoryFootprint() + " bytes over "
+					+ detail.getAmountOfLevels() + " levels");
+		}
+	}
+
+	private static void benchmarkJumpSolvers() {
+		System.out.println("== jump landing time: fixed steps of 1e-4 s against the adaptive solver (us per jump) ==");
+		for (Level level : Level.getAvailableLevels()) {
+			level.load();
+			World world = new World(level.getWorldWidth(), level.getWorldHeight(), level.getPassableTerrain(), new Random(0));
+			Random random = new Random(4);
+			Worm[] worms = new Worm[20];
+			for (int i = 0; i < worms.length; i++) {
+				worms[i] = new Worm(world, 0, 0, random.nextDouble() * Math.PI, 0.25 + random.nextDouble() * 0.5, "Jumper");
+				world.addWorm(worms[i]);
+			}
+			double difference = 0;
+			long fixed = 0, adaptive = 0;
+			for (Worm worm : worms) {
+				long start = System.nanoTime();
+				double reference = worm.jumpTime(1e-4, JumpSolver.FIXED_STEP);
+				fixed += System.nanoTime() - start;
+				start = System.nanoTime();
+				double time = worm.jumpTime(1e-4, JumpSolver.ADAPTIVE);
+				adaptive += System.nanoTime() - start;
+				difference = Math.max(difference, Math.abs(reference - time));
+			}
+			System.out.println(level.getName() + ": fixed " + (fixed / 1e3 / worms.length) + ", adaptive " + (adaptive / 1e3 / worms.length)
+					+ " (largest difference " + difference + " s)");
+		}
+	}
+
+	private static void benchmarkProjectileSweep() {
+		System.out.println("== rifle rounds: swept circle against fixed steps of 1e-4 s (us per shot) ==");
+		for (Level level : Level.getAvailableLevels()) {
+			level.load();
+			World world = new World(level.getWorldWidth(), level.getWorldHeight(), level.getPassableTerrain(), new Random(0));
+			Random random = new Random(5);
+			for (int i = 0; i < 20; i++)
+				world.addWorm(new Worm(world, 0, 0, 0, 0.25 + random.nextDouble() * 0.5, "Target"));
+			double radius = new RifleProjectile(0, 0, new Position(0, 0), ProjectileConstants.RIFLE_PROJECTILE_FORCE, world).getRadius();
+			double speed = ProjectileConstants.RIFLE_PROJECTILE_FORCE / ProjectileConstants.RIFLE_PROJECTILE_MASS
+					* ProjectileConstants.TIME_OF_EXERTING_PROJECTILE_FORCE;
+			Worm[] shooters = world.getAllWorms().toArray(new Worm[0]);
+			CollisionSweep sweep = new CollisionSweep(world);
+			long swept = 0, stepped = 0, steps = 0, candidates = 0;
+			int shots = 1000, wormHits = 0, missedByStepping = 0;
+			for (int i = 0; i < shots; i++) {
+				Position start = shooters[i % shooters.length].getPosition();
+				double angle = random.nextDouble() * 2 * Math.PI;
+				double vx = speed * Math.cos(angle), vy = speed * Math.sin(angle);
+				long begin = System.nanoTime();
+				Impact impact = sweep.sweep(start, vx, vy, radius);
+				swept += System.nanoTime() - begin;
+				steps += sweep.getLastAmountOfSteps();
+				candidates += sweep.getLastAmountOfCandidates();
+				begin = System.nanoTime();
+				Worm stepHit = getFirstWormHitByStepping(world, start, vx, vy, radius, 1e-4);
+				stepped += System.nanoTime() - begin;
+				if (impact.getKind() == ImpactKind.WORM) {
+					wormHits++;
+					if (stepHit != impact.getWorm())
+						missedByStepping++;
+				}
+			}
+			System.out.println(level.getName() + ": sweep " + (swept / 1e3 / shots) + " (" + (double) steps / shots + " steps, "
+					+ (double) candidates / shots + " of " + shooters.length + " worms), stepping " + (stepped / 1e3 / shots)
+					+ "; " + wormHits + " worm hits, " + missedByStepping + " missed by stepping");
+		}
+	}
+
+	// The worm a round hits when it is moved in fixed steps, or null if it hits the terrain or leaves the world first.
+	private static Worm getFirstWormHitByStepping(World world, Position start, double vx, double vy, double radius, double timeStep) {
+		double g = WorldConstants.GRAVITATIONAL_CONSTANT;
+		for (double t = 0; ; t += timeStep) {
+			Position position = new Position(start.getX() + vx * t, start.getY() + vy * t - g * t * t / 2);
+			if (!world.isInMap(position, radius) || world.getDistanceField().compareDistanceToImpassable(position.getX(), position.getY(), radius) <= 0)
+				return null;
+			for (Worm worm : world.getAllWorms())
+				if (worm.getPosition().getDistanceFrom(start) >= worm.getRadius() + radius
+						&& position.getDistanceFrom(worm.getPosition()) <= worm.getRadius() + radius)
+					return worm;
+		}
+	}
+
+	private static void benchmarkFalls() {
+		System.out.println("== falls: column surface index against steps of a hundredth of the radius (us per fall) ==");
+		for (Level level : Level.getAvailableLevels()) {
+			level.load();
+			World world = new World(level.getWorldWidth(), level.getWorldHeight(), level.getPassableTerrain(), new Random(0));
+			long start = System.nanoTime();
+			world.getColumnSurfaceIndex();
+			long built = System.nanoTime() - start;
+			Random random = new Random(25);
+			long indexed = 0, stepped = 0;
+			double difference = 0, fallen = 0;
+			int falls = 0;
+			while (falls < 1000) {
+				Position position = new Position(random.nextDouble() * world.getWidth(), random.nextDouble() * world.getHeight());
+				double radius = 0.25 + random.nextDouble() * 0.5;
+				if (!world.canFall(position, radius))
+					continue;
+				start = System.nanoTime();
+				double distance = world.getFallDistance(position, radius);
+				indexed += System.nanoTime() - start;
+				start = System.nanoTime();
+				double steps = getFallDistanceByStepping(world, position, radius, radius / 100);
+				stepped += System.nanoTime() - start;
+				difference = Math.max(difference, Math.abs(steps - distance));
+				fallen += distance;
+				falls++;
+			}
+			System.out.println(level.getName() + ": built in " + (built / 1e6) + " ms, index " + (indexed / 1e3 / falls) + ", stepping "
+					+ (stepped / 1e3 / falls) + " (" + (fallen / falls) + " m per fall, largest difference " + difference + " m)");
+		}
+	}
+
+	// The distance a worm falls when it is moved down in fixed steps for as long as the next step is clear of impassable terrain.
+	private static double getFallDistanceByStepping(World world, Position start, double radius, double step) {
+		double y = start.getY();
+		while (world.getDistanceField().compareDistanceToImpassable(start.getX(), y - step, radius) > 0)
+			y -= step;
+		return start.getY() - y;
+	}
+
+	// Every row of the disk scanned in the terrain, as World did before the pyramid.
+	private static Occupancy getDiskOccupancyByScanning(World world, Position position, double radius) {
+		PixelMapping mapping = world.getPixelMapping();
+		Terrain terrain = world.getTerrain();
+		boolean free = false, solid = false;
+		int rows = terrain.getAmountOfRows();
+		int fromRow = Math.max(0, rows - 1 - (int) Math.floor((position.getY() + radius) / mapping.getPixelHeight()));
+		int toRow = Math.min(rows - 1, rows - 1 - (int) Math.floor((position.getY() - radius) / mapping.getPixelHeight()));
+		for (int row = fromRow; row <= toRow && !(free && solid); row++) {
+			double gap = mapping.getVerticalGap(position.getY(), row);
+			if (gap > radius)
+				continue;
+			double reach = Math.sqrt(radius * radius - gap * gap);
+			int fromColumn = Math.max(0, (int) Math.floor((position.getX() - reach) / mapping.getPixelWidth()));
+			int toColumn = Math.min(terrain.getAmountOfColumns(), (int) Math.floor((position.getX() + reach) / mapping.getPixelWidth()) + 1);
+			int impassable = terrain.countImpassableInRow(row, fromColumn, toColumn);
+			solid |= impassable > 0;
+			free |= impassable < toColumn - fromColumn;
+		}
+		return (free && solid) ? Occupancy.MIXED : (free ? Occupancy.PASSABLE : Occupancy.IMPASSABLE);
+	}
+
+	// The segment stepped a quarter of a pixel at a time.
+	private static double getFirstImpassableByStepping(World world, Position from, Position to) {
+		PixelMapping mapping = world.getPixelMapping();
+		double length = Math.hypot(to.getX() - from.getX(), to.getY() - from.getY());
+		int steps = (int) Math.ceil(4 * length / Math.min(mapping.getPixelWidth(), mapping.getPixelHeight()));
+		for (int step = 0; step <= steps; step++) {
+			double t = step / (double) Math.max(1, steps);
+			int column = (int) ((from.getX() + t * (to.getX() - from.getX())) / mapping.getPixelWidth());
+			int row = mapping.getAmountOfRows() - 1 - (int) ((from.getY() + t * (to.getY() - from.getY())) / mapping.getPixelHeight());
+			if (column < mapping.getAmountOfColumns() && row >= 0 && !world.getTerrain().isPassable(column, row))
+				return t;
+		}
+		return -1;
+	}
+
+	// The polar sampling World used before the distance field was introduced.
+	private static boolean isAdjacentBySampling(World world, Position position, double radius) {
+		if (!world.isPassablePosition(position))
+			return false;
+		for (double angle = 0.; angle <= 2 * Math.PI; angle += (Math.PI / 90))
+			for (double distance = radius; distance <= 1.1 * radius; distance += (0.1 * radius) / 10)
+				if (!world.isPassablePosition(new Position(distance * Math.cos(angle) + position.getX(),
+						distance * Math.sin(angle) + position.getY())))
+					return true;
+		return false;
+	}
+
+	private static Position[] randomPositions(World world, Random random, int amount) {
+		Position[] positions = new Position[amount];
+		for (int i = 0; i < amount; i++)
+			positions[i] = new Position(random.nextDouble() * world.getWidth(), random.nextDouble() * world.getHeight());
+		return positions;
+	}
+
+}
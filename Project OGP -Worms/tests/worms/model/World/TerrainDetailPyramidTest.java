@@ -0,0 +1,119 @@
+package worms.model.World;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import worms.model.Position;
+
+public class TerrainDetailPyramidTest {
+
+	private Random random;
+
+	private PackedTerrain terrain;
+
+	private PixelMapping mapping;
+
+	private TerrainDetailPyramid pyramid;
+
+	@Before
+	public void setup() {
+		random = new Random(1919);
+		// An uneven landmass with caves, so that every level of detail has solid, free and mixed blocks.
+		boolean[][] passableMap = new boolean[300][413];
+		for (int row = 0; row < passableMap.length; row++)
+			for (int column = 0; column < passableMap[row].length; column++)
+				passableMap[row][column] = row < 150 + 40 * Math.sin(column / 30.0)
+						|| Math.hypot(column - 200, row - 240) < 30 || random.nextInt(50) == 0;
+		terrain = new PackedTerrain(passableMap);
+		mapping = new PixelMapping(41.3, 30, 413, 300);
+		pyramid = new TerrainDetailPyramid(terrain, mapping);
+	}
+
+	private void assertReductions(TerrainDetailPyramid pyramid) {
+		for (int level = 1; level < pyramid.getAmountOfLevels(); level++) {
+			int size = 1 << level;
+			Terrain solid = pyramid.getSolidReduction(level);
+			Terrain free = pyramid.getFreeReduction(level);
+			for (int row = 0; row < solid.getAmountOfRows(); row++)
+				for (int column = 0; column < solid.getAmountOfColumns(); column++) {
+					boolean anySolid = false, anyFree = false;
+					for (int r = row * size; r < Math.min((row + 1) * size, terrain.getAmountOfRows()); r++) {
+						int from = column * size, to = Math.min((column + 1) * size, terrain.getAmountOfColumns());
+						anySolid |= terrain.hasImpassableInRow(r, from, to);
+						anyFree |= terrain.hasPassableInRow(r, from, to);
+					}
+					assertEquals(!anySolid, solid.isPassable(column, row));
+					assertEquals(anyFree, free.isPassable(column, row));
+				}
+		}
+	}
+
+	@Test
+	public void testReductions() {
+		assertEquals(7, pyramid.getAmountOfLevels());
+		assertSame(terrain, pyramid.getSolidReduction(0));
+		assertReductions(pyramid);
+		assertEquals(0, pyramid.selectLevel(0.1));
+		assertEquals(3, pyramid.selectLevel(pyramid.getErrorBound(3)));
+		assertEquals(6, pyramid.selectLevel(1000));
+	}
+
+	@Test
+	public void testUpdateAfterEdits() {
+		TerrainDetailPyramid copy = new TerrainDetailPyramid(pyramid, new PackedTerrain(terrain));
+		for (int i = 0; i < 300; i++) {
+			int row = random.nextInt(300);
+			int from = random.nextInt(413);
+			int to = Math.min(413, from + random.nextInt(80));
+			terrain.setPassableInRow(row, from, to, random.nextBoolean());
+			pyramid.update(from, row, to, row + 1);
+		}
+		assertReductions(pyramid);
+		// The copy has its own reductions, which did not follow the edits.
+		assertEquals(7, copy.getAmountOfLevels());
+		assertNotSame(pyramid.getSolidReduction(1), copy.getSolidReduction(1));
+	}
+
+	@Test
+	public void testDiskOccupancyIsConservative() {
+		TerrainPyramid exact = new TerrainPyramid(terrain, mapping);
+		for (int i = 0; i < 2000; i++) {
+			double x = random.nextDouble() * 41.3, y = random.nextDouble() * 30;
+			double radius = 0.05 + random.nextDouble() * 8;
+			Occupancy expected = exact.getDiskOccupancy(x, y, radius);
+			Occupancy coarse = pyramid.getDiskOccupancy(x, y, radius, radius * 0.2);
+			if (coarse != Occupancy.MIXED)
+				assertEquals(expected, coarse);
+			else if (pyramid.getLastSelectedLevel() == 0)
+				assertEquals(expected, Occupancy.MIXED);
+		}
+		long mixed = 0, queries = 0;
+		for (int level = 0; level < pyramid.getAmountOfLevels(); level++) {
+			mixed += pyramid.getAmountOfMixedQueries(level);
+			queries += pyramid.getAmountOfQueries(level);
+		}
+		assertEquals(2000, queries);
+		assertTrue(mixed < queries);
+	}
+
+	@Test
+	public void testWorldDiskOccupancyAfterCarving() {
+		World world = new World(41.3, 30, new PackedTerrain(terrain), new Random(1));
+		for (int i = 0; i < 1000; i++) {
+			Position position = new Position(random.nextDouble() * 41.3, random.nextDouble() * 30);
+			double radius = 0.05 + random.nextDouble() * 8;
+			if (i % 100 == 0)
+				world.carveDisk(position, radius / 2);
+			Occupancy expected = world.getDiskOccupancy(position, radius);
+			Occupancy coarse = world.getDiskOccupancy(position, radius, radius / 10);
+			if (coarse != Occupancy.MIXED)
+				assertEquals(expected, coarse);
+			assertEquals(expected, world.getDiskOccupancy(position, radius, 0));
+		}
+	}
+
+}
@@ -0,0 +1,139 @@
+package worms.model.World;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import worms.model.Position;
+
+public class TerrainEditTest {
+
+	private Random random;
+
+	private World world;
+
+	@Before
+	public void setup() {
+		random = new Random(2718);
+		boolean[][] passableMap = new boolean[120][150];
+		for (int row = 0; row < passableMap.length; row++)
+			for (int column = 0; column < passableMap[row].length; column++)
+				passableMap[row][column] = (row < 80 || Math.hypot(column - 75, row - 80) < 30) && random.nextInt(200) != 0;
+		world = new World(15.0, 12.0, passableMap, random);
+	}
+
+	private void editAtRandom(int amount) {
+		for (int i = 0; i < amount; i++) {
+			Position position = new Position(random.nextDouble() * 15.0, random.nextDouble() * 12.0);
+			double radius = 0.2 + random.nextDouble() * 1.5;
+			if (random.nextInt(3) == 0)
+				world.fillDisk(position, radius);
+			else
+				world.carveDisk(position, radius);
+		}
+	}
+
+	@Test
+	public void testCarveDisk() {
+		Position centre = new Position(7.3, 3.1);
+		world.takeDirtyRegions();
+		world.carveDisk(centre, 1.2);
+		PixelMapping mapping = world.getPixelMapping();
+		List<TerrainRegion> regions = world.takeDirtyRegions();
+		assertEquals(1, regions.size());
+		TerrainRegion region = regions.get(0);
+		for (int row = 0; row < 120; row++)
+			for (int column = 0; column < 150; column++) {
+				boolean inside = Math.hypot(mapping.getCentreX(column) - 7.3, mapping.getCentreY(row) - 3.1) <= 1.2;
+				if (inside) {
+					assertTrue(world.isPassablePixel(column, row));
+					assertTrue(region.getFromColumn() <= column && column < region.getToColumn());
+					assertTrue(region.getFromRow() <= row && row < region.getToRow());
+				}
+			}
+		assertTrue(world.takeDirtyRegions().isEmpty());
+	}
+
+	@Test
+	public void testIndexesAfterEdits() {
+		world.getOccupancyIndex();
+		world.getTerrainPyramid();
+		world.getPlacementIndex().getAmountOfPositions(0.5);
+		editAtRandom(40);
+		DistanceField fresh = new DistanceField(world.getTerrain(), world.getPixelMapping());
+		for (int row = 0; row < 120; row++)
+			for (int column = 0; column < 150; column++) {
+				assertEquals(fresh.getDistanceToImpassable(column, row),
+						world.getDistanceField().getDistanceToImpassable(column, row), 1e-5);
+				assertEquals(fresh.getDistanceToPassable(column, row),
+						world.getDistanceField().getDistanceToPassable(column, row), 1e-5);
+			}
+		SummedAreaTable table = new SummedAreaTable(world.getTerrain());
+		TerrainPyramid pyramid = new TerrainPyramid(world.getTerrain(), world.getPixelMapping());
+		for (int i = 0; i < 200; i++) {
+			int fromColumn = random.nextInt(151), toColumn = fromColumn + random.nextInt(151 - fromColumn);
+			int fromRow = random.nextInt(121), toRow = fromRow + random.nextInt(121 - fromRow);
+			assertEquals(table.countImpassable(fromColumn, fromRow, toColumn, toRow),
+					world.getOccupancyIndex().countImpassable(fromColumn, fromRow, toColumn, toRow));
+			assertEquals(pyramid.getBoxOccupancy(fromColumn, fromRow, toColumn, toRow),
+					world.getTerrainPyramid().getBoxOccupancy(fromColumn, fromRow, toColumn, toRow));
+		}
+		assertEquals(new PlacementIndex(fresh).getAmountOfPositions(0.5), world.getPlacementIndex().getAmountOfPositions(0.5));
+	}
+
+	@Test
+	public void testTiledTableAfterEdits() {
+		boolean[][] passableMap = new boolean[200][300];
+		for (int row = 0; row < passableMap.length; row++)
+			for (int column = 0; column < passableMap[row].length; column++)
+				passableMap[row][column] = random.nextInt(4) != 0;
+		PackedTerrain terrain = new PackedTerrain(passableMap);
+		TiledOccupancyTable tiled = new TiledOccupancyTable(terrain, 64);
+		for (int i = 0; i < 30; i++) {
+			int row = random.nextInt(200), fromColumn = random.nextInt(300), toColumn = fromColumn + random.nextInt(301 - fromColumn);
+			terrain.setPassableInRow(row, fromColumn, toColumn, random.nextBoolean());
+			tiled.update(fromColumn, row, toColumn, row + 1);
+		}
+		SummedAreaTable table = new SummedAreaTable(terrain);
+		for (int i = 0; i < 200; i++) {
+			int fromColumn = random.nextInt(301), toColumn = fromColumn + random.nextInt(301 - fromColumn);
+			int fromRow = random.nextInt(201), toRow = fromRow + random.nextInt(201 - fromRow);
+			assertEquals(table.countImpassable(fromColumn, fromRow, toColumn, toRow),
+					tiled.countImpassable(fromColumn, fromRow, toColumn, toRow));
+		}
+	}
+
+	@Test
+	public void testApplyTerrainChangesKeepsCraters() {
+		PackedTerrain before = new PackedTerrain((PackedTerrain) world.getTerrain());
+		world.carveDisk(new Position(3.0, 9.0), 1.0);
+		PackedTerrain after = new PackedTerrain(before);
+		after.setPassableInRow(60, 100, 140, false);
+		after.setPassableInRow(20, 10, 50, false);
+		PackedTerrain expected = new PackedTerrain((PackedTerrain) world.getTerrain());
+		expected.setPassableInRow(60, 100, 140, false);
+		expected.setPassableInRow(20, 10, 50, false);
+		world.getTerrainPyramid();
+		world.takeDirtyRegions();
+		world.applyTerrainChanges(before, after);
+		for (int row = 0; row < 120; row++)
+			for (int column = 0; column < 150; column++)
+				assertEquals(expected.isPassable(column, row), world.isPassablePixel(column, row));
+		List<TerrainRegion> regions = world.takeDirtyRegions();
+		assertEquals(1, regions.size());
+		assertEquals(20, regions.get(0).getFromRow());
+		assertEquals(61, regions.get(0).getToRow());
+		TerrainPyramid pyramid = new TerrainPyramid(world.getTerrain(), world.getPixelMapping());
+		assertEquals(pyramid.getBoxOccupancy(0, 15, 150, 25), world.getTerrainPyramid().getBoxOccupancy(0, 15, 150, 25));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testCarveDiskNegativeRadius() {
+		world.carveDisk(new Position(1.0, 1.0), -1.0);
+	}
+
+}
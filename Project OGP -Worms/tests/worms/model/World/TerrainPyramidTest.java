@@ -0,0 +1,111 @@
+package worms.model.World;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class TerrainPyramidTest {
+
+	private Random random;
+
+	private boolean[][] passableMap;
+
+	private PixelMapping mapping;
+
+	private TerrainPyramid pyramid;
+
+	@Before
+	public void setup() {
+		random = new Random(1701);
+		passableMap = new boolean[150][211];
+		for (int row = 0; row < passableMap.length; row++)
+			for (int column = 0; column < passableMap[row].length; column++)
+				passableMap[row][column] = Math.hypot(column - 100, row - 60) > 40 && row < 120 && random.nextInt(300) != 0;
+		mapping = new PixelMapping(21.1, 30.0, 211, 150);
+		pyramid = new TerrainPyramid(new PackedTerrain(passableMap), mapping);
+	}
+
+	private Occupancy expected(boolean free, boolean solid) {
+		if (free && solid)
+			return Occupancy.MIXED;
+		if (free)
+			return Occupancy.PASSABLE;
+		return solid ? Occupancy.IMPASSABLE : null;
+	}
+
+	@Test
+	public void testAnnulusOccupancy() {
+		for (int i = 0; i < 300; i++) {
+			double x = random.nextDouble() * 21.1, y = random.nextDouble() * 30.0;
+			double outer = random.nextDouble() * 8;
+			double inner = (i % 2 == 0) ? 0 : random.nextDouble() * outer;
+			boolean free = false, solid = false;
+			for (int row = 0; row < 150; row++)
+				for (int column = 0; column < 211; column++) {
+					double nearX = mapping.getHorizontalGap(x, column), nearY = mapping.getVerticalGap(y, row);
+					double farX = Math.max(Math.abs(x - column * 0.1), Math.abs(x - (column + 1) * 0.1));
+					double farY = Math.max(Math.abs(y - mapping.getBottomY(row)), Math.abs(y - mapping.getTopY(row)));
+					if (Math.hypot(nearX, nearY) <= outer && Math.hypot(farX, farY) >= inner) {
+						if (passableMap[row][column])
+							free = true;
+						else
+							solid = true;
+					}
+				}
+			assertEquals(expected(free, solid), pyramid.getAnnulusOccupancy(x, y, inner, outer));
+		}
+	}
+
+	@Test
+	public void testBoxOccupancy() {
+		for (int i = 0; i < 300; i++) {
+			int fromColumn = random.nextInt(212), toColumn = fromColumn + random.nextInt(212 - fromColumn);
+			int fromRow = random.nextInt(151), toRow = fromRow + random.nextInt(151 - fromRow);
+			boolean free = false, solid = false;
+			for (int row = fromRow; row < toRow; row++)
+				for (int column = fromColumn; column < toColumn; column++)
+					if (passableMap[row][column])
+						free = true;
+					else
+						solid = true;
+			assertEquals(expected(free, solid), pyramid.getBoxOccupancy(fromColumn, fromRow, toColumn, toRow));
+		}
+	}
+
+	@Test
+	public void testFirstImpassable() {
+		for (int i = 0; i < 200; i++) {
+			double fromX = random.nextDouble() * 21.1, fromY = random.nextDouble() * 30.0;
+			double toX = random.nextDouble() * 21.1, toY = random.nextDouble() * 30.0;
+			double first = -1;
+			for (int step = 0; step <= 20000 && first < 0; step++) {
+				double t = step / 20000.;
+				int column = (int) Math.floor((fromX + t * (toX - fromX)) / 0.1);
+				int row = 149 - (int) Math.floor((fromY + t * (toY - fromY)) / 0.2);
+				if (column < 211 && row >= 0 && !passableMap[row][column])
+					first = t;
+			}
+			double hit = pyramid.getFirstImpassable(fromX, fromY, toX, toY);
+			if (first < 0)
+				assertTrue(hit < 0 || hit > 0.9999);
+			else
+				assertEquals(first, hit, 1e-4);
+		}
+	}
+
+	@Test
+	public void testUpdate() {
+		long[] words = new long[PackedTerrain.getWordsPerRow(211) * 150];
+		pyramid = new TerrainPyramid(new PackedTerrain(211, 150, words), mapping);
+		assertEquals(Occupancy.PASSABLE, pyramid.getBoxOccupancy(0, 0, 211, 150));
+		words[70 * PackedTerrain.getWordsPerRow(211) + 2] |= 1L << 5;
+		pyramid.update(133, 70, 134, 71);
+		assertEquals(Occupancy.MIXED, pyramid.getBoxOccupancy(0, 0, 211, 150));
+		assertEquals(Occupancy.IMPASSABLE, pyramid.getBoxOccupancy(133, 70, 134, 71));
+		assertEquals(Occupancy.PASSABLE, pyramid.getBoxOccupancy(134, 70, 211, 150));
+	}
+
+}
@@ -0,0 +1,137 @@
+package worms.model.World;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import worms.model.Position;
+import worms.model.worm.Worm;
+
+public class TiledTerrainTest {
+
+	private Random random;
+
+	private PackedTerrain packed;
+
+	private TiledTerrain tiled;
+
+	private File file;
+
+	@Before
+	public void setup() throws IOException {
+		random = new Random(2561);
+		boolean[][] passableMap = new boolean[600][700];
+		for (int row = 0; row < passableMap.length; row++)
+			for (int column = 0; column < passableMap[row].length; column++)
+				passableMap[row][column] = random.nextInt(3) != 0;
+		packed = new PackedTerrain(passableMap);
+		file = File.createTempFile("terrain", ".tiles");
+		file.deleteOnExit();
+		// Far fewer resident tiles than the 9 tiles of the terrain.
+		tiled = TiledTerrain.create(file, packed, 2);
+	}
+
+	private void assertSameTerrain(Terrain expected, Terrain actual) {
+		assertEquals(expected.getAmountOfColumns(), actual.getAmountOfColumns());
+		assertEquals(expected.getAmountOfRows(), actual.getAmountOfRows());
+		for (int row = 0; row < expected.getAmountOfRows(); row++)
+			for (int column = 0; column < expected.getAmountOfColumns(); column++)
+				assertEquals(expected.isPassable(column, row), actual.isPassable(column, row));
+	}
+
+	@Test
+	public void testPixels() {
+		assertSameTerrain(packed, tiled);
+		assertTrue(tiled.getAmountOfResidentTiles() <= 2);
+	}
+
+	@Test
+	public void testRowSpansAcrossTiles() {
+		for (int i = 0; i < 5000; i++) {
+			int row = random.nextInt(600);
+			int from = random.nextInt(701);
+			int to = from + random.nextInt(701 - from);
+			boolean passable = random.nextBoolean();
+			assertEquals(packed.countImpassableInRow(row, from, to), tiled.countImpassableInRow(row, from, to));
+			assertEquals(packed.hasImpassableInRow(row, from, to), tiled.hasImpassableInRow(row, from, to));
+			assertEquals(packed.hasPassableInRow(row, from, to), tiled.hasPassableInRow(row, from, to));
+			assertEquals(packed.getFirstInRow(row, from, to, passable), tiled.getFirstInRow(row, from, to, passable));
+			assertEquals(packed.getLastInRow(row, from, to, passable), tiled.getLastInRow(row, from, to, passable));
+		}
+	}
+
+	@Test
+	public void testEditsSurviveEvictionAndReopening() throws IOException {
+		for (int i = 0; i < 2000; i++) {
+			int row = random.nextInt(600);
+			int from = random.nextInt(701);
+			int to = from + random.nextInt(701 - from);
+			boolean passable = random.nextBoolean();
+			packed.setPassableInRow(row, from, to, passable);
+			tiled.setPassableInRow(row, from, to, passable);
+		}
+		assertSameTerrain(packed, tiled);
+		tiled.close();
+		TiledTerrain reopened = TiledTerrain.open(file, 1);
+		assertSameTerrain(packed, reopened);
+		reopened.close();
+	}
+
+	@Test
+	public void testWorldWithoutDistanceField() throws IOException {
+		boolean[][] passableMap = new boolean[300][500];
+		for (int row = 0; row < passableMap.length; row++)
+			for (int column = 0; column < passableMap[row].length; column++)
+				passableMap[row][column] = row < 180 + 40 * Math.sin(column / 37.0) && random.nextInt(200) != 0;
+		PackedTerrain ground = new PackedTerrain(passableMap);
+		File groundFile = File.createTempFile("terrain", ".tiles");
+		try {
+			World reference = new World(25.0, 15.0, ground, random);
+			World world = new World(25.0, 15.0, TiledTerrain.create(groundFile, ground, 4), new Random(5));
+			assertFalse(world.keepsDistanceField());
+			assertNull(world.getDistanceField());
+			assertNull(world.getPlacementIndex());
+			for (int i = 0; i < 3000; i++) {
+				Position position = new Position(random.nextDouble() * 25.0, random.nextDouble() * 15.0);
+				double radius = 0.05 + random.nextDouble() * 1.5;
+				double x = position.getX(), y = position.getY();
+				double distance = reference.getDistanceToImpassable(x, y);
+				assertEquals(distance, world.getDistanceToImpassable(x, y), 1e-9);
+				assertTrue(world.getLowerBoundToImpassable(x, y) <= distance + 1e-9);
+				assertTrue(world.getUpperBoundToImpassable(x, y) >= distance - 1e-9);
+				assertEquals(reference.isPassable(position, radius), world.isPassable(position, radius));
+				assertEquals(reference.isImpassable(position, radius), world.isImpassable(position, radius));
+				assertEquals(reference.isAdjacentToImpassableTerrain(position, radius), world.isAdjacentToImpassableTerrain(position, radius));
+				assertEquals(reference.canFall(position, radius), world.canFall(position, radius));
+				assertEquals(reference.classify(position, radius), world.classify(position, radius));
+				for (World tested : new World[] { reference, world }) {
+					double along = random.nextDouble() * tested.getDistanceToAdjacency(position, radius);
+					double angle = random.nextDouble() * 2 * Math.PI;
+					Position near = new Position(x + along * Math.cos(angle), y + along * Math.sin(angle));
+					if (along > 0)
+						assertFalse(tested.isAdjacentToImpassableTerrain(near, radius));
+				}
+			}
+			for (int i = 0; i < 20; i++)
+				world.addWorm(new Worm(world, 1.0, 1.0, 0, 0.5, "Tiled"));
+			for (Worm worm : world.getAllWorms()) {
+				assertTrue(world.isAdjacentToImpassableTerrain(worm.getPosition(), 0.5));
+				for (Worm other : world.getAllWorms())
+					assertTrue(other == worm || other.getPosition().getDistanceFrom(worm.getPosition()) >= 1.0);
+			}
+		} finally {
+			groundFile.delete();
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNoCapacity() throws IOException {
+		TiledTerrain.create(file, 10, 10, 0);
+	}
+
+}
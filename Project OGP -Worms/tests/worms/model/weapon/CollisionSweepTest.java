@@ -0,0 +1,127 @@
+package worms.model.weapon;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import worms.model.Position;
+import worms.model.World.Occupancy;
+import worms.model.World.WorldConstants;
+import worms.model.World.World;
+import worms.model.worm.Worm;
+
+public class CollisionSweepTest {
+
+	private Random random;
+
+	private World world;
+
+	private CollisionSweep sweep;
+
+	@Before
+	public void setup() {
+		random = new Random(2323);
+		// A floor and a ceiling of 2.5 metres with a pillar in between.
+		boolean[][] passableMap = new boolean[150][200];
+		for (int row = 0; row < passableMap.length; row++)
+			for (int column = 0; column < passableMap[row].length; column++)
+				passableMap[row][column] = row >= 25 && row < 125 && Math.abs(column - 100) > 5;
+		world = new World(20, 15, passableMap, new Random(1));
+		// Pixel centres lie 0.45 from the floor and the ceiling, where worms of this radius stand.
+		for (int i = 0; i < 12; i++)
+			world.addWorm(new Worm(world, 0, 0, 0, 0.42, "Target"));
+		sweep = new CollisionSweep(world);
+	}
+
+	@Test
+	public void testRifleHitsWormExactly() {
+		double radius = new RifleProjectile(0, 0, new Position(0, 0), ProjectileConstants.RIFLE_PROJECTILE_FORCE, world).getRadius();
+		double speed = 75;
+		int hits = 0;
+		for (Worm target : world.getAllWorms()) {
+			// A rifle round fired level at the target from two metres away, towards the pillar.
+			double direction = (target.getX() < 10) ? 1 : -1;
+			Position start = new Position(target.getX() - 2 * direction, target.getY());
+			if (!world.isInMap(start, radius) || world.getDistanceField().getDistanceToImpassable(start.getX(), start.getY()) <= radius)
+				continue;
+			Impact impact = sweep.sweep(start, direction * speed, 0, radius);
+			assertEquals(ImpactKind.WORM, impact.getKind());
+			Worm hit = impact.getWorm();
+			double gap = impact.getPosition().getDistanceFrom(hit.getPosition()) - hit.getRadius() - radius;
+			assertTrue(gap >= 0 && gap <= ProjectileConstants.CONTACT_TOLERANCE);
+			if (hit == target) {
+				// The round drops less than a millimetre, so it hits where a straight shot would.
+				assertEquals((2 - target.getRadius() - radius) / speed, impact.getTime(), 1e-5);
+				hits++;
+			}
+		}
+		assertTrue(hits > 0);
+	}
+
+	@Test
+	public void testSweepNeverPassesFirstContact() {
+		double g = WorldConstants.GRAVITATIONAL_CONSTANT;
+		for (int i = 0; i < 200; i++) {
+			Position start = new Position(1 + random.nextDouble() * 8, 6 + random.nextDouble() * 3);
+			double angle = random.nextDouble() * 2 * Math.PI;
+			double speed = 5 + random.nextDouble() * 70;
+			double vx = speed * Math.cos(angle), vy = speed * Math.sin(angle);
+			double radius = 0.005 + random.nextDouble() * 0.1;
+			Impact impact = sweep.sweep(start, vx, vy, radius);
+			// Every sample before the impact is clear of terrain, worms and the edge.
+			for (double t = 0; t < impact.getTime(); t += impact.getTime() / 500) {
+				double x = start.getX() + vx * t, y = start.getY() + vy * t - g * t * t / 2;
+				assertTrue(world.getDistanceField().getDistanceToImpassable(x, y) > radius);
+				for (Worm worm : world.getAllWorms())
+					if (worm.getPosition().getDistanceFrom(start) >= worm.getRadius() + radius)
+						assertTrue(Math.hypot(x - worm.getX(), y - worm.getY()) > worm.getRadius() + radius);
+			}
+			assertTrue(sweep.getLastAmountOfCandidates() <= world.getAllWorms().size());
+		}
+	}
+
+	@Test
+	public void testProjectileFlightEnds() {
+		Projectile projectile = new RifleProjectile(0, -Math.PI / 4, new Position(3, 7.5), ProjectileConstants.RIFLE_PROJECTILE_FORCE, world);
+		double time = projectile.jumpTime(1e-4);
+		assertTrue(time > 0 && time < 1);
+		projectile.jump(1e-4);
+		assertEquals(projectile.getImpact().getTime(), 0, 1e-9);
+		assertTrue(projectile.isTerminated());
+	}
+
+	@Test
+	public void testFlightSweptOnce() {
+		Worm worm = new Worm(world, 0, 0, Math.PI / 4, 0.42, "Shooter");
+		world.addWorm(worm);
+		Projectile projectile = worm.shoot(100);
+		Impact impact = projectile.getImpact();
+		assertEquals(impact.getTime(), projectile.jumpTime(1e-4), 0);
+		assertSame(impact, projectile.getImpact());
+		projectile.jump(1e-4);
+		assertEquals(impact.getPosition().getX(), projectile.getPosition().getX(), 0);
+		assertNotSame(impact, projectile.getImpact());
+	}
+
+	@Test
+	public void testBazookaShotDigsCrater() {
+		Worm worm = new Worm(world, 0, 0, -Math.PI / 2, 0.42, "Shooter");
+		world.addWorm(worm);
+		worm.selectNextWeapon();
+		assertEquals("Bazooka", worm.getCurrentWeaponName());
+		int actionPoints = worm.getCurrentActionPoints();
+		Projectile projectile = worm.shoot(50);
+		assertSame(projectile, world.getActiveProjectile());
+		assertFalse(worm.canShoot(50));
+		assertEquals(actionPoints - ProjectileConstants.BAZOOKA_PROJECTILE_ACTIONPOINTS_COST, worm.getCurrentActionPoints());
+		Position impact = projectile.getImpact().getPosition();
+		projectile.jump(1e-4);
+		assertNull(world.getActiveProjectile());
+		assertEquals(impact.getY(), projectile.getPosition().getY(), 0);
+		assertEquals(Occupancy.PASSABLE, world.getDiskOccupancy(impact, 0.9 * ProjectileConstants.BAZOOKA_CRATER_RADIUS));
+	}
+
+}
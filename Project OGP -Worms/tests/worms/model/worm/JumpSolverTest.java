@@ -0,0 +1,46 @@
+package worms.model.worm;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import worms.gui.Level;
+import worms.model.Position;
+import worms.model.World.World;
+
+public class JumpSolverTest {
+
+	private static final double TIME_STEP = 1e-4;
+
+	private Random random;
+
+	@Before
+	public void setup() {
+		random = new Random(2121);
+	}
+
+	@Test
+	public void testAdaptiveAgreesWithFixedStepOnAllLevels() {
+		int levels = 0;
+		for (Level level : Level.getAvailableLevels()) {
+			level.load();
+			World world = new World(level.getWorldWidth(), level.getWorldHeight(), level.getPassableTerrain(), new Random(0));
+			for (int i = 0; i < 10; i++) {
+				Worm worm = new Worm(world, 0, 0, random.nextDouble() * Math.PI, 0.25 + random.nextDouble() * 0.5, "Jumper");
+				world.addWorm(worm);
+				double reference = worm.jumpTime(TIME_STEP, JumpSolver.FIXED_STEP);
+				double adaptive = worm.jumpTime(TIME_STEP, JumpSolver.ADAPTIVE);
+				// The reference lands at the first step at or after the first landing time.
+				assertEquals(level.getName(), reference, adaptive, TIME_STEP + WormConstants.JUMP_TIME_TOLERANCE);
+				Position landing = worm.jumpStep(adaptive);
+				assertTrue(worm.canLandAt(landing) || !world.isInMap(landing, worm.getRadius()));
+			}
+			levels++;
+		}
+		assertTrue(levels > 0);
+	}
+
+}
@@ -0,0 +1,85 @@
+package worms.model.worm;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import worms.model.Position;
+import worms.model.World.World;
+
+public class TrajectoryTest {
+
+	private static final double TIME_STEP = 1e-4;
+
+	private World world;
+
+	private Worm worm;
+
+	@Before
+	public void setup() {
+		// A flat floor in the lower third of the world.
+		boolean[][] passableMap = new boolean[90][120];
+		for (int row = 0; row < passableMap.length; row++)
+			for (int column = 0; column < passableMap[row].length; column++)
+				passableMap[row][column] = row < 60;
+		world = new World(12, 9, passableMap, new Random(7));
+		worm = new Worm(world, 0, 0, Math.PI / 4, 0.5, "Jumper");
+		world.addWorm(worm);
+	}
+
+	@Test
+	public void testSamplesFollowTheJump() {
+		Trajectory trajectory = worm.getTrajectory(TIME_STEP);
+		assertEquals(worm.jumpTime(TIME_STEP, JumpSolver.ADAPTIVE), trajectory.getLandingTime(), 0);
+		assertEquals(1 + (int) (trajectory.getLandingTime() / WormConstants.TRAJECTORY_SAMPLE_INTERVAL),
+				trajectory.getAmountOfSamples());
+		int last = trajectory.getAmountOfSamples() - 1;
+		assertEquals(trajectory.getLandingTime(), trajectory.getSampleTime(last), 1e-12);
+		for (int i = 0; i <= last; i++) {
+			Position position = worm.jumpStep(trajectory.getSampleTime(i));
+			assertEquals(position.getX(), trajectory.getSampleX(i), 0);
+			assertEquals(position.getY(), trajectory.getSampleY(i), 0);
+		}
+	}
+
+	@Test
+	public void testRepaintsHitTheCache() {
+		Trajectory trajectory = worm.getTrajectory(TIME_STEP);
+		for (int i = 0; i < 10; i++)
+			assertSame(trajectory, worm.getTrajectory(TIME_STEP));
+		assertEquals(trajectory.getLandingTime(), worm.jumpTime(TIME_STEP), 0);
+		assertEquals(1, worm.getAmountOfTrajectoryMisses());
+		assertEquals(11, worm.getAmountOfTrajectoryHits());
+		assertNotSame(trajectory, worm.getTrajectory(TIME_STEP / 2));
+	}
+
+	@Test
+	public void testChangesInvalidateTheCache() {
+		Trajectory trajectory = worm.getTrajectory(TIME_STEP);
+		worm.turn(0.1);
+		Trajectory turned = worm.getTrajectory(TIME_STEP);
+		assertNotSame(trajectory, turned);
+		worm.setX(worm.getX() + 0.01);
+		Trajectory moved = worm.getTrajectory(TIME_STEP);
+		assertNotSame(turned, moved);
+		world.carveDisk(new Position(6, 2), 0.5);
+		assertNotSame(moved, worm.getTrajectory(TIME_STEP));
+		assertEquals(4, worm.getAmountOfTrajectoryMisses());
+	}
+
+	@Test
+	public void testEquality() {
+		Trajectory trajectory = worm.getTrajectory(TIME_STEP);
+		Trajectory same = new Trajectory(worm, trajectory.getLandingTime(), TIME_STEP);
+		assertNotSame(trajectory, same);
+		assertEquals(trajectory, same);
+		assertEquals(trajectory.hashCode(), same.hashCode());
+		worm.turn(0.1);
+		assertFalse(trajectory.equals(worm.getTrajectory(TIME_STEP)));
+		assertFalse(trajectory.equals(new Trajectory(worm, trajectory.getLandingTime(), TIME_STEP)));
+	}
+
+}